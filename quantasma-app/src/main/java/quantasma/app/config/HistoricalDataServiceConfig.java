@@ -1,11 +1,57 @@
 package quantasma.app.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
 import quantasma.app.config.service.historical.MongoConfig;
+import quantasma.app.repository.BucketHistoricalDataRepository;
+import quantasma.app.repository.HistoricalDataRepository;
+import quantasma.app.repository.HistoricalDataRepositoryImpl;
+import quantasma.app.service.BarRangeCache;
+import quantasma.app.service.CachingHistoricalDataService;
+import quantasma.app.service.HistoricalDataService;
 
 @Configuration
 @Import(MongoConfig.class)
+@Slf4j
 public class HistoricalDataServiceConfig {
+    /**
+     * Qualifies the service reading and writing the configured storage, other beans get the cached one
+     */
+    public static final String STORAGE = "storage";
 
+    /**
+     * Both layouts stay available for a migration between them
+     */
+    @Bean
+    @Primary
+    public HistoricalDataRepository historicalDataRepository(@Value("${service.historical-data.layout}") String layout,
+                                                             HistoricalDataRepositoryImpl documentRepository,
+                                                             BucketHistoricalDataRepository bucketRepository) {
+        log.info("Using [{}] layout of historical data", layout);
+        switch (layout) {
+            case "document":
+                return documentRepository;
+            case "bucket":
+                return bucketRepository;
+            default:
+                throw new IllegalArgumentException(String.format("Unknown historical data layout [%s]", layout));
+        }
+    }
+
+    @Bean
+    public BarRangeCache barRangeCache(@Value("${service.historical-data.cache.max-bytes}") long maxBytes) {
+        log.info("Caching up to [{}] bytes of historical bars", maxBytes);
+        return new BarRangeCache(maxBytes);
+    }
+
+    @Bean
+    @Primary
+    public HistoricalDataService historicalDataService(@Qualifier(STORAGE) HistoricalDataService storageService, BarRangeCache barRangeCache) {
+        return new CachingHistoricalDataService(storageService, barRangeCache);
+    }
 }
@@ -2,6 +2,7 @@ package quantasma.app.config;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import quantasma.core.BarPeriod;
@@ -11,13 +12,17 @@ import quantasma.core.Context;
 import quantasma.core.InMemoryStrategyControl;
 import quantasma.core.MarketDataBuilder;
 import quantasma.core.OrderService;
+import quantasma.core.ShardedTradeEngine;
 import quantasma.core.StrategyControl;
 import quantasma.core.StructureDefinition;
 import quantasma.core.TradeEngine;
 import quantasma.core.timeseries.TimeSeriesDefinition;
 import quantasma.core.timeseries.bar.BidAskBarFactory;
 import quantasma.integrations.event.EventPublisher;
+import quantasma.integrations.event.OverflowPolicy;
 import quantasma.integrations.event.QuoteEventSubscriber;
+import quantasma.integrations.event.RingBufferEventPublisher;
+import quantasma.integrations.event.WaitStrategy;
 
 @Configuration
 @Slf4j
@@ -41,13 +46,46 @@ public class TradeEngineConfig {
     }
 
     @Bean
-    public TradeEngine tradeEngine(Context context) {
+    public TradeEngine tradeEngine(@Value("${service.trade-engine.sharded}") boolean isSharded, Context context) {
+        if (isSharded) {
+            log.info("Creating trade engine with a thread per symbol");
+            return ShardedTradeEngine.create(context);
+        }
         return BaseTradeEngine.create(context);
     }
 
+    @Bean
+    public EventPublisher eventPublisher(@Value("${service.event-publisher.type}") String type,
+                                        @Value("${service.event-publisher.journal-capacity}") int journalCapacity,
+                                        @Value("${service.event-publisher.ring-buffer.capacity}") int capacity,
+                                        @Value("${service.event-publisher.ring-buffer.wait-strategy}") WaitStrategy waitStrategy,
+                                        @Value("${service.event-publisher.ring-buffer.batch-size}") int batchSize,
+                                        @Value("${service.event-publisher.ring-buffer.overflow-policy}") OverflowPolicy overflowPolicy) {
+        log.info("Creating event publisher of type [{}]", type);
+        switch (type) {
+            case "submission":
+                return EventPublisher.instance(journalCapacity);
+            case "ring-buffer":
+                return RingBufferEventPublisher.builder()
+                                               .withCapacity(capacity)
+                                               .withWaitStrategy(waitStrategy)
+                                               .withBatchSize(batchSize)
+                                               .withOverflowPolicy(overflowPolicy)
+                                               .build();
+            default:
+                throw new IllegalArgumentException(String.format("Unknown event publisher type [%s]", type));
+        }
+    }
+
     @Autowired
     public void subscribeTradeEngine(EventPublisher eventPublisher, TradeEngine tradeEngine) {
         log.info("Subscribing trade engine to quotes");
-        eventPublisher.subscribe(new QuoteEventSubscriber(tradeEngine));
+        final QuoteEventSubscriber quoteEventSubscriber = new QuoteEventSubscriber(tradeEngine);
+        if (eventPublisher instanceof RingBufferEventPublisher) {
+            // trade engine must not miss quotes, other subscribers follow the configured policy
+            ((RingBufferEventPublisher) eventPublisher).subscribe(quoteEventSubscriber, OverflowPolicy.BLOCK);
+        } else {
+            eventPublisher.subscribe(quoteEventSubscriber);
+        }
     }
 }
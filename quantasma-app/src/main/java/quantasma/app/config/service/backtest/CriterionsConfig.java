@@ -4,10 +4,16 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.ta4j.core.AnalysisCriterion;
 import quantasma.core.analysis.criterion.AvgProfitLossCriterion;
+import quantasma.core.analysis.criterion.ExposureCriterion;
 import quantasma.core.analysis.criterion.FinishDepositCriterion;
+import quantasma.core.analysis.criterion.MaxDrawdownCriterion;
+import quantasma.core.analysis.criterion.ProfitFactorCriterion;
 import quantasma.core.analysis.criterion.ProfitLossCriterion;
 import quantasma.core.analysis.criterion.ProfitLossPipsCriterion;
+import quantasma.core.analysis.criterion.SharpeRatioCriterion;
+import quantasma.core.analysis.criterion.SortinoRatioCriterion;
 import quantasma.core.analysis.criterion.TradesCountCriterion;
+import quantasma.core.analysis.criterion.WinRateCriterion;
 
 @Configuration
 public class CriterionsConfig {
@@ -36,4 +42,34 @@ public class CriterionsConfig {
     public AnalysisCriterion tradesCount() {
         return new TradesCountCriterion();
     }
+
+    @Bean
+    public AnalysisCriterion maxDrawdown() {
+        return new MaxDrawdownCriterion();
+    }
+
+    @Bean
+    public AnalysisCriterion exposure() {
+        return new ExposureCriterion();
+    }
+
+    @Bean
+    public AnalysisCriterion sharpeRatio() {
+        return new SharpeRatioCriterion();
+    }
+
+    @Bean
+    public AnalysisCriterion sortinoRatio() {
+        return new SortinoRatioCriterion();
+    }
+
+    @Bean
+    public AnalysisCriterion winRate() {
+        return new WinRateCriterion();
+    }
+
+    @Bean
+    public AnalysisCriterion profitFactor() {
+        return new ProfitFactorCriterion();
+    }
 }
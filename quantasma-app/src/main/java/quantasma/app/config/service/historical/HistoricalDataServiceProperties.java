@@ -9,12 +9,22 @@ import org.springframework.stereotype.Component;
 public class HistoricalDataServiceProperties {
 
     private final String prefix;
+    private final int batchSize;
+    private final int insertChunkSize;
 
-    public HistoricalDataServiceProperties(@Value("${service.historical-data.prefix}") String prefix) {
+    public HistoricalDataServiceProperties(@Value("${service.historical-data.prefix}") String prefix,
+                                           @Value("${service.historical-data.batch-size}") int batchSize,
+                                           @Value("${service.historical-data.insert-chunk-size}") int insertChunkSize) {
         this.prefix = prefix;
+        this.batchSize = batchSize;
+        this.insertChunkSize = insertChunkSize;
     }
 
     public String collectionName() {
         return prefix + "_OHLCV";
     }
+
+    public String bucketCollectionName() {
+        return prefix + "_OHLCV_BUCKETS";
+    }
 }
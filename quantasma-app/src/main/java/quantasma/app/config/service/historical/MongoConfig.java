@@ -3,11 +3,17 @@ package quantasma.app.config.service.historical;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
 import org.springframework.data.mongodb.core.index.IndexDefinition;
 
+/**
+ * Not used with the "archive" profile, so the application starts without a running Mongo - the client connects lazily
+ * and only the "archive-transfer" profile uses it
+ */
 @Slf4j
+@Profile("!archive")
 public class MongoConfig {
 
     private final HistoricalDataServiceProperties properties;
@@ -19,6 +25,10 @@ public class MongoConfig {
 
     @Autowired
     public void ensureIndexes(MongoOperations mongoOperations) {
+        ensureIndexes(mongoOperations, properties);
+    }
+
+    public static void ensureIndexes(MongoOperations mongoOperations, HistoricalDataServiceProperties properties) {
         final Document doc = new Document()
                 .append("date", 1)
                 .append("symbol", 1)
@@ -26,6 +36,14 @@ public class MongoConfig {
         final IndexDefinition compoundIndexDefinition = new CompoundIndexDefinition(doc).unique();
         log.info("Ensuring [{}] index on the [{}] collection.", compoundIndexDefinition, properties.collectionName());
         mongoOperations.indexOps(properties.collectionName()).ensureIndex(compoundIndexDefinition);
+
+        final Document bucketDoc = new Document()
+                .append("symbol", 1)
+                .append("period", 1)
+                .append("day", 1);
+        final IndexDefinition bucketIndexDefinition = new CompoundIndexDefinition(bucketDoc).unique();
+        log.info("Ensuring [{}] index on the [{}] collection.", bucketIndexDefinition, properties.bucketCollectionName());
+        mongoOperations.indexOps(properties.bucketCollectionName()).ensureIndex(bucketIndexDefinition);
     }
 
 }
@@ -0,0 +1,34 @@
+package quantasma.app.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import quantasma.app.model.InsertSummary;
+import quantasma.app.service.BarArchiveTransfer;
+import quantasma.core.BarPeriod;
+
+@RestController
+@RequestMapping("api/historical/archive")
+@Profile("archive & archive-transfer")
+public class ArchiveController {
+
+    private final BarArchiveTransfer barArchiveTransfer;
+
+    @Autowired
+    public ArchiveController(BarArchiveTransfer barArchiveTransfer) {
+        this.barArchiveTransfer = barArchiveTransfer;
+    }
+
+    @PutMapping("import")
+    public InsertSummary importFromMongo(@RequestParam String symbol, @RequestParam BarPeriod period) {
+        return barArchiveTransfer.importFromMongo(symbol, period);
+    }
+
+    @PutMapping("export")
+    public InsertSummary exportToMongo(@RequestParam String symbol, @RequestParam BarPeriod period) {
+        return barArchiveTransfer.exportToMongo(symbol, period);
+    }
+}
@@ -1,23 +1,37 @@
 package quantasma.app.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import quantasma.app.event.BacktestJobEvent;
+import quantasma.app.event.BacktestResultEvent;
+import quantasma.app.event.SseEvent;
+import quantasma.app.model.BacktestJob;
 import quantasma.app.model.BacktestRequest;
 import quantasma.app.model.BacktestScenario;
 import quantasma.app.service.BacktestService;
+import quantasma.app.service.UnknownBacktestJobException;
 import quantasma.core.analysis.BacktestResult;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("api/backtest")
 public class BacktestController {
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
 
     private final BacktestService backtestService;
 
@@ -41,9 +55,63 @@ public class BacktestController {
         return backtestService.test(name, request);
     }
 
+    @PostMapping("{name}/jobs")
+    public BacktestJob submit(@PathVariable String name, @RequestBody BacktestRequest request) {
+        return backtestService.submit(name, request);
+    }
+
+    @GetMapping("jobs/{jobId}")
+    public BacktestJob job(@PathVariable String jobId) {
+        return backtestService.job(jobId);
+    }
+
+    @GetMapping("jobs/{jobId}/progress")
+    public Flux<ServerSentEvent<BacktestJob>> progress(@PathVariable String jobId) {
+        return backtestService.progress(jobId)
+                              .map(BacktestJobEvent::new)
+                              .map(SseEvent.buildSse());
+    }
+
+    @GetMapping("jobs/{jobId}/results")
+    public List<BacktestResult> results(@PathVariable String jobId) {
+        return backtestService.results(jobId);
+    }
+
+    /**
+     * Results are sent as soon as they are calculated, a reconnecting client receives only the ones after the {@code Last-Event-ID}
+     */
+    @GetMapping("jobs/{jobId}/results/stream")
+    public Flux<ServerSentEvent<BacktestResult>> finishedResults(@PathVariable String jobId,
+                                                                 @RequestHeader(name = LAST_EVENT_ID, required = false) String lastEventId) {
+        final int from = BacktestResultEvent.nextIndex(lastEventId);
+        return backtestService.finishedResults(jobId, from)
+                              .index((index, result) -> new BacktestResultEvent(from + index.intValue(), result))
+                              .map(SseEvent.buildSse());
+    }
+
+    @DeleteMapping("jobs/{jobId}")
+    public BacktestJob cancel(@PathVariable String jobId) {
+        return backtestService.cancel(jobId);
+    }
+
     @GetMapping("criterions")
     public Set<String> criterions() {
         return backtestService.criterions();
     }
 
+    /**
+     * Queue of jobs is full, the job can be submitted again once some of the queued ones start
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String rejected(RejectedExecutionException e) {
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(UnknownBacktestJobException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public String unknownJob(UnknownBacktestJobException e) {
+        return e.getMessage();
+    }
+
 }
@@ -3,6 +3,7 @@ package quantasma.app.controller;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import quantasma.app.event.SseEvent;
@@ -17,6 +18,10 @@ import java.util.List;
 @RestController
 @RequestMapping("api/events")
 public class EventsController {
+    /**
+     * Sent by a reconnecting client with id of the last received event, see {@link SseEvent#sse()}
+     */
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
 
     private final EventsService eventsService;
 
@@ -26,20 +31,20 @@ public class EventsController {
     }
 
     @GetMapping("quote")
-    public Flux<ServerSentEvent<Quote>> quote() {
-        return eventsService.quote()
-                            .map(SseEvent.buildSse());
+    public Flux<ServerSentEvent<Quote>> quote(@RequestHeader(name = LAST_EVENT_ID, required = false) String lastEventId) {
+        return (lastEventId == null ? eventsService.quote() : eventsService.quote(lastEventId))
+                .map(SseEvent.buildSse());
     }
 
     @GetMapping("accountState")
-    public Flux<ServerSentEvent<AccountState>> accountState() {
-        return eventsService.accountState()
-                            .map(SseEvent.buildSse());
+    public Flux<ServerSentEvent<AccountState>> accountState(@RequestHeader(name = LAST_EVENT_ID, required = false) String lastEventId) {
+        return (lastEventId == null ? eventsService.accountState() : eventsService.accountState(lastEventId))
+                .map(SseEvent.buildSse());
     }
 
     @GetMapping("openedPositions")
-    public Flux<ServerSentEvent<List<OpenedPosition>>> openedPositions() {
-        return eventsService.openedPositions()
-                            .map(SseEvent.buildSse());
+    public Flux<ServerSentEvent<List<OpenedPosition>>> openedPositions(@RequestHeader(name = LAST_EVENT_ID, required = false) String lastEventId) {
+        return (lastEventId == null ? eventsService.openedPositions() : eventsService.openedPositions(lastEventId))
+                .map(SseEvent.buildSse());
     }
 }
@@ -3,17 +3,21 @@ package quantasma.app.controller;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import quantasma.app.feature.data.historical.provider.HistoricalDataUpdater;
+import quantasma.app.model.BarCacheStats;
 import quantasma.app.model.FeedBarsSettings;
 import quantasma.app.model.FeedHistoricalBarsRequest;
 import quantasma.app.model.FeedHistoricalBarsResponse;
 import quantasma.app.model.HistoricalDataSummary;
 import quantasma.app.model.HistoricalDataSummaryResponse;
+import quantasma.app.model.InsertSummary;
+import quantasma.app.service.BarRangeCache;
 import quantasma.app.service.HistoricalDataService;
 
 import java.util.stream.Collectors;
@@ -25,14 +29,17 @@ public class HistoricalController {
 
     private final HistoricalDataService historicalDataService;
     private final HistoricalDataUpdater historicalDataUpdater;
+    private final BarRangeCache barRangeCache;
     private final boolean isHistoricServiceEnabled;
 
     @Autowired
     public HistoricalController(HistoricalDataService historicalDataService,
                                 HistoricalDataUpdater historicalDataUpdater,
+                                BarRangeCache barRangeCache,
                                 @Value("${service.historical-data.enabled}") boolean isHistoricServiceEnabled) {
         this.historicalDataService = historicalDataService;
         this.historicalDataUpdater = historicalDataUpdater;
+        this.barRangeCache = barRangeCache;
         this.isHistoricServiceEnabled = isHistoricServiceEnabled;
     }
 
@@ -43,6 +50,22 @@ public class HistoricalController {
                                                                       .collect(Collectors.groupingBy(HistoricalDataSummary::getSymbol)));
     }
 
+    @GetMapping("data/ingestion")
+    public InsertSummary ingestionSummary() {
+        return historicalDataService.ingestionSummary();
+    }
+
+    @GetMapping("data/cache")
+    public BarCacheStats cacheStats() {
+        return barRangeCache.stats();
+    }
+
+    @DeleteMapping("data/cache")
+    public BarCacheStats clearCache() {
+        barRangeCache.invalidateAll();
+        return barRangeCache.stats();
+    }
+
     @PutMapping("data/feed")
     public FeedHistoricalBarsResponse feedHistoricalBars(@RequestBody FeedHistoricalBarsRequest request) {
         if (!isHistoricServiceEnabled) {
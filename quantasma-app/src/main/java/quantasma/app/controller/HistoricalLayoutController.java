@@ -0,0 +1,38 @@
+package quantasma.app.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import quantasma.app.model.InsertSummary;
+import quantasma.app.model.LayoutStats;
+import quantasma.app.service.HistoricalDataMigration;
+import quantasma.core.BarPeriod;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("api/historical/layout")
+@Profile("!archive")
+public class HistoricalLayoutController {
+
+    private final HistoricalDataMigration historicalDataMigration;
+
+    @Autowired
+    public HistoricalLayoutController(HistoricalDataMigration historicalDataMigration) {
+        this.historicalDataMigration = historicalDataMigration;
+    }
+
+    @PutMapping("migrate")
+    public InsertSummary migrateToBuckets(@RequestParam String symbol, @RequestParam BarPeriod period) {
+        return historicalDataMigration.migrateToBuckets(symbol, period);
+    }
+
+    @GetMapping("comparison")
+    public List<LayoutStats> compare(@RequestParam String symbol, @RequestParam BarPeriod period) {
+        return historicalDataMigration.compare(symbol, period);
+    }
+}
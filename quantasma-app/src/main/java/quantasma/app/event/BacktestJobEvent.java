@@ -0,0 +1,32 @@
+package quantasma.app.event;
+
+import quantasma.app.model.BacktestJob;
+import quantasma.integrations.event.Event;
+
+public class BacktestJobEvent implements Event<BacktestJob> {
+    private static final String NAME = "backtest-job-event";
+
+    private final BacktestJob data;
+
+    public BacktestJobEvent(BacktestJob data) {
+        this.data = data;
+    }
+
+    /**
+     * Progress of a job only grows, so a later state has a different id
+     */
+    @Override
+    public String id() {
+        return data.getId() + "-" + data.getStatus() + "-" + data.getCompleted();
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public BacktestJob data() {
+        return data;
+    }
+}
@@ -0,0 +1,49 @@
+package quantasma.app.event;
+
+import quantasma.core.analysis.BacktestResult;
+import quantasma.integrations.event.Event;
+
+public class BacktestResultEvent implements Event<BacktestResult> {
+    private static final String NAME = "backtest-result-event";
+
+    private final int index;
+    private final BacktestResult data;
+
+    /**
+     * @param index position of the result in the order of completion
+     */
+    public BacktestResultEvent(int index, BacktestResult data) {
+        this.index = index;
+        this.data = data;
+    }
+
+    /**
+     * @return index of the result following the one of the given event id, 0 when there is no id
+     */
+    public static int nextIndex(String id) {
+        if (id == null || id.isEmpty()) {
+            return 0;
+        }
+        try {
+            final int index = Integer.parseInt(id);
+            return index < 0 ? 0 : index + 1;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public String id() {
+        return String.valueOf(index);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public BacktestResult data() {
+        return data;
+    }
+}
@@ -2,9 +2,14 @@ package quantasma.app.event;
 
 import quantasma.integrations.event.Event;
 import quantasma.integrations.event.EventPublisher;
+import quantasma.integrations.event.SequencedEvent;
 import reactor.adapter.JdkFlowAdapter;
 import reactor.core.publisher.Flux;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 public final class EventPublisherAdapter {
     private EventPublisherAdapter() {
     }
@@ -14,4 +19,71 @@ public final class EventPublisherAdapter {
         return (Flux<T>) JdkFlowAdapter.flowPublisherToFlux(eventPublisher)
                                        .filter(filterEvents::isInstance);
     }
+
+    /**
+     * Replays events published after the event of the given id which are still retained by the publisher, then continues with live events.<p>
+     * An id unknown to the publisher, eg. of another epoch sent by a client connected before a restart, is ignored
+     * and only live events are returned.
+     */
+    public static <T extends SequencedEvent<?>> Flux<T> toFlux(EventPublisher eventPublisher, Class<T> filterEvents, String lastEventId) {
+        return Flux.defer(() -> {
+            final long lastSequence = SequencedEvent.sequence(lastEventId, eventPublisher.epoch());
+            if (lastSequence == SequencedEvent.UNASSIGNED || lastSequence > eventPublisher.lastSequence()) {
+                return toFlux(eventPublisher, filterEvents);
+            }
+            final Resumption<T> resumption = new Resumption<>(eventPublisher, filterEvents, lastSequence);
+            return Flux.fromIterable(resumption.replay())
+                       .concatWith(toFlux(eventPublisher, filterEvents).concatMapIterable(resumption::live));
+        });
+    }
+
+    /**
+     * Live events are subscribed after the replay, so events published in between are taken from the publisher
+     * once the first live event arrives. Events are deduplicated by their sequences.
+     */
+    private static final class Resumption<T extends SequencedEvent<?>> {
+        private final EventPublisher eventPublisher;
+        private final Class<T> filterEvents;
+        private long lastSequence;
+        private boolean gapFilled;
+
+        private Resumption(EventPublisher eventPublisher, Class<T> filterEvents, long lastSequence) {
+            this.eventPublisher = eventPublisher;
+            this.filterEvents = filterEvents;
+            this.lastSequence = lastSequence;
+        }
+
+        private List<T> replay() {
+            return publishedBefore(Long.MAX_VALUE);
+        }
+
+        private List<T> live(T event) {
+            final long sequence = event.sequence();
+            if (sequence == SequencedEvent.UNASSIGNED) {
+                return Collections.singletonList(event);
+            }
+            if (sequence <= lastSequence) {
+                return Collections.emptyList();
+            }
+            final List<T> events = gapFilled ? new ArrayList<>(1) : publishedBefore(sequence);
+            gapFilled = true;
+            events.add(event);
+            lastSequence = sequence;
+            return events;
+        }
+
+        private List<T> publishedBefore(long sequence) {
+            final List<T> events = new ArrayList<>();
+            for (SequencedEvent<?> event : eventPublisher.publishedAfter(lastSequence)) {
+                if (event.sequence() >= sequence) {
+                    break;
+                }
+                if (filterEvents.isInstance(event)) {
+                    events.add(filterEvents.cast(event));
+                }
+                lastSequence = event.sequence();
+            }
+            return events;
+        }
+    }
 }
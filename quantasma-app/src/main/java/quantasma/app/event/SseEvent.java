@@ -13,6 +13,9 @@ public interface SseEvent<D> extends Event<D> {
         return new EventWrapper<>(event);
     }
 
+    /**
+     * Id of a {@link quantasma.integrations.event.SequencedEvent} is created only here, clients send it back as {@code Last-Event-ID} to resume
+     */
     default ServerSentEvent<D> sse() {
         return ServerSentEvent.<D>builder()
                 .id(id())
@@ -0,0 +1,158 @@
+package quantasma.app.feature.data.historical.provider;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import quantasma.app.config.HistoricalDataServiceConfig;
+import quantasma.app.model.DateRange;
+import quantasma.app.model.FeedBarsSettings;
+import quantasma.app.model.HistoricalDataSummary;
+import quantasma.app.model.OhlcvBar;
+import quantasma.app.service.HistoricalDataService;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Date ranges of the requested bars which are not stored yet - before and after the stored ones and gaps between them.<p>
+ * A bar is expected every period except for the weekend market close - from Friday to Sunday 17:00 New York time. Stored bars
+ * are scanned for gaps only when there are fewer of them than expected, so a sync of stored data reads just the
+ * {@link HistoricalDataService#dataSummary() summary}.
+ */
+@Slf4j
+@Component
+public class MissingBarsFinder {
+    private static final ZoneId MARKET_ZONE = ZoneId.of("America/New_York");
+    private static final LocalTime MARKET_CLOSE = LocalTime.of(17, 0);
+
+    private final HistoricalDataService historicalDataService;
+
+    @Autowired
+    public MissingBarsFinder(@Qualifier(HistoricalDataServiceConfig.STORAGE) HistoricalDataService historicalDataService) {
+        this.historicalDataService = historicalDataService;
+    }
+
+    /**
+     * @return missing ranges in the order of dates, empty when all requested bars are stored
+     */
+    public List<DateRange> find(FeedBarsSettings feedBarsSettings) {
+        final Instant from = feedBarsSettings.getFromDate();
+        final Instant to = feedBarsSettings.getToDate();
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException(String.format("From date [%s] > to date [%s]", from, to));
+        }
+        final Duration period = feedBarsSettings.getBarPeriod().getPeriod();
+        final List<DateRange> missing = new ArrayList<>();
+
+        final Optional<HistoricalDataSummary> stored = summary(feedBarsSettings);
+        if (!stored.isPresent()) {
+            addIfExpected(missing, from, to, period);
+            return missing;
+        }
+        final Instant storedFrom = stored.get().getFromDate();
+        final Instant storedTo = stored.get().getToDate();
+
+        addIfExpected(missing, from, min(to, storedFrom.minus(period)), period);
+        final Instant coveredFrom = max(from, storedFrom);
+        final Instant coveredTo = min(to, storedTo);
+        if (!coveredTo.isBefore(coveredFrom) && stored.get().getBarCount() < expectedBars(storedFrom, storedTo, period)) {
+            log.info("Scanning stored bars of [{}] for gaps between [{}] and [{}]", feedBarsSettings.getSymbol(), coveredFrom, coveredTo);
+            try (Stream<OhlcvBar> bars = historicalDataService.streamBySymbolAndDateBetweenOrderByDate(feedBarsSettings.getSymbol(),
+                                                                                                       coveredFrom,
+                                                                                                       Duration.between(coveredFrom, coveredTo.plus(period)))) {
+                addGaps(missing,
+                        bars.filter(bar -> bar.getPeriod() == feedBarsSettings.getBarPeriod()).map(OhlcvBar::getDate).iterator(),
+                        coveredFrom,
+                        coveredTo,
+                        period);
+            }
+        }
+        addIfExpected(missing, max(from, storedTo.plus(period)), to, period);
+        return missing;
+    }
+
+    private Optional<HistoricalDataSummary> summary(FeedBarsSettings feedBarsSettings) {
+        return historicalDataService.dataSummary()
+                                    .stream()
+                                    .filter(summary -> summary.getSymbol().equals(feedBarsSettings.getSymbol()))
+                                    .filter(summary -> summary.getPeriod() == feedBarsSettings.getBarPeriod())
+                                    .filter(summary -> summary.getBarCount() > 0)
+                                    .findFirst();
+    }
+
+    /**
+     * @param barDates dates of stored bars between from and to, ordered
+     */
+    static void addGaps(List<DateRange> missing, Iterator<Instant> barDates, Instant from, Instant to, Duration period) {
+        Instant expected = from;
+        while (barDates.hasNext()) {
+            final Instant date = barDates.next();
+            if (date.isBefore(expected)) {
+                continue;
+            }
+            addIfExpected(missing, expected, date.minus(period), period);
+            expected = date.plus(period);
+        }
+        addIfExpected(missing, expected, to, period);
+    }
+
+    private static void addIfExpected(List<DateRange> missing, Instant from, Instant to, Duration period) {
+        if (!to.isBefore(from) && expectedBars(from, to, period) > 0) {
+            missing.add(new DateRange(from, to));
+        }
+    }
+
+    /**
+     * Bars starting from the first to the last date, both inclusive, when no bar starts during the weekend
+     */
+    static long expectedBars(Instant from, Instant to, Duration period) {
+        return marketTime(from, to.plus(period)).toNanos() / period.toNanos();
+    }
+
+    /**
+     * Time between the dates without weekends
+     */
+    static Duration marketTime(Instant from, Instant to) {
+        if (!to.isAfter(from)) {
+            return Duration.ZERO;
+        }
+        Duration weekends = Duration.ZERO;
+        ZonedDateTime weekendStart = lastWeekendStart(from);
+        while (weekendStart.toInstant().isBefore(to)) {
+            // DST changes during the weekend, so it lasts two days of local time rather than 48 hours
+            final Instant overlapFrom = max(from, weekendStart.toInstant());
+            final Instant overlapTo = min(to, weekendStart.plusDays(2).toInstant());
+            if (overlapTo.isAfter(overlapFrom)) {
+                weekends = weekends.plus(Duration.between(overlapFrom, overlapTo));
+            }
+            weekendStart = weekendStart.plusWeeks(1);
+        }
+        return Duration.between(from, to).minus(weekends);
+    }
+
+    private static ZonedDateTime lastWeekendStart(Instant date) {
+        final ZonedDateTime local = date.atZone(MARKET_ZONE);
+        final ZonedDateTime friday = local.with(TemporalAdjusters.previousOrSame(DayOfWeek.FRIDAY))
+                                          .with(MARKET_CLOSE);
+        return friday.isAfter(local) ? friday.minusWeeks(1) : friday;
+    }
+
+    private static Instant min(Instant first, Instant second) {
+        return first.isBefore(second) ? first : second;
+    }
+
+    private static Instant max(Instant first, Instant second) {
+        return first.isAfter(second) ? first : second;
+    }
+}
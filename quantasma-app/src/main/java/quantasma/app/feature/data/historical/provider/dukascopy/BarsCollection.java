@@ -2,74 +2,141 @@ package quantasma.app.feature.data.historical.provider.dukascopy;
 
 import com.dukascopy.api.IBar;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import quantasma.app.model.OhlcvBar;
 import quantasma.core.BarPeriod;
 
 import java.time.Instant;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 
-@Getter
+/**
+ * Joins bid and ask bars of the same time into {@link OhlcvBar}s. The provider returns both sides ordered by time,
+ * so they are merged in a single pass without collecting bars by time first. Bars without a bar of the other side at the same time
+ * are skipped and reported.
+ */
+@Slf4j
 class BarsCollection {
-    private final Map<Long, Bar> bars = new TreeMap<>();
+    private static final int REPORTED_UNMATCHED_BARS = 10;
+
     private final String symbol;
     private final BarPeriod barPeriod;
 
-    class Bar {
-        private IBar bidBar;
-        private IBar askBar;
-
-        OhlcvBar toOhlcv() {
-            return new OhlcvBar(barPeriod,
-                                Instant.ofEpochMilli(bidBar.getTime()),
-                                symbol,
-                                bidBar.getOpen(),
-                                bidBar.getLow(),
-                                bidBar.getHigh(),
-                                bidBar.getClose(),
-                                askBar.getOpen(),
-                                askBar.getLow(),
-                                askBar.getHigh(),
-                                askBar.getClose(),
-                                (int) (bidBar.getVolume() + askBar.getVolume()));
-        }
-    }
-
     BarsCollection(String symbol, BarPeriod barPeriod) {
         this.symbol = symbol;
         this.barPeriod = barPeriod;
     }
 
-    void insertBidBar(IBar bar) {
-        final Bar nullIfAbsent = bars.computeIfPresent(bar.getTime(), (time, barBucket) -> {
-            barBucket.bidBar = bar;
-            return barBucket;
-        });
-        if (nullIfAbsent == null) {
-            Bar barBucket = new Bar();
-            barBucket.bidBar = bar;
-            bars.putIfAbsent(bar.getTime(), barBucket);
+    /**
+     * @throws IllegalArgumentException when bars of a side are not ordered by time
+     */
+    Merged merge(List<IBar> bidBars, List<IBar> askBars) {
+        final List<OhlcvBar> bars = new ArrayList<>(Math.min(bidBars.size(), askBars.size()));
+        final Unmatched unmatched = new Unmatched();
+        final Iterator<IBar> bids = bidBars.iterator();
+        final Iterator<IBar> asks = askBars.iterator();
+        IBar bidBar = next(bids, null, "bid");
+        IBar askBar = next(asks, null, "ask");
+        while (bidBar != null && askBar != null) {
+            if (bidBar.getTime() == askBar.getTime()) {
+                bars.add(toOhlcv(bidBar, askBar));
+                bidBar = next(bids, bidBar, "bid");
+                askBar = next(asks, askBar, "ask");
+            } else if (bidBar.getTime() < askBar.getTime()) {
+                unmatched.bid(bidBar);
+                bidBar = next(bids, bidBar, "bid");
+            } else {
+                unmatched.ask(askBar);
+                askBar = next(asks, askBar, "ask");
+            }
+        }
+        for (; bidBar != null; bidBar = next(bids, bidBar, "bid")) {
+            unmatched.bid(bidBar);
+        }
+        for (; askBar != null; askBar = next(asks, askBar, "ask")) {
+            unmatched.ask(askBar);
         }
+        if (unmatched.exist()) {
+            log.warn("Skipped [{}] bid and [{}] ask bars of [{}] without bar of the other side, first of them at {}",
+                     unmatched.bidBars, unmatched.askBars, symbol, unmatched.firstTimes);
+        }
+        return new Merged(bars, unmatched);
     }
 
-    void insertAskBar(IBar bar) {
-        final Bar nullIfAbsent = bars.computeIfPresent(bar.getTime(), (aLong, barBucket) -> {
-            barBucket.askBar = bar;
-            return barBucket;
-        });
-        if (nullIfAbsent == null) {
-            Bar barBucket = new Bar();
-            barBucket.askBar = bar;
-            bars.putIfAbsent(bar.getTime(), barBucket);
+    private static IBar next(Iterator<IBar> iterator, IBar previous, String offerSide) {
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        final IBar next = iterator.next();
+        if (previous != null && next.getTime() <= previous.getTime()) {
+            throw new IllegalArgumentException(String.format("%s bars are not ordered by time [%s] after [%s]",
+                                                             offerSide, Instant.ofEpochMilli(next.getTime()), Instant.ofEpochMilli(previous.getTime())));
         }
+        return next;
     }
 
-    void verifyIntegrity() {
-        bars.forEach((aLong, barBucket) -> {
-            if (barBucket.bidBar == null || barBucket.askBar == null) {
-                throw new RuntimeException();
-            }
-        });
+    private OhlcvBar toOhlcv(IBar bidBar, IBar askBar) {
+        return new OhlcvBar(barPeriod,
+                            Instant.ofEpochMilli(bidBar.getTime()),
+                            symbol,
+                            bidBar.getOpen(),
+                            bidBar.getLow(),
+                            bidBar.getHigh(),
+                            bidBar.getClose(),
+                            askBar.getOpen(),
+                            askBar.getLow(),
+                            askBar.getHigh(),
+                            askBar.getClose(),
+                            (int) (bidBar.getVolume() + askBar.getVolume()));
+    }
+
+    @Getter
+    static final class Merged {
+        private final List<OhlcvBar> bars;
+        private final int unmatchedBidBars;
+        private final int unmatchedAskBars;
+        /**
+         * Times of the first unmatched bars of both sides, up to {@value #REPORTED_UNMATCHED_BARS}
+         */
+        private final List<Instant> firstUnmatchedTimes;
+
+        private Merged(List<OhlcvBar> bars, Unmatched unmatched) {
+            this.bars = bars;
+            this.unmatchedBidBars = unmatched.bidBars;
+            this.unmatchedAskBars = unmatched.askBars;
+            this.firstUnmatchedTimes = Collections.unmodifiableList(unmatched.firstTimes);
+        }
+
+        int getUnmatchedBars() {
+            return unmatchedBidBars + unmatchedAskBars;
+        }
     }
 
-}
\ No newline at end of file
+    private static class Unmatched {
+        private final List<Instant> firstTimes = new ArrayList<>();
+        private int bidBars;
+        private int askBars;
+
+        private void bid(IBar bar) {
+            bidBars++;
+            report(bar);
+        }
+
+        private void ask(IBar bar) {
+            askBars++;
+            report(bar);
+        }
+
+        private void report(IBar bar) {
+            if (firstTimes.size() < REPORTED_UNMATCHED_BARS) {
+                firstTimes.add(Instant.ofEpochMilli(bar.getTime()));
+            }
+        }
+
+        private boolean exist() {
+            return bidBars + askBars > 0;
+        }
+    }
+}
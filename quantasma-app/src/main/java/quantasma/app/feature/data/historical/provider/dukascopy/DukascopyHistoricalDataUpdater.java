@@ -2,13 +2,18 @@ package quantasma.app.feature.data.historical.provider.dukascopy;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import quantasma.app.feature.data.historical.provider.HistoricalDataUpdater;
+import quantasma.app.feature.data.historical.provider.MissingBarsFinder;
+import quantasma.app.model.DateRange;
 import quantasma.app.model.FeedBarsSettings;
 import quantasma.app.service.HistoricalDataService;
 import quantasma.integrations.data.provider.dukascopy.DukascopyApiClient;
 
+import java.util.List;
+
 @Component
 @Profile("dukascopy")
 @Slf4j
@@ -16,18 +21,30 @@ public class DukascopyHistoricalDataUpdater implements HistoricalDataUpdater {
 
     private final HistoricalDataService historicalDataService;
     private final DukascopyApiClient dukascopyClient;
+    private final MissingBarsFinder missingBarsFinder;
+    private final int fetchConcurrency;
 
     @Autowired
     public DukascopyHistoricalDataUpdater(HistoricalDataService historicalDataService,
-                                          DukascopyApiClient dukascopyClient) {
+                                          DukascopyApiClient dukascopyClient,
+                                          MissingBarsFinder missingBarsFinder,
+                                          @Value("${service.historical-data.fetch.concurrency}") int fetchConcurrency) {
         this.historicalDataService = historicalDataService;
         this.dukascopyClient = dukascopyClient;
+        this.missingBarsFinder = missingBarsFinder;
+        this.fetchConcurrency = fetchConcurrency;
     }
 
     @Override
     public void update(FeedBarsSettings feedBarsSettings) {
+        final List<DateRange> missingRanges = missingBarsFinder.find(feedBarsSettings);
+        if (missingRanges.isEmpty()) {
+            log.info("All bars of [{}] between [{}] and [{}] are already stored", feedBarsSettings.getSymbol(), feedBarsSettings.getFromDate(), feedBarsSettings.getToDate());
+            return;
+        }
+        log.info("Fetching [{}] missing ranges of [{}]: {}", missingRanges.size(), feedBarsSettings.getSymbol(), missingRanges);
         final long processId = dukascopyClient.runStrategy(
-                new FetchHistoricalDataStrategy(historicalDataService, feedBarsSettings));
+                new FetchHistoricalDataStrategy(historicalDataService, feedBarsSettings, missingRanges, fetchConcurrency));
         dukascopyClient.stopStrategy(processId);
     }
 }
\ No newline at end of file
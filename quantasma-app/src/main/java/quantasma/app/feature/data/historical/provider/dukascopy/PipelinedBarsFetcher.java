@@ -0,0 +1,247 @@
+package quantasma.app.feature.data.historical.provider.dukascopy;
+
+import com.dukascopy.api.Filter;
+import com.dukascopy.api.IBar;
+import com.dukascopy.api.IHistory;
+import com.dukascopy.api.Instrument;
+import com.dukascopy.api.JFException;
+import com.dukascopy.api.OfferSide;
+import com.dukascopy.api.Period;
+import lombok.extern.slf4j.Slf4j;
+import quantasma.app.model.DateRange;
+import quantasma.app.model.FeedBarsSettings;
+import quantasma.app.model.InsertSummary;
+import quantasma.app.model.OhlcvBar;
+import quantasma.app.service.HistoricalDataService;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fetches bars of the given date ranges backwards from the latest one in 60-day windows, as many bid and ask requests at the same time
+ * as the concurrency allows.<p>
+ * Windows are merged as soon as both their sides arrive and stored by a separate thread while the following windows are being fetched.
+ * Windows are still merged and stored newest first, so fetching of a range stops after its first window without bars as it did
+ * when fetched one by one.
+ */
+@Slf4j
+class PipelinedBarsFetcher {
+    private static final long WINDOW_DAYS = 60;
+
+    private final IHistory history;
+    private final HistoricalDataService historicalDataService;
+    private final FeedBarsSettings feedBarsSettings;
+    private final int concurrency;
+    private final BarsCollection barsCollection;
+
+    PipelinedBarsFetcher(IHistory history, HistoricalDataService historicalDataService, FeedBarsSettings feedBarsSettings, int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException(String.format("Fetch concurrency has to be positive [%s]", concurrency));
+        }
+        this.history = history;
+        this.historicalDataService = historicalDataService;
+        this.feedBarsSettings = feedBarsSettings;
+        this.concurrency = concurrency;
+        this.barsCollection = new BarsCollection(feedBarsSettings.getSymbol(), feedBarsSettings.getBarPeriod());
+    }
+
+    /**
+     * @throws IllegalArgumentException when the settings or any of the ranges end before they start
+     */
+    InsertSummary fetch(List<DateRange> ranges) throws JFException {
+        final Instant fetchTo = getValidFetchTo();
+        validate(ranges, fetchTo);
+        final Deque<Window> windows = windows(ranges, fetchTo);
+        final Deque<Window> inFlight = new ArrayDeque<>();
+        final ExecutorService fetchExecutor = Executors.newFixedThreadPool(concurrency, threads("dukascopy-fetch-" + feedBarsSettings.getSymbol()));
+        final ExecutorService storeExecutor = Executors.newSingleThreadExecutor(threads("dukascopy-store-" + feedBarsSettings.getSymbol()));
+        final long startNanos = System.nanoTime();
+        long fetched = 0;
+        long unmatched = 0;
+        InsertSummary summary = InsertSummary.empty();
+        Future<InsertSummary> storing = null;
+        try {
+            // every window takes two requests, one more window keeps requests queued while the oldest one is being merged
+            while (!windows.isEmpty() && inFlight.size() < concurrency / 2 + 1) {
+                inFlight.add(windows.poll().submit(fetchExecutor));
+            }
+            while (!inFlight.isEmpty()) {
+                final Window window = inFlight.poll();
+                final List<IBar> bidBars = await(window.bidBars);
+                final List<IBar> askBars = await(window.askBars);
+                if (bidBars.isEmpty() || askBars.isEmpty()) {
+                    log.info("No bar found for given date range, stopping fetch of [{}]", window.range);
+                    skipOlderWindows(window.range, inFlight, windows);
+                }
+                if (!windows.isEmpty()) {
+                    inFlight.add(windows.poll().submit(fetchExecutor));
+                }
+
+                final BarsCollection.Merged merged = barsCollection.merge(bidBars, askBars);
+                final List<OhlcvBar> bars = merged.getBars();
+                fetched += bars.size();
+                unmatched += merged.getUnmatchedBars();
+                if (storing != null) {
+                    summary = summary.plus(await(storing));
+                }
+                storing = storeExecutor.submit(() -> historicalDataService.insertSkipDuplicates(bars));
+                log.info("Fetched [{}] bars - from: [{}], to: [{}], [{}] bars/s so far", bars.size(), window.from, window.to, Math.round(perSecond(fetched, startNanos)));
+            }
+            if (storing != null) {
+                summary = summary.plus(await(storing));
+            }
+        } finally {
+            fetchExecutor.shutdownNow();
+            storeExecutor.shutdown();
+        }
+        log.info("Fetched [{}] bars of [{}] in [{}] s, [{}] bars/s, [{}] already stored, [{}] bars/s inserted, [{}] skipped without bar of the other side",
+                 fetched, feedBarsSettings.getSymbol(), TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos), Math.round(perSecond(fetched, startNanos)),
+                 summary.getDuplicates(), Math.round(summary.getBarsPerSecond()), unmatched);
+        return summary;
+    }
+
+    private void validate(List<DateRange> ranges, Instant fetchTo) {
+        if (fetchTo.isBefore(feedBarsSettings.getFromDate())) {
+            throw new IllegalArgumentException(String.format("From date [%s] > to date [%s]", feedBarsSettings.getFromDate(), fetchTo));
+        }
+        for (DateRange range : ranges) {
+            if (range.getTo().isBefore(range.getFrom())) {
+                throw new IllegalArgumentException(String.format("From date [%s] > to date [%s] of range to fetch", range.getFrom(), range.getTo()));
+            }
+        }
+    }
+
+    private Deque<Window> windows(List<DateRange> ranges, Instant latestBar) {
+        final List<DateRange> newestFirst = new ArrayList<>(ranges);
+        newestFirst.sort(Comparator.comparing(DateRange::getTo).reversed());
+        final Deque<Window> windows = new ArrayDeque<>();
+        for (DateRange range : newestFirst) {
+            final Instant fetchFrom = range.getFrom();
+            Instant windowTo = range.getTo().isAfter(latestBar) ? latestBar : range.getTo();
+            if (windowTo.isBefore(fetchFrom)) { // valid range, but all of its bars are after the latest one available
+                continue;
+            }
+            do { // a range of a single bar still takes a window
+                final Instant windowFrom = Instant.ofEpochMilli(Math.max(fetchFrom.toEpochMilli(),
+                                                                         windowTo.minus(WINDOW_DAYS, ChronoUnit.DAYS).toEpochMilli()));
+                windows.add(new Window(range, windowFrom, windowTo));
+                windowTo = windowFrom;
+            } while (windowTo.isAfter(fetchFrom));
+        }
+        return windows;
+    }
+
+    private static void skipOlderWindows(DateRange range, Deque<Window> inFlight, Deque<Window> windows) {
+        for (Iterator<Window> iterator = inFlight.iterator(); iterator.hasNext(); ) {
+            final Window window = iterator.next();
+            if (window.range == range) {
+                window.bidBars.cancel(true);
+                window.askBars.cancel(true);
+                iterator.remove();
+            }
+        }
+        windows.removeIf(window -> window.range == range);
+    }
+
+    private Instant getValidFetchTo() throws JFException {
+        final long latestPossibleBar = history.getStartTimeOfCurrentBar(resolveInstrument(), resolvePeriod());
+        return Instant.ofEpochMilli(Math.min(latestPossibleBar,
+                                             feedBarsSettings.getToDate().toEpochMilli()));
+    }
+
+    private Period resolvePeriod() {
+        switch (feedBarsSettings.getBarPeriod()) {
+            case M1:
+                return Period.ONE_MIN;
+            case M5:
+                return Period.FIVE_MINS;
+            case M15:
+                return Period.FIFTEEN_MINS;
+            case M30:
+                return Period.THIRTY_MINS;
+            case H1:
+                return Period.ONE_HOUR;
+            case H4:
+                return Period.FOUR_HOURS;
+            case D:
+                return Period.ONE_HOUR;
+        }
+        throw new IllegalArgumentException("Unsupported period: [" + feedBarsSettings.getBarPeriod() + "]");
+    }
+
+    private Instrument resolveInstrument() {
+        return Instrument.valueOf(feedBarsSettings.getSymbol());
+    }
+
+    private static double perSecond(long bars, long startNanos) {
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        if (elapsedNanos == 0) {
+            return 0;
+        }
+        return bars * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    private static <T> T await(Future<T> future) throws JFException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while fetching bars", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof JFException) {
+                throw (JFException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static ThreadFactory threads(String name) {
+        final AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final class Window {
+        private final DateRange range;
+        private final Instant from;
+        private final Instant to;
+        private Future<List<IBar>> bidBars;
+        private Future<List<IBar>> askBars;
+
+        private Window(DateRange range, Instant from, Instant to) {
+            this.range = range;
+            this.from = from;
+            this.to = to;
+        }
+
+        private Window submit(ExecutorService executor) {
+            bidBars = executor.submit(() -> fetchBars(OfferSide.BID));
+            askBars = executor.submit(() -> fetchBars(OfferSide.ASK));
+            return this;
+        }
+
+        private List<IBar> fetchBars(OfferSide offerSide) throws JFException {
+            return history.getBars(resolveInstrument(), resolvePeriod(), offerSide, Filter.WEEKENDS, from.toEpochMilli(), to.toEpochMilli());
+        }
+    }
+}
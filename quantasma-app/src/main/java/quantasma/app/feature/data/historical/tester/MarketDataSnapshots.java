@@ -0,0 +1,83 @@
+package quantasma.app.feature.data.historical.tester;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import quantasma.app.service.BarRangeCache;
+import quantasma.core.MarketData;
+import quantasma.core.MarketDataSnapshot;
+import quantasma.core.timeseries.bar.OneSidedBar;
+
+import java.time.Instant;
+import java.time.temporal.TemporalAmount;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Recently built market data of backtested windows, frozen and shared by all runs of the same window.<p>
+ * Snapshots are rebuilt after any historical data was written, see {@link BarRangeCache#generation()}.
+ */
+@Component
+@Slf4j
+public class MarketDataSnapshots {
+
+    private final BarRangeCache barRangeCache;
+    private final int capacity;
+    private final Map<Key, Entry> snapshots;
+
+    @Autowired
+    public MarketDataSnapshots(BarRangeCache barRangeCache, @Value("${service.backtest.snapshot-capacity}") int capacity) {
+        this.barRangeCache = barRangeCache;
+        this.capacity = capacity;
+        this.snapshots = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * @param structure identifies symbols, periods and bar type of the market data, snapshots of the same structure and window are shared
+     * @param factory   builds market data of the window on a miss
+     */
+    @SuppressWarnings("unchecked")
+    public <B extends OneSidedBar> MarketDataSnapshot<B> get(String structure, Instant from, TemporalAmount window, Supplier<MarketData<B>> factory) {
+        final Key key = new Key(structure, from, window);
+        final long generation;
+        synchronized (this) {
+            final Entry entry = snapshots.get(key);
+            generation = barRangeCache.generation();
+            if (entry != null && entry.generation == generation) {
+                return (MarketDataSnapshot<B>) entry.snapshot;
+            }
+        }
+
+        final long start = System.nanoTime();
+        final MarketDataSnapshot<B> snapshot = factory.get().freeze();
+        log.info("Built market data snapshot of [{}] from [{}] for [{}] in [{}] ms", structure, from, window, (System.nanoTime() - start) / 1_000_000);
+        if (capacity > 0) {
+            synchronized (this) {
+                snapshots.put(key, new Entry(snapshot, generation));
+                final Iterator<Entry> leastRecentlyUsed = snapshots.values().iterator();
+                while (snapshots.size() > capacity) {
+                    leastRecentlyUsed.next();
+                    leastRecentlyUsed.remove();
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    @Data
+    private static class Key {
+        private final String structure;
+        private final Instant from;
+        private final TemporalAmount window;
+    }
+
+    @Data
+    private static class Entry {
+        private final MarketDataSnapshot<?> snapshot;
+        private final long generation;
+    }
+}
@@ -1,6 +1,7 @@
 package quantasma.app.feature.data.historical.tester;
 
 import quantasma.app.model.OhlcvBar;
+import quantasma.core.BarQuote;
 import quantasma.core.Quote;
 
 import java.util.function.Function;
@@ -14,4 +15,9 @@ public interface TestModeExtractor {
 
     Function<OhlcvBar, Stream<Quote>> openHighLowClosePrices();
 
+    /**
+     * Same bars as {@link #openHighLowClosePrices()}, without replaying the bar as quotes
+     */
+    Function<OhlcvBar, BarQuote> openHighLowCloseBar();
+
 }
@@ -1,6 +1,7 @@
 package quantasma.app.feature.data.historical.tester;
 
 import quantasma.app.model.OhlcvBar;
+import quantasma.core.BarQuote;
 import quantasma.core.Quote;
 
 import java.time.ZoneOffset;
@@ -29,6 +30,21 @@ public class TestModeExtractorBidAsk implements TestModeExtractor {
                 prepareClosePrice(ohlcvBar));
     }
 
+    @Override
+    public Function<OhlcvBar, BarQuote> openHighLowCloseBar() {
+        return ohlcvBar -> BarQuote.bidAsk(
+                ohlcvBar.getSymbol(),
+                ohlcvBar.getDate().atZone(ZoneOffset.UTC),
+                ohlcvBar.getBidOpen(),
+                ohlcvBar.getBidHigh(),
+                ohlcvBar.getBidLow(),
+                ohlcvBar.getBidClose(),
+                ohlcvBar.getAskOpen(),
+                ohlcvBar.getAskHigh(),
+                ohlcvBar.getAskLow(),
+                ohlcvBar.getAskClose());
+    }
+
     private static Quote prepareOpenPrice(OhlcvBar ohlcvBar) {
         return Quote.bidAsk(
                 ohlcvBar.getSymbol(),
@@ -5,38 +5,48 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.ta4j.core.AnalysisCriterion;
 import org.ta4j.core.Order;
+import org.ta4j.core.num.Num;
 import quantasma.app.config.service.backtest.CriterionsFactory;
+import quantasma.app.feature.data.historical.tester.MarketDataSnapshots;
 import quantasma.app.feature.data.historical.tester.TestModeExtractorBidAsk;
+import quantasma.app.model.OhlcvBar;
 import quantasma.app.service.HistoricalDataService;
 import quantasma.core.BarPeriod;
-import quantasma.core.BaseContext;
-import quantasma.core.Context;
 import quantasma.core.MarketData;
 import quantasma.core.MarketDataBuilder;
+import quantasma.core.MarketDataSnapshot;
+import quantasma.core.ParallelTestManager;
 import quantasma.core.StructureDefinition;
-import quantasma.core.TestManager;
 import quantasma.core.TradeStrategy;
 import quantasma.core.analysis.BacktestResult;
+import quantasma.core.analysis.ProgressListener;
+import quantasma.core.analysis.Ranking;
 import quantasma.core.analysis.StrategyBacktest;
+import quantasma.core.analysis.TopResults;
 import quantasma.core.analysis.TradeScenario;
+import quantasma.core.analysis.criterion.CriterionsEvaluation;
 import quantasma.core.analysis.parametrize.Parameterizable;
 import quantasma.core.analysis.parametrize.Producer;
+import quantasma.core.analysis.parametrize.Values;
 import quantasma.core.analysis.parametrize.Variables;
-import quantasma.core.timeseries.ReflectionManualIndexTimeSeries;
+import quantasma.core.timeseries.BaseManualIndexTimeSeries;
 import quantasma.core.timeseries.TimeSeriesDefinition;
 import quantasma.core.timeseries.bar.BidAskBar;
 import quantasma.core.timeseries.bar.BidAskBarFactory;
 import quantasma.examples.RSIStrategy;
 import quantasma.examples.RSIStrategy.Parameter;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.TemporalAmount;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 @Slf4j
@@ -47,11 +57,13 @@ public class RSIBacktest implements StrategyBacktest {
 
     private final HistoricalDataService historicalDataService;
     private final CriterionsFactory criterionsFactory;
+    private final MarketDataSnapshots marketDataSnapshots;
 
     @Autowired
-    public RSIBacktest(HistoricalDataService historicalDataService, CriterionsFactory criterionsFactory) {
+    public RSIBacktest(HistoricalDataService historicalDataService, CriterionsFactory criterionsFactory, MarketDataSnapshots marketDataSnapshots) {
         this.historicalDataService = historicalDataService;
         this.criterionsFactory = criterionsFactory;
+        this.marketDataSnapshots = marketDataSnapshots;
     }
 
     @Override
@@ -65,72 +77,101 @@ public class RSIBacktest implements StrategyBacktest {
     }
 
     @Override
-    public List<BacktestResult> run(Map<String, Object[]> backtestParameters, List<String> analysisCriterions, LocalDateTime fromDate, TemporalAmount timeWindow) {
-        final MarketData<BidAskBar> marketData = createMarketData();
-
-        final Context context = new BaseContext.Builder()
-                .withMarketData(marketData)
-                .build();
-
-        final Function<Variables<Parameter>, TradeStrategy> recipe = var -> {
+    public List<BacktestResult> run(Map<String, Object[]> backtestParameters,
+                                    List<String> analysisCriterions,
+                                    LocalDateTime fromDate,
+                                    TemporalAmount timeWindow,
+                                    Ranking ranking,
+                                    ProgressListener<? super BacktestResult> progressListener) {
+        final Instant from = fromDate.toInstant(ZoneOffset.UTC);
+        final MarketDataSnapshot<BidAskBar> marketData = marketDataSnapshots.get(SYMBOL + "_" + BASE_PERIOD.name(),
+                                                                                 from,
+                                                                                 timeWindow,
+                                                                                 () -> loadMarketData(from, timeWindow));
+
+        final Function<Variables<Parameter>, Values<Parameter>> recipe = var -> {
             backtestParameters.forEach((key, value) ->
                                                Variables.addValues(var,
                                                                    Parameter.valueOf(key),
                                                                    value));
-            return RSIStrategy.buildBullish(context, var.getParameterValues());
+            return var.getParameterValues();
         };
 
-        final TestModeExtractorBidAsk testModeExtractor = new TestModeExtractorBidAsk();
-        historicalDataService.findBySymbolAndDateBetweenOrderByDate(SYMBOL, fromDate.toInstant(ZoneOffset.UTC), timeWindow)
-                             .stream()
-                             .flatMap(testModeExtractor.openHighLowClosePrices())
-                             .forEach(marketData::add);
-
-        final TestManager testManager = new TestManager<>(marketData);
-
-        final List<TradeScenario> tradeScenarios = prepareTradeScenarios(recipe, testManager);
+        final List<Values<Parameter>> parameterValues = Producer.grid(recipe).asList();
+        final ParallelTestManager<BidAskBar> testManager = new ParallelTestManager<>(marketData);
+        if (ranking == null) {
+            return testManager.run(parameterValues, RSIStrategy::buildBullish, Order.OrderType.BUY, gatherResult(analysisCriterions), progressListener);
+        }
 
-        return tradeScenarios.stream()
-                             .map(gatherResult(analysisCriterions))
-                             .collect(Collectors.toList());
+        final AnalysisCriterion rankingCriterion = criterion(ranking.getCriterion());
+        final TopResults<BacktestResult> topResults = new TopResults<>(rankingCriterion, ranking.getTop());
+        testManager.run(parameterValues,
+                        RSIStrategy::buildBullish,
+                        Order.OrderType.BUY,
+                        rankResult(rankingCriterion, topResults, gatherResult(analysisCriterions)),
+                        progressListener);
+        return topResults.best();
     }
 
     private Function<TradeScenario, BacktestResult> gatherResult(List<String> analysisCriterions) {
+        final CriterionsEvaluation evaluation = new CriterionsEvaluation(analysisCriterions.stream()
+                                                                                           .map(this::criterion)
+                                                                                           .collect(Collectors.toList()));
         return tradeScenario -> {
-            final List<AnalysisCriterion> criterions = analysisCriterions.stream()
-                                                                         .map(criterionsFactory::get)
-                                                                         .collect(Collectors.toList());
-            final Map<String, String> calculatedCriterions = analyze(tradeScenario, criterions);
+            final Map<String, String> calculatedCriterions = analyze(tradeScenario, evaluation);
             return new BacktestResult((Map<Object, Object>) tradeScenario.getValues().getValuesByParameter(), calculatedCriterions);
         };
     }
 
-    private static Map<String, String> analyze(TradeScenario tradeScenario, List<AnalysisCriterion> criterions) {
+    /**
+     * All criterions are calculated only for a scenario making it to the top, others are summarized by the ranking criterion
+     * and their trading records are discarded right away
+     */
+    private static Function<TradeScenario, BacktestResult> rankResult(AnalysisCriterion rankingCriterion,
+                                                                      TopResults<BacktestResult> topResults,
+                                                                      Function<TradeScenario, BacktestResult> gatherResult) {
+        final CriterionsEvaluation ranking = new CriterionsEvaluation(Collections.singletonList(rankingCriterion));
+        return tradeScenario -> {
+            final Num score = ranking.calculate(tradeScenario.getTimeSeries(), tradeScenario.getTradingRecord(), tradeScenario.getStatistics()).get(0);
+            if (topResults.accepts(score)) {
+                topResults.offer(score, gatherResult.apply(tradeScenario));
+            }
+            return new BacktestResult((Map<Object, Object>) tradeScenario.getValues().getValuesByParameter(),
+                                      Collections.singletonMap(rankingCriterion.getClass().getSimpleName(), score.toString()));
+        };
+    }
+
+    private AnalysisCriterion criterion(String name) {
+        final AnalysisCriterion criterion = criterionsFactory.get(name);
+        if (criterion == null) {
+            throw new IllegalArgumentException(String.format("Unknown criterion [%s]", name));
+        }
+        return criterion;
+    }
+
+    private static Map<String, String> analyze(TradeScenario tradeScenario, CriterionsEvaluation evaluation) {
+        final List<Num> values = evaluation.calculate(tradeScenario.getTimeSeries(), tradeScenario.getTradingRecord(), tradeScenario.getStatistics());
         final Map<String, String> calculatedCriterions = new HashMap<>();
-        for (AnalysisCriterion criterion : criterions) {
-            calculatedCriterions.put(criterion.getClass().getSimpleName(),
-                                     criterion.calculate(tradeScenario.getTimeSeries(),
-                                                         tradeScenario.getTradingRecord())
-                                              .toString());
+        for (int i = 0; i < values.size(); i++) {
+            calculatedCriterions.put(evaluation.getCriterions().get(i).getClass().getSimpleName(), values.get(i).toString());
         }
         return calculatedCriterions;
     }
 
-    private static List<TradeScenario> prepareTradeScenarios(Function<Variables<Parameter>, TradeStrategy> recipe, TestManager testManager) {
-        return Producer.from(recipe)
-                       .stream()
-                       .map(tradeStrategy -> new TradeScenario(testManager.getMainTimeSeries(tradeStrategy).plainTimeSeries(),
-                                                               tradeStrategy.getParameterValues(),
-                                                               testManager.run(tradeStrategy, Order.OrderType.BUY)))
-                       .collect(Collectors.toList());
+    private MarketData<BidAskBar> loadMarketData(Instant from, TemporalAmount timeWindow) {
+        final MarketData<BidAskBar> marketData = createMarketData();
+        final TestModeExtractorBidAsk testModeExtractor = new TestModeExtractorBidAsk();
+        try (Stream<OhlcvBar> bars = historicalDataService.streamBySymbolAndDateBetweenOrderByDate(SYMBOL, from, timeWindow)) {
+            marketData.addAll(bars.map(testModeExtractor.openHighLowCloseBar()));
+        }
+        return marketData;
     }
 
     private static MarketData<BidAskBar> createMarketData() {
         return MarketDataBuilder.basedOn(StructureDefinition.model(new BidAskBarFactory())
                                                             .resolution(TimeSeriesDefinition.unlimited(BASE_PERIOD)))
                                 .symbols(SYMBOL)
-                                .wrap(ReflectionManualIndexTimeSeries::wrap)
+                                .wrap(BaseManualIndexTimeSeries::wrap)
                                 .build();
     }
-
 }
@@ -0,0 +1,36 @@
+package quantasma.app.model;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * State of a backtest run in the background at the time it was taken
+ */
+@Data
+public class BacktestJob {
+    private final String id;
+    private final String backtest;
+    private final Status status;
+    /**
+     * Parameter combinations of the backtest, known once it is running
+     */
+    private final int total;
+    private final int completed;
+    private final Instant submitted;
+    private final Instant started;
+    private final Instant finished;
+    private final String error;
+
+    public boolean isDone() {
+        return status == Status.COMPLETED || status == Status.FAILED || status == Status.CANCELLED;
+    }
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+}
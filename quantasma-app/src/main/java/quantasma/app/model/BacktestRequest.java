@@ -3,6 +3,7 @@ package quantasma.app.model;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Getter;
+import quantasma.core.analysis.Ranking;
 import quantasma.core.analysis.parametrize.Parameterizable;
 
 import java.time.LocalDate;
@@ -19,16 +20,22 @@ public class BacktestRequest {
     private final Time time;
     private final List<Parameter> parameters;
     private final List<Criterion> criterions;
+    /**
+     * Optional, all results are returned when missing
+     */
+    private final Top top;
 
     @JsonCreator
     public BacktestRequest(@JsonProperty("title") String title,
                            @JsonProperty("time") Time time,
                            @JsonProperty("parameters") List<Parameter> parameters,
-                           @JsonProperty("criterions") List<Criterion> criterions) {
+                           @JsonProperty("criterions") List<Criterion> criterions,
+                           @JsonProperty("top") Top top) {
         this.title = title;
         this.time = time;
         this.parameters = parameters;
         this.criterions = criterions;
+        this.top = top;
     }
 
     public Map<String, Object[]> parameters(Parameterizable[] referenceParameters) {
@@ -81,6 +88,19 @@ public class BacktestRequest {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * @return ranking of the results, {@code null} when all of them are requested
+     */
+    public Ranking ranking() {
+        if (top == null) {
+            return null;
+        }
+        if (top.getCount() < 1) {
+            throw new IllegalArgumentException(String.format("Number of top results must be positive [%s]", top.getCount()));
+        }
+        return new Ranking(top.getCriterion(), top.getCount());
+    }
+
     @Getter
     public static class Time {
         private final LocalDate from;
@@ -120,4 +140,17 @@ public class BacktestRequest {
             this.name = name;
         }
     }
+
+    @Getter
+    public static class Top {
+        private final String criterion;
+        private final int count;
+
+        @JsonCreator
+        public Top(@JsonProperty("criterion") String criterion,
+                   @JsonProperty("count") int count) {
+            this.criterion = criterion;
+            this.count = count;
+        }
+    }
 }
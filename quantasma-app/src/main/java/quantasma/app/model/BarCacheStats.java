@@ -0,0 +1,21 @@
+package quantasma.app.model;
+
+import lombok.Data;
+
+@Data
+public class BarCacheStats {
+    private final long maxBytes;
+    private final long bytes;
+    private final int entries;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long invalidations;
+
+    public double getHitRatio() {
+        if (hits + misses == 0) {
+            return 0;
+        }
+        return (double) hits / (hits + misses);
+    }
+}
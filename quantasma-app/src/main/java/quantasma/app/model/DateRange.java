@@ -0,0 +1,14 @@
+package quantasma.app.model;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Dates of bars from and to both inclusive
+ */
+@Data
+public class DateRange {
+    private final Instant from;
+    private final Instant to;
+}
@@ -0,0 +1,34 @@
+package quantasma.app.model;
+
+import lombok.Data;
+
+import java.util.concurrent.TimeUnit;
+
+@Data
+public class InsertSummary {
+    private static final InsertSummary EMPTY = new InsertSummary(0, 0, 0);
+
+    private final long inserted;
+    private final long duplicates;
+    private final long elapsedNanos;
+
+    public static InsertSummary empty() {
+        return EMPTY;
+    }
+
+    public InsertSummary plus(InsertSummary other) {
+        return new InsertSummary(inserted + other.inserted,
+                                 duplicates + other.duplicates,
+                                 elapsedNanos + other.elapsedNanos);
+    }
+
+    /**
+     * Inserted and duplicated bars processed per second of database time
+     */
+    public double getBarsPerSecond() {
+        if (elapsedNanos == 0) {
+            return 0;
+        }
+        return (inserted + duplicates) * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+}
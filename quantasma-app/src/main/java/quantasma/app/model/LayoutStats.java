@@ -0,0 +1,18 @@
+package quantasma.app.model;
+
+import lombok.Data;
+
+@Data
+public class LayoutStats {
+    private final String layout;
+    private final String collection;
+    private final long documents;
+    private final long dataBytes;
+    private final long storageBytes;
+    private final long indexBytes;
+    /**
+     * Bars read by a full scan of the compared symbol and period
+     */
+    private final long bars;
+    private final double readBarsPerSecond;
+}
@@ -0,0 +1,70 @@
+package quantasma.app.model;
+
+import lombok.Data;
+import lombok.ToString;
+import quantasma.app.repository.OhlcvBarRecords;
+import quantasma.core.BarPeriod;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bars of a symbol and period from a single UTC day packed into one binary field, ordered by date - see {@link OhlcvBarRecords}
+ */
+@Data
+public class MongoOhlcvBucket {
+
+    private String id;
+    private String symbol;
+    private BarPeriod period;
+    private Instant day;
+    private Instant firstDate;
+    private Instant lastDate;
+    private int count;
+    @ToString.Exclude
+    private byte[] bars;
+
+    public MongoOhlcvBucket(String id, String symbol, BarPeriod period, Instant day, Instant firstDate, Instant lastDate, int count, byte[] bars) {
+        this.id = id;
+        this.symbol = symbol;
+        this.period = period;
+        this.day = day;
+        this.firstDate = firstDate;
+        this.lastDate = lastDate;
+        this.count = count;
+        this.bars = bars;
+    }
+
+    /**
+     * @param ohlcvBars of the same day, ordered by date without duplicates
+     */
+    public static MongoOhlcvBucket of(String symbol, BarPeriod period, Instant day, List<OhlcvBar> ohlcvBars) {
+        final ByteBuffer buffer = ByteBuffer.allocate(ohlcvBars.size() * OhlcvBarRecords.RECORD_BYTES);
+        for (OhlcvBar ohlcvBar : ohlcvBars) {
+            OhlcvBarRecords.write(buffer, ohlcvBar);
+        }
+        return new MongoOhlcvBucket(id(symbol, period, day),
+                                    symbol,
+                                    period,
+                                    day,
+                                    ohlcvBars.get(0).getDate(),
+                                    ohlcvBars.get(ohlcvBars.size() - 1).getDate(),
+                                    ohlcvBars.size(),
+                                    buffer.array());
+    }
+
+    public static String id(String symbol, BarPeriod period, Instant day) {
+        return symbol + "_" + period.name() + "_" + day;
+    }
+
+    public List<OhlcvBar> toOhlcvBars() {
+        final ByteBuffer buffer = ByteBuffer.wrap(bars);
+        final List<OhlcvBar> ohlcvBars = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ohlcvBars.add(OhlcvBarRecords.read(buffer, i * OhlcvBarRecords.RECORD_BYTES, symbol, period));
+        }
+        return ohlcvBars;
+    }
+}
@@ -0,0 +1,298 @@
+package quantasma.app.repository;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.data.util.StreamUtils;
+import org.springframework.stereotype.Repository;
+import quantasma.app.config.service.historical.HistoricalDataServiceProperties;
+import quantasma.app.model.HistoricalDataSummary;
+import quantasma.app.model.InsertSummary;
+import quantasma.app.model.MongoOhlcvBar;
+import quantasma.app.model.MongoOhlcvBucket;
+import quantasma.app.model.OhlcvBar;
+import quantasma.core.BarPeriod;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Stores bars in {@link MongoOhlcvBucket}s, a document per symbol, period and day, instead of a document per bar.
+ * Field names, ids and index entries are stored once per day, and a day of bars is read in a single document.<p>
+ * Inserting bars into a stored day reads the bucket, merges the bars and replaces it if it did not change in the meantime,
+ * buckets changed by concurrent inserts are read and merged again.
+ */
+@Repository
+public class BucketHistoricalDataRepository implements HistoricalDataRepository {
+    /**
+     * Buckets hold up to a day of M1 bars, cursor batches are sized in bars
+     */
+    private static final int MAX_BARS_PER_BUCKET = 24 * 60;
+    private static final int MAX_WRITE_ATTEMPTS = 5;
+    private static final int DUPLICATE_KEY_ERROR_CODE = 11000;
+
+    private final HistoricalDataServiceProperties properties;
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public BucketHistoricalDataRepository(HistoricalDataServiceProperties properties, MongoTemplate mongoTemplate) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Stream<MongoOhlcvBar> streamBySymbolAndDateBetweenOrderByDate(String symbol, Instant timeGTE, Instant timeLS) {
+        final Query query = Query.query(Criteria.where("symbol").is(symbol)
+                                                .and("day").gte(day(timeGTE)).lt(timeLS));
+        return streamBars(query).filter(bar -> !bar.getDate().isBefore(timeGTE) && bar.getDate().isBefore(timeLS));
+    }
+
+    @Override
+    public Stream<MongoOhlcvBar> streamBySymbolAndPeriodOrderByDate(String symbol, BarPeriod period) {
+        return streamBars(Query.query(Criteria.where("symbol").is(symbol)
+                                              .and("period").is(period)));
+    }
+
+    /**
+     * Buckets are read ordered by day, bars of all periods of a day are merged by date before moving to the next day
+     */
+    private Stream<MongoOhlcvBar> streamBars(Query query) {
+        query.with(Sort.by("day", "period"))
+             .cursorBatchSize(Math.max(1, properties.getBatchSize() / MAX_BARS_PER_BUCKET));
+        final CloseableIterator<MongoOhlcvBucket> buckets = mongoTemplate.stream(query,
+                                                                                 MongoOhlcvBucket.class,
+                                                                                 properties.bucketCollectionName());
+        return StreamUtils.createStreamFromIterator(new DailyBars(buckets))
+                          .onClose(buckets::close)
+                          .flatMap(List::stream)
+                          .map(MongoOhlcvBar::from);
+    }
+
+    /**
+     * Same as the document layout, a bar already stored is not replaced
+     *
+     * @throws DuplicateKeyException if a bar of the same symbol, period and date is already stored
+     */
+    @Override
+    public MongoOhlcvBar insert(MongoOhlcvBar ohlcvBar) {
+        if (insertSkipDuplicates(Collections.singletonList(ohlcvBar)).getDuplicates() > 0) {
+            throw new DuplicateKeyException(String.format("Bar of [%s] [%s] at [%s] is already stored", ohlcvBar.getSymbol(), ohlcvBar.getPeriod(), ohlcvBar.getDate()));
+        }
+        return ohlcvBar;
+    }
+
+    @Override
+    public InsertSummary insertSkipDuplicates(List<MongoOhlcvBar> ohlcvBars) {
+        if (ohlcvBars.isEmpty()) {
+            return InsertSummary.empty();
+        }
+        final long start = System.nanoTime();
+        Map<String, TreeMap<Instant, OhlcvBar>> barsByBucket = new HashMap<>();
+        long duplicates = 0;
+        for (MongoOhlcvBar ohlcvBar : ohlcvBars) {
+            final String id = MongoOhlcvBucket.id(ohlcvBar.getSymbol(), ohlcvBar.getPeriod(), day(ohlcvBar.getDate()));
+            if (barsByBucket.computeIfAbsent(id, key -> new TreeMap<>()).putIfAbsent(ohlcvBar.getDate(), ohlcvBar.toOhlcvBar()) != null) {
+                duplicates++;
+            }
+        }
+
+        long inserted = 0;
+        for (int attempt = 1; !barsByBucket.isEmpty(); attempt++) {
+            if (attempt > MAX_WRITE_ATTEMPTS) {
+                throw new OptimisticLockingFailureException(String.format("Buckets %s changed concurrently in [%s] attempts", barsByBucket.keySet(), MAX_WRITE_ATTEMPTS));
+            }
+            final Map<String, TreeMap<Instant, OhlcvBar>> conflicts = new HashMap<>();
+            for (BucketWrite write : write(barsByBucket, conflicts)) {
+                inserted += write.added;
+                duplicates += write.alreadyStored;
+            }
+            barsByBucket = conflicts;
+        }
+        return new InsertSummary(inserted, duplicates, System.nanoTime() - start);
+    }
+
+    /**
+     * Merges new bars with the stored buckets and writes them only if the buckets did not change since they were read -
+     * the count of a bucket serves as its version, bars are never removed. A write of a changed or concurrently created bucket
+     * upserts a document with an existing id and fails with a duplicate key error.
+     *
+     * @param conflicts filled with bars of buckets that changed concurrently, to be merged again
+     * @return writes applied
+     */
+    private List<BucketWrite> write(Map<String, TreeMap<Instant, OhlcvBar>> barsByBucket, Map<String, TreeMap<Instant, OhlcvBar>> conflicts) {
+        final Map<String, MongoOhlcvBucket> storedBuckets = new HashMap<>();
+        for (MongoOhlcvBucket bucket : mongoTemplate.find(Query.query(Criteria.where("_id").in(barsByBucket.keySet())),
+                                                          MongoOhlcvBucket.class,
+                                                          properties.bucketCollectionName())) {
+            storedBuckets.put(bucket.getId(), bucket);
+        }
+
+        final BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MongoOhlcvBucket.class, properties.bucketCollectionName());
+        final List<BucketWrite> writes = new ArrayList<>();
+        for (Map.Entry<String, TreeMap<Instant, OhlcvBar>> entry : barsByBucket.entrySet()) {
+            final MongoOhlcvBucket storedBucket = storedBuckets.get(entry.getKey());
+            final int storedCount = storedBucket == null ? 0 : storedBucket.getCount();
+            final TreeMap<Instant, OhlcvBar> bars = new TreeMap<>(entry.getValue());
+            final int alreadyStored = storedBucket == null ? 0 : merge(storedBucket, bars);
+            final BucketWrite write = new BucketWrite(entry.getKey(), entry.getValue(), bars.size() - storedCount, alreadyStored);
+            writes.add(write);
+            if (write.added == 0) {
+                continue;
+            }
+            final OhlcvBar first = bars.firstEntry().getValue();
+            final MongoOhlcvBucket bucket = MongoOhlcvBucket.of(first.getSymbol(), first.getPeriod(), day(first.getDate()), new ArrayList<>(bars.values()));
+            bulkOperations.upsert(Query.query(Criteria.where("_id").is(bucket.getId())
+                                                      .and("count").is(storedCount)),
+                                  new Update().set("symbol", bucket.getSymbol())
+                                              .set("period", bucket.getPeriod())
+                                              .set("day", bucket.getDay())
+                                              .set("firstDate", bucket.getFirstDate())
+                                              .set("lastDate", bucket.getLastDate())
+                                              .set("count", bucket.getCount())
+                                              .set("bars", bucket.getBars()));
+        }
+        final List<BucketWrite> upserts = writes.stream().filter(write -> write.added > 0).collect(Collectors.toList());
+        if (upserts.isEmpty()) {
+            return writes;
+        }
+        try {
+            bulkOperations.execute();
+        } catch (DataIntegrityViolationException e) {
+            if (!(e.getCause() instanceof MongoBulkWriteException)) {
+                throw e;
+            }
+            for (BulkWriteError error : ((MongoBulkWriteException) e.getCause()).getWriteErrors()) {
+                if (error.getCode() != DUPLICATE_KEY_ERROR_CODE) {
+                    throw e;
+                }
+                final BucketWrite conflict = upserts.get(error.getIndex());
+                conflicts.put(conflict.id, conflict.bars);
+                writes.remove(conflict);
+            }
+        }
+        return writes;
+    }
+
+    /**
+     * Adds stored bars to the new ones, stored bars take precedence
+     *
+     * @return number of new bars which were already stored
+     */
+    private static int merge(MongoOhlcvBucket storedBucket, TreeMap<Instant, OhlcvBar> bars) {
+        int alreadyStored = 0;
+        for (OhlcvBar storedBar : storedBucket.toOhlcvBars()) {
+            if (bars.put(storedBar.getDate(), storedBar) != null) {
+                alreadyStored++;
+            }
+        }
+        return alreadyStored;
+    }
+
+    private static final class BucketWrite {
+        private final String id;
+        private final TreeMap<Instant, OhlcvBar> bars;
+        private final int added;
+        private final int alreadyStored;
+
+        private BucketWrite(String id, TreeMap<Instant, OhlcvBar> bars, int added, int alreadyStored) {
+            this.id = id;
+            this.bars = bars;
+            this.added = added;
+            this.alreadyStored = alreadyStored;
+        }
+    }
+
+    @Override
+    public long countBySymbol(String symbol) {
+        final Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("symbol").is(symbol)),
+                Aggregation.group("symbol").sum("count").as("barCount"));
+        final Document result = mongoTemplate.aggregate(aggregation, properties.bucketCollectionName(), Document.class)
+                                             .getUniqueMappedResult();
+        return result == null ? 0 : ((Number) result.get("barCount")).longValue();
+    }
+
+    @Override
+    public List<HistoricalDataSummary> dataSummary() {
+        final Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group("symbol", "period")
+                           .first("symbol").as("symbol")
+                           .first("period").as("period")
+                           .min("firstDate").as("fromDate")
+                           .max("lastDate").as("toDate")
+                           .sum("count").as("barCount"));
+
+        return mongoTemplate.aggregate(aggregation,
+                                       properties.bucketCollectionName(),
+                                       HistoricalDataSummary.class)
+                            .getMappedResults();
+    }
+
+    private static Instant day(Instant date) {
+        return date.truncatedTo(ChronoUnit.DAYS);
+    }
+
+    /**
+     * Bars of buckets of the same day, a list per day ordered by date
+     */
+    private static final class DailyBars implements Iterator<List<OhlcvBar>> {
+        private final Iterator<MongoOhlcvBucket> buckets;
+        private MongoOhlcvBucket nextDayBucket;
+
+        private DailyBars(Iterator<MongoOhlcvBucket> buckets) {
+            this.buckets = buckets;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextDayBucket != null || buckets.hasNext();
+        }
+
+        @Override
+        public List<OhlcvBar> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final MongoOhlcvBucket first = nextDayBucket == null ? buckets.next() : nextDayBucket;
+            nextDayBucket = null;
+            final List<OhlcvBar> bars = first.toOhlcvBars();
+            boolean merged = false;
+            while (buckets.hasNext()) {
+                final MongoOhlcvBucket bucket = buckets.next();
+                if (!bucket.getDay().equals(first.getDay())) {
+                    nextDayBucket = bucket;
+                    break;
+                }
+                bars.addAll(bucket.toOhlcvBars());
+                merged = true;
+            }
+            if (merged) {
+                bars.sort(Comparator.comparing(OhlcvBar::getDate));
+            }
+            return bars;
+        }
+    }
+}
@@ -1,16 +1,29 @@
 package quantasma.app.repository;
 
 import quantasma.app.model.HistoricalDataSummary;
+import quantasma.app.model.InsertSummary;
 import quantasma.app.model.MongoOhlcvBar;
+import quantasma.core.BarPeriod;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface HistoricalDataRepository {
-    List<MongoOhlcvBar> findBySymbolAndDateBetweenOrderByDate(String symbol, Instant timeGTE, Instant timeLS);
+    /**
+     * Bars are read from a cursor in batches while the stream is consumed, the stream has to be closed
+     */
+    Stream<MongoOhlcvBar> streamBySymbolAndDateBetweenOrderByDate(String symbol, Instant timeGTE, Instant timeLS);
+
+    Stream<MongoOhlcvBar> streamBySymbolAndPeriodOrderByDate(String symbol, BarPeriod period);
 
     MongoOhlcvBar insert(MongoOhlcvBar ohlcvBar);
 
+    /**
+     * Inserts all bars in a single unordered bulk operation, bars already stored are counted as duplicates
+     */
+    InsertSummary insertSkipDuplicates(List<MongoOhlcvBar> ohlcvBars);
+
     long countBySymbol(String symbol);
 
     List<HistoricalDataSummary> dataSummary();
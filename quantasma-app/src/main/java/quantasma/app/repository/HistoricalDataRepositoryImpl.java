@@ -1,20 +1,31 @@
 package quantasma.app.repository;
 
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.StreamUtils;
 import org.springframework.stereotype.Repository;
 import quantasma.app.config.service.historical.HistoricalDataServiceProperties;
 import quantasma.app.model.HistoricalDataSummary;
+import quantasma.app.model.InsertSummary;
 import quantasma.app.model.MongoOhlcvBar;
+import quantasma.core.BarPeriod;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public class HistoricalDataRepositoryImpl implements HistoricalDataRepository {
+    private static final int DUPLICATE_KEY_ERROR_CODE = 11000;
 
     private final HistoricalDataServiceProperties properties;
     private final MongoTemplate mongoTemplate;
@@ -26,11 +37,25 @@ public class HistoricalDataRepositoryImpl implements HistoricalDataRepository {
     }
 
     @Override
-    public List<MongoOhlcvBar> findBySymbolAndDateBetweenOrderByDate(String symbol, Instant timeGTE, Instant timeLS) {
-        return mongoTemplate.find(Query.query(Criteria.where("symbol").is(symbol)
-                                                      .and("date").gte(timeGTE).lt(timeLS)),
-                                  MongoOhlcvBar.class,
-                                  properties.collectionName());
+    public Stream<MongoOhlcvBar> streamBySymbolAndDateBetweenOrderByDate(String symbol, Instant timeGTE, Instant timeLS) {
+        final Query query = Query.query(Criteria.where("symbol").is(symbol)
+                                                .and("date").gte(timeGTE).lt(timeLS))
+                                 .with(Sort.by("date"))
+                                 .cursorBatchSize(properties.getBatchSize());
+        return StreamUtils.createStreamFromIterator(mongoTemplate.stream(query,
+                                                                         MongoOhlcvBar.class,
+                                                                         properties.collectionName()));
+    }
+
+    @Override
+    public Stream<MongoOhlcvBar> streamBySymbolAndPeriodOrderByDate(String symbol, BarPeriod period) {
+        final Query query = Query.query(Criteria.where("symbol").is(symbol)
+                                                .and("period").is(period))
+                                 .with(Sort.by("date"))
+                                 .cursorBatchSize(properties.getBatchSize());
+        return StreamUtils.createStreamFromIterator(mongoTemplate.stream(query,
+                                                                         MongoOhlcvBar.class,
+                                                                         properties.collectionName()));
     }
 
     @Override
@@ -38,6 +63,34 @@ public class HistoricalDataRepositoryImpl implements HistoricalDataRepository {
         return mongoTemplate.insert(ohlcvBar, properties.collectionName());
     }
 
+    @Override
+    public InsertSummary insertSkipDuplicates(List<MongoOhlcvBar> ohlcvBars) {
+        if (ohlcvBars.isEmpty()) {
+            return InsertSummary.empty();
+        }
+        final long start = System.nanoTime();
+        try {
+            final BulkWriteResult result = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MongoOhlcvBar.class, properties.collectionName())
+                                                        .insert(ohlcvBars)
+                                                        .execute();
+            return new InsertSummary(result.getInsertedCount(), 0, System.nanoTime() - start);
+        } catch (DataIntegrityViolationException e) {
+            // the driver's bulk write exception is translated, DuplicateKeyException when any of the errors is a duplicate
+            if (!(e.getCause() instanceof MongoBulkWriteException)) {
+                throw e;
+            }
+            final MongoBulkWriteException bulkWriteException = (MongoBulkWriteException) e.getCause();
+            long duplicates = 0;
+            for (BulkWriteError error : bulkWriteException.getWriteErrors()) {
+                if (error.getCode() != DUPLICATE_KEY_ERROR_CODE) {
+                    throw e;
+                }
+                duplicates++;
+            }
+            return new InsertSummary(bulkWriteException.getWriteResult().getInsertedCount(), duplicates, System.nanoTime() - start);
+        }
+    }
+
     @Override
     public long countBySymbol(String symbol) {
         return mongoTemplate.count(Query.query(Criteria.where("symbol").is(symbol)),
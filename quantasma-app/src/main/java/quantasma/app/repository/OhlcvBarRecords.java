@@ -0,0 +1,50 @@
+package quantasma.app.repository;
+
+import quantasma.app.model.OhlcvBar;
+import quantasma.core.BarPeriod;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+/**
+ * Binary layout of a bar shared by storages packing many bars together: epoch millis, bid and ask OHLC prices and volume.
+ * Symbol and period are not stored, they are common to all bars of a storage.
+ */
+public final class OhlcvBarRecords {
+    public static final int RECORD_BYTES = Long.BYTES + 8 * Double.BYTES + Integer.BYTES;
+
+    private OhlcvBarRecords() {
+    }
+
+    public static void write(ByteBuffer buffer, OhlcvBar ohlcvBar) {
+        buffer.putLong(ohlcvBar.getDate().toEpochMilli())
+              .putDouble(ohlcvBar.getBidOpen())
+              .putDouble(ohlcvBar.getBidLow())
+              .putDouble(ohlcvBar.getBidHigh())
+              .putDouble(ohlcvBar.getBidClose())
+              .putDouble(ohlcvBar.getAskOpen())
+              .putDouble(ohlcvBar.getAskLow())
+              .putDouble(ohlcvBar.getAskHigh())
+              .putDouble(ohlcvBar.getAskClose())
+              .putInt(ohlcvBar.getVolume());
+    }
+
+    public static long readTime(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset);
+    }
+
+    public static OhlcvBar read(ByteBuffer buffer, int offset, String symbol, BarPeriod period) {
+        return new OhlcvBar(period,
+                            Instant.ofEpochMilli(buffer.getLong(offset)),
+                            symbol,
+                            buffer.getDouble(offset + 8),
+                            buffer.getDouble(offset + 16),
+                            buffer.getDouble(offset + 24),
+                            buffer.getDouble(offset + 32),
+                            buffer.getDouble(offset + 40),
+                            buffer.getDouble(offset + 48),
+                            buffer.getDouble(offset + 56),
+                            buffer.getDouble(offset + 64),
+                            buffer.getInt(offset + 72));
+    }
+}
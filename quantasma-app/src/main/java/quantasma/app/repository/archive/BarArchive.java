@@ -0,0 +1,464 @@
+package quantasma.app.repository.archive;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import quantasma.app.model.InsertSummary;
+import quantasma.app.model.OhlcvBar;
+import quantasma.app.repository.OhlcvBarRecords;
+import quantasma.core.BarPeriod;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Bars of a single symbol and period stored in a file as fixed-width records ordered by time.<p>
+ * Records follow {@link OhlcvBarRecords}. Time of every {@value #INDEX_INTERVAL}th record
+ * is kept in memory, so the start of a range is found by a binary search in that sparse index followed by a binary search within
+ * a single block of the file. Ranges are read through memory mapped chunks of the file.<p>
+ * Writes are serialized. Bars newer than all stored ones are appended, otherwise the file is rewritten with both merged,
+ * forced to the disk and replaced atomically - streams opened before keep reading the previous file.
+ */
+@Slf4j
+public final class BarArchive {
+    static final int HEADER_BYTES = 2 * Integer.BYTES;
+    static final int RECORD_BYTES = OhlcvBarRecords.RECORD_BYTES;
+    static final int INDEX_INTERVAL = 4096;
+    private static final int MAGIC = 0x51424152;
+    private static final int VERSION = 1;
+    private static final int CHUNK_RECORDS = 16384;
+
+    @Getter
+    private final String symbol;
+    @Getter
+    private final BarPeriod period;
+    private final Path file;
+    /**
+     * Guards replacing the file together with its snapshot, so a reader never pairs a file with an index of another one
+     */
+    private final Object swapLock = new Object();
+    private volatile Snapshot snapshot;
+
+    private BarArchive(String symbol, BarPeriod period, Path file, Snapshot snapshot) {
+        this.symbol = symbol;
+        this.period = period;
+        this.file = file;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Opens the archive file, creates an empty one if it does not exist
+     */
+    public static BarArchive open(Path file, String symbol, BarPeriod period) {
+        try {
+            if (Files.notExists(file)) {
+                try (RecordWriter writer = new RecordWriter(file)) {
+                    return new BarArchive(symbol, period, file, writer.snapshot());
+                }
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return new BarArchive(symbol, period, file, readSnapshot(file, channel));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long count() {
+        return snapshot.count;
+    }
+
+    public Optional<Instant> firstDate() {
+        final Snapshot current = snapshot;
+        return current.count == 0 ? Optional.empty() : Optional.of(Instant.ofEpochMilli(current.index[0]));
+    }
+
+    public Optional<Instant> lastDate() {
+        final Snapshot current = snapshot;
+        return current.count == 0 ? Optional.empty() : Optional.of(Instant.ofEpochMilli(current.lastTime));
+    }
+
+    /**
+     * Bars from {@code [fromDate, toDate)} ordered by date, the stream has to be closed
+     */
+    public Stream<OhlcvBar> stream(Instant fromDate, Instant toDate) {
+        return stream(fromDate.toEpochMilli(), toDate.toEpochMilli());
+    }
+
+    public Stream<OhlcvBar> streamAll() {
+        return stream(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    private Stream<OhlcvBar> stream(long fromMillis, long toMillis) {
+        try {
+            final FileChannel channel;
+            final Snapshot current;
+            synchronized (swapLock) {
+                channel = FileChannel.open(file, StandardOpenOption.READ);
+                current = snapshot;
+            }
+            try {
+                final long from = seek(channel, current, fromMillis);
+                final long to = seek(channel, current, toMillis);
+                return StreamSupport.stream(new RecordSpliterator(channel, from, to), false)
+                                    .onClose(() -> closeQuietly(channel));
+            } catch (IOException | RuntimeException e) {
+                closeQuietly(channel);
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Bars already stored and repeated bars are skipped and counted as duplicates
+     */
+    public synchronized InsertSummary insert(Collection<OhlcvBar> ohlcvBars) {
+        final List<OhlcvBar> sorted = new ArrayList<>(ohlcvBars);
+        sorted.sort(Comparator.comparing(OhlcvBar::getDate));
+        return insertOrdered(sorted.iterator());
+    }
+
+    /**
+     * Inserts bars ordered by date in a single pass without keeping them in memory, so the whole history can be imported from a cursor
+     * rewriting the file at most once. Bars already stored and repeated bars are skipped and counted as duplicates.
+     *
+     * @throws IllegalArgumentException when bars are not ordered by date, the archive is left unchanged
+     */
+    public synchronized InsertSummary insertOrdered(Iterator<OhlcvBar> ohlcvBars) {
+        final long start = System.nanoTime();
+        final OrderedBars orderedBars = new OrderedBars(ohlcvBars);
+        if (!orderedBars.hasNext()) {
+            return InsertSummary.empty();
+        }
+        try {
+            final Snapshot current = snapshot;
+            final long inserted = current.count == 0 || orderedBars.peek().getDate().toEpochMilli() > current.lastTime
+                                  ? append(current, orderedBars)
+                                  : merge(current, orderedBars);
+            return new InsertSummary(inserted, orderedBars.read - inserted, System.nanoTime() - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long append(Snapshot current, Iterator<OhlcvBar> ohlcvBars) throws IOException {
+        try (RecordWriter writer = new RecordWriter(file, current)) {
+            try {
+                while (ohlcvBars.hasNext()) {
+                    writer.write(ohlcvBars.next());
+                }
+                writer.flush();
+            } catch (IOException | RuntimeException e) {
+                writer.truncate(current.count);
+                throw e;
+            }
+            synchronized (swapLock) {
+                snapshot = writer.snapshot();
+            }
+            return writer.count - current.count;
+        }
+    }
+
+    private long merge(Snapshot current, Iterator<OhlcvBar> ohlcvBars) throws IOException {
+        final Path mergedFile = file.resolveSibling(file.getFileName() + ".merge");
+        long inserted = 0;
+        try {
+            final Snapshot merged;
+            try (RecordWriter writer = new RecordWriter(mergedFile);
+                 Stream<OhlcvBar> stored = streamAll()) {
+                final Iterator<OhlcvBar> storedBars = stored.iterator();
+                OhlcvBar storedBar = storedBars.hasNext() ? storedBars.next() : null;
+                while (ohlcvBars.hasNext()) {
+                    final OhlcvBar ohlcvBar = ohlcvBars.next();
+                    while (storedBar != null && storedBar.getDate().isBefore(ohlcvBar.getDate())) {
+                        writer.write(storedBar);
+                        storedBar = storedBars.hasNext() ? storedBars.next() : null;
+                    }
+                    if (storedBar == null || storedBar.getDate().isAfter(ohlcvBar.getDate())) {
+                        writer.write(ohlcvBar);
+                        inserted++;
+                    }
+                }
+                while (storedBar != null) {
+                    writer.write(storedBar);
+                    storedBar = storedBars.hasNext() ? storedBars.next() : null;
+                }
+                writer.flush();
+                // the moved file replaces the only copy of stored bars
+                writer.force();
+                merged = writer.snapshot();
+            }
+            synchronized (swapLock) {
+                Files.move(mergedFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                snapshot = merged;
+            }
+        } finally {
+            Files.deleteIfExists(mergedFile);
+        }
+        log.debug("Merged [{}] bars into [{}] of [{}] bars", inserted, file, current.count);
+        return inserted;
+    }
+
+    /**
+     * @return position of the first record not older than the given time, or the count of records if there is none
+     */
+    private static long seek(FileChannel channel, Snapshot snapshot, long millis) throws IOException {
+        if (snapshot.count == 0 || millis <= snapshot.index[0]) {
+            return 0;
+        }
+        if (millis > snapshot.lastTime) {
+            return snapshot.count;
+        }
+        final int found = Arrays.binarySearch(snapshot.index, millis);
+        if (found >= 0) {
+            return (long) found * INDEX_INTERVAL;
+        }
+        final long blockStart = (long) (-found - 2) * INDEX_INTERVAL;
+        final long blockEnd = Math.min(blockStart + INDEX_INTERVAL, snapshot.count);
+        final MappedByteBuffer block = map(channel, blockStart, blockEnd - blockStart);
+        int low = 1;
+        int high = (int) (blockEnd - blockStart);
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (OhlcvBarRecords.readTime(block, middle * RECORD_BYTES) < millis) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return blockStart + low;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long fromRecord, long records) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + fromRecord * RECORD_BYTES, records * RECORD_BYTES);
+    }
+
+    private static Snapshot readSnapshot(Path file, FileChannel channel) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+            throw new IllegalArgumentException(String.format("File [%s] is not a bar archive", file));
+        }
+        final int version = header.getInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException(String.format("Unsupported version [%s] of bar archive [%s]", version, file));
+        }
+
+        final long recordsBytes = channel.size() - HEADER_BYTES;
+        final long count = recordsBytes / RECORD_BYTES;
+        if (recordsBytes % RECORD_BYTES != 0) {
+            log.warn("Truncating incomplete record at the end of [{}]", file);
+            channel.truncate(HEADER_BYTES + count * RECORD_BYTES);
+        }
+        final long[] index = new long[(int) ((count + INDEX_INTERVAL - 1) / INDEX_INTERVAL)];
+        for (int i = 0; i < index.length; i++) {
+            index[i] = readTime(channel, (long) i * INDEX_INTERVAL);
+        }
+        final long lastTime = count == 0 ? Long.MIN_VALUE : readTime(channel, count - 1);
+        return new Snapshot(count, index, lastTime);
+    }
+
+    private static long readTime(FileChannel channel, long record) throws IOException {
+        final ByteBuffer time = ByteBuffer.allocate(Long.BYTES);
+        channel.read(time, HEADER_BYTES + record * RECORD_BYTES);
+        return time.getLong(0);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            log.warn("Failed to close [{}]", closeable, e);
+        }
+    }
+
+    private static final class Snapshot {
+        private final long count;
+        /**
+         * Times of every {@link #INDEX_INTERVAL}th record
+         */
+        private final long[] index;
+        private final long lastTime;
+
+        private Snapshot(long count, long[] index, long lastTime) {
+            this.count = count;
+            this.index = index;
+            this.lastTime = lastTime;
+        }
+    }
+
+    /**
+     * Skips repeated bars of the same date and rejects bars out of order
+     */
+    private static final class OrderedBars implements Iterator<OhlcvBar> {
+        private final Iterator<OhlcvBar> ohlcvBars;
+        private OhlcvBar next;
+        private Instant lastDate;
+        private long read;
+
+        private OrderedBars(Iterator<OhlcvBar> ohlcvBars) {
+            this.ohlcvBars = ohlcvBars;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && ohlcvBars.hasNext()) {
+                final OhlcvBar ohlcvBar = ohlcvBars.next();
+                read++;
+                if (lastDate == null || ohlcvBar.getDate().isAfter(lastDate)) {
+                    next = ohlcvBar;
+                    lastDate = ohlcvBar.getDate();
+                } else if (ohlcvBar.getDate().isBefore(lastDate)) {
+                    throw new IllegalArgumentException(String.format("Bar of [%s] is not ordered after bar of [%s]", ohlcvBar.getDate(), lastDate));
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public OhlcvBar next() {
+            final OhlcvBar ohlcvBar = peek();
+            next = null;
+            return ohlcvBar;
+        }
+
+        private OhlcvBar peek() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return next;
+        }
+    }
+
+    private final class RecordSpliterator extends Spliterators.AbstractSpliterator<OhlcvBar> {
+        private final FileChannel channel;
+        private final long to;
+        private long next;
+        private long chunkStart;
+        private MappedByteBuffer chunk;
+
+        private RecordSpliterator(FileChannel channel, long from, long to) {
+            super(Math.max(0, to - from), Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.SIZED | Spliterator.IMMUTABLE);
+            this.channel = channel;
+            this.next = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super OhlcvBar> action) {
+            if (next >= to) {
+                return false;
+            }
+            if (chunk == null || next - chunkStart >= CHUNK_RECORDS) {
+                try {
+                    chunkStart = next;
+                    chunk = map(channel, chunkStart, Math.min(CHUNK_RECORDS, to - chunkStart));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            action.accept(OhlcvBarRecords.read(chunk, (int) (next - chunkStart) * RECORD_BYTES, symbol, period));
+            next++;
+            return true;
+        }
+    }
+
+    /**
+     * Writes records through a buffer and extends the sparse index of written records
+     */
+    private static final class RecordWriter implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(CHUNK_RECORDS * RECORD_BYTES);
+        private long count;
+        private long[] index;
+        private long lastTime;
+
+        /**
+         * Creates a new file
+         */
+        private RecordWriter(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            this.index = new long[0];
+            this.lastTime = Long.MIN_VALUE;
+            buffer.putInt(MAGIC).putInt(VERSION);
+            flush();
+        }
+
+        /**
+         * Appends to an existing file
+         */
+        private RecordWriter(Path file, Snapshot snapshot) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.WRITE);
+            this.channel.position(HEADER_BYTES + snapshot.count * RECORD_BYTES);
+            this.count = snapshot.count;
+            this.index = snapshot.index;
+            this.lastTime = snapshot.lastTime;
+        }
+
+        private void write(OhlcvBar ohlcvBar) throws IOException {
+            if (buffer.remaining() < RECORD_BYTES) {
+                flush();
+            }
+            final long time = ohlcvBar.getDate().toEpochMilli();
+            OhlcvBarRecords.write(buffer, ohlcvBar);
+            if (count % INDEX_INTERVAL == 0) {
+                index = Arrays.copyOf(index, index.length + 1);
+                index[index.length - 1] = time;
+            }
+            lastTime = time;
+            count++;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void force() throws IOException {
+            channel.force(true);
+        }
+
+        /**
+         * Drops records written after the given count of records, which has to be the count this writer started with
+         */
+        private void truncate(long records) throws IOException {
+            channel.truncate(HEADER_BYTES + records * RECORD_BYTES);
+        }
+
+        private Snapshot snapshot() {
+            return new Snapshot(count, index, lastTime);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package quantasma.app.repository.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import quantasma.core.BarPeriod;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps a {@link BarArchive} file per symbol and period in a single directory, files are named {@code SYMBOL_PERIOD.bars}
+ */
+@Repository
+@Profile("archive")
+@Slf4j
+public class BarArchiveRepository {
+    private static final String EXTENSION = ".bars";
+    private static final String SEPARATOR = "_";
+
+    private final Path directory;
+    private final ConcurrentMap<String, BarArchive> archives = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BarArchiveRepository(@Value("${service.historical-data.archive.directory}") String directory) {
+        this.directory = Paths.get(directory);
+        openArchives();
+    }
+
+    private void openArchives() {
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+                for (Path file : files) {
+                    final String name = file.getFileName().toString();
+                    final int separatorIndex = name.lastIndexOf(SEPARATOR);
+                    if (separatorIndex < 0) {
+                        log.warn("Skipping file [{}] not named after symbol and period", file);
+                        continue;
+                    }
+                    final String symbol = name.substring(0, separatorIndex);
+                    final BarPeriod period = BarPeriod.valueOf(name.substring(separatorIndex + 1, name.length() - EXTENSION.length()));
+                    final BarArchive archive = BarArchive.open(file, symbol, period);
+                    archives.put(key(symbol, period), archive);
+                    log.info("Opened archive of [{}] [{}] with [{}] bars", symbol, period, archive.count());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates an empty archive if there is none
+     */
+    public BarArchive archive(String symbol, BarPeriod period) {
+        return archives.computeIfAbsent(key(symbol, period),
+                                        key -> BarArchive.open(directory.resolve(key + EXTENSION), symbol, period));
+    }
+
+    /**
+     * @return archives of all periods of the symbol, ordered from the shortest period
+     */
+    public List<BarArchive> archives(String symbol) {
+        final List<BarArchive> result = new ArrayList<>();
+        for (BarArchive archive : archives.values()) {
+            if (archive.getSymbol().equals(symbol)) {
+                result.add(archive);
+            }
+        }
+        result.sort(Comparator.comparing(BarArchive::getPeriod));
+        return result;
+    }
+
+    public Collection<BarArchive> archives() {
+        return archives.values();
+    }
+
+    private static String key(String symbol, BarPeriod period) {
+        return symbol + SEPARATOR + period.name();
+    }
+}
@@ -0,0 +1,177 @@
+package quantasma.app.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import quantasma.app.config.HistoricalDataServiceConfig;
+import quantasma.app.model.HistoricalDataSummary;
+import quantasma.app.model.InsertSummary;
+import quantasma.app.model.OhlcvBar;
+import quantasma.app.repository.archive.BarArchive;
+import quantasma.app.repository.archive.BarArchiveRepository;
+import quantasma.app.util.Util;
+
+import java.time.Instant;
+import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Historical data kept in local {@link BarArchive} files, does not need a database
+ */
+@Service
+@Qualifier(HistoricalDataServiceConfig.STORAGE)
+@Profile("archive")
+@Slf4j
+public class ArchiveHistoricalDataService implements HistoricalDataService {
+
+    private final BarArchiveRepository barArchiveRepository;
+    private final AtomicReference<InsertSummary> ingestionSummary = new AtomicReference<>(InsertSummary.empty());
+
+    @Autowired
+    public ArchiveHistoricalDataService(BarArchiveRepository barArchiveRepository) {
+        this.barArchiveRepository = barArchiveRepository;
+    }
+
+    @Override
+    public void insert(OhlcvBar ohlcvBar) {
+        barArchiveRepository.archive(ohlcvBar.getSymbol(), ohlcvBar.getPeriod())
+                            .insert(Collections.singletonList(ohlcvBar));
+    }
+
+    @Override
+    public InsertSummary insertSkipDuplicates(Collection<OhlcvBar> ohlcvBars) {
+        final Map<BarArchive, List<OhlcvBar>> barsByArchive = new LinkedHashMap<>();
+        for (OhlcvBar ohlcvBar : ohlcvBars) {
+            barsByArchive.computeIfAbsent(barArchiveRepository.archive(ohlcvBar.getSymbol(), ohlcvBar.getPeriod()), archive -> new ArrayList<>())
+                         .add(ohlcvBar);
+        }
+        InsertSummary summary = InsertSummary.empty();
+        for (Map.Entry<BarArchive, List<OhlcvBar>> entry : barsByArchive.entrySet()) {
+            summary = summary.plus(entry.getKey().insert(entry.getValue()));
+        }
+
+        ingestionSummary.accumulateAndGet(summary, InsertSummary::plus);
+        log.info("Inserted [{}] bars, skipped [{}] duplicates, [{}] bars/s", summary.getInserted(), summary.getDuplicates(), Math.round(summary.getBarsPerSecond()));
+        return summary;
+    }
+
+    @Override
+    public InsertSummary ingestionSummary() {
+        return ingestionSummary.get();
+    }
+
+    /**
+     * Like the Mongo collection, bars of all periods of the symbol are returned - merged by date if there is more than one period
+     */
+    @Override
+    public Stream<OhlcvBar> streamBySymbolAndDateBetweenOrderByDate(String symbol, Instant startDate, TemporalAmount window) {
+        final Instant endDate = Util.instantPlusTemporalAmount(startDate, window);
+        final List<BarArchive> archives = barArchiveRepository.archives(symbol);
+        if (archives.isEmpty()) {
+            return Stream.empty();
+        }
+        if (archives.size() == 1) {
+            return archives.get(0).stream(startDate, endDate);
+        }
+        final List<Stream<OhlcvBar>> streams = new ArrayList<>(archives.size());
+        try {
+            for (BarArchive archive : archives) {
+                streams.add(archive.stream(startDate, endDate));
+            }
+            return StreamSupport.stream(new MergedBars(streams), false)
+                                .onClose(() -> streams.forEach(Stream::close));
+        } catch (RuntimeException e) {
+            streams.forEach(Stream::close);
+            throw e;
+        }
+    }
+
+    @Override
+    public long countBySymbol(String symbol) {
+        long count = 0;
+        for (BarArchive archive : barArchiveRepository.archives(symbol)) {
+            count += archive.count();
+        }
+        return count;
+    }
+
+    @Override
+    public List<HistoricalDataSummary> dataSummary() {
+        final List<HistoricalDataSummary> summaries = new ArrayList<>();
+        for (BarArchive archive : barArchiveRepository.archives()) {
+            if (archive.count() > 0) {
+                summaries.add(new HistoricalDataSummary(archive.getSymbol(),
+                                                        archive.getPeriod(),
+                                                        archive.firstDate().get(),
+                                                        archive.lastDate().get(),
+                                                        archive.count()));
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Merges streams ordered by date keeping only their next bars in memory, bars of the same date follow the order of the streams
+     */
+    private static final class MergedBars extends Spliterators.AbstractSpliterator<OhlcvBar> {
+        private final List<Stream<OhlcvBar>> streams;
+        private PriorityQueue<Head> heads;
+
+        private MergedBars(List<Stream<OhlcvBar>> streams) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.streams = streams;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super OhlcvBar> action) {
+            if (heads == null) {
+                heads = new PriorityQueue<>(streams.size(), Comparator.comparing((Head head) -> head.ohlcvBar.getDate())
+                                                                      .thenComparingInt(head -> head.order));
+                for (int i = 0; i < streams.size(); i++) {
+                    final Iterator<OhlcvBar> ohlcvBars = streams.get(i).iterator();
+                    if (ohlcvBars.hasNext()) {
+                        heads.add(new Head(i, ohlcvBars, ohlcvBars.next()));
+                    }
+                }
+            }
+            final Head head = heads.poll();
+            if (head == null) {
+                return false;
+            }
+            action.accept(head.ohlcvBar);
+            if (head.ohlcvBars.hasNext()) {
+                head.ohlcvBar = head.ohlcvBars.next();
+                heads.add(head);
+            }
+            return true;
+        }
+    }
+
+    private static final class Head {
+        private final int order;
+        private final Iterator<OhlcvBar> ohlcvBars;
+        private OhlcvBar ohlcvBar;
+
+        private Head(int order, Iterator<OhlcvBar> ohlcvBars, OhlcvBar ohlcvBar) {
+            this.order = order;
+            this.ohlcvBars = ohlcvBars;
+            this.ohlcvBar = ohlcvBar;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package quantasma.app.service;
+
+import lombok.extern.slf4j.Slf4j;
+import quantasma.app.model.BacktestJob;
+import quantasma.core.analysis.BacktestResult;
+import quantasma.core.analysis.ProgressListener;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Backtests run in the background by a fixed number of threads. Jobs waiting for a thread are limited by the queue capacity,
+ * submitting more of them is rejected, so parallel users can not pile up work without limit.<p>
+ * Finished jobs are kept with their results until more than the retained number of jobs finish after them.
+ * A job keeps a single list of its results, either every finished one or only the ones returned by the backtest.
+ */
+@Slf4j
+public class BacktestJobs {
+
+    private final ThreadPoolExecutor executor;
+    private final int retainedJobs;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Deque<String> finishedJobs = new ArrayDeque<>();
+
+    public BacktestJobs(int threads, int queueCapacity, int retainedJobs) {
+        if (threads < 1 || queueCapacity < 0 || retainedJobs < 0) {
+            throw new IllegalArgumentException(String.format("Invalid backtest jobs settings - threads [%s], queue capacity [%s], retained jobs [%s]",
+                                                             threads, queueCapacity, retainedJobs));
+        }
+        final AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads,
+                                               threads,
+                                               0,
+                                               TimeUnit.MILLISECONDS,
+                                               queueCapacity == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueCapacity),
+                                               runnable -> new Thread(runnable, "backtest-" + counter.incrementAndGet()));
+        this.retainedJobs = retainedJobs;
+    }
+
+    /**
+     * Results are kept as they are finished, see {@link #finishedResults(String, int)}
+     *
+     * @param backtest run of the backtest reporting its progress to the given listener
+     * @throws RejectedExecutionException when the queue of jobs is full
+     */
+    public BacktestJob submit(String name, Function<ProgressListener<BacktestResult>, List<BacktestResult>> backtest) {
+        return submit(name, true, backtest);
+    }
+
+    /**
+     * @param keepFinished false when finished results are only counted, eg. a backtest ranking its results returns only the top of them,
+     *                     so keeping the result of every parameter combination would grow with their number
+     * @param backtest     run of the backtest reporting its progress to the given listener
+     * @throws RejectedExecutionException when the queue of jobs is full
+     */
+    public BacktestJob submit(String name, boolean keepFinished, Function<ProgressListener<BacktestResult>, List<BacktestResult>> backtest) {
+        final Job job = new Job(UUID.randomUUID().toString(), name, keepFinished, backtest);
+        jobs.put(job.id, job);
+        try {
+            job.future = executor.submit(job::run);
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new RejectedExecutionException(String.format("Backtest [%s] rejected, [%s] jobs are already waiting", name, executor.getQueue().size()), e);
+        }
+        log.info("Submitted backtest [{}] as job [{}]", name, job.id);
+        return job.snapshot();
+    }
+
+    public BacktestJob get(String id) {
+        return job(id).snapshot();
+    }
+
+    /**
+     * @return results of a job keeping finished ones in the order of completion, otherwise the ones returned by the backtest
+     * @throws IllegalStateException when the job did not complete
+     */
+    public List<BacktestResult> results(String id) {
+        final Job job = job(id);
+        if (job.status != BacktestJob.Status.COMPLETED) {
+            throw new IllegalStateException(String.format("Backtest job [%s] is [%s], results are available once completed", id, job.status));
+        }
+        return job.keepFinished ? finishedResults(id, 0) : job.results;
+    }
+
+    /**
+     * @param from number of results already known
+     * @return results calculated so far in the order of completion, skipping the given number of them.
+     * Results of a job not keeping finished ones are returned once it is completed.
+     */
+    public List<BacktestResult> finishedResults(String id, int from) {
+        final Job job = job(id);
+        if (!job.keepFinished) {
+            final List<BacktestResult> results = job.results;
+            return results != null && from < results.size() ? new ArrayList<>(results.subList(from, results.size())) : Collections.emptyList();
+        }
+        final List<BacktestResult> finishedResults = job.finishedResults;
+        synchronized (finishedResults) {
+            return from < finishedResults.size() ? new ArrayList<>(finishedResults.subList(from, finishedResults.size())) : Collections.emptyList();
+        }
+    }
+
+    /**
+     * A queued job is not started anymore, a running one stops before its next parameter combination
+     */
+    public BacktestJob cancel(String id) {
+        final Job job = job(id);
+        job.cancelled = true;
+        final Future<?> future = job.future;
+        if (job.status == BacktestJob.Status.QUEUED && future != null && future.cancel(false)) {
+            executor.purge();
+            job.finish(BacktestJob.Status.CANCELLED, null);
+        }
+        log.info("Cancelled backtest job [{}]", id);
+        return job.snapshot();
+    }
+
+    public void shutdown() {
+        jobs.values().forEach(job -> job.cancelled = true);
+        executor.shutdownNow();
+    }
+
+    /**
+     * @throws UnknownBacktestJobException when the job was never submitted or was already forgotten
+     */
+    private Job job(String id) {
+        final Job job = jobs.get(id);
+        if (job == null) {
+            throw new UnknownBacktestJobException(id);
+        }
+        return job;
+    }
+
+    private void retire(String id) {
+        synchronized (finishedJobs) {
+            finishedJobs.add(id);
+            while (finishedJobs.size() > retainedJobs) {
+                jobs.remove(finishedJobs.poll());
+            }
+        }
+    }
+
+    private final class Job implements ProgressListener<BacktestResult> {
+        private final String id;
+        private final String name;
+        private final boolean keepFinished;
+        private final Function<ProgressListener<BacktestResult>, List<BacktestResult>> backtest;
+        private final Instant submitted = Instant.now();
+        private final List<BacktestResult> finishedResults = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger completed = new AtomicInteger();
+        private volatile BacktestJob.Status status = BacktestJob.Status.QUEUED;
+        private volatile int total;
+        private volatile boolean cancelled;
+        private volatile Instant started;
+        private volatile Instant finished;
+        private volatile String error;
+        private volatile List<BacktestResult> results;
+        private volatile Future<?> future;
+
+        private Job(String id, String name, boolean keepFinished, Function<ProgressListener<BacktestResult>, List<BacktestResult>> backtest) {
+            this.id = id;
+            this.name = name;
+            this.keepFinished = keepFinished;
+            this.backtest = backtest;
+        }
+
+        private void run() {
+            if (cancelled) {
+                finish(BacktestJob.Status.CANCELLED, null);
+                return;
+            }
+            started = Instant.now();
+            status = BacktestJob.Status.RUNNING;
+            try {
+                final List<BacktestResult> returned = backtest.apply(this);
+                // finished results kept are the same as the returned ones, only in the order of completion
+                if (!keepFinished) {
+                    results = returned;
+                }
+                finish(BacktestJob.Status.COMPLETED, null);
+            } catch (CancellationException e) {
+                finish(BacktestJob.Status.CANCELLED, null);
+            } catch (Throwable e) {
+                // errors too, the future swallows them and the job would stay running forever
+                log.error("Backtest job [{}] of [{}] failed", id, name, e);
+                finish(BacktestJob.Status.FAILED, e.getMessage());
+            }
+        }
+
+        private synchronized void finish(BacktestJob.Status finalStatus, String failure) {
+            if (finished != null) {
+                return;
+            }
+            error = failure;
+            finished = Instant.now();
+            status = finalStatus;
+            log.info("Backtest job [{}] of [{}] {} after [{}] of [{}] parameter combinations", id, name, finalStatus, completed.get(), total);
+            retire(id);
+        }
+
+        private BacktestJob snapshot() {
+            return new BacktestJob(id, name, status, total, completed.get(), submitted, started, finished, error);
+        }
+
+        @Override
+        public void started(int total) {
+            this.total = total;
+        }
+
+        @Override
+        public void finished(BacktestResult item) {
+            if (keepFinished) {
+                finishedResults.add(item);
+            }
+            completed.incrementAndGet();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
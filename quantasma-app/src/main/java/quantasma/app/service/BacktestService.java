@@ -1,8 +1,10 @@
 package quantasma.app.service;
 
+import quantasma.app.model.BacktestJob;
 import quantasma.app.model.BacktestRequest;
 import quantasma.app.model.BacktestScenario;
 import quantasma.core.analysis.BacktestResult;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.Set;
@@ -15,5 +17,33 @@ public interface BacktestService {
 
     List<BacktestResult> test(String name, BacktestRequest request);
 
+    /**
+     * Runs the backtest in the background
+     *
+     * @throws java.util.concurrent.RejectedExecutionException when too many backtests are already waiting
+     */
+    BacktestJob submit(String name, BacktestRequest request);
+
+    BacktestJob job(String jobId);
+
+    /**
+     * Current state of the job followed by its changes until it is done
+     */
+    Flux<BacktestJob> progress(String jobId);
+
+    /**
+     * Results of a completed job in the order of parameter combinations
+     */
+    List<BacktestResult> results(String jobId);
+
+    /**
+     * Results of the job in the order they are calculated, followed by next ones until the job is done
+     *
+     * @param from number of results already received
+     */
+    Flux<BacktestResult> finishedResults(String jobId, int from);
+
+    BacktestJob cancel(String jobId);
+
     Set<String> criterions();
 }
@@ -2,16 +2,25 @@ package quantasma.app.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.PathVariable;
 import quantasma.app.config.service.backtest.CriterionsFactory;
+import quantasma.app.model.BacktestJob;
 import quantasma.app.model.BacktestRequest;
 import quantasma.app.model.BacktestScenario;
 import quantasma.core.analysis.BacktestResult;
+import quantasma.core.analysis.ProgressListener;
 import quantasma.core.analysis.StrategyBacktest;
+import reactor.core.publisher.Flux;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
+import javax.annotation.PreDestroy;
+import java.time.Duration;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -20,14 +29,26 @@ import java.util.stream.Collectors;
 @Slf4j
 public class BacktestServiceImpl implements BacktestService {
 
+    private static final Duration PROGRESS_INTERVAL = Duration.ofMillis(500);
+
     private final List<StrategyBacktest> backtests;
     private final CriterionsFactory criterionsFactory;
+    private final BacktestJobs backtestJobs;
 
     @Autowired
     public BacktestServiceImpl(List<StrategyBacktest> backtests,
-                               CriterionsFactory criterionsFactory) {
+                               CriterionsFactory criterionsFactory,
+                               @Value("${service.backtest.jobs.threads}") int jobThreads,
+                               @Value("${service.backtest.jobs.queue-capacity}") int jobQueueCapacity,
+                               @Value("${service.backtest.jobs.retained}") int retainedJobs) {
         this.backtests = backtests;
         this.criterionsFactory = criterionsFactory;
+        this.backtestJobs = new BacktestJobs(jobThreads, jobQueueCapacity, retainedJobs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        backtestJobs.shutdown();
     }
 
     @Override
@@ -52,16 +73,74 @@ public class BacktestServiceImpl implements BacktestService {
 
     @Override
     public List<BacktestResult> test(String name, BacktestRequest request) {
+        return run(backtest(name), request, ProgressListener.none());
+    }
+
+    @Override
+    public BacktestJob submit(String name, BacktestRequest request) {
+        final StrategyBacktest strategyBacktest = backtest(name);
+        // a ranked backtest summarizes every parameter combination, but only the top results are worth keeping
+        return backtestJobs.submit(name, request.ranking() == null, progressListener -> run(strategyBacktest, request, progressListener));
+    }
+
+    @Override
+    public BacktestJob job(String jobId) {
+        return backtestJobs.get(jobId);
+    }
+
+    @Override
+    public Flux<BacktestJob> progress(String jobId) {
+        backtestJobs.get(jobId);
+        return Flux.interval(Duration.ZERO, PROGRESS_INTERVAL)
+                   .map(tick -> backtestJobs.get(jobId))
+                   .distinctUntilChanged()
+                   .takeUntil(BacktestJob::isDone)
+                   .onBackpressureLatest();
+    }
+
+    @Override
+    public List<BacktestResult> results(String jobId) {
+        return backtestJobs.results(jobId);
+    }
+
+    @Override
+    public Flux<BacktestResult> finishedResults(String jobId, int from) {
+        backtestJobs.get(jobId);
+        final AtomicInteger received = new AtomicInteger(from);
+        return Flux.interval(Duration.ZERO, PROGRESS_INTERVAL)
+                   .onBackpressureDrop()
+                   .map(tick -> {
+                       // checked first, so results of a done job are all taken
+                       final boolean done = backtestJobs.get(jobId).isDone();
+                       final List<BacktestResult> results = backtestJobs.finishedResults(jobId, received.get());
+                       received.addAndGet(results.size());
+                       return Tuples.of(done, results);
+                   })
+                   .takeUntil(Tuple2::getT1)
+                   .concatMapIterable(Tuple2::getT2);
+    }
+
+    @Override
+    public BacktestJob cancel(String jobId) {
+        return backtestJobs.cancel(jobId);
+    }
+
+    private StrategyBacktest backtest(String name) {
         return backtests.stream()
                         .filter(matchBacktest(name))
                         .findFirst()
-                        .map(strategyBacktest -> strategyBacktest.run(request.parameters(strategyBacktest.parameterizables()),
-                                                                      request.criterionNames(),
-                                                                      request.getTime().getFrom().atStartOfDay(),
-                                                                      request.getTime().getWindowAsPeriod()))
                         .orElseThrow(unknownBacktest(name));
     }
 
+    private static List<BacktestResult> run(StrategyBacktest strategyBacktest, BacktestRequest request, ProgressListener<? super BacktestResult> progressListener) {
+        return strategyBacktest.run(request.parameters(strategyBacktest.parameterizables()),
+                                    request.criterionNames(),
+                                    request.getTime().getFrom().atStartOfDay(),
+                                    request.getTime().getWindowAsPeriod(),
+                                    request.ranking(),
+                                    progressListener);
+    }
+
     private static Predicate<StrategyBacktest> matchBacktest(String name) {
         return strategyBacktest -> strategyBacktest.getClass().getSimpleName().equalsIgnoreCase(name);
     }
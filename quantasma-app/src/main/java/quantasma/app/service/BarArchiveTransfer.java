@@ -0,0 +1,85 @@
+package quantasma.app.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Service;
+import quantasma.app.config.service.historical.HistoricalDataServiceProperties;
+import quantasma.app.config.service.historical.MongoConfig;
+import quantasma.app.model.InsertSummary;
+import quantasma.app.model.MongoOhlcvBar;
+import quantasma.app.model.OhlcvBar;
+import quantasma.app.repository.HistoricalDataRepository;
+import quantasma.app.repository.archive.BarArchive;
+import quantasma.app.repository.archive.BarArchiveRepository;
+import quantasma.core.BarPeriod;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Copies bars between the Mongo collection and local archives without materializing either side in memory.<p>
+ * Needs Mongo, so it is only enabled with the "archive-transfer" profile next to the "archive" one.
+ */
+@Service
+@Profile("archive & archive-transfer")
+@Slf4j
+public class BarArchiveTransfer {
+
+    private final BarArchiveRepository barArchiveRepository;
+    private final HistoricalDataRepository historicalDataRepository;
+    private final HistoricalDataServiceProperties properties;
+    private final MongoOperations mongoOperations;
+    private final BarRangeCache barRangeCache;
+
+    @Autowired
+    public BarArchiveTransfer(BarArchiveRepository barArchiveRepository,
+                              HistoricalDataRepository historicalDataRepository,
+                              HistoricalDataServiceProperties properties,
+                              MongoOperations mongoOperations,
+                              BarRangeCache barRangeCache) {
+        this.barArchiveRepository = barArchiveRepository;
+        this.historicalDataRepository = historicalDataRepository;
+        this.properties = properties;
+        this.mongoOperations = mongoOperations;
+        this.barRangeCache = barRangeCache;
+    }
+
+    /**
+     * Bars are read from a cursor ordered by date and inserted in a single pass, so importing history older than the archive
+     * rewrites its file once
+     */
+    public InsertSummary importFromMongo(String symbol, BarPeriod period) {
+        final BarArchive archive = barArchiveRepository.archive(symbol, period);
+        final InsertSummary summary;
+        try (Stream<MongoOhlcvBar> bars = historicalDataRepository.streamBySymbolAndPeriodOrderByDate(symbol, period)) {
+            summary = archive.insertOrdered(bars.map(MongoOhlcvBar::toOhlcvBar).iterator());
+        } finally {
+            // archives are written directly, not through the cached service
+            barRangeCache.invalidate(symbol);
+        }
+        log.info("Imported [{}] bars of [{}] [{}] from Mongo, [{}] already archived", summary.getInserted(), symbol, period, summary.getDuplicates());
+        return summary;
+    }
+
+    public InsertSummary exportToMongo(String symbol, BarPeriod period) {
+        MongoConfig.ensureIndexes(mongoOperations, properties);
+        InsertSummary summary = InsertSummary.empty();
+        try (Stream<OhlcvBar> bars = barArchiveRepository.archive(symbol, period).streamAll()) {
+            final Iterator<OhlcvBar> iterator = bars.iterator();
+            final List<MongoOhlcvBar> chunk = new ArrayList<>(properties.getInsertChunkSize());
+            while (iterator.hasNext()) {
+                chunk.add(MongoOhlcvBar.from(iterator.next()));
+                if (chunk.size() == properties.getInsertChunkSize() || !iterator.hasNext()) {
+                    summary = summary.plus(historicalDataRepository.insertSkipDuplicates(chunk));
+                    chunk.clear();
+                }
+            }
+        }
+        log.info("Exported [{}] bars of [{}] [{}] to Mongo, [{}] already stored", summary.getInserted(), symbol, period, summary.getDuplicates());
+        return summary;
+    }
+}
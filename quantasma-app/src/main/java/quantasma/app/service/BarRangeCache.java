@@ -0,0 +1,221 @@
+package quantasma.app.service;
+
+import lombok.Value;
+import quantasma.app.model.BarCacheStats;
+import quantasma.app.model.OhlcvBar;
+import quantasma.app.repository.OhlcvBarRecords;
+import quantasma.core.BarPeriod;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Least recently used ranges of bars, bounded by their size in bytes.<p>
+ * Bars are kept packed as {@link OhlcvBarRecords} with a period byte per bar, instead of a bar object per bar.
+ * A missed range is stored once the loaded stream is fully consumed, partially consumed streams and ranges larger than the budget are not stored.
+ * Ranges invalidated while being loaded are not stored either, so the cache never outlives a write of the storage.
+ */
+public class BarRangeCache {
+    /**
+     * Rough size of a key, an entry of the map and the arrays headers
+     */
+    private static final int ENTRY_OVERHEAD_BYTES = 160;
+    private static final int INITIAL_CAPACITY_BARS = 1024;
+    private static final BarPeriod[] PERIODS = BarPeriod.values();
+
+    private final long maxBytes;
+    private final LinkedHashMap<Range, Block> blocks = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long bytes;
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public BarRangeCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException(String.format("Cache size should be equal or greater than 0 [%s]", maxBytes));
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @param loader opens a stream of bars of the range ordered by date, called on a miss only
+     */
+    public Stream<OhlcvBar> stream(String symbol, Instant from, Instant to, Supplier<Stream<OhlcvBar>> loader) {
+        final Range range = new Range(symbol, from, to);
+        final long loadGeneration;
+        synchronized (this) {
+            final Block block = blocks.get(range);
+            if (block != null) {
+                hits++;
+                return block.stream(symbol);
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+        final Stream<OhlcvBar> source = loader.get();
+        return StreamSupport.stream(new ReadThrough(range, loadGeneration, source.iterator()), false)
+                            .onClose(source::close);
+    }
+
+    /**
+     * Drops stored ranges of the symbol overlapping [from, to]
+     */
+    public synchronized void invalidate(String symbol, Instant from, Instant to) {
+        generation++;
+        final Iterator<Map.Entry<Range, Block>> iterator = blocks.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<Range, Block> entry = iterator.next();
+            final Range range = entry.getKey();
+            if (range.symbol.equals(symbol) && range.from.compareTo(to) <= 0 && range.to.compareTo(from) > 0) {
+                remove(iterator, entry.getValue());
+                invalidations++;
+            }
+        }
+    }
+
+    public synchronized void invalidate(String symbol) {
+        invalidate(symbol, Instant.MIN, Instant.MAX);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations += blocks.size();
+        blocks.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Incremented by every invalidation, so data derived from the storage can tell it may be stale
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized BarCacheStats stats() {
+        return new BarCacheStats(maxBytes, bytes, blocks.size(), hits, misses, evictions, invalidations);
+    }
+
+    private synchronized void put(Range range, long loadGeneration, Block block) {
+        if (loadGeneration != generation || block.bytes() > maxBytes) {
+            return;
+        }
+        final Block replaced = blocks.put(range, block);
+        if (replaced != null) {
+            bytes -= replaced.bytes();
+        }
+        bytes += block.bytes();
+
+        final Iterator<Block> leastRecentlyUsed = blocks.values().iterator();
+        while (bytes > maxBytes) {
+            final Block evicted = leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            bytes -= evicted.bytes();
+            evictions++;
+        }
+    }
+
+    private void remove(Iterator<?> iterator, Block block) {
+        iterator.remove();
+        bytes -= block.bytes();
+    }
+
+    @Value
+    private static class Range {
+        private final String symbol;
+        private final Instant from;
+        private final Instant to;
+    }
+
+    private static final class Block {
+        private final ByteBuffer records;
+        private final byte[] periods;
+
+        private Block(ByteBuffer records, byte[] periods) {
+            this.records = records;
+            this.periods = periods;
+        }
+
+        private long bytes() {
+            return records.capacity() + periods.length + ENTRY_OVERHEAD_BYTES;
+        }
+
+        private Stream<OhlcvBar> stream(String symbol) {
+            return IntStream.range(0, periods.length)
+                            .mapToObj(i -> OhlcvBarRecords.read(records, i * OhlcvBarRecords.RECORD_BYTES, symbol, PERIODS[periods[i]]));
+        }
+    }
+
+    /**
+     * Passes loaded bars through while packing them, the packed block is stored when the source is exhausted
+     */
+    private final class ReadThrough extends Spliterators.AbstractSpliterator<OhlcvBar> {
+        private final Range range;
+        private final long loadGeneration;
+        private final Iterator<OhlcvBar> source;
+        private ByteBuffer records = ByteBuffer.allocate(INITIAL_CAPACITY_BARS * OhlcvBarRecords.RECORD_BYTES);
+        private byte[] periods = new byte[INITIAL_CAPACITY_BARS];
+        private int count;
+        private boolean packing = true;
+
+        private ReadThrough(Range range, long loadGeneration, Iterator<OhlcvBar> source) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.range = range;
+            this.loadGeneration = loadGeneration;
+            this.source = source;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super OhlcvBar> action) {
+            if (!source.hasNext()) {
+                if (packing) {
+                    packing = false;
+                    put(range, loadGeneration, new Block(trimmedRecords(), Arrays.copyOf(periods, count)));
+                }
+                return false;
+            }
+            final OhlcvBar ohlcvBar = source.next();
+            if (packing) {
+                pack(ohlcvBar);
+            }
+            action.accept(ohlcvBar);
+            return true;
+        }
+
+        private void pack(OhlcvBar ohlcvBar) {
+            if (count == periods.length) {
+                if ((long) periods.length * 2 * (OhlcvBarRecords.RECORD_BYTES + 1) > maxBytes) {
+                    packing = false;
+                    records = null;
+                    periods = null;
+                    return;
+                }
+                final ByteBuffer grown = ByteBuffer.allocate(records.capacity() * 2);
+                records.flip();
+                grown.put(records);
+                records = grown;
+                periods = Arrays.copyOf(periods, periods.length * 2);
+            }
+            OhlcvBarRecords.write(records, ohlcvBar);
+            periods[count++] = (byte) ohlcvBar.getPeriod().ordinal();
+        }
+
+        private ByteBuffer trimmedRecords() {
+            records.flip();
+            return ByteBuffer.allocate(records.remaining()).put(records);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package quantasma.app.service;
+
+import quantasma.app.model.HistoricalDataSummary;
+import quantasma.app.model.InsertSummary;
+import quantasma.app.model.OhlcvBar;
+import quantasma.app.util.Util;
+
+import java.time.Instant;
+import java.time.temporal.TemporalAmount;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Reads bar ranges through a {@link BarRangeCache}, so repeated backtests of the same window do not hit the storage.
+ * Inserted bars invalidate cached ranges of their symbol overlapping the inserted dates.
+ */
+public class CachingHistoricalDataService implements HistoricalDataService {
+
+    private final HistoricalDataService historicalDataService;
+    private final BarRangeCache barRangeCache;
+
+    public CachingHistoricalDataService(HistoricalDataService historicalDataService, BarRangeCache barRangeCache) {
+        this.historicalDataService = historicalDataService;
+        this.barRangeCache = barRangeCache;
+    }
+
+    @Override
+    public void insert(OhlcvBar ohlcvBar) {
+        try {
+            historicalDataService.insert(ohlcvBar);
+        } finally {
+            invalidate(Collections.singletonList(ohlcvBar));
+        }
+    }
+
+    @Override
+    public InsertSummary insertSkipDuplicates(Collection<OhlcvBar> ohlcvBars) {
+        try {
+            return historicalDataService.insertSkipDuplicates(ohlcvBars);
+        } finally {
+            invalidate(ohlcvBars);
+        }
+    }
+
+    private void invalidate(Collection<OhlcvBar> ohlcvBars) {
+        final Map<String, Instant[]> datesBySymbol = new HashMap<>();
+        for (OhlcvBar ohlcvBar : ohlcvBars) {
+            final Instant[] dates = datesBySymbol.computeIfAbsent(ohlcvBar.getSymbol(), symbol -> new Instant[]{ohlcvBar.getDate(), ohlcvBar.getDate()});
+            if (ohlcvBar.getDate().isBefore(dates[0])) {
+                dates[0] = ohlcvBar.getDate();
+            } else if (ohlcvBar.getDate().isAfter(dates[1])) {
+                dates[1] = ohlcvBar.getDate();
+            }
+        }
+        datesBySymbol.forEach((symbol, dates) -> barRangeCache.invalidate(symbol, dates[0], dates[1]));
+    }
+
+    @Override
+    public InsertSummary ingestionSummary() {
+        return historicalDataService.ingestionSummary();
+    }
+
+    @Override
+    public Stream<OhlcvBar> streamBySymbolAndDateBetweenOrderByDate(String symbol, Instant startDate, TemporalAmount window) {
+        return barRangeCache.stream(symbol,
+                                    startDate,
+                                    Util.instantPlusTemporalAmount(startDate, window),
+                                    () -> historicalDataService.streamBySymbolAndDateBetweenOrderByDate(symbol, startDate, window));
+    }
+
+    @Override
+    public long countBySymbol(String symbol) {
+        return historicalDataService.countBySymbol(symbol);
+    }
+
+    @Override
+    public List<HistoricalDataSummary> dataSummary() {
+        return historicalDataService.dataSummary();
+    }
+}
@@ -9,8 +9,17 @@ public interface EventsService {
 
     Flux<QuoteEvent> quote();
 
+    /**
+     * Events published after the event of the given id still retained by the publisher, followed by live events
+     */
+    Flux<QuoteEvent> quote(String lastEventId);
+
     Flux<AccountStateEvent> accountState();
 
+    Flux<AccountStateEvent> accountState(String lastEventId);
+
     Flux<OpenedPositionsEvent> openedPositions();
 
+    Flux<OpenedPositionsEvent> openedPositions(String lastEventId);
+
 }
@@ -26,14 +26,29 @@ public class EventsServiceImpl implements EventsService {
         return EventPublisherAdapter.toFlux(eventPublisher, QuoteEvent.class);
     }
 
+    @Override
+    public Flux<QuoteEvent> quote(String lastEventId) {
+        return EventPublisherAdapter.toFlux(eventPublisher, QuoteEvent.class, lastEventId);
+    }
+
     @Override
     public Flux<AccountStateEvent> accountState() {
         return EventPublisherAdapter.toFlux(eventPublisher, AccountStateEvent.class);
     }
 
+    @Override
+    public Flux<AccountStateEvent> accountState(String lastEventId) {
+        return EventPublisherAdapter.toFlux(eventPublisher, AccountStateEvent.class, lastEventId);
+    }
+
     @Override
     public Flux<OpenedPositionsEvent> openedPositions() {
         return EventPublisherAdapter.toFlux(eventPublisher, OpenedPositionsEvent.class);
     }
 
+    @Override
+    public Flux<OpenedPositionsEvent> openedPositions(String lastEventId) {
+        return EventPublisherAdapter.toFlux(eventPublisher, OpenedPositionsEvent.class, lastEventId);
+    }
+
 }
@@ -0,0 +1,99 @@
+package quantasma.app.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import quantasma.app.config.service.historical.HistoricalDataServiceProperties;
+import quantasma.app.model.InsertSummary;
+import quantasma.app.model.LayoutStats;
+import quantasma.app.model.MongoOhlcvBar;
+import quantasma.app.repository.BucketHistoricalDataRepository;
+import quantasma.app.repository.HistoricalDataRepository;
+import quantasma.app.repository.HistoricalDataRepositoryImpl;
+import quantasma.core.BarPeriod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Copies bars from the document per bar layout into the bucketed one and compares both
+ */
+@Service
+@Profile("!archive")
+@Slf4j
+public class HistoricalDataMigration {
+
+    private final HistoricalDataRepositoryImpl documentRepository;
+    private final BucketHistoricalDataRepository bucketRepository;
+    private final HistoricalDataServiceProperties properties;
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public HistoricalDataMigration(HistoricalDataRepositoryImpl documentRepository,
+                                   BucketHistoricalDataRepository bucketRepository,
+                                   HistoricalDataServiceProperties properties,
+                                   MongoTemplate mongoTemplate) {
+        this.documentRepository = documentRepository;
+        this.bucketRepository = bucketRepository;
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Can be repeated, bars already migrated are counted as duplicates
+     */
+    public InsertSummary migrateToBuckets(String symbol, BarPeriod period) {
+        InsertSummary summary = InsertSummary.empty();
+        try (Stream<MongoOhlcvBar> bars = documentRepository.streamBySymbolAndPeriodOrderByDate(symbol, period)) {
+            final Iterator<MongoOhlcvBar> iterator = bars.iterator();
+            final List<MongoOhlcvBar> chunk = new ArrayList<>(properties.getInsertChunkSize());
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == properties.getInsertChunkSize() || !iterator.hasNext()) {
+                    summary = summary.plus(bucketRepository.insertSkipDuplicates(chunk));
+                    chunk.clear();
+                }
+            }
+        }
+        log.info("Migrated [{}] bars of [{}] [{}] into buckets, [{}] already migrated", summary.getInserted(), symbol, period, summary.getDuplicates());
+        return summary;
+    }
+
+    /**
+     * Sizes of whole collections and read throughput of the given symbol and period in both layouts
+     */
+    public List<LayoutStats> compare(String symbol, BarPeriod period) {
+        return Arrays.asList(stats("document", properties.collectionName(), documentRepository, symbol, period),
+                             stats("bucket", properties.bucketCollectionName(), bucketRepository, symbol, period));
+    }
+
+    private LayoutStats stats(String layout, String collection, HistoricalDataRepository repository, String symbol, BarPeriod period) {
+        final Document collectionStats = mongoTemplate.executeCommand(new Document("collStats", collection));
+        final long start = System.nanoTime();
+        final long bars;
+        try (Stream<MongoOhlcvBar> stream = repository.streamBySymbolAndPeriodOrderByDate(symbol, period)) {
+            bars = stream.count();
+        }
+        final long elapsedNanos = System.nanoTime() - start;
+        return new LayoutStats(layout,
+                               collection,
+                               longValue(collectionStats, "count"),
+                               longValue(collectionStats, "size"),
+                               longValue(collectionStats, "storageSize"),
+                               longValue(collectionStats, "totalIndexSize"),
+                               bars,
+                               elapsedNanos == 0 ? 0 : bars * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos);
+    }
+
+    private static long longValue(Document document, String key) {
+        final Object value = document.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+}
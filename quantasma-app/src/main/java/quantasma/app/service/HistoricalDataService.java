@@ -1,18 +1,32 @@
 package quantasma.app.service;
 
 import quantasma.app.model.HistoricalDataSummary;
+import quantasma.app.model.InsertSummary;
 import quantasma.app.model.OhlcvBar;
 
 import java.time.Instant;
 import java.time.temporal.TemporalAmount;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface HistoricalDataService {
     void insert(OhlcvBar ohlcvBar);
 
-    void insertSkipDuplicates(OhlcvBar ohlcvBar);
+    /**
+     * Inserts bars in chunks of unordered bulk inserts, bars already stored are skipped and counted
+     */
+    InsertSummary insertSkipDuplicates(Collection<OhlcvBar> ohlcvBars);
 
-    List<OhlcvBar> findBySymbolAndDateBetweenOrderByDate(String symbol, Instant startDate, TemporalAmount window);
+    /**
+     * @return all bars inserted by {@link #insertSkipDuplicates(Collection)} since the start of the application
+     */
+    InsertSummary ingestionSummary();
+
+    /**
+     * Bars are fetched lazily while the stream is consumed, so the stream has to be closed
+     */
+    Stream<OhlcvBar> streamBySymbolAndDateBetweenOrderByDate(String symbol, Instant startDate, TemporalAmount window);
 
     long countBySymbol(String symbol);
 
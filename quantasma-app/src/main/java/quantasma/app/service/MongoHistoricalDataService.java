@@ -2,9 +2,13 @@ package quantasma.app.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.DuplicateKeyException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import quantasma.app.config.HistoricalDataServiceConfig;
+import quantasma.app.config.service.historical.HistoricalDataServiceProperties;
 import quantasma.app.model.HistoricalDataSummary;
+import quantasma.app.model.InsertSummary;
 import quantasma.app.model.MongoOhlcvBar;
 import quantasma.app.model.OhlcvBar;
 import quantasma.app.repository.HistoricalDataRepository;
@@ -12,18 +16,26 @@ import quantasma.app.util.Util;
 
 import java.time.Instant;
 import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 @Service
+@Qualifier(HistoricalDataServiceConfig.STORAGE)
+@Profile("!archive")
 @Slf4j
 public class MongoHistoricalDataService implements HistoricalDataService {
 
     private final HistoricalDataRepository historicalDataRepository;
+    private final HistoricalDataServiceProperties properties;
+    private final AtomicReference<InsertSummary> ingestionSummary = new AtomicReference<>(InsertSummary.empty());
 
     @Autowired
-    public MongoHistoricalDataService(HistoricalDataRepository historicalDataRepository) {
+    public MongoHistoricalDataService(HistoricalDataRepository historicalDataRepository, HistoricalDataServiceProperties properties) {
         this.historicalDataRepository = historicalDataRepository;
+        this.properties = properties;
     }
 
     @Override
@@ -32,21 +44,33 @@ public class MongoHistoricalDataService implements HistoricalDataService {
     }
 
     @Override
-    public void insertSkipDuplicates(OhlcvBar ohlcvBar) {
-        final MongoOhlcvBar mongoOhlcvBar = MongoOhlcvBar.from(ohlcvBar);
-        try {
-            historicalDataRepository.insert(mongoOhlcvBar);
-        } catch (DuplicateKeyException e) {
-            log.warn("Exception [{}] while inserting [{}]", e.getMessage(), mongoOhlcvBar);
+    public InsertSummary insertSkipDuplicates(Collection<OhlcvBar> ohlcvBars) {
+        final int chunkSize = properties.getInsertChunkSize();
+        final List<MongoOhlcvBar> chunk = new ArrayList<>(Math.min(chunkSize, ohlcvBars.size()));
+        InsertSummary summary = InsertSummary.empty();
+        for (OhlcvBar ohlcvBar : ohlcvBars) {
+            chunk.add(MongoOhlcvBar.from(ohlcvBar));
+            if (chunk.size() == chunkSize) {
+                summary = summary.plus(historicalDataRepository.insertSkipDuplicates(chunk));
+                chunk.clear();
+            }
         }
+        summary = summary.plus(historicalDataRepository.insertSkipDuplicates(chunk));
+
+        ingestionSummary.accumulateAndGet(summary, InsertSummary::plus);
+        log.debug("Inserted [{}] bars, skipped [{}] duplicates, [{}] bars/s", summary.getInserted(), summary.getDuplicates(), Math.round(summary.getBarsPerSecond()));
+        return summary;
+    }
+
+    @Override
+    public InsertSummary ingestionSummary() {
+        return ingestionSummary.get();
     }
 
     @Override
-    public List<OhlcvBar> findBySymbolAndDateBetweenOrderByDate(String symbol, Instant startDate, TemporalAmount window) {
-        return historicalDataRepository.findBySymbolAndDateBetweenOrderByDate(symbol, startDate, Util.instantPlusTemporalAmount(startDate, window))
-                                       .stream()
-                                       .map(MongoOhlcvBar::toOhlcvBar)
-                                       .collect(Collectors.toList());
+    public Stream<OhlcvBar> streamBySymbolAndDateBetweenOrderByDate(String symbol, Instant startDate, TemporalAmount window) {
+        return historicalDataRepository.streamBySymbolAndDateBetweenOrderByDate(symbol, startDate, Util.instantPlusTemporalAmount(startDate, window))
+                                       .map(MongoOhlcvBar::toOhlcvBar);
     }
 
     @Override
@@ -0,0 +1,12 @@
+package quantasma.app.service;
+
+/**
+ * Job was never submitted or it was forgotten as more jobs finished after it
+ */
+public class UnknownBacktestJobException extends IllegalArgumentException {
+    private static final long serialVersionUID = 3206563960237216416L;
+
+    public UnknownBacktestJobException(String id) {
+        super(String.format("Unknown backtest job [%s]", id));
+    }
+}
@@ -0,0 +1,40 @@
+package quantasma.app.controller
+
+import org.springframework.test.web.servlet.MockMvc
+import org.springframework.test.web.servlet.setup.MockMvcBuilders
+import quantasma.app.service.BacktestService
+import quantasma.app.service.UnknownBacktestJobException
+import spock.lang.Specification
+
+import java.util.concurrent.RejectedExecutionException
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
+
+class BacktestControllerSpec extends Specification {
+
+    private BacktestService service = Mock()
+    private MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new BacktestController(service)).build()
+
+    def 'given full queue of jobs should respond with service unavailable'() {
+        given:
+        service.submit("rsibacktest", _) >> { throw new RejectedExecutionException("Backtest [rsibacktest] rejected, [1] jobs are already waiting") }
+
+        expect:
+        mockMvc.perform(post("/api/backtest/rsibacktest/jobs").contentType("application/json").content("{}"))
+               .andExpect(status().isServiceUnavailable())
+               .andExpect(content().string("Backtest [rsibacktest] rejected, [1] jobs are already waiting"))
+    }
+
+    def 'given unknown job should respond with not found'() {
+        given:
+        service.job("unknown") >> { throw new UnknownBacktestJobException("unknown") }
+
+        expect:
+        mockMvc.perform(get("/api/backtest/jobs/unknown"))
+               .andExpect(status().isNotFound())
+               .andExpect(content().string("Unknown backtest job [unknown]"))
+    }
+}
@@ -56,6 +56,26 @@ class EventsControllerSpec extends Specification {
         }
     }
 
+    def "given last event id should resume quotes after its event"() {
+        given:
+        def quote = Quote.bidAsk("symbol", TIME, 1, 1)
+
+        when:
+        def result = get("/api/events/quote")
+                .header("Last-Event-ID", "k3x9a1-5")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+
+        then:
+        1 * service.quote("k3x9a1-5") >> Flux.just(Event.quote(quote))
+        0 * service.quote()
+        with(result) {
+            expectStatus().isOk()
+            def body = expectBodyList(MappedQuote).returnResult().getResponseBody()
+            body.size() == 1
+        }
+    }
+
     private static Quote createQuote(Tuple2<Integer, Long> tuple) {
         Quote.bidAsk("symbol", TIME, tuple.getT1(), tuple.getT1())
     }
@@ -0,0 +1,141 @@
+package quantasma.app.feature.data.historical.provider
+
+import quantasma.app.model.DateRange
+import quantasma.app.model.FeedBarsSettings
+import quantasma.app.model.HistoricalDataSummary
+import quantasma.app.model.OhlcvBar
+import quantasma.app.service.HistoricalDataService
+import quantasma.core.BarPeriod
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.time.DayOfWeek
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneId
+import java.time.temporal.ChronoUnit
+import java.time.temporal.TemporalAmount
+
+class MissingBarsFinderSpec extends Specification {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York")
+    private static final Instant STORED_FROM = Instant.parse("2018-03-05T00:00:00Z")
+    private static final Instant STORED_TO = Instant.parse("2018-03-30T12:00:00Z")
+
+    def 'given no stored bars should return the whole range'() {
+        given:
+        def finder = new MissingBarsFinder(service([]))
+
+        when:
+        def missing = finder.find(settings("2018-03-01T00:00:00Z", "2018-04-01T00:00:00Z"))
+
+        then:
+        missing == [range("2018-03-01T00:00:00Z", "2018-04-01T00:00:00Z")]
+    }
+
+    def 'given complete stored bars should return ranges before and after them without scanning stored bars'() {
+        given:
+        def scans = 0
+        def finder = new MissingBarsFinder(service(hourlyBars(STORED_FROM, STORED_TO), { scans++ }))
+
+        when:
+        def missing = finder.find(settings("2018-02-01T00:00:00Z", "2018-04-10T00:00:00Z"))
+
+        then:
+        missing == [range("2018-02-01T00:00:00Z", "2018-03-04T23:00:00Z"),
+                    range("2018-03-30T13:00:00Z", "2018-04-10T00:00:00Z")]
+        scans == 0
+    }
+
+    def 'given stored bars with gaps should return the gaps but not weekends'() {
+        given:
+        def missingHour = Instant.parse("2018-03-14T10:00:00Z")
+        def missingDay = [Instant.parse("2018-03-21T00:00:00Z"), Instant.parse("2018-03-21T23:00:00Z")]
+        def bars = hourlyBars(STORED_FROM, STORED_TO).findAll {
+            it.date != missingHour && (it.date.isBefore(missingDay[0]) || it.date.isAfter(missingDay[1]))
+        }
+        def finder = new MissingBarsFinder(service(bars))
+
+        when:
+        def missing = finder.find(settings(STORED_FROM.toString(), STORED_TO.toString()))
+
+        then:
+        missing == [new DateRange(missingHour, missingHour),
+                    new DateRange(missingDay[0], missingDay[1])]
+    }
+
+    def 'given range within complete stored bars should return no range'() {
+        given:
+        def finder = new MissingBarsFinder(service(hourlyBars(STORED_FROM, STORED_TO)))
+
+        expect:
+        finder.find(settings("2018-03-10T00:00:00Z", "2018-03-20T00:00:00Z")).isEmpty()
+    }
+
+    def 'given range of a weekend only should return no range'() {
+        given:
+        def finder = new MissingBarsFinder(service([]))
+
+        expect:
+        finder.find(settings("2018-03-10T00:00:00Z", "2018-03-11T12:00:00Z")).isEmpty()
+    }
+
+    @Unroll
+    def 'given week starting at (#from) should have (#hours) market hours'() {
+        expect:
+        MissingBarsFinder.marketTime(Instant.parse(from), Instant.parse(from).plus(7, ChronoUnit.DAYS)) == Duration.ofHours(hours)
+
+        where:
+        from                   | hours
+        "2018-02-05T00:00:00Z" | 120
+        "2018-03-09T18:30:00Z" | 121 // the weekend is an hour shorter when summer time begins
+        "2018-11-02T12:00:00Z" | 119 // and an hour longer when it ends
+        "2018-11-12T00:00:00Z" | 120
+    }
+
+    def 'given to date before from date should throw an exception'() {
+        when:
+        new MissingBarsFinder(service([])).find(settings("2018-03-02T00:00:00Z", "2018-03-01T00:00:00Z"))
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    private static HistoricalDataService service(List<OhlcvBar> bars, Closure onScan = {}) {
+        [dataSummary                          : {
+            bars.isEmpty()
+                    ? []
+                    : [new HistoricalDataSummary("EURUSD", BarPeriod.H1, bars.first().date, bars.last().date, bars.size())]
+        },
+         streamBySymbolAndDateBetweenOrderByDate: { String symbol, Instant startDate, TemporalAmount window ->
+             onScan()
+             def endDate = startDate.plus(window)
+             bars.findAll { !it.date.isBefore(startDate) && it.date.isBefore(endDate) }.stream()
+         }] as HistoricalDataService
+    }
+
+    /**
+     * Hourly bars of open market, which closes from Friday to Sunday 17:00 New York time
+     */
+    private static List<OhlcvBar> hourlyBars(Instant from, Instant to) {
+        def bars = []
+        for (def date = from; !date.isAfter(to); date = date.plus(1, ChronoUnit.HOURS)) {
+            def local = date.atZone(NEW_YORK)
+            def closed = local.getDayOfWeek() == DayOfWeek.SATURDAY ||
+                         local.getDayOfWeek() == DayOfWeek.FRIDAY && local.getHour() >= 17 ||
+                         local.getDayOfWeek() == DayOfWeek.SUNDAY && local.getHour() < 17
+            if (!closed) {
+                bars << new OhlcvBar(BarPeriod.H1, date, "EURUSD", 1.1, 1.1, 1.1, 1.1, 1.1, 1.1, 1.1, 1.1, 1)
+            }
+        }
+        bars
+    }
+
+    private static FeedBarsSettings settings(String from, String to) {
+        new FeedBarsSettings("EURUSD", BarPeriod.H1, Instant.parse(from), Instant.parse(to))
+    }
+
+    private static DateRange range(String from, String to) {
+        new DateRange(Instant.parse(from), Instant.parse(to))
+    }
+}
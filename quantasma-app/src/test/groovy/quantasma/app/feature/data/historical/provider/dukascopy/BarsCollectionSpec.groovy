@@ -0,0 +1,82 @@
+package quantasma.app.feature.data.historical.provider.dukascopy
+
+import com.dukascopy.api.IBar
+import quantasma.app.model.OhlcvBar
+import quantasma.core.BarPeriod
+import spock.lang.Specification
+
+import java.time.Instant
+
+class BarsCollectionSpec extends Specification {
+
+    private static final Instant START = Instant.parse("2018-11-20T00:00:00Z")
+
+    def 'given bid and ask bars of the same times should merge them in order'() {
+        given:
+        def bidBars = (0..<3).collect { bar(it, 1.1 + it * 0.001, 10) }
+        def askBars = (0..<3).collect { bar(it, 1.1002 + it * 0.001, 5) }
+
+        when:
+        def merged = new BarsCollection("EURUSD", BarPeriod.M1).merge(bidBars, askBars)
+
+        then:
+        merged.getUnmatchedBars() == 0
+        merged.getBars() == (0..<3).collect {
+            def bid = 1.1 + it * 0.001
+            def ask = 1.1002 + it * 0.001
+            new OhlcvBar(BarPeriod.M1, minute(it), "EURUSD", bid, bid - 0.0001, bid + 0.0001, bid, ask, ask - 0.0001, ask + 0.0001, ask, 15)
+        }
+    }
+
+    def 'given bars without the other side should skip and report them'() {
+        given:
+        def bidBars = [0, 1, 2, 4].collect { bar(it, 1.1, 1) }
+        def askBars = [0, 2, 3, 4, 5].collect { bar(it, 1.1, 1) }
+
+        when:
+        def merged = new BarsCollection("EURUSD", BarPeriod.M1).merge(bidBars, askBars)
+
+        then:
+        merged.getBars()*.getDate() == [minute(0), minute(2), minute(4)]
+        merged.getUnmatchedBidBars() == 1
+        merged.getUnmatchedAskBars() == 2
+        merged.getUnmatchedBars() == 3
+        merged.getFirstUnmatchedTimes() == [minute(1), minute(3), minute(5)]
+    }
+
+    def 'given empty side should skip all bars of the other one'() {
+        when:
+        def merged = new BarsCollection("EURUSD", BarPeriod.M1).merge([], [bar(0, 1.1, 1)])
+
+        then:
+        merged.getBars().isEmpty()
+        merged.getUnmatchedBidBars() == 0
+        merged.getUnmatchedAskBars() == 1
+    }
+
+    def 'given no bars should return no bars'() {
+        expect:
+        new BarsCollection("EURUSD", BarPeriod.M1).merge([], []).getBars().isEmpty()
+    }
+
+    def 'given bars not ordered by time should throw an exception'() {
+        when:
+        new BarsCollection("EURUSD", BarPeriod.M1).merge([bar(1, 1.1, 1), bar(0, 1.1, 1)], [bar(0, 1.1, 1), bar(1, 1.1, 1)])
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    private static Instant minute(int minute) {
+        START.plusSeconds(minute * 60)
+    }
+
+    private static IBar bar(int minuteOfBar, double price, double volume) {
+        [getTime  : { minute(minuteOfBar).toEpochMilli() },
+         getOpen  : { price },
+         getHigh  : { price + 0.0001 },
+         getLow   : { price - 0.0001 },
+         getClose : { price },
+         getVolume: { volume }] as IBar
+    }
+}
@@ -0,0 +1,232 @@
+package quantasma.app.feature.data.historical.provider.dukascopy
+
+import com.dukascopy.api.Filter
+import com.dukascopy.api.IBar
+import com.dukascopy.api.IHistory
+import com.dukascopy.api.Instrument
+import com.dukascopy.api.JFException
+import com.dukascopy.api.OfferSide
+import com.dukascopy.api.Period
+import quantasma.app.model.DateRange
+import quantasma.app.model.FeedBarsSettings
+import quantasma.app.model.InsertSummary
+import quantasma.app.model.OhlcvBar
+import quantasma.app.service.HistoricalDataService
+import quantasma.core.BarPeriod
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.time.DayOfWeek
+import java.time.Instant
+import java.time.ZoneOffset
+import java.time.temporal.ChronoUnit
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.atomic.AtomicInteger
+
+class PipelinedBarsFetcherSpec extends Specification {
+
+    private static final Instant FROM = Instant.parse("2018-01-01T00:00:00Z")
+    private static final Instant TO = Instant.parse("2018-12-31T00:00:00Z")
+
+    @Unroll
+    def 'given (#concurrency) concurrent requests should store every bar of the range'() {
+        given:
+        def history = new StubHistory(FROM, 0)
+        def storage = new StubStorage(0)
+
+        when:
+        def summary = fetcher(history, storage, concurrency).fetch([new DateRange(FROM, TO)])
+
+        then:
+        storage.bars*.date as Set == history.barTimes(FROM, TO) as Set
+        storage.bars.every { it.bidClose == 1.1d && it.askClose == 1.1002d && it.period == BarPeriod.H1 }
+        summary.getInserted() == storage.bars.size()
+        history.maxConcurrentRequests.get() <= concurrency
+
+        where:
+        concurrency << [1, 2, 4]
+    }
+
+    def 'given slow provider should fetch windows concurrently and store them while fetching the next ones'() {
+        given:
+        def history = new StubHistory(FROM, 20)
+        def storage = new StubStorage(20, history)
+
+        when:
+        fetcher(history, storage, 4).fetch([new DateRange(FROM, TO)])
+
+        then:
+        history.maxConcurrentRequests.get() > 1
+        history.maxConcurrentRequests.get() <= 4
+        storage.storedWhileFetching
+    }
+
+    def 'given window without bars should stop fetching older windows'() {
+        given:
+        def firstBar = Instant.parse("2018-08-15T00:00:00Z")
+        def history = new StubHistory(firstBar, 0)
+        def storage = new StubStorage(0)
+
+        when:
+        fetcher(history, storage, 4).fetch([new DateRange(FROM, TO)])
+
+        then:
+        storage.bars*.date as Set == history.barTimes(FROM, TO) as Set
+        storage.bars.every { !it.date.isBefore(firstBar) }
+    }
+
+    def 'given missing ranges should fetch and store only their bars'() {
+        given:
+        def history = new StubHistory(FROM, 0)
+        def storage = new StubStorage(0)
+        def gap = Instant.parse("2018-03-14T10:00:00Z")
+        def recent = new DateRange(Instant.parse("2018-10-01T00:00:00Z"), TO)
+
+        when:
+        fetcher(history, storage, 4).fetch([new DateRange(gap, gap), recent])
+
+        then:
+        storage.bars*.date as Set == ([gap] + history.barTimes(recent.from, recent.to)) as Set
+        history.requestedRanges.every { it.from == gap && it.to == gap || !it.from.isBefore(recent.from) }
+    }
+
+    def 'given range ending before it starts should throw an exception before fetching'() {
+        given:
+        def history = new StubHistory(FROM, 0)
+
+        when:
+        fetcher(history, new StubStorage(0), 4).fetch([new DateRange(FROM, TO), new DateRange(TO, FROM)])
+
+        then:
+        thrown(IllegalArgumentException)
+        history.requestedRanges.isEmpty()
+    }
+
+    def 'given from date after the latest available bar should throw an exception'() {
+        given:
+        def history = new StubHistory(FROM, 0)
+        def from = Instant.parse("2019-02-01T00:00:00Z")
+
+        when:
+        new PipelinedBarsFetcher(history.asHistory(),
+                                 new StubStorage(0).asService(),
+                                 new FeedBarsSettings("EURUSD", BarPeriod.H1, from, from.plus(10, ChronoUnit.DAYS)),
+                                 4).fetch([new DateRange(from, from.plus(10, ChronoUnit.DAYS))])
+
+        then:
+        thrown(IllegalArgumentException)
+        history.requestedRanges.isEmpty()
+    }
+
+    def 'given failing provider should rethrow its exception'() {
+        given:
+        def history = new StubHistory(FROM, 0)
+        history.failing = true
+
+        when:
+        fetcher(history, new StubStorage(0), 4).fetch([new DateRange(FROM, TO)])
+
+        then:
+        thrown(JFException)
+    }
+
+    def 'given non positive concurrency should throw an exception'() {
+        when:
+        fetcher(new StubHistory(FROM, 0), new StubStorage(0), 0)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    private static PipelinedBarsFetcher fetcher(StubHistory history, StubStorage storage, int concurrency) {
+        new PipelinedBarsFetcher(history.asHistory(),
+                                 storage.asService(),
+                                 new FeedBarsSettings("EURUSD", BarPeriod.H1, FROM, TO),
+                                 concurrency)
+    }
+
+    /**
+     * Hourly bars of working days starting at the given date, answered after the given delay
+     */
+    private static class StubHistory {
+        final Instant firstBar
+        final long delayMillis
+        final AtomicInteger concurrentRequests = new AtomicInteger()
+        final AtomicInteger maxConcurrentRequests = new AtomicInteger()
+        final List<DateRange> requestedRanges = new CopyOnWriteArrayList<>()
+        volatile boolean failing
+
+        StubHistory(Instant firstBar, long delayMillis) {
+            this.firstBar = firstBar
+            this.delayMillis = delayMillis
+        }
+
+        IHistory asHistory() {
+            [getStartTimeOfCurrentBar: { Instrument instrument, Period period -> Instant.parse("2019-01-01T00:00:00Z").toEpochMilli() },
+             getBars                 : { Instrument instrument, Period period, OfferSide offerSide, Filter filter, long from, long to ->
+                 getBars(offerSide, from, to)
+             }] as IHistory
+        }
+
+        List<Instant> barTimes(Instant from, Instant to) {
+            def times = []
+            for (def time = from.isBefore(firstBar) ? firstBar : from; !time.isAfter(to); time = time.plus(1, ChronoUnit.HOURS)) {
+                def dayOfWeek = time.atZone(ZoneOffset.UTC).getDayOfWeek()
+                if (dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY) {
+                    times << time
+                }
+            }
+            times
+        }
+
+        private List<IBar> getBars(OfferSide offerSide, long from, long to) {
+            requestedRanges << new DateRange(Instant.ofEpochMilli(from), Instant.ofEpochMilli(to))
+            def concurrent = concurrentRequests.incrementAndGet()
+            maxConcurrentRequests.accumulateAndGet(concurrent, Math.&max)
+            try {
+                Thread.sleep(delayMillis)
+                if (failing) {
+                    throw new JFException("Stub failure")
+                }
+                def price = offerSide == OfferSide.BID ? 1.1d : 1.1002d
+                barTimes(Instant.ofEpochMilli(from), Instant.ofEpochMilli(to)).collect { bar(it, price) }
+            } finally {
+                concurrentRequests.decrementAndGet()
+            }
+        }
+
+        private static IBar bar(Instant time, double price) {
+            [getTime  : { time.toEpochMilli() },
+             getOpen  : { price },
+             getHigh  : { price },
+             getLow   : { price },
+             getClose : { price },
+             getVolume: { 1d }] as IBar
+        }
+    }
+
+    private static class StubStorage {
+        final List<OhlcvBar> bars = new CopyOnWriteArrayList<>()
+        final long delayMillis
+        final StubHistory history
+        volatile boolean storedWhileFetching
+
+        StubStorage(long delayMillis, StubHistory history = null) {
+            this.delayMillis = delayMillis
+            this.history = history
+        }
+
+        HistoricalDataService asService() {
+            [insertSkipDuplicates: { Collection<OhlcvBar> ohlcvBars ->
+                def stored = bars*.date as Set
+                def inserted = ohlcvBars.findAll { !stored.contains(it.date) }
+                Thread.sleep(delayMillis)
+                if (history != null && history.concurrentRequests.get() > 0) {
+                    storedWhileFetching = true
+                }
+                bars.addAll(inserted)
+                new InsertSummary(inserted.size(), ohlcvBars.size() - inserted.size(), 1)
+            }] as HistoricalDataService
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package quantasma.app.model
+
+import quantasma.app.repository.OhlcvBarRecords
+import quantasma.core.BarPeriod
+import spock.lang.Specification
+
+import java.time.Instant
+
+class MongoOhlcvBucketSpec extends Specification {
+
+    private static final Instant DAY = Instant.parse("2018-11-20T00:00:00Z")
+
+    def 'given day of bars should pack them into a bucket and unpack the same bars'() {
+        given:
+        def bars = (0..<1440).collect {
+            new OhlcvBar(BarPeriod.M1, DAY.plusSeconds(60L * it), "EURUSD",
+                         1.1 + it, 1.0 + it, 1.2 + it, 1.15 + it, 1.1001 + it, 1.0001 + it, 1.2001 + it, 1.1501 + it, it)
+        }
+
+        when:
+        def bucket = MongoOhlcvBucket.of("EURUSD", BarPeriod.M1, DAY, bars)
+
+        then:
+        bucket.getId() == "EURUSD_M1_2018-11-20T00:00:00Z"
+        bucket.getCount() == 1440
+        bucket.getFirstDate() == DAY
+        bucket.getLastDate() == DAY.plusSeconds(60L * 1439)
+        bucket.getBars().length == 1440 * OhlcvBarRecords.RECORD_BYTES
+        bucket.toOhlcvBars() == bars
+    }
+}
@@ -0,0 +1,158 @@
+package quantasma.app.repository
+
+import com.mongodb.MongoBulkWriteException
+import com.mongodb.ServerAddress
+import com.mongodb.bulk.BulkWriteError
+import com.mongodb.bulk.BulkWriteResult
+import org.bson.BsonDocument
+import org.springframework.dao.DataIntegrityViolationException
+import org.springframework.dao.DuplicateKeyException
+import org.springframework.dao.OptimisticLockingFailureException
+import org.springframework.data.mongodb.core.BulkOperations
+import org.springframework.data.mongodb.core.MongoExceptionTranslator
+import org.springframework.data.mongodb.core.MongoTemplate
+import org.springframework.data.mongodb.core.query.Query
+import org.springframework.data.util.CloseableIterator
+import quantasma.app.config.service.historical.HistoricalDataServiceProperties
+import quantasma.app.model.MongoOhlcvBar
+import quantasma.app.model.MongoOhlcvBucket
+import quantasma.app.model.OhlcvBar
+import quantasma.core.BarPeriod
+import spock.lang.Specification
+
+import java.time.Instant
+import java.util.stream.Collectors
+
+class BucketHistoricalDataRepositorySpec extends Specification {
+
+    private static final Instant DAY = Instant.parse("2018-11-20T00:00:00Z")
+
+    private static final int DUPLICATE_KEY = 11000
+
+    private MongoTemplate mongoTemplate = Mock()
+    private BulkOperations bulkOperations = Mock()
+    private BucketHistoricalDataRepository repository = new BucketHistoricalDataRepository(new HistoricalDataServiceProperties("test", 1000, 1000), mongoTemplate)
+
+    def setup() {
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MongoOhlcvBucket, _) >> bulkOperations
+    }
+
+    def 'given buckets of 2 periods should stream bars of both periods ordered by date'() {
+        given:
+        def closed = false
+        mongoTemplate.stream(_, MongoOhlcvBucket, _) >> closeableIterator([bucket(BarPeriod.M1, DAY, 0..<10),
+                                                                           bucket(BarPeriod.M5, DAY, (0..<2).collect { it * 5 }),
+                                                                           bucket(BarPeriod.M1, DAY.plusSeconds(86400), 0..<3)],
+                                                                          { closed = true })
+
+        when:
+        def stream = repository.streamBySymbolAndDateBetweenOrderByDate("EURUSD", DAY, DAY.plusSeconds(2 * 86400))
+        def bars = stream.collect(Collectors.toList())
+        stream.close()
+
+        then:
+        bars.size() == 15
+        bars*.getDate() == bars*.getDate().sort(false)
+        bars.findAll { it.getPeriod() == BarPeriod.M5 }*.getDate() == [DAY, DAY.plusSeconds(300)]
+        closed
+    }
+
+    def 'given bar already stored when inserted should throw an exception'() {
+        given:
+        mongoTemplate.find(_, MongoOhlcvBucket, _) >> [bucket(BarPeriod.M1, DAY, 0..<10)]
+
+        when:
+        repository.insert(MongoOhlcvBar.from(bar(BarPeriod.M1, DAY, 5)))
+
+        then:
+        thrown(DuplicateKeyException)
+    }
+
+    def 'given bucket changed concurrently should merge it again before writing it'() {
+        given:
+        mongoTemplate.find(_, MongoOhlcvBucket, _) >>> [[bucket(BarPeriod.M1, DAY, 0..<5)], [bucket(BarPeriod.M1, DAY, 0..<7)]]
+        def queries = []
+        bulkOperations.upsert(_ as Query, _) >> { Query query, update ->
+            queries << query.getQueryObject()
+            bulkOperations
+        }
+        bulkOperations.execute() >> { throw translated(bulkWriteException([DUPLICATE_KEY])) } >> BulkWriteResult.acknowledged(0, 1, 1, 1, [])
+
+        when:
+        def summary = repository.insertSkipDuplicates((3..<10).collect { MongoOhlcvBar.from(bar(BarPeriod.M1, DAY, it)) })
+
+        then:
+        summary.inserted == 3
+        summary.duplicates == 4
+        queries*.get("count") == [5, 7]
+    }
+
+    def 'given new bucket should write it only if not created concurrently'() {
+        given:
+        mongoTemplate.find(_, MongoOhlcvBucket, _) >> []
+        def queries = []
+        bulkOperations.upsert(_ as Query, _) >> { Query query, update ->
+            queries << query.getQueryObject()
+            bulkOperations
+        }
+
+        when:
+        def summary = repository.insertSkipDuplicates((0..<3).collect { MongoOhlcvBar.from(bar(BarPeriod.M1, DAY, it)) })
+
+        then:
+        summary.inserted == 3
+        queries*.get("count") == [0]
+    }
+
+    def 'given bucket changing on every attempt should fail'() {
+        given:
+        mongoTemplate.find(_, MongoOhlcvBucket, _) >> []
+        bulkOperations.upsert(_, _) >> bulkOperations
+        bulkOperations.execute() >> { throw translated(bulkWriteException([DUPLICATE_KEY])) }
+
+        when:
+        repository.insertSkipDuplicates([MongoOhlcvBar.from(bar(BarPeriod.M1, DAY, 0))])
+
+        then:
+        thrown(OptimisticLockingFailureException)
+    }
+
+    def 'given error other than duplicate should rethrow it'() {
+        given:
+        mongoTemplate.find(_, MongoOhlcvBucket, _) >> []
+        bulkOperations.upsert(_, _) >> bulkOperations
+        def translated = translated(bulkWriteException([121]))
+        bulkOperations.execute() >> { throw translated }
+
+        when:
+        repository.insertSkipDuplicates([MongoOhlcvBar.from(bar(BarPeriod.M1, DAY, 0))])
+
+        then:
+        def e = thrown(DataIntegrityViolationException)
+        e.is(translated)
+    }
+
+    private static RuntimeException translated(MongoBulkWriteException e) {
+        new MongoExceptionTranslator().translateExceptionIfPossible(e)
+    }
+
+    private static MongoBulkWriteException bulkWriteException(List<Integer> errorCodes) {
+        def errors = errorCodes.withIndex().collect { code, index -> new BulkWriteError(code, "error", new BsonDocument(), index) }
+        new MongoBulkWriteException(BulkWriteResult.acknowledged(0, 0, 0, 0, []), errors, null, new ServerAddress())
+    }
+
+    private static MongoOhlcvBucket bucket(BarPeriod period, Instant day, Iterable<Integer> minutes) {
+        MongoOhlcvBucket.of("EURUSD", period, day, minutes.collect { bar(period, day, it) })
+    }
+
+    private static OhlcvBar bar(BarPeriod period, Instant day, int minute) {
+        new OhlcvBar(period, day.plusSeconds(60L * minute), "EURUSD", 1.1, 1.0, 1.2, 1.15, 1.1001, 1.0001, 1.2001, 1.1501, minute)
+    }
+
+    private static CloseableIterator<MongoOhlcvBucket> closeableIterator(List<MongoOhlcvBucket> buckets, Closure onClose) {
+        def iterator = buckets.iterator()
+        [hasNext: { iterator.hasNext() },
+         next   : { iterator.next() },
+         close  : onClose] as CloseableIterator<MongoOhlcvBucket>
+    }
+}
@@ -0,0 +1,169 @@
+package quantasma.app.repository
+
+import com.mongodb.MongoBulkWriteException
+import com.mongodb.ServerAddress
+import com.mongodb.bulk.BulkWriteError
+import com.mongodb.bulk.BulkWriteResult
+import org.bson.BsonDocument
+import org.springframework.dao.DataIntegrityViolationException
+import org.springframework.dao.DuplicateKeyException
+import org.springframework.data.mongodb.core.BulkOperations
+import org.springframework.data.mongodb.core.MongoExceptionTranslator
+import org.springframework.data.mongodb.core.MongoTemplate
+import org.springframework.data.mongodb.core.query.Query
+import org.springframework.data.util.CloseableIterator
+import quantasma.app.config.service.historical.HistoricalDataServiceProperties
+import quantasma.app.model.InsertSummary
+import quantasma.app.model.MongoOhlcvBar
+import quantasma.app.model.OhlcvBar
+import quantasma.core.BarPeriod
+import spock.lang.Specification
+
+import java.time.Instant
+import java.util.stream.Collectors
+
+class HistoricalDataRepositoryImplSpec extends Specification {
+
+    private static final Instant START = Instant.parse("2018-11-20T00:00:00Z")
+    private static final int DUPLICATE_KEY = 11000
+
+    private MongoTemplate mongoTemplate = Mock()
+    private BulkOperations bulkOperations = Mock()
+    private HistoricalDataRepositoryImpl repository = new HistoricalDataRepositoryImpl(new HistoricalDataServiceProperties("test", 500, 1000), mongoTemplate)
+
+    def setup() {
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MongoOhlcvBar, "test_OHLCV") >> bulkOperations
+        bulkOperations.insert(_ as List) >> bulkOperations
+    }
+
+    def 'given date range should stream bars of the symbol ordered by date from a cursor closed with the stream'() {
+        given:
+        def closed = false
+        Query query = null
+        mongoTemplate.stream(_ as Query, MongoOhlcvBar, "test_OHLCV") >> { Query streamed, type, collection ->
+            query = streamed
+            closeableIterator(bars(3), { closed = true })
+        }
+
+        when:
+        def stream = repository.streamBySymbolAndDateBetweenOrderByDate("EURUSD", START, START.plusSeconds(180))
+        def streamed = stream.collect(Collectors.toList())
+
+        then:
+        streamed*.getDate() == [START, START.plusSeconds(60), START.plusSeconds(120)]
+        query.getQueryObject().get("symbol") == "EURUSD"
+        query.getQueryObject().get("date") == ['$gte': START, '$lt': START.plusSeconds(180)]
+        query.getSortObject() == [date: 1]
+        query.getMeta().getCursorBatchSize() == 500
+        !closed
+
+        when:
+        stream.close()
+
+        then:
+        closed
+    }
+
+    def 'given period should stream bars of the symbol ordered by date from a cursor closed with the stream'() {
+        given:
+        def closed = false
+        Query query = null
+        mongoTemplate.stream(_ as Query, MongoOhlcvBar, "test_OHLCV") >> { Query streamed, type, collection ->
+            query = streamed
+            closeableIterator(bars(2), { closed = true })
+        }
+
+        when:
+        repository.streamBySymbolAndPeriodOrderByDate("EURUSD", BarPeriod.M1).withCloseable { stream ->
+            stream.count()
+        }
+
+        then:
+        query.getQueryObject().get("symbol") == "EURUSD"
+        query.getQueryObject().get("period") == BarPeriod.M1
+        query.getSortObject() == [date: 1]
+        query.getMeta().getCursorBatchSize() == 500
+        closed
+    }
+
+    def 'given bars already stored should count them as duplicates'() {
+        given:
+        bulkOperations.execute() >> { throw translated(bulkWriteException(3, [DUPLICATE_KEY, DUPLICATE_KEY])) }
+
+        when:
+        def summary = repository.insertSkipDuplicates(bars(5))
+
+        then:
+        summary.inserted == 3
+        summary.duplicates == 2
+    }
+
+    def 'given no bars stored should count all of them as inserted'() {
+        given:
+        bulkOperations.execute() >> BulkWriteResult.acknowledged(5, 0, 0, 0, [])
+
+        when:
+        def summary = repository.insertSkipDuplicates(bars(5))
+
+        then:
+        summary.inserted == 5
+        summary.duplicates == 0
+    }
+
+    def 'given error other than duplicate should rethrow it'() {
+        given:
+        def translated = translated(bulkWriteException(3, [DUPLICATE_KEY, 121]))
+        bulkOperations.execute() >> { throw translated }
+
+        when:
+        repository.insertSkipDuplicates(bars(5))
+
+        then:
+        def e = thrown(DataIntegrityViolationException)
+        e.is(translated)
+    }
+
+    def 'given duplicate key not coming from the bulk write should rethrow it'() {
+        given:
+        def duplicate = new DuplicateKeyException("duplicate")
+        bulkOperations.execute() >> { throw duplicate }
+
+        when:
+        repository.insertSkipDuplicates(bars(5))
+
+        then:
+        def e = thrown(DuplicateKeyException)
+        e.is(duplicate)
+    }
+
+    def 'given no bars should not call the database'() {
+        when:
+        def summary = repository.insertSkipDuplicates([])
+
+        then:
+        summary == InsertSummary.empty()
+        0 * mongoTemplate._
+    }
+
+    private static CloseableIterator<MongoOhlcvBar> closeableIterator(List<MongoOhlcvBar> bars, Closure onClose) {
+        def iterator = bars.iterator()
+        [hasNext: { iterator.hasNext() },
+         next   : { iterator.next() },
+         close  : onClose] as CloseableIterator<MongoOhlcvBar>
+    }
+
+    private static RuntimeException translated(MongoBulkWriteException e) {
+        new MongoExceptionTranslator().translateExceptionIfPossible(e)
+    }
+
+    private static MongoBulkWriteException bulkWriteException(int inserted, List<Integer> errorCodes) {
+        def errors = errorCodes.withIndex().collect { code, index -> new BulkWriteError(code, "error", new BsonDocument(), index) }
+        new MongoBulkWriteException(BulkWriteResult.acknowledged(inserted, 0, 0, 0, []), errors, null, new ServerAddress())
+    }
+
+    private static List<MongoOhlcvBar> bars(int count) {
+        (0..<count).collect {
+            MongoOhlcvBar.from(new OhlcvBar(BarPeriod.M1, START.plusSeconds(60L * it), "EURUSD", 1.1, 1.0, 1.2, 1.15, 1.1001, 1.0001, 1.2001, 1.1501, it))
+        }
+    }
+}
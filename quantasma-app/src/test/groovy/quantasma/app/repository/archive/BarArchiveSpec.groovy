@@ -0,0 +1,154 @@
+package quantasma.app.repository.archive
+
+import quantasma.app.model.OhlcvBar
+import quantasma.core.BarPeriod
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+import java.time.Instant
+import java.util.stream.Collectors
+import java.util.stream.Stream
+
+class BarArchiveSpec extends Specification {
+
+    private static final Instant START = Instant.parse("2018-11-20T00:00:00Z")
+    private static final int BARS_COUNT = 3 * BarArchive.INDEX_INTERVAL + 100
+
+    private Path file = Files.createTempDirectory("bar-archive").resolve("EURUSD_M1.bars")
+
+    def cleanup() {
+        Files.deleteIfExists(file)
+        Files.deleteIfExists(file.getParent())
+    }
+
+    def 'given bars inserted in order should read all of them back after reopening'() {
+        given:
+        def archive = BarArchive.open(file, "EURUSD", BarPeriod.M1)
+        def bars = bars(0, BARS_COUNT)
+
+        when:
+        def summary = archive.insert(bars)
+        def reopened = BarArchive.open(file, "EURUSD", BarPeriod.M1)
+
+        then:
+        summary.getInserted() == BARS_COUNT
+        summary.getDuplicates() == 0
+        Files.size(file) == BarArchive.HEADER_BYTES + BARS_COUNT * (long) BarArchive.RECORD_BYTES
+        read(reopened.streamAll()) == bars
+        reopened.count() == BARS_COUNT
+        reopened.firstDate().get() == START
+        reopened.lastDate().get() == START.plusSeconds(60L * (BARS_COUNT - 1))
+    }
+
+    @Unroll
+    def 'given range of minutes [#from, #to) should return bars of that range'() {
+        given:
+        def archive = BarArchive.open(file, "EURUSD", BarPeriod.M1)
+        archive.insert(bars(0, BARS_COUNT))
+
+        when:
+        def result = read(archive.stream(START.plusSeconds(60L * from), START.plusSeconds(60L * to)))
+
+        then:
+        result == bars(Math.max(0, from), Math.min(BARS_COUNT, to))
+
+        where:
+        from                          | to
+        0                             | BARS_COUNT
+        -10                           | 10
+        BarArchive.INDEX_INTERVAL - 1 | BarArchive.INDEX_INTERVAL + 1
+        BarArchive.INDEX_INTERVAL     | 2 * BarArchive.INDEX_INTERVAL
+        5000                          | 5001
+        BARS_COUNT - 10               | BARS_COUNT + 10
+        BARS_COUNT + 10               | BARS_COUNT + 20
+        100                           | 100
+    }
+
+    def 'given older and overlapping bars should merge them and count duplicates'() {
+        given:
+        def archive = BarArchive.open(file, "EURUSD", BarPeriod.M1)
+        archive.insert(bars(5000, BARS_COUNT))
+        def stream = archive.streamAll()
+
+        when:
+        def summary = archive.insert(bars(0, 6000).reverse())
+
+        then:
+        summary.getInserted() == 5000
+        summary.getDuplicates() == 1000
+        read(archive.streamAll()) == bars(0, BARS_COUNT)
+        archive.count() == BARS_COUNT
+
+        and: 'stream opened before keeps reading previous content'
+        read(stream) == bars(5000, BARS_COUNT)
+    }
+
+    def 'given older history inserted in order should merge it in a single pass'() {
+        given:
+        def archive = BarArchive.open(file, "EURUSD", BarPeriod.M1)
+        archive.insert(bars(5000, BARS_COUNT))
+
+        when:
+        def summary = archive.insertOrdered((bars(0, 6000) + bars(5999, 6000)).iterator())
+
+        then:
+        summary.getInserted() == 5000
+        summary.getDuplicates() == 1001
+        read(archive.streamAll()) == bars(0, BARS_COUNT)
+        Files.notExists(file.resolveSibling(file.getFileName().toString() + ".merge"))
+    }
+
+    @Unroll
+    def 'given bars out of order inserted #description should reject them and keep the archive unchanged'() {
+        given:
+        def archive = BarArchive.open(file, "EURUSD", BarPeriod.M1)
+        archive.insert(bars(100, 200))
+
+        when:
+        archive.insertOrdered((bars(from, from + 10) + bars(from - 5, from)).iterator())
+
+        then:
+        thrown(IllegalArgumentException)
+        read(archive.streamAll()) == bars(100, 200)
+        read(BarArchive.open(file, "EURUSD", BarPeriod.M1).streamAll()) == bars(100, 200)
+
+        where:
+        description         | from
+        'after stored bars' | 300
+        'into stored bars'  | 50
+    }
+
+    def 'given incomplete record at the end of file should truncate it'() {
+        given:
+        BarArchive.open(file, "EURUSD", BarPeriod.M1).insert(bars(0, 10))
+        Files.write(file, [1, 2, 3] as byte[], StandardOpenOption.APPEND)
+
+        when:
+        def archive = BarArchive.open(file, "EURUSD", BarPeriod.M1)
+
+        then:
+        archive.count() == 10
+        read(archive.streamAll()) == bars(0, 10)
+    }
+
+    private static List<OhlcvBar> bars(int fromMinute, int toMinute) {
+        if (fromMinute >= toMinute) {
+            return []
+        }
+        (fromMinute..<toMinute).collect {
+            new OhlcvBar(BarPeriod.M1, START.plusSeconds(60L * it), "EURUSD",
+                         it, it + 0.1, it + 0.2, it + 0.3, it + 0.4, it + 0.5, it + 0.6, it + 0.7, it)
+        }
+    }
+
+    private static List<OhlcvBar> read(Stream<OhlcvBar> stream) {
+        try {
+            stream.collect(Collectors.toList())
+        } finally {
+            stream.close()
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package quantasma.app.service
+
+import quantasma.app.model.OhlcvBar
+import quantasma.app.repository.archive.BarArchiveRepository
+import quantasma.core.BarPeriod
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Duration
+import java.time.Instant
+import java.util.stream.Collectors
+
+class ArchiveHistoricalDataServiceSpec extends Specification {
+
+    private static final Instant START = Instant.parse("2018-11-20T00:00:00Z")
+
+    private Path directory = Files.createTempDirectory("bar-archives")
+
+    def cleanup() {
+        directory.toFile().deleteDir()
+    }
+
+    def 'given archives of 2 periods should stream bars of both periods merged by date'() {
+        given:
+        def service = new ArchiveHistoricalDataService(new BarArchiveRepository(directory.toString()))
+        service.insertSkipDuplicates(bars(BarPeriod.M5, 0, 100, 5) + bars(BarPeriod.M1, 0, 100, 1))
+
+        when:
+        def stream = service.streamBySymbolAndDateBetweenOrderByDate("EURUSD", START.plusSeconds(60 * 10), Duration.ofMinutes(50))
+        def result = stream.collect(Collectors.toList())
+        stream.close()
+
+        then:
+        result*.date == result*.date.sort(false)
+        result.findAll { it.period == BarPeriod.M1 } == bars(BarPeriod.M1, 10, 60, 1)
+        result.findAll { it.period == BarPeriod.M5 } == bars(BarPeriod.M5, 10, 60, 5)
+
+        and: 'bars of the same date follow the shorter period first'
+        result.take(2)*.period == [BarPeriod.M1, BarPeriod.M5]
+    }
+
+    def 'given archives stored in directory should reopen them by symbol and period'() {
+        given:
+        new ArchiveHistoricalDataService(new BarArchiveRepository(directory.toString()))
+                .insertSkipDuplicates(bars(BarPeriod.M1, 0, 10, 1) + bars(BarPeriod.H1, 0, 120, 60))
+
+        when:
+        def reopened = new ArchiveHistoricalDataService(new BarArchiveRepository(directory.toString()))
+
+        then:
+        Files.exists(directory.resolve("EURUSD_M1.bars"))
+        Files.exists(directory.resolve("EURUSD_H1.bars"))
+        reopened.countBySymbol("EURUSD") == 12
+        reopened.dataSummary()*.period as Set == [BarPeriod.M1, BarPeriod.H1] as Set
+    }
+
+    private static List<OhlcvBar> bars(BarPeriod period, int fromMinute, int toMinute, int step) {
+        (fromMinute..<toMinute).step(step).collect {
+            new OhlcvBar(period, START.plusSeconds(60L * it), "EURUSD", it, it + 0.1, it + 0.2, it + 0.3, it + 0.4, it + 0.5, it + 0.6, it + 0.7, it)
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package quantasma.app.service
+
+import quantasma.app.model.BacktestJob
+import quantasma.core.analysis.BacktestResult
+import quantasma.core.analysis.ProgressListener
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.CancellationException
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+
+class BacktestJobsSpec extends Specification {
+
+    private final PollingConditions conditions = new PollingConditions(timeout: 5)
+    private BacktestJobs jobs
+
+    def cleanup() {
+        jobs?.shutdown()
+    }
+
+    def 'given submitted backtest should complete it with its progress and results'() {
+        given:
+        jobs = new BacktestJobs(1, 1, 1)
+        def results = (0..<3).collect { result(it) }
+
+        when:
+        def submitted = jobs.submit("test", { ProgressListener<BacktestResult> listener ->
+            listener.started(results.size())
+            results.each { listener.finished(it) }
+            results
+        })
+
+        then:
+        submitted.backtest == "test"
+        conditions.eventually {
+            assert jobs.get(submitted.id).status == BacktestJob.Status.COMPLETED
+        }
+        with(jobs.get(submitted.id)) {
+            total == 3
+            completed == 3
+            started != null
+            finished != null
+            isDone()
+        }
+        jobs.results(submitted.id) == results
+    }
+
+    def 'given running backtest should return results finished so far'() {
+        given:
+        jobs = new BacktestJobs(1, 0, 1)
+        def release = new CountDownLatch(1)
+        def results = (0..<3).collect { result(it) }
+        def running = jobs.submit("running", { ProgressListener<BacktestResult> listener ->
+            listener.finished(results[2])
+            listener.finished(results[0])
+            release.await(5, TimeUnit.SECONDS)
+            listener.finished(results[1])
+            results
+        })
+
+        expect:
+        conditions.eventually {
+            assert jobs.finishedResults(running.id, 0) == [results[2], results[0]]
+        }
+        jobs.finishedResults(running.id, 1) == [results[0]]
+        jobs.finishedResults(running.id, 2).isEmpty()
+
+        when:
+        release.countDown()
+
+        then:
+        conditions.eventually {
+            assert jobs.get(running.id).isDone()
+        }
+        jobs.finishedResults(running.id, 2) == [results[1]]
+        jobs.results(running.id) == [results[2], results[0], results[1]]
+        jobs.jobs[running.id].results == null
+    }
+
+    def 'given backtest not keeping finished results should count them and keep only its top results'() {
+        given:
+        jobs = new BacktestJobs(1, 0, 1)
+        def top = (0..<3).collect { result(it) }
+        def release = new CountDownLatch(1)
+
+        when:
+        def ranked = jobs.submit("ranked", false, { ProgressListener<BacktestResult> listener ->
+            listener.started(1000)
+            1000.times { listener.finished(result(it)) }
+            release.await(5, TimeUnit.SECONDS)
+            top
+        })
+
+        then:
+        conditions.eventually {
+            assert jobs.get(ranked.id).completed == 1000
+        }
+        jobs.finishedResults(ranked.id, 0).isEmpty()
+        jobs.jobs[ranked.id].finishedResults.isEmpty()
+
+        when:
+        release.countDown()
+
+        then:
+        conditions.eventually {
+            assert jobs.get(ranked.id).status == BacktestJob.Status.COMPLETED
+        }
+        jobs.jobs[ranked.id].finishedResults.isEmpty()
+        jobs.finishedResults(ranked.id, 0) == top
+        jobs.finishedResults(ranked.id, 2) == [top[2]]
+        jobs.results(ranked.id) == top
+    }
+
+    def 'given full queue should reject backtest'() {
+        given:
+        jobs = new BacktestJobs(1, 1, 1)
+        def release = new CountDownLatch(1)
+        def running = jobs.submit("running", blocking(release))
+        conditions.eventually {
+            assert jobs.get(running.id).status == BacktestJob.Status.RUNNING
+        }
+        jobs.submit("queued", blocking(release))
+
+        when:
+        jobs.submit("rejected", blocking(release))
+
+        then:
+        thrown(RejectedExecutionException)
+
+        cleanup:
+        release.countDown()
+    }
+
+    def 'given queued backtest when cancelled should never run it'() {
+        given:
+        jobs = new BacktestJobs(1, 1, 1)
+        def release = new CountDownLatch(1)
+        def runs = 0
+        jobs.submit("running", blocking(release))
+        def queued = jobs.submit("queued", { runs++; [] })
+
+        when:
+        def cancelled = jobs.cancel(queued.id)
+        release.countDown()
+
+        then:
+        cancelled.status == BacktestJob.Status.CANCELLED
+        cancelled.isDone()
+        jobs.submit("next", { [] }) != null
+        runs == 0
+    }
+
+    def 'given running backtest when cancelled should report cancellation to it'() {
+        given:
+        jobs = new BacktestJobs(1, 0, 1)
+        def running = jobs.submit("running", { ProgressListener<BacktestResult> listener ->
+            while (!listener.isCancelled()) {
+                Thread.sleep(1)
+            }
+            throw new CancellationException()
+        })
+
+        when:
+        jobs.cancel(running.id)
+
+        then:
+        conditions.eventually {
+            assert jobs.get(running.id).status == BacktestJob.Status.CANCELLED
+        }
+
+        when:
+        jobs.results(running.id)
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def 'given failing backtest should report its error'() {
+        given:
+        jobs = new BacktestJobs(1, 0, 1)
+
+        when:
+        def failing = jobs.submit("failing", { throw new IllegalArgumentException("Unknown parameter [x]") })
+
+        then:
+        conditions.eventually {
+            with(jobs.get(failing.id)) {
+                assert status == BacktestJob.Status.FAILED
+                assert error == "Unknown parameter [x]"
+            }
+        }
+    }
+
+    def 'given backtest failing with an error should report it'() {
+        given:
+        jobs = new BacktestJobs(1, 0, 1)
+
+        when:
+        def failing = jobs.submit("failing", { throw new StackOverflowError("Too deep") })
+
+        then:
+        conditions.eventually {
+            with(jobs.get(failing.id)) {
+                assert status == BacktestJob.Status.FAILED
+                assert error == "Too deep"
+                assert it.isDone()
+            }
+        }
+    }
+
+    def 'given more finished jobs than retained should forget the oldest ones'() {
+        given:
+        jobs = new BacktestJobs(1, 4, 2)
+
+        when:
+        def ids = (0..<3).collect { jobs.submit("test", { [] }).id }
+
+        then:
+        conditions.eventually {
+            assert !known(ids.first())
+        }
+        jobs.get(ids[1]).isDone()
+        jobs.get(ids[2]).isDone()
+    }
+
+    def 'given unknown job should throw an exception'() {
+        given:
+        jobs = new BacktestJobs(1, 0, 1)
+
+        when:
+        jobs.cancel("unknown")
+
+        then:
+        thrown(UnknownBacktestJobException)
+    }
+
+    def 'given invalid settings should throw an exception'() {
+        when:
+        new BacktestJobs(threads, queueCapacity, retained)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        threads | queueCapacity | retained
+        0       | 1             | 1
+        1       | -1            | 1
+        1       | 1             | -1
+    }
+
+    private boolean known(String id) {
+        try {
+            jobs.get(id)
+            return true
+        } catch (IllegalArgumentException ignored) {
+            return false
+        }
+    }
+
+    private static Closure<List<BacktestResult>> blocking(CountDownLatch release) {
+        return { ProgressListener<BacktestResult> listener ->
+            release.await(5, TimeUnit.SECONDS)
+            []
+        }
+    }
+
+    private static BacktestResult result(int index) {
+        new BacktestResult([period: index], [:])
+    }
+}
@@ -0,0 +1,162 @@
+package quantasma.app.service
+
+import quantasma.app.model.InsertSummary
+import quantasma.app.model.OhlcvBar
+import quantasma.app.repository.OhlcvBarRecords
+import quantasma.core.BarPeriod
+import spock.lang.Specification
+
+import java.time.Duration
+import java.time.Instant
+import java.util.stream.Collectors
+import java.util.stream.Stream
+
+class BarRangeCacheSpec extends Specification {
+
+    private static final Instant START = Instant.parse("2018-11-20T00:00:00Z")
+    private static final long MB = 1024 * 1024
+
+    def 'given range read twice should load it from the storage once'() {
+        given:
+        def cache = new BarRangeCache(MB)
+        def loads = 0
+        def loader = { loads++; bars(0, 5000).stream() }
+
+        when:
+        def first = read(cache.stream("EURUSD", START, minute(5000), loader))
+        def second = read(cache.stream("EURUSD", START, minute(5000), loader))
+
+        then:
+        first == bars(0, 5000)
+        second == bars(0, 5000)
+        loads == 1
+        with(cache.stats()) {
+            hits == 1
+            misses == 1
+            entries == 1
+            bytes > 5000L * OhlcvBarRecords.RECORD_BYTES
+            hitRatio == 0.5
+        }
+    }
+
+    def 'given partially consumed range should not store it'() {
+        given:
+        def cache = new BarRangeCache(MB)
+
+        when:
+        def stream = cache.stream("EURUSD", START, minute(100), { bars(0, 100).stream() })
+        stream.limit(10).collect(Collectors.toList())
+        stream.close()
+
+        then:
+        cache.stats().entries == 0
+    }
+
+    def 'given cache exceeding its budget should evict least recently used ranges'() {
+        given:
+        def cache = new BarRangeCache(250 * OhlcvBarRecords.RECORD_BYTES)
+        load(cache, "EURUSD", 0, 100)
+        load(cache, "EURUSD", 100, 200)
+        load(cache, "EURUSD", 0, 100)
+
+        when:
+        load(cache, "EURUSD", 200, 300)
+
+        then:
+        with(cache.stats()) {
+            entries == 2
+            evictions == 1
+            bytes <= maxBytes
+        }
+        load(cache, "EURUSD", 0, 100) == 0
+        load(cache, "EURUSD", 100, 200) == 1
+    }
+
+    def 'given range larger than the budget should not store it'() {
+        given:
+        def cache = new BarRangeCache(100 * OhlcvBarRecords.RECORD_BYTES)
+
+        when:
+        def result = read(cache.stream("EURUSD", START, minute(5000), { bars(0, 5000).stream() }))
+
+        then:
+        result == bars(0, 5000)
+        cache.stats().entries == 0
+        cache.stats().bytes == 0
+    }
+
+    def 'given bars inserted should invalidate overlapping ranges of the symbol only'() {
+        given:
+        def cache = new BarRangeCache(MB)
+        load(cache, "EURUSD", 0, 100)
+        load(cache, "EURUSD", 100, 200)
+        load(cache, "GBPUSD", 0, 100)
+        def storage = Stub(HistoricalDataService) {
+            insertSkipDuplicates(_) >> InsertSummary.empty()
+        }
+        def service = new CachingHistoricalDataService(storage, cache)
+
+        when:
+        service.insertSkipDuplicates(bars(150, 160))
+
+        then:
+        cache.stats().invalidations == 1
+        load(cache, "EURUSD", 0, 100) == 0
+        load(cache, "EURUSD", 100, 200) == 1
+        load(cache, "GBPUSD", 0, 100) == 0
+    }
+
+    def 'given range invalidated while being loaded should not store it'() {
+        given:
+        def cache = new BarRangeCache(MB)
+        def stream = cache.stream("EURUSD", START, minute(100), { bars(0, 100).stream() })
+
+        when:
+        cache.invalidate("EURUSD")
+        read(stream)
+
+        then:
+        cache.stats().entries == 0
+    }
+
+    def 'given caching service should read window through the cache'() {
+        given:
+        def cache = new BarRangeCache(MB)
+        def storage = Mock(HistoricalDataService)
+        def service = new CachingHistoricalDataService(storage, cache)
+
+        when:
+        def first = read(service.streamBySymbolAndDateBetweenOrderByDate("EURUSD", START, Duration.ofMinutes(100)))
+        def second = read(service.streamBySymbolAndDateBetweenOrderByDate("EURUSD", START, Duration.ofMinutes(100)))
+
+        then:
+        1 * storage.streamBySymbolAndDateBetweenOrderByDate("EURUSD", START, Duration.ofMinutes(100)) >> bars(0, 100).stream()
+        first == bars(0, 100)
+        second == first
+    }
+
+    private static int load(BarRangeCache cache, String symbol, int fromMinute, int toMinute) {
+        def loads = 0
+        read(cache.stream(symbol, minute(fromMinute), minute(toMinute), { loads++; bars(fromMinute, toMinute, symbol).stream() }))
+        loads
+    }
+
+    private static Instant minute(int minute) {
+        START.plusSeconds(60L * minute)
+    }
+
+    private static List<OhlcvBar> bars(int fromMinute, int toMinute, String symbol = "EURUSD") {
+        (fromMinute..<toMinute).collect {
+            new OhlcvBar(BarPeriod.M1, minute(it), symbol,
+                         it, it + 0.1, it + 0.2, it + 0.3, it + 0.4, it + 0.5, it + 0.6, it + 0.7, it)
+        }
+    }
+
+    private static List<OhlcvBar> read(Stream<OhlcvBar> stream) {
+        try {
+            stream.collect(Collectors.toList())
+        } finally {
+            stream.close()
+        }
+    }
+}
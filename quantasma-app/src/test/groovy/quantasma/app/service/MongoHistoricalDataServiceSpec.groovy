@@ -0,0 +1,57 @@
+package quantasma.app.service
+
+import quantasma.app.config.service.historical.HistoricalDataServiceProperties
+import quantasma.app.model.InsertSummary
+import quantasma.app.model.MongoOhlcvBar
+import quantasma.app.model.OhlcvBar
+import quantasma.app.repository.HistoricalDataRepository
+import quantasma.core.BarPeriod
+import spock.lang.Specification
+
+import java.time.Instant
+
+class MongoHistoricalDataServiceSpec extends Specification {
+
+    private static final Instant START = Instant.parse("2018-11-20T00:00:00Z")
+
+    private HistoricalDataRepository repository = Mock()
+    private MongoHistoricalDataService service = new MongoHistoricalDataService(repository, new HistoricalDataServiceProperties("test", 1000, 2))
+
+    def 'given bars exceeding chunk size should insert them in chunks and sum the summaries'() {
+        given:
+        def chunks = []
+
+        when:
+        def summary = service.insertSkipDuplicates(bars(5))
+
+        then:
+        3 * repository.insertSkipDuplicates(_) >> { arguments ->
+            List<MongoOhlcvBar> chunk = arguments[0]
+            chunks << chunk*.date
+            new InsertSummary(chunk.size() - 1, 1, 10)
+        }
+        chunks == [[minute(0), minute(1)], [minute(2), minute(3)], [minute(4)]]
+        summary == new InsertSummary(2, 3, 30)
+        service.ingestionSummary() == summary
+    }
+
+    def 'given failing chunk should propagate the error and not count it'() {
+        given:
+        repository.insertSkipDuplicates(_) >> { throw new IllegalStateException("failed") }
+
+        when:
+        service.insertSkipDuplicates(bars(3))
+
+        then:
+        thrown(IllegalStateException)
+        service.ingestionSummary() == InsertSummary.empty()
+    }
+
+    private static Instant minute(int minute) {
+        START.plusSeconds(60L * minute)
+    }
+
+    private static List<OhlcvBar> bars(int count) {
+        (0..<count).collect { new OhlcvBar(BarPeriod.M1, minute(it), "EURUSD", 1.1, 1.0, 1.2, 1.15, 1.1001, 1.0001, 1.2001, 1.1501, it) }
+    }
+}
@@ -0,0 +1,67 @@
+package quantasma.benchmarks.backtest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ta4j.core.Order;
+import org.ta4j.core.TradingRecord;
+import quantasma.benchmarks.data.NumTypes;
+import quantasma.benchmarks.data.SyntheticData;
+import quantasma.core.BaseContext;
+import quantasma.core.Context;
+import quantasma.core.MarketData;
+import quantasma.core.TestManager;
+import quantasma.core.timeseries.bar.BidAskBar;
+import quantasma.examples.RSIStrategy;
+import quantasma.examples.RSIStrategy.Parameter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a single RSI backtest run over M1 bars built with {@code PrecisionNum} and {@code DoubleNum}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class NumTypeBenchmark {
+    private static final String SYMBOL = "EURUSD";
+
+    @Param({"precision", "double"})
+    private String numType;
+
+    @Param({"10000"})
+    private int barsCount;
+
+    private Context context;
+    private TestManager<BidAskBar> testManager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final MarketData<BidAskBar> marketData = SyntheticData.m1MarketData(SYMBOL, NumTypes.of(numType), barsCount);
+        context = new BaseContext.Builder().withMarketData(marketData).build();
+        testManager = new TestManager<>(marketData);
+    }
+
+    @Benchmark
+    public TradingRecord backtest() {
+        final RSIStrategy strategy = RSIStrategy.buildBullish(context,
+                                                              parameterValues -> parameterValues
+                                                                      .set(Parameter.TRADE_SYMBOL, SYMBOL)
+                                                                      .set(Parameter.RSI_PERIOD, 14)
+                                                                      .set(Parameter.RSI_LOWER_BOUND, 30)
+                                                                      .set(Parameter.RSI_UPPER_BOUND, 70));
+        return testManager.run(strategy, Order.OrderType.BUY);
+    }
+}
@@ -0,0 +1,118 @@
+package quantasma.benchmarks.criterion;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ta4j.core.AnalysisCriterion;
+import org.ta4j.core.BaseTradingRecord;
+import org.ta4j.core.Order;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.TradingRecord;
+import org.ta4j.core.num.Num;
+import quantasma.benchmarks.data.NumTypes;
+import quantasma.benchmarks.data.SyntheticData;
+import quantasma.core.analysis.criterion.AvgProfitLossCriterion;
+import quantasma.core.analysis.criterion.ExposureCriterion;
+import quantasma.core.analysis.criterion.FinishDepositCriterion;
+import quantasma.core.analysis.criterion.MaxDrawdownCriterion;
+import quantasma.core.analysis.criterion.ProfitFactorCriterion;
+import quantasma.core.analysis.criterion.ProfitLossCriterion;
+import quantasma.core.analysis.criterion.ProfitLossPipsCriterion;
+import quantasma.core.analysis.criterion.SharpeRatioCriterion;
+import quantasma.core.analysis.criterion.SortinoRatioCriterion;
+import quantasma.core.analysis.criterion.TradesCountCriterion;
+import quantasma.core.analysis.criterion.WinRateCriterion;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures evaluation of a trading record by every criterion of {@code quantasma.core.analysis.criterion}.
+ * The record holds a trade of 5 bars opened every 10 bars. Criterions based on run statistics replay the record on their own,
+ * as they do when the statistics were not collected during the run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CriterionBenchmark {
+    private static final String SYMBOL = "EURUSD";
+    private static final double PIP_RESOLUTION = 0.0001;
+    private static final double INITIAL_DEPOSIT = 10_000;
+    private static final int BARS_COUNT = 10_000;
+
+    @Param({"profitLoss", "profitLossPips", "avgProfitLoss", "finishDeposit", "tradesCount",
+            "maxDrawdown", "exposure", "sharpeRatio", "sortinoRatio", "winRate", "profitFactor"})
+    private String criterionName;
+
+    @Param({"precision", "double"})
+    private String numType;
+
+    private AnalysisCriterion criterion;
+    private TimeSeries timeSeries;
+    private TradingRecord tradingRecord;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        criterion = resolveCriterion();
+        timeSeries = SyntheticData.m1MarketData(SYMBOL, NumTypes.of(numType), BARS_COUNT)
+                                  .of(SYMBOL)
+                                  .getMainTimeSeries()
+                                  .plainTimeSeries();
+        tradingRecord = createTradingRecord(timeSeries);
+    }
+
+    @Benchmark
+    public Num calculate() {
+        return criterion.calculate(timeSeries, tradingRecord);
+    }
+
+    private AnalysisCriterion resolveCriterion() {
+        switch (criterionName) {
+            case "profitLoss":
+                return new ProfitLossCriterion(PIP_RESOLUTION);
+            case "profitLossPips":
+                return new ProfitLossPipsCriterion(PIP_RESOLUTION);
+            case "avgProfitLoss":
+                return new AvgProfitLossCriterion(PIP_RESOLUTION);
+            case "finishDeposit":
+                return new FinishDepositCriterion(INITIAL_DEPOSIT, PIP_RESOLUTION);
+            case "tradesCount":
+                return new TradesCountCriterion();
+            case "maxDrawdown":
+                return new MaxDrawdownCriterion();
+            case "exposure":
+                return new ExposureCriterion();
+            case "sharpeRatio":
+                return new SharpeRatioCriterion();
+            case "sortinoRatio":
+                return new SortinoRatioCriterion();
+            case "winRate":
+                return new WinRateCriterion();
+            case "profitFactor":
+                return new ProfitFactorCriterion();
+            default:
+                throw new IllegalArgumentException(String.format("Unknown criterion [%s]", criterionName));
+        }
+    }
+
+    private static TradingRecord createTradingRecord(TimeSeries timeSeries) {
+        final TradingRecord tradingRecord = new BaseTradingRecord(Order.OrderType.BUY);
+        final Num amount = timeSeries.numOf(100_000);
+        for (int i = timeSeries.getBeginIndex(); i + 5 <= timeSeries.getEndIndex(); i += 10) {
+            tradingRecord.enter(i, timeSeries.getBar(i).getClosePrice(), amount);
+            tradingRecord.exit(i + 5, timeSeries.getBar(i + 5).getClosePrice(), amount);
+        }
+        return tradingRecord;
+    }
+}
@@ -0,0 +1,116 @@
+package quantasma.benchmarks.criterion;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ta4j.core.AnalysisCriterion;
+import org.ta4j.core.BaseTradingRecord;
+import org.ta4j.core.Order;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.TradingRecord;
+import org.ta4j.core.num.Num;
+import quantasma.benchmarks.data.NumTypes;
+import quantasma.benchmarks.data.SyntheticData;
+import quantasma.core.analysis.RunStatistics;
+import quantasma.core.analysis.criterion.AvgProfitLossCriterion;
+import quantasma.core.analysis.criterion.CriterionsEvaluation;
+import quantasma.core.analysis.criterion.ExposureCriterion;
+import quantasma.core.analysis.criterion.FinishDepositCriterion;
+import quantasma.core.analysis.criterion.MaxDrawdownCriterion;
+import quantasma.core.analysis.criterion.ProfitFactorCriterion;
+import quantasma.core.analysis.criterion.ProfitLossCriterion;
+import quantasma.core.analysis.criterion.ProfitLossPipsCriterion;
+import quantasma.core.analysis.criterion.SharpeRatioCriterion;
+import quantasma.core.analysis.criterion.SortinoRatioCriterion;
+import quantasma.core.analysis.criterion.TradesCountCriterion;
+import quantasma.core.analysis.criterion.WinRateCriterion;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares evaluation of every criterion of {@code quantasma.core.analysis.criterion} one by one with a single {@link CriterionsEvaluation},
+ * replaying the record once for all criterions based on run statistics or using statistics collected during the run.
+ * The record holds a trade of 5 bars opened every 10 bars.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CriterionsEvaluationBenchmark {
+    private static final String SYMBOL = "EURUSD";
+    private static final double PIP_RESOLUTION = 0.0001;
+    private static final double INITIAL_DEPOSIT = 10_000;
+    private static final int BARS_COUNT = 10_000;
+
+    @Param({"precision", "double"})
+    private String numType;
+
+    private List<AnalysisCriterion> criterions;
+    private CriterionsEvaluation evaluation;
+    private TimeSeries timeSeries;
+    private TradingRecord tradingRecord;
+    private RunStatistics statistics;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        criterions = Arrays.asList(new ProfitLossCriterion(PIP_RESOLUTION),
+                                   new ProfitLossPipsCriterion(PIP_RESOLUTION),
+                                   new AvgProfitLossCriterion(PIP_RESOLUTION),
+                                   new FinishDepositCriterion(INITIAL_DEPOSIT, PIP_RESOLUTION),
+                                   new TradesCountCriterion(),
+                                   new MaxDrawdownCriterion(),
+                                   new ExposureCriterion(),
+                                   new SharpeRatioCriterion(),
+                                   new SortinoRatioCriterion(),
+                                   new WinRateCriterion(),
+                                   new ProfitFactorCriterion());
+        evaluation = new CriterionsEvaluation(criterions);
+        timeSeries = SyntheticData.m1MarketData(SYMBOL, NumTypes.of(numType), BARS_COUNT)
+                                  .of(SYMBOL)
+                                  .getMainTimeSeries()
+                                  .plainTimeSeries();
+        tradingRecord = createTradingRecord(timeSeries);
+        statistics = RunStatistics.replay(timeSeries, tradingRecord);
+    }
+
+    @Benchmark
+    public void separately(Blackhole blackhole) {
+        for (AnalysisCriterion criterion : criterions) {
+            blackhole.consume(criterion.calculate(timeSeries, tradingRecord));
+        }
+    }
+
+    @Benchmark
+    public List<Num> singlePass() {
+        return evaluation.calculate(timeSeries, tradingRecord);
+    }
+
+    @Benchmark
+    public List<Num> singlePassWithStatistics() {
+        return evaluation.calculate(timeSeries, tradingRecord, statistics);
+    }
+
+    private static TradingRecord createTradingRecord(TimeSeries timeSeries) {
+        final TradingRecord tradingRecord = new BaseTradingRecord(Order.OrderType.BUY);
+        final Num amount = timeSeries.numOf(100_000);
+        for (int i = timeSeries.getBeginIndex(); i + 5 <= timeSeries.getEndIndex(); i += 10) {
+            tradingRecord.enter(i, timeSeries.getBar(i).getClosePrice(), amount);
+            tradingRecord.exit(i + 5, timeSeries.getBar(i + 5).getClosePrice(), amount);
+        }
+        return tradingRecord;
+    }
+}
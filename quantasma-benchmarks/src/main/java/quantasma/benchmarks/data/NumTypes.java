@@ -0,0 +1,27 @@
+package quantasma.benchmarks.data;
+
+import org.ta4j.core.num.DoubleNum;
+import org.ta4j.core.num.Num;
+import org.ta4j.core.num.PrecisionNum;
+
+import java.util.function.Function;
+
+/**
+ * Resolves num functions by names used in {@code @Param} values of benchmarks: {@code precision} and {@code double}.
+ */
+public final class NumTypes {
+
+    private NumTypes() {
+    }
+
+    public static Function<Number, Num> of(String numType) {
+        switch (numType) {
+            case "precision":
+                return PrecisionNum::valueOf;
+            case "double":
+                return DoubleNum::valueOf;
+            default:
+                throw new IllegalArgumentException(String.format("Unknown num type [%s]", numType));
+        }
+    }
+}
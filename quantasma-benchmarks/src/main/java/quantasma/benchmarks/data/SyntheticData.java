@@ -0,0 +1,106 @@
+package quantasma.benchmarks.data;
+
+import org.ta4j.core.num.Num;
+import quantasma.core.BarPeriod;
+import quantasma.core.BarQuote;
+import quantasma.core.MarketData;
+import quantasma.core.MarketDataBuilder;
+import quantasma.core.Quote;
+import quantasma.core.StructureDefinition;
+import quantasma.core.timeseries.BaseManualIndexTimeSeries;
+import quantasma.core.timeseries.TimeSeriesDefinition;
+import quantasma.core.timeseries.bar.BidAskBar;
+import quantasma.core.timeseries.bar.BidAskBarFactory;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Deterministic market data for benchmarks, so they run offline and every run sees the same prices.<p>
+ * Prices are a random walk around {@code 1.1} with a constant spread of 0.2 pip.
+ */
+public final class SyntheticData {
+    public static final ZonedDateTime TIME_REF = ZonedDateTime.parse("2018-01-01T00:00:00Z");
+    /**
+     * 52 weeks of 5 trading days
+     */
+    public static final int YEAR_OF_M1_BARS = 52 * 5 * 24 * 60;
+
+    private static final long SEED = 42;
+    private static final double START_PRICE = 1.1;
+    private static final double SPREAD = 0.00002;
+    private static final int QUOTES_PER_M1_BAR = 4;
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Symbols named {@code SYMBOL00}, {@code SYMBOL01}, ...
+     */
+    public static String[] symbols(int count) {
+        final String[] symbols = new String[count];
+        for (int i = 0; i < count; i++) {
+            symbols[i] = String.format("SYMBOL%02d", i);
+        }
+        return symbols;
+    }
+
+    /**
+     * Quotes distributed round robin over the given symbols, {@code step} apart from each other
+     */
+    public static Quote[] quotes(String[] symbols, int count, Duration step) {
+        final Random random = new Random(SEED);
+        final long stepNanos = step.toNanos();
+        final Quote[] quotes = new Quote[count];
+        double bid = START_PRICE;
+        for (int i = 0; i < count; i++) {
+            bid += (random.nextInt(21) - 10) * 0.00001;
+            quotes[i] = Quote.bidAsk(symbols[i % symbols.length], TIME_REF.plusNanos(i * stepNanos), bid, bid + SPREAD);
+        }
+        return quotes;
+    }
+
+    /**
+     * Consecutive M1 bars of a single symbol, bar prices follow the same random walk as quotes
+     */
+    public static BarQuote[] m1BarQuotes(String symbol, int count) {
+        final Random random = new Random(SEED);
+        final BarQuote[] barQuotes = new BarQuote[count];
+        double bid = START_PRICE;
+        for (int i = 0; i < count; i++) {
+            final double open = bid;
+            double high = bid;
+            double low = bid;
+            for (int j = 1; j < QUOTES_PER_M1_BAR; j++) {
+                bid += (random.nextInt(21) - 10) * 0.00001;
+                high = Math.max(high, bid);
+                low = Math.min(low, bid);
+            }
+            barQuotes[i] = BarQuote.bidAsk(symbol, TIME_REF.plusMinutes(i),
+                                           open, high, low, bid,
+                                           open + SPREAD, high + SPREAD, low + SPREAD, bid + SPREAD);
+            bid += (random.nextInt(21) - 10) * 0.00001;
+        }
+        return barQuotes;
+    }
+
+    /**
+     * Market data of a single symbol with manual indexes, filled with the given number of M1 bars
+     */
+    public static MarketData<BidAskBar> m1MarketData(String symbol, Function<Number, Num> numFunction, int barsCount) {
+        final MarketData<BidAskBar> marketData =
+                MarketDataBuilder.basedOn(StructureDefinition.model(new BidAskBarFactory())
+                                                             .numTypeOf(numFunction)
+                                                             .resolution(TimeSeriesDefinition.unlimited(BarPeriod.M1)))
+                                 .symbols(symbol)
+                                 .wrap(BaseManualIndexTimeSeries::wrap)
+                                 .build();
+        final Duration step = Duration.ofMinutes(1).dividedBy(QUOTES_PER_M1_BAR);
+        for (Quote quote : quotes(new String[]{symbol}, barsCount * QUOTES_PER_M1_BAR, step)) {
+            marketData.add(quote);
+        }
+        return marketData;
+    }
+}
@@ -0,0 +1,82 @@
+package quantasma.benchmarks.marketdata;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import quantasma.benchmarks.data.NumTypes;
+import quantasma.benchmarks.data.SyntheticData;
+import quantasma.core.BarPeriod;
+import quantasma.core.MarketData;
+import quantasma.core.MarketDataBuilder;
+import quantasma.core.Quote;
+import quantasma.core.StructureDefinition;
+import quantasma.core.timeseries.TimeSeriesDefinition;
+import quantasma.core.timeseries.bar.BidAskBar;
+import quantasma.core.timeseries.bar.BidAskBarFactory;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a cost of a single live tick passed to {@link MarketData#add(Quote)} - M1 resolution aggregated to M5 and M30,
+ * ticks distributed round robin over all symbols.<p>
+ * Run with {@code -prof gc} to get bytes per tick ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MarketDataAddBenchmark {
+    private static final int QUOTES_COUNT = 1 << 18;
+    private static final int MAX_BAR_COUNT = 500;
+
+    @Param({"1", "10", "50"})
+    private int symbolsCount;
+
+    @Param({"precision", "double"})
+    private String numType;
+
+    private String[] symbols;
+    private Quote[] quotes;
+    private MarketData<BidAskBar> marketData;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        symbols = SyntheticData.symbols(symbolsCount);
+        quotes = SyntheticData.quotes(symbols, QUOTES_COUNT, Duration.ofMillis(250));
+        marketData = createMarketData();
+    }
+
+    @Benchmark
+    public void add() {
+        if (index == QUOTES_COUNT) {
+            // quotes cannot go back in time, start again with empty market data - amortized over all quotes
+            marketData = createMarketData();
+            index = 0;
+        }
+        marketData.add(quotes[index++]);
+    }
+
+    private MarketData<BidAskBar> createMarketData() {
+        return MarketDataBuilder.basedOn(StructureDefinition.model(new BidAskBarFactory())
+                                                            .numTypeOf(NumTypes.of(numType))
+                                                            .resolution(TimeSeriesDefinition.limited(BarPeriod.M1, MAX_BAR_COUNT)))
+                                .symbols(symbols)
+                                .aggregate(TimeSeriesDefinition.Group.of(symbols)
+                                                                     .add(TimeSeriesDefinition.limited(BarPeriod.M5, MAX_BAR_COUNT))
+                                                                     .add(TimeSeriesDefinition.limited(BarPeriod.M30, MAX_BAR_COUNT)))
+                                .build();
+    }
+}
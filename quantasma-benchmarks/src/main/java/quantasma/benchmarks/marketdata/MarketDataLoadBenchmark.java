@@ -0,0 +1,85 @@
+package quantasma.benchmarks.marketdata;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import quantasma.benchmarks.data.NumTypes;
+import quantasma.benchmarks.data.SyntheticData;
+import quantasma.core.BarPeriod;
+import quantasma.core.BarQuote;
+import quantasma.core.MarketData;
+import quantasma.core.MarketDataBuilder;
+import quantasma.core.Quote;
+import quantasma.core.StructureDefinition;
+import quantasma.core.timeseries.TimeSeriesDefinition;
+import quantasma.core.timeseries.bar.BidAskBar;
+import quantasma.core.timeseries.bar.BidAskBarFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading a month of historical M1 bars aggregated to M5, M30 and H1 - bars replayed as open, high, low and close quotes
+ * compared to bars added by {@link MarketData#add(BarQuote)}. Both give the same bars.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MarketDataLoadBenchmark {
+    private static final String SYMBOL = "EURUSD";
+    private static final int BARS_COUNT = 4 * 5 * 24 * 60;
+
+    @Param({"precision", "double"})
+    private String numType;
+
+    private BarQuote[] barQuotes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        barQuotes = SyntheticData.m1BarQuotes(SYMBOL, BARS_COUNT);
+    }
+
+    @Benchmark
+    public MarketData<BidAskBar> replayQuotes() {
+        final MarketData<BidAskBar> marketData = createMarketData();
+        for (BarQuote barQuote : barQuotes) {
+            marketData.add(Quote.bidAsk(SYMBOL, barQuote.getTime(), barQuote.getBidOpen(), barQuote.getAskOpen()));
+            marketData.add(Quote.bidAsk(SYMBOL, barQuote.getTime(), barQuote.getBidHigh(), barQuote.getAskHigh()));
+            marketData.add(Quote.bidAsk(SYMBOL, barQuote.getTime(), barQuote.getBidLow(), barQuote.getAskLow()));
+            marketData.add(Quote.bidAsk(SYMBOL, barQuote.getTime(), barQuote.getBidClose(), barQuote.getAskClose()));
+        }
+        return marketData;
+    }
+
+    @Benchmark
+    public MarketData<BidAskBar> addBars() {
+        final MarketData<BidAskBar> marketData = createMarketData();
+        for (BarQuote barQuote : barQuotes) {
+            marketData.add(barQuote);
+        }
+        return marketData;
+    }
+
+    private MarketData<BidAskBar> createMarketData() {
+        return MarketDataBuilder.basedOn(StructureDefinition.model(new BidAskBarFactory())
+                                                            .numTypeOf(NumTypes.of(numType))
+                                                            .resolution(TimeSeriesDefinition.unlimited(BarPeriod.M1)))
+                                .symbols(SYMBOL)
+                                .aggregate(TimeSeriesDefinition.Group.of(SYMBOL)
+                                                                     .add(TimeSeriesDefinition.unlimited(BarPeriod.M5))
+                                                                     .add(TimeSeriesDefinition.unlimited(BarPeriod.M30))
+                                                                     .add(TimeSeriesDefinition.unlimited(BarPeriod.H1)))
+                                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package quantasma.benchmarks.parametrize;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import quantasma.core.analysis.parametrize.Producer;
+import quantasma.core.analysis.parametrize.Values;
+import quantasma.core.analysis.parametrize.Variables;
+import quantasma.examples.RSIStrategy.Parameter;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Measures iteration over all parameter combinations of the RSI strategy - {@code periodsCount * 10 * 10} values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProducerBenchmark {
+
+    @Param({"simple", "grid"})
+    private String producerType;
+
+    @Param({"10"})
+    private int periodsCount;
+
+    private Producer<Values<Parameter>> producer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        producer = resolveProducer(recipe(periodsCount));
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        final Iterator<Values<Parameter>> iterator = producer.iterator();
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+
+    private Producer<Values<Parameter>> resolveProducer(Function<Variables<Parameter>, Values<Parameter>> recipe) {
+        switch (producerType) {
+            case "simple":
+                return Producer.from(recipe);
+            case "grid":
+                return Producer.grid(recipe);
+            default:
+                throw new IllegalArgumentException(String.format("Unknown producer type [%s]", producerType));
+        }
+    }
+
+    private static Function<Variables<Parameter>, Values<Parameter>> recipe(int periodsCount) {
+        final List<Integer> periods = range(2, periodsCount);
+        final List<Integer> lowerBounds = range(20, 10);
+        final List<Integer> upperBounds = range(70, 10);
+        return var -> {
+            var._String(Parameter.TRADE_SYMBOL).values("EURUSD");
+            var._int(Parameter.RSI_PERIOD).values(periods);
+            var._int(Parameter.RSI_LOWER_BOUND).values(lowerBounds);
+            var._int(Parameter.RSI_UPPER_BOUND).values(upperBounds);
+            return var.getParameterValues();
+        };
+    }
+
+    private static List<Integer> range(int from, int count) {
+        return IntStream.range(from, from + count).boxed().collect(Collectors.toList());
+    }
+}
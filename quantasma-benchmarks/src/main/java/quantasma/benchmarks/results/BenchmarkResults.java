@@ -0,0 +1,136 @@
+package quantasma.benchmarks.results;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Benchmark results in a plain text format meant to be committed and diffed between releases.<p>
+ * Every line is a tab-separated row of {@code benchmark, params, mode, score, error, unit}, sorted by benchmark and params,
+ * with scores rounded to 3 decimal places. Params are written as sorted {@code key=value} pairs.
+ * Besides primary scores only allocated bytes per operation ({@code gc.alloc.rate.norm}) are kept, as other secondary results are too noisy to compare.
+ * Lines starting with {@code #} are comments.
+ */
+public final class BenchmarkResults {
+    private static final String HEADER = "# benchmark\tparams\tmode\tscore\terror\tunit";
+    private static final String SEPARATOR = "\t";
+    private static final String ALLOCATION_RESULT = "gc.alloc.rate.norm";
+
+    private final List<Row> rows;
+
+    private BenchmarkResults(List<Row> rows) {
+        final List<Row> sortedRows = new ArrayList<>(rows);
+        sortedRows.sort(Comparator.comparing(Row::key));
+        this.rows = Collections.unmodifiableList(sortedRows);
+    }
+
+    public static BenchmarkResults from(Collection<RunResult> runResults) {
+        final List<Row> rows = new ArrayList<>();
+        for (RunResult runResult : runResults) {
+            final BenchmarkParams benchmarkParams = runResult.getParams();
+            final String benchmark = benchmarkParams.getBenchmark();
+            final String params = formatParams(benchmarkParams);
+            final String mode = benchmarkParams.getMode().shortLabel();
+            rows.add(Row.of(benchmark, params, mode, runResult.getPrimaryResult()));
+            for (Map.Entry<String, Result> secondaryResult : runResult.getSecondaryResults().entrySet()) {
+                final String label = secondaryResult.getKey().replace("·", "");
+                if (ALLOCATION_RESULT.equals(label)) {
+                    rows.add(Row.of(benchmark + ":" + label, params, mode, secondaryResult.getValue()));
+                }
+            }
+        }
+        return new BenchmarkResults(rows);
+    }
+
+    private static String formatParams(BenchmarkParams benchmarkParams) {
+        final StringBuilder params = new StringBuilder();
+        for (String key : new TreeSet<>(benchmarkParams.getParamsKeys())) {
+            if (params.length() > 0) {
+                params.append(',');
+            }
+            params.append(key).append('=').append(benchmarkParams.getParam(key));
+        }
+        return params.length() == 0 ? "-" : params.toString();
+    }
+
+    public static BenchmarkResults read(Path path) throws IOException {
+        final List<Row> rows = new ArrayList<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            final String[] columns = line.split(SEPARATOR);
+            if (columns.length != 6) {
+                throw new IllegalArgumentException(String.format("Invalid benchmark results line [%s] in [%s]", line, path));
+            }
+            rows.add(new Row(columns[0], columns[1], columns[2], Double.parseDouble(columns[3]), Double.parseDouble(columns[4]), columns[5]));
+        }
+        return new BenchmarkResults(rows);
+    }
+
+    public void write(Path path) throws IOException {
+        final List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        for (Row row : rows) {
+            lines.add(String.join(SEPARATOR, row.benchmark, row.params, row.mode, format(row.score), format(row.error), row.unit));
+        }
+        Files.write(path, lines, StandardCharsets.UTF_8);
+    }
+
+    private static String format(double value) {
+        return Double.isNaN(value) ? "NaN" : String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    public List<Row> getRows() {
+        return rows;
+    }
+
+    /**
+     * Rows by {@link Row#key()}
+     */
+    public Map<String, Row> byKey() {
+        final Map<String, Row> rowsByKey = new LinkedHashMap<>();
+        for (Row row : rows) {
+            rowsByKey.put(row.key(), row);
+        }
+        return rowsByKey;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Row {
+        private final String benchmark;
+        private final String params;
+        private final String mode;
+        private final double score;
+        private final double error;
+        private final String unit;
+
+        private static Row of(String benchmark, String params, String mode, Result result) {
+            return new Row(benchmark, params, mode, result.getScore(), result.getScoreError(), result.getScoreUnit());
+        }
+
+        /**
+         * Identifies the same measurement across results files
+         */
+        public String key() {
+            return benchmark + SEPARATOR + params + SEPARATOR + mode;
+        }
+    }
+}
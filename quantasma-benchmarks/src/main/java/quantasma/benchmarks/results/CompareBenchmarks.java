@@ -0,0 +1,60 @@
+package quantasma.benchmarks.results;
+
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prints a side by side comparison of two {@link BenchmarkResults} files, eg. of the previous and the current release.<p>
+ * Usage: {@code java -cp benchmarks.jar quantasma.benchmarks.results.CompareBenchmarks <base results file> <new results file>}<p>
+ * A change is the relative difference of scores - whether it is an improvement depends on the mode, eg. lower is better for average time.
+ * Measurements present in only one of files are listed with a missing score.
+ */
+public final class CompareBenchmarks {
+    private static final String ROW_FORMAT = "%-90s %-50s %-6s %15s %15s %10s %s%n";
+
+    private CompareBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("Usage: CompareBenchmarks <base results file> <new results file>");
+            System.exit(1);
+        }
+        final Map<String, BenchmarkResults.Row> baseRows = BenchmarkResults.read(Paths.get(args[0])).byKey();
+        final Map<String, BenchmarkResults.Row> newRows = BenchmarkResults.read(Paths.get(args[1])).byKey();
+
+        System.out.printf(ROW_FORMAT, "benchmark", "params", "mode", "base", "new", "change", "unit");
+        for (BenchmarkResults.Row baseRow : baseRows.values()) {
+            final BenchmarkResults.Row newRow = newRows.get(baseRow.key());
+            print(baseRow, baseRow.getScore(), newRow == null ? Double.NaN : newRow.getScore());
+        }
+        for (BenchmarkResults.Row newRow : newRows.values()) {
+            if (!baseRows.containsKey(newRow.key())) {
+                print(newRow, Double.NaN, newRow.getScore());
+            }
+        }
+    }
+
+    private static void print(BenchmarkResults.Row row, double baseScore, double newScore) {
+        System.out.printf(ROW_FORMAT,
+                          row.getBenchmark(),
+                          row.getParams(),
+                          row.getMode(),
+                          format(baseScore),
+                          format(newScore),
+                          formatChange(baseScore, newScore),
+                          row.getUnit());
+    }
+
+    private static String format(double score) {
+        return Double.isNaN(score) ? "-" : String.format(Locale.ROOT, "%.3f", score);
+    }
+
+    private static String formatChange(double baseScore, double newScore) {
+        if (Double.isNaN(baseScore) || Double.isNaN(newScore) || baseScore == 0) {
+            return "-";
+        }
+        return String.format(Locale.ROOT, "%+.1f%%", (newScore - baseScore) / baseScore * 100);
+    }
+}
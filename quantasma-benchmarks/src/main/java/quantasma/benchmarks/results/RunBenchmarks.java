@@ -0,0 +1,33 @@
+package quantasma.benchmarks.results;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Runs benchmarks and saves {@link BenchmarkResults} to a file.<p>
+ * Usage: {@code java -cp benchmarks.jar quantasma.benchmarks.results.RunBenchmarks <results file> [JMH options]},
+ * eg. {@code RunBenchmarks results-0.0.1.tsv -prof gc MarketDataAddBenchmark}
+ */
+public final class RunBenchmarks {
+
+    private RunBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: RunBenchmarks <results file> [JMH options]");
+            System.exit(1);
+        }
+        final Path resultsFile = Paths.get(args[0]);
+        final CommandLineOptions options = new CommandLineOptions(Arrays.copyOfRange(args, 1, args.length));
+        final Collection<RunResult> runResults = new Runner(options).run();
+        BenchmarkResults.from(runResults).write(resultsFile);
+        System.out.println(String.format("Results of [%s] benchmarks saved to [%s]", runResults.size(), resultsFile.toAbsolutePath()));
+    }
+}
@@ -0,0 +1,86 @@
+package quantasma.benchmarks.timeseries;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import quantasma.core.BarPeriod;
+import quantasma.core.timeseries.BaseMainTimeSeries;
+import quantasma.core.timeseries.BaseManualIndexTimeSeries;
+import quantasma.core.timeseries.ManualIndexTimeSeries;
+import quantasma.core.timeseries.MainTimeSeries;
+import quantasma.core.timeseries.ReflectionManualIndexTimeSeries;
+import quantasma.core.timeseries.TimeSeriesDefinition;
+import quantasma.core.timeseries.bar.BidAskBar;
+import quantasma.core.timeseries.bar.BidAskBarFactory;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Measures a cost of a single backtest step - moving end index by one and reading the last bar.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ManualIndexTimeSeriesBenchmark {
+    private static final ZonedDateTime TIME_REF = ZonedDateTime.parse("2018-01-01T00:00:00Z");
+
+    @Param({"1000", "10000"})
+    private int barsCount;
+
+    @Param({"base", "reflection"})
+    private String implementation;
+
+    private ManualIndexTimeSeries<BidAskBar> timeSeries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        timeSeries = resolveWrapper().apply(createTimeSeries(barsCount));
+        timeSeries.resetIndexes();
+    }
+
+    @Benchmark
+    public void nextIndex(Blackhole blackhole) {
+        if (timeSeries.getEndIndex() == barsCount - 1) {
+            timeSeries.resetIndexes();
+        }
+        timeSeries.nextIndex();
+        blackhole.consume(timeSeries.plainTimeSeries().getLastBar());
+    }
+
+    @SuppressWarnings({"deprecation", "unchecked"})
+    private Function<MainTimeSeries<BidAskBar>, ManualIndexTimeSeries<BidAskBar>> resolveWrapper() {
+        switch (implementation) {
+            case "base":
+                return BaseManualIndexTimeSeries::wrap;
+            case "reflection":
+                return ReflectionManualIndexTimeSeries::wrap;
+            default:
+                throw new IllegalArgumentException(String.format("Unknown implementation [%s]", implementation));
+        }
+    }
+
+    private static MainTimeSeries<BidAskBar> createTimeSeries(int barsCount) {
+        final BidAskBarFactory barFactory = new BidAskBarFactory();
+        final MainTimeSeries<BidAskBar> timeSeries = BaseMainTimeSeries.create(TimeSeriesDefinition.unlimited(BarPeriod.M1), "EURUSD", barFactory);
+        for (int i = 0; i < barsCount; i++) {
+            timeSeries.addBar(barFactory.create(BarPeriod.M1, timeSeries.function(), TIME_REF.plusMinutes(i)));
+            timeSeries.getLastBar().addPrice(timeSeries.numOf(1.1 + i * 0.0001), timeSeries.numOf(1.1002 + i * 0.0001));
+        }
+        return timeSeries;
+    }
+}
@@ -0,0 +1,81 @@
+package quantasma.benchmarks.timeseries;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import quantasma.benchmarks.data.NumTypes;
+import quantasma.benchmarks.data.SyntheticData;
+import quantasma.core.BarPeriod;
+import quantasma.core.Quote;
+import quantasma.core.timeseries.BarStorageFactory;
+import quantasma.core.timeseries.BaseMultipleTimeSeries;
+import quantasma.core.timeseries.MultipleTimeSeries;
+import quantasma.core.timeseries.TimeSeriesDefinition;
+import quantasma.core.timeseries.bar.BidAskBar;
+import quantasma.core.timeseries.bar.BidAskBarFactory;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Measures {@link MultipleTimeSeries#updateBar(Quote)} of a single symbol with M1 resolution aggregated to M5 and M30.
+ * Quotes come every {@code quoteIntervalMillis}, which drives how often new bars are inserted.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MultipleTimeSeriesUpdateBarBenchmark {
+    private static final String SYMBOL = "EURUSD";
+    private static final int QUOTES_COUNT = 1 << 18;
+    private static final int MAX_BAR_COUNT = 500;
+
+    @Param({"precision", "double"})
+    private String numType;
+
+    @Param({"250", "15000"})
+    private long quoteIntervalMillis;
+
+    private Quote[] quotes;
+    private MultipleTimeSeries<BidAskBar> multipleTimeSeries;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        quotes = SyntheticData.quotes(new String[]{SYMBOL}, QUOTES_COUNT, Duration.ofMillis(quoteIntervalMillis));
+        multipleTimeSeries = createMultipleTimeSeries();
+    }
+
+    @Benchmark
+    public void updateBar() {
+        if (index == QUOTES_COUNT) {
+            // quotes cannot go back in time, start again with empty time series - amortized over all quotes
+            multipleTimeSeries = createMultipleTimeSeries();
+            index = 0;
+        }
+        multipleTimeSeries.updateBar(quotes[index++]);
+    }
+
+    private MultipleTimeSeries<BidAskBar> createMultipleTimeSeries() {
+        return BaseMultipleTimeSeries.create(SYMBOL,
+                                             TimeSeriesDefinition.limited(BarPeriod.M1, MAX_BAR_COUNT),
+                                             new BidAskBarFactory(),
+                                             BarStorageFactory.objects(),
+                                             NumTypes.of(numType),
+                                             UnaryOperator.identity())
+                                     .aggregate(TimeSeriesDefinition.limited(BarPeriod.M5, MAX_BAR_COUNT))
+                                     .aggregate(TimeSeriesDefinition.limited(BarPeriod.M30, MAX_BAR_COUNT));
+    }
+}
@@ -0,0 +1,37 @@
+package quantasma.core;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Prices of a whole bar of the base period, eg. a historical M1 bar. Adding it to market data gives the same bars
+ * as adding its open, high, low and close {@link Quote}s at its time, without creating and replaying them.
+ */
+@Data
+@AllArgsConstructor(access = AccessLevel.PROTECTED)
+public class BarQuote {
+    private final String symbol;
+    private final ZonedDateTime time;
+    private final double bidOpen;
+    private final double bidHigh;
+    private final double bidLow;
+    private final double bidClose;
+    private final double askOpen;
+    private final double askHigh;
+    private final double askLow;
+    private final double askClose;
+
+    public static BarQuote price(String symbol, ZonedDateTime time, double open, double high, double low, double close) {
+        return new BarQuote(symbol, time, open, high, low, close, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+    }
+
+    public static BarQuote bidAsk(String symbol, ZonedDateTime time,
+                                  double bidOpen, double bidHigh, double bidLow, double bidClose,
+                                  double askOpen, double askHigh, double askLow, double askClose) {
+        return new BarQuote(symbol, time, bidOpen, bidHigh, bidLow, bidClose, askOpen, askHigh, askLow, askClose);
+    }
+
+}
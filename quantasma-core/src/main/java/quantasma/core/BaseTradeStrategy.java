@@ -10,13 +10,20 @@ import org.ta4j.core.num.PrecisionNum;
 import quantasma.core.analysis.parametrize.Parameterizable;
 import quantasma.core.analysis.parametrize.Values;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Function;
 
 public class BaseTradeStrategy extends BaseStrategy implements TradeStrategy {
     private final Context context;
     private final Function<Number, Num> numFunction;
     private final Values<?> parameterValues;
+    private final Set<String> dependencies;
+    private final Set<String> symbols;
 
     private String tradeSymbol;
     private Num amount;
@@ -25,14 +32,36 @@ public class BaseTradeStrategy extends BaseStrategy implements TradeStrategy {
         super(builder.getName(), builder.getEntryRule(), builder.getExitRule(), builder.getUnstablePeriod());
         this.context = Objects.requireNonNull(builder.getContext());
         this.tradeSymbol = Objects.requireNonNull(builder.getTradeSymbol());
-        this.numFunction = Objects.requireNonNull(builder.getNumFunction());
+        this.numFunction = Objects.requireNonNullElseGet(builder.getNumFunction(), () -> resolveNumFunction(context, tradeSymbol));
         this.amount = numFunction.apply(builder.getAmount());
         this.parameterValues = builder.getParametersValues();
+        this.dependencies = Set.copyOf(builder.getDependencies());
+        this.symbols = symbols(tradeSymbol, dependencies);
+    }
+
+    private static Set<String> symbols(String tradeSymbol, Set<String> dependencies) {
+        final Set<String> symbols = new HashSet<>(dependencies);
+        symbols.add(tradeSymbol);
+        return Collections.unmodifiableSet(symbols);
+    }
+
+    /**
+     * Num type of trade symbol's time series, {@link PrecisionNum} as before if the symbol is not in the market data
+     */
+    private static Function<Number, Num> resolveNumFunction(Context context, String tradeSymbol) {
+        final MarketData<?> marketData = context.getDataService().getMarketData();
+        if (!marketData.symbols().contains(tradeSymbol)) {
+            return PrecisionNum::valueOf;
+        }
+        return marketData.of(tradeSymbol)
+                         .getMainTimeSeries()
+                         .function();
     }
 
     @Override
     public TradeStrategy opposite() {
         return new Builder<>(context, tradeSymbol, getExitRule(), getEntryRule(), parameterValues)
+                .withDependencies(dependencies)
                 .withName("opposite(" + getName() + ")")
                 .withUnstablePeriod(getUnstablePeriod())
                 .build();
@@ -41,6 +70,7 @@ public class BaseTradeStrategy extends BaseStrategy implements TradeStrategy {
     @Override
     public TradeStrategy and(Strategy strategy) {
         return new Builder<>(context, tradeSymbol, getEntryRule().and(strategy.getEntryRule()), getExitRule().and(strategy.getExitRule()), parameterValues)
+                .withDependencies(combinedDependencies(strategy))
                 .withName("and(" + getName() + "," + strategy.getName() + ")")
                 .withUnstablePeriod(Math.max(getUnstablePeriod(), strategy.getUnstablePeriod()))
                 .build();
@@ -49,6 +79,7 @@ public class BaseTradeStrategy extends BaseStrategy implements TradeStrategy {
     @Override
     public TradeStrategy and(String name, Strategy strategy, int unstablePeriod) {
         return new Builder<>(context, tradeSymbol, getEntryRule().and(strategy.getEntryRule()), getExitRule().and(strategy.getExitRule()), parameterValues)
+                .withDependencies(combinedDependencies(strategy))
                 .withName(name)
                 .withUnstablePeriod(unstablePeriod)
                 .build();
@@ -57,6 +88,7 @@ public class BaseTradeStrategy extends BaseStrategy implements TradeStrategy {
     @Override
     public TradeStrategy or(Strategy strategy) {
         return new Builder<>(context, tradeSymbol, getEntryRule().or(strategy.getEntryRule()), getExitRule().or(strategy.getExitRule()), parameterValues)
+                .withDependencies(combinedDependencies(strategy))
                 .withName("or(" + getName() + "," + strategy.getName() + ")")
                 .withUnstablePeriod(Math.max(getUnstablePeriod(), strategy.getUnstablePeriod()))
                 .build();
@@ -65,11 +97,22 @@ public class BaseTradeStrategy extends BaseStrategy implements TradeStrategy {
     @Override
     public TradeStrategy or(String name, Strategy strategy, int unstablePeriod) {
         return new Builder<>(context, tradeSymbol, getEntryRule().or(strategy.getEntryRule()), getExitRule().or(strategy.getExitRule()), parameterValues)
+                .withDependencies(combinedDependencies(strategy))
                 .withName(name)
                 .withUnstablePeriod(unstablePeriod)
                 .build();
     }
 
+    private Set<String> combinedDependencies(Strategy strategy) {
+        if (!(strategy instanceof TradeStrategy)) {
+            return dependencies;
+        }
+        final Set<String> combined = new HashSet<>(dependencies);
+        combined.addAll(((TradeStrategy) strategy).getSymbols());
+        combined.remove(tradeSymbol);
+        return combined;
+    }
+
     public void stop() {
         throw new UnsupportedOperationException("Not yet implemented");
     }
@@ -100,6 +143,11 @@ public class BaseTradeStrategy extends BaseStrategy implements TradeStrategy {
         return tradeSymbol;
     }
 
+    @Override
+    public Set<String> getSymbols() {
+        return symbols;
+    }
+
     @Override
     public Values<?> getParameterValues() {
         return parameterValues;
@@ -112,7 +160,7 @@ public class BaseTradeStrategy extends BaseStrategy implements TradeStrategy {
 
     @Override
     public void perform() {
-        final int lastBarIndex = getMarketData().lastBarIndex(); // TODO: cache or calculate once
+        final int lastBarIndex = getMarketData().of(tradeSymbol).lastBarIndex(); // TODO: cache or calculate once
         if (!shouldEnter(lastBarIndex))
             shouldExit(lastBarIndex);
     }
@@ -137,8 +185,15 @@ public class BaseTradeStrategy extends BaseStrategy implements TradeStrategy {
 
         private String name = "unamed_series";
         private int unstablePeriod;
-        private Function<Number, Num> numFunction = PrecisionNum::valueOf;
+        /**
+         * Num type of trade symbol's time series is used when not set, {@link PrecisionNum} if the symbol is not in the market data
+         */
+        private Function<Number, Num> numFunction;
         private int amount = 100;
+        /**
+         * Symbols other than the trade symbol used by rules
+         */
+        private Set<String> dependencies = Collections.emptySet();
 
         public Builder(Context context, String tradeSymbol, Rule entryRule, Rule exitRule, Values<?> parameterValues) {
             this.context = Objects.requireNonNull(context);
@@ -173,6 +228,15 @@ public class BaseTradeStrategy extends BaseStrategy implements TradeStrategy {
             return self();
         }
 
+        public T withDependencies(String... symbols) {
+            return withDependencies(Arrays.asList(symbols));
+        }
+
+        public T withDependencies(Collection<String> symbols) {
+            this.dependencies = new HashSet<>(symbols);
+            return self();
+        }
+
         /**
          * Every builder subclass should implement this method
          */
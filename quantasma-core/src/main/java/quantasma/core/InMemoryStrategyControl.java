@@ -4,18 +4,28 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+/**
+ * Thread-safe - strategies can be enabled or disabled while trade engine threads look up active strategies.
+ */
 public class InMemoryStrategyControl implements StrategyControl {
 
-    private final Map<Long, StrategyStatus> strategies = new HashMap<>();
+    private final Map<Long, StrategyStatus> strategies = new ConcurrentHashMap<>();
+    /**
+     * Rebuilt on every change, so a lookup on every quote is a single map read
+     */
+    private volatile Map<String, Set<TradeStrategy>> activeStrategiesBySymbol = Collections.emptyMap();
 
     @Override
-    public void register(TradeStrategy strategy) {
+    public synchronized void register(TradeStrategy strategy) {
         if (isAlreadyRegistered(strategy)) {
             throw new RuntimeException("Strategy already registered.");
         }
@@ -67,21 +77,39 @@ public class InMemoryStrategyControl implements StrategyControl {
     }
 
     @Override
-    public void disable(Long id) {
+    public Set<TradeStrategy> activeStrategies(String symbol) {
+        return activeStrategiesBySymbol.getOrDefault(symbol, Collections.emptySet());
+    }
+
+    @Override
+    public synchronized void disable(Long id) {
         final StrategyStatus value = strategies.get(id);
         if (value == null) {
             throw new RuntimeException(String.format("Strategy does not exist: [id: %s]", id));
         }
         value.setActive(false);
+        refreshActiveStrategiesBySymbol();
     }
 
     @Override
-    public void enable(Long id) {
+    public synchronized void enable(Long id) {
         final StrategyStatus value = strategies.get(id);
         if (value == null) {
             throw new RuntimeException(String.format("Strategy does not exist: [id: %s]", id));
         }
         value.setActive(true);
+        refreshActiveStrategiesBySymbol();
+    }
+
+    private void refreshActiveStrategiesBySymbol() {
+        final Map<String, Set<TradeStrategy>> strategiesBySymbol = new HashMap<>();
+        for (TradeStrategy strategy : activeStrategies()) {
+            for (String symbol : strategy.getSymbols()) {
+                strategiesBySymbol.computeIfAbsent(symbol, key -> new HashSet<>()).add(strategy);
+            }
+        }
+        strategiesBySymbol.replaceAll((symbol, symbolStrategies) -> Collections.unmodifiableSet(symbolStrategies));
+        activeStrategiesBySymbol = Collections.unmodifiableMap(strategiesBySymbol);
     }
 
     @Getter
@@ -89,6 +117,6 @@ public class InMemoryStrategyControl implements StrategyControl {
     @AllArgsConstructor
     private static class StrategyStatus {
         private TradeStrategy strategy;
-        private boolean active;
+        private volatile boolean active;
     }
 }
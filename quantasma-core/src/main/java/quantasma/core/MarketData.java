@@ -5,20 +5,28 @@ import quantasma.core.timeseries.GenericTimeSeries;
 import quantasma.core.timeseries.bar.OneSidedBar;
 
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Predicate;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class MarketData<B extends OneSidedBar> {
     private final Map<String, MultipleTimeSeries<B>> multipleTimeSeriesMap = new HashMap<>();
+    private final List<MultipleTimeSeries<B>> multipleTimeSeriesList;
+
+    private volatile boolean frozen;
 
     public MarketData(Collection<? extends MultipleTimeSeries<B>> multipleTimeSeries) {
         for (MultipleTimeSeries<B> each : multipleTimeSeries) {
             this.multipleTimeSeriesMap.put(each.getSymbol(), each);
         }
+        this.multipleTimeSeriesList = new ArrayList<>(multipleTimeSeriesMap.values());
     }
 
     public List<GenericTimeSeries<B>> allTimeSeries() {
@@ -28,11 +36,10 @@ public class MarketData<B extends OneSidedBar> {
     }
 
     public int lastBarIndex() {
-        return multipleTimeSeriesMap.entrySet()
-                                    .stream()
-                                    .findFirst()
-                                    .map(entry -> entry.getValue().lastBarIndex())
-                                    .orElseThrow(IllegalStateException::new);
+        if (multipleTimeSeriesList.isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return multipleTimeSeriesList.get(0).lastBarIndex();
     }
 
     public MultipleTimeSeries<B> of(String symbol) {
@@ -43,28 +50,98 @@ public class MarketData<B extends OneSidedBar> {
         throw new IllegalArgumentException(String.format("[%s] is an unknown symbol", symbol));
     }
 
+    public Set<String> symbols() {
+        return Collections.unmodifiableSet(multipleTimeSeriesMap.keySet());
+    }
+
+    /**
+     * Market data of the given symbols sharing the same time series with this instance.<p>
+     * A quote added to a partition creates missing bars only of the partition's symbols, so partitions of disjoint symbols
+     * can be written by separate threads. Bars count of symbols from different partitions may differ until their next quotes.
+     */
+    public MarketData<B> partition(Collection<String> symbols) {
+        checkNotFrozen();
+        final List<MultipleTimeSeries<B>> partition = new ArrayList<>(symbols.size());
+        for (String symbol : symbols) {
+            partition.add(of(symbol));
+        }
+        return new MarketData<>(partition);
+    }
+
+    /**
+     * Read-only market data sharing bars with this instance. Every view moves its own indexes,
+     * so separate views can be backtested by separate threads at the same time.
+     */
+    public MarketData<B> view() {
+        final List<MultipleTimeSeries<B>> views = new ArrayList<>(multipleTimeSeriesMap.size());
+        for (MultipleTimeSeries<B> multipleTimeSeries : multipleTimeSeriesList) {
+            views.add(multipleTimeSeries.view());
+        }
+        return new MarketData<>(views);
+    }
+
+    /**
+     * Stops accepting quotes, so bars can be shared without copying them. Frozen market data can not be partitioned either.<p>
+     * Time series of all symbols are frozen as well, so bars can not be updated through {@link #of(String)} nor through partitions.
+     */
+    public MarketDataSnapshot<B> freeze() {
+        frozen = true;
+        for (MultipleTimeSeries<B> multipleTimeSeries : multipleTimeSeriesList) {
+            multipleTimeSeries.freeze();
+        }
+        return new MarketDataSnapshot<>(this);
+    }
+
     public void add(Quote quote) {
+        checkNotFrozen();
         final MultipleTimeSeries<B> multipleTimeSeries = multipleTimeSeriesMap.get(quote.getSymbol());
         if (isKnownSymbol(multipleTimeSeries)) {
             multipleTimeSeries.updateBar(quote);
-            ensureSameBarsNumberOverAllTimeSeries(quote.getSymbol(), quote.getTime());
+            ensureSameBarsNumberOverAllTimeSeries(multipleTimeSeries, quote.getTime());
         }
     }
 
-    private boolean isKnownSymbol(MultipleTimeSeries<?> multipleTimeSeries) {
-        return multipleTimeSeries != null;
+    /**
+     * Bar-level counterpart of {@link #add(Quote)}, gives the same bars of all periods as adding open, high, low and close quotes of the bar.
+     * Useful to load historical bars of the base period without replaying them as quotes.
+     */
+    public void add(BarQuote barQuote) {
+        checkNotFrozen();
+        final MultipleTimeSeries<B> multipleTimeSeries = multipleTimeSeriesMap.get(barQuote.getSymbol());
+        if (isKnownSymbol(multipleTimeSeries)) {
+            multipleTimeSeries.updateBar(barQuote);
+            ensureSameBarsNumberOverAllTimeSeries(multipleTimeSeries, barQuote.getTime());
+        }
     }
 
-    private void ensureSameBarsNumberOverAllTimeSeries(String skipSymbol, ZonedDateTime dateToBeCoveredByBar) {
-        multipleTimeSeriesMap.entrySet()
-                             .stream()
-                             .filter(skipTimeSeriesOf(skipSymbol))
-                             .map(Map.Entry::getValue)
-                             .forEach(multipleTimeSeries -> multipleTimeSeries.createBar(dateToBeCoveredByBar));
+    /**
+     * Loads bars in a single pass, bars of aggregated periods are built on the way
+     */
+    public void addAll(Stream<BarQuote> barQuotes) {
+        final Iterator<BarQuote> iterator = barQuotes.iterator();
+        while (iterator.hasNext()) {
+            add(iterator.next());
+        }
     }
 
-    private Predicate<Map.Entry<String, MultipleTimeSeries<B>>> skipTimeSeriesOf(String skipSymbol) {
-        return s -> !s.getKey().equals(skipSymbol);
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException(String.format("Market data of %s is frozen", symbols()));
+        }
+    }
+
+    private boolean isKnownSymbol(MultipleTimeSeries<?> multipleTimeSeries) {
+        return multipleTimeSeries != null;
+    }
+
+    private void ensureSameBarsNumberOverAllTimeSeries(MultipleTimeSeries<B> skipTimeSeries, ZonedDateTime dateToBeCoveredByBar) {
+        // called on every quote - indexed loop avoids iterator and lambda allocations
+        for (int i = 0; i < multipleTimeSeriesList.size(); i++) {
+            final MultipleTimeSeries<B> multipleTimeSeries = multipleTimeSeriesList.get(i);
+            if (multipleTimeSeries != skipTimeSeries) {
+                multipleTimeSeries.createBar(dateToBeCoveredByBar);
+            }
+        }
     }
 
 }
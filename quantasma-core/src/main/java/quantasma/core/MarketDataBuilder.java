@@ -1,5 +1,7 @@
 package quantasma.core;
 
+import org.ta4j.core.num.Num;
+import quantasma.core.timeseries.BarStorageFactory;
 import quantasma.core.timeseries.BaseMultipleTimeSeries;
 import quantasma.core.timeseries.MultipleTimeSeries;
 import quantasma.core.timeseries.TimeSeriesDefinition;
@@ -22,10 +24,14 @@ public class MarketDataBuilder<B extends OneSidedBar> {
     private final Set<String> symbols = new HashSet<>();
 
     private BarFactory<B> barFactory;
+    private BarStorageFactory barStorageFactory;
+    private Function<Number, Num> numFunction;
     private UnaryOperator<GenericTimeSeries<B>> wrapper = timeSeries -> timeSeries;
 
     private MarketDataBuilder(StructureDefinition<B> structure) {
         this.barFactory = structure.getModel().getBarFactory();
+        this.barStorageFactory = structure.getModel().getBarStorageFactory();
+        this.numFunction = structure.getModel().getNumFunction();
         this.baseTimeSeriesDefinition = structure.getResolution().getTimeSeriesDefinition();
     }
 
@@ -51,7 +57,7 @@ public class MarketDataBuilder<B extends OneSidedBar> {
     public MarketData<B> build() {
         final Map<String, MultipleTimeSeries<B>> baseTimeSeries =
                 symbols.stream()
-                       .map(symbol -> BaseMultipleTimeSeries.create(symbol, baseTimeSeriesDefinition, barFactory, wrapper))
+                       .map(symbol -> BaseMultipleTimeSeries.create(symbol, baseTimeSeriesDefinition, barFactory, barStorageFactory, numFunction, wrapper))
                        .collect(Collectors.toMap(BaseMultipleTimeSeries::getSymbol, Function.identity()));
 
         for (TimeSeriesDefinition.Group groupDefinition : aggregatedTimeSeriesDefinitions) {
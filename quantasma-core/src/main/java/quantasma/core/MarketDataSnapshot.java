@@ -0,0 +1,33 @@
+package quantasma.core;
+
+import quantasma.core.timeseries.bar.OneSidedBar;
+
+import java.util.Set;
+
+/**
+ * Bars of a {@link MarketData} which does not accept quotes anymore, see {@link MarketData#freeze()}.<p>
+ * A snapshot can be shared by any number of backtests at the same time - each of them reads bars through its own {@link #view()},
+ * which only moves its own indexes.
+ */
+public final class MarketDataSnapshot<B extends OneSidedBar> {
+    private final MarketData<B> marketData;
+
+    MarketDataSnapshot(MarketData<B> marketData) {
+        this.marketData = marketData;
+    }
+
+    /**
+     * Read-only market data with its own indexes, cheap to create - bars are not copied
+     */
+    public MarketData<B> view() {
+        return marketData.view();
+    }
+
+    public Set<String> symbols() {
+        return marketData.symbols();
+    }
+
+    public int lastBarIndex() {
+        return marketData.lastBarIndex();
+    }
+}
@@ -0,0 +1,206 @@
+package quantasma.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ta4j.core.Order;
+import quantasma.core.analysis.ProgressListener;
+import quantasma.core.analysis.RunStatistics;
+import quantasma.core.analysis.TradeScenario;
+import quantasma.core.analysis.parametrize.Parameterizable;
+import quantasma.core.analysis.parametrize.Producer;
+import quantasma.core.analysis.parametrize.Values;
+import quantasma.core.timeseries.bar.OneSidedBar;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Runs many parameter combinations of a strategy in parallel over the same market data.<p>
+ * Every worker backtests on its own {@link MarketData#view()}, so bars are shared while indexes are not.
+ * Strategies are built per combination against the worker's context, and scenarios are returned in the order of given values.
+ * Market data must not be modified while a run is in progress, a frozen {@link MarketDataSnapshot} can not be modified at all.
+ */
+@Slf4j
+public class ParallelTestManager<B extends OneSidedBar> {
+    private final Supplier<MarketData<B>> marketDataViews;
+    private final ForkJoinPool forkJoinPool;
+    private final Predicate<? super RunStatistics> stopCondition;
+
+    public ParallelTestManager(MarketData<B> marketData) {
+        this(marketData, ForkJoinPool.commonPool());
+    }
+
+    public ParallelTestManager(MarketData<B> marketData, ForkJoinPool forkJoinPool) {
+        this(marketData::view, forkJoinPool);
+    }
+
+    public ParallelTestManager(MarketDataSnapshot<B> snapshot) {
+        this(snapshot, ForkJoinPool.commonPool());
+    }
+
+    public ParallelTestManager(MarketDataSnapshot<B> snapshot, ForkJoinPool forkJoinPool) {
+        this(snapshot::view, forkJoinPool);
+    }
+
+    private ParallelTestManager(Supplier<MarketData<B>> marketDataViews, ForkJoinPool forkJoinPool) {
+        this(marketDataViews, forkJoinPool, statistics -> false);
+    }
+
+    private ParallelTestManager(Supplier<MarketData<B>> marketDataViews, ForkJoinPool forkJoinPool, Predicate<? super RunStatistics> stopCondition) {
+        this.marketDataViews = marketDataViews;
+        this.forkJoinPool = forkJoinPool;
+        this.stopCondition = stopCondition;
+    }
+
+    /**
+     * @param stopCondition checked after every bar of a scenario, eg. a drawdown limit, once true the scenario is finished early
+     * @return manager finishing scenarios early by the given condition
+     */
+    public ParallelTestManager<B> stopWhen(Predicate<? super RunStatistics> stopCondition) {
+        return new ParallelTestManager<>(marketDataViews, forkJoinPool, stopCondition);
+    }
+
+    public <P extends Enum & Parameterizable> List<TradeScenario> run(Producer<Values<P>> parameterValuesProducer,
+                                                                       BiFunction<Context, Values<P>, ? extends TradeStrategy> strategyFactory,
+                                                                       Order.OrderType orderType) {
+        return run(parameterValuesProducer.stream().collect(Collectors.toList()), strategyFactory, orderType);
+    }
+
+    public <P extends Enum & Parameterizable> List<TradeScenario> run(List<Values<P>> parameterValues,
+                                                                       BiFunction<Context, Values<P>, ? extends TradeStrategy> strategyFactory,
+                                                                       Order.OrderType orderType) {
+        return run(parameterValues, strategyFactory, orderType, ProgressListener.none());
+    }
+
+    /**
+     * @param progressListener notified of every scenario as soon as it is finished, in the order of completion
+     * @throws CancellationException when the listener cancelled the run, scenarios already running are finished first
+     */
+    public <P extends Enum & Parameterizable> List<TradeScenario> run(List<Values<P>> parameterValues,
+                                                                       BiFunction<Context, Values<P>, ? extends TradeStrategy> strategyFactory,
+                                                                       Order.OrderType orderType,
+                                                                       ProgressListener<? super TradeScenario> progressListener) {
+        return run(parameterValues, strategyFactory, orderType, Function.identity(), progressListener);
+    }
+
+    /**
+     * Analyzes every scenario by the thread which finished it, while its time series is not used by another scenario.
+     * Only results of the analysis are kept, so trading records of a large sweep are not held in memory until its end.
+     *
+     * @param progressListener notified of every result as soon as it is calculated, in the order of completion
+     * @return results in the order of given values
+     * @throws CancellationException when the listener cancelled the run, scenarios already running are finished first
+     */
+    public <P extends Enum & Parameterizable, R> List<R> run(List<Values<P>> parameterValues,
+                                                             BiFunction<Context, Values<P>, ? extends TradeStrategy> strategyFactory,
+                                                             Order.OrderType orderType,
+                                                             Function<? super TradeScenario, ? extends R> analysis,
+                                                             ProgressListener<? super R> progressListener) {
+        final Object[] results = new Object[parameterValues.size()];
+        final Sweep<P, R> sweep = new Sweep<>(parameterValues, strategyFactory, orderType, analysis, results, progressListener);
+
+        log.debug("Running [{}] parameter combinations with parallelism [{}]", parameterValues.size(), forkJoinPool.getParallelism());
+        progressListener.started(parameterValues.size());
+        forkJoinPool.invoke(new SweepAction<>(sweep, 0, parameterValues.size()));
+        if (progressListener.isCancelled()) {
+            throw new CancellationException(String.format("Cancelled after [%s] of [%s] parameter combinations", sweep.finished.get(), parameterValues.size()));
+        }
+        return (List<R>) Arrays.asList(results);
+    }
+
+    /**
+     * State of a single run shared by all its actions. Idle workers are reused, so at most one market data view is created per running thread.
+     */
+    private final class Sweep<P extends Enum & Parameterizable, R> {
+        private final List<Values<P>> parameterValues;
+        private final BiFunction<Context, Values<P>, ? extends TradeStrategy> strategyFactory;
+        private final Order.OrderType orderType;
+        private final Function<? super TradeScenario, ? extends R> analysis;
+        private final Object[] results;
+        private final ProgressListener<? super R> progressListener;
+        private final Queue<Worker> idleWorkers = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger finished = new AtomicInteger();
+
+        private Sweep(List<Values<P>> parameterValues,
+                      BiFunction<Context, Values<P>, ? extends TradeStrategy> strategyFactory,
+                      Order.OrderType orderType,
+                      Function<? super TradeScenario, ? extends R> analysis,
+                      Object[] results,
+                      ProgressListener<? super R> progressListener) {
+            this.parameterValues = parameterValues;
+            this.strategyFactory = strategyFactory;
+            this.orderType = orderType;
+            this.analysis = analysis;
+            this.results = results;
+            this.progressListener = progressListener;
+        }
+
+        private void run(int index) {
+            if (progressListener.isCancelled()) {
+                return;
+            }
+            Worker worker = idleWorkers.poll();
+            if (worker == null) {
+                worker = new Worker();
+            }
+            try {
+                final Values<P> values = parameterValues.get(index);
+                // still owned by the worker, so the scenario's time series is analyzed before its indexes move on
+                final R result = analysis.apply(worker.run(strategyFactory.apply(worker.context, values), values, orderType));
+                results[index] = result;
+                finished.incrementAndGet();
+                progressListener.finished(result);
+            } finally {
+                idleWorkers.add(worker);
+            }
+        }
+    }
+
+    private final class SweepAction<P extends Enum & Parameterizable, R> extends RecursiveAction {
+        private static final long serialVersionUID = 4120873218475930712L;
+
+        private final Sweep<P, R> sweep;
+        private final int from;
+        private final int to;
+
+        private SweepAction(Sweep<P, R> sweep, int from, int to) {
+            this.sweep = sweep;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                sweep.run(from);
+            } else if (to - from > 1) {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new SweepAction<>(sweep, from, middle), new SweepAction<>(sweep, middle, to));
+            }
+        }
+    }
+
+    private final class Worker {
+        private final MarketData<B> marketDataView = marketDataViews.get();
+        private final Context context = new BaseContext.Builder().withMarketData(marketDataView).build();
+        private final TestManager<B> testManager = new TestManager<>(marketDataView);
+
+        private TradeScenario run(TradeStrategy tradeStrategy, Values<?> values, Order.OrderType orderType) {
+            final RunStatistics statistics = new RunStatistics(stopCondition);
+            return new TradeScenario(testManager.getMainTimeSeries(tradeStrategy).plainTimeSeries(),
+                                     values,
+                                     testManager.run(tradeStrategy, orderType, statistics),
+                                     statistics);
+        }
+    }
+}
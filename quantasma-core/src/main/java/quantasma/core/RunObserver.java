@@ -0,0 +1,32 @@
+package quantasma.core;
+
+import org.ta4j.core.TradingRecord;
+import org.ta4j.core.num.Num;
+
+/**
+ * Follows a backtest of {@link TestManager} bar by bar, so results are calculated while the run advances instead of by a second pass
+ * over the trading record. A run observer belongs to a single run.
+ */
+public interface RunObserver {
+
+    RunObserver NONE = (index, closePrice, tradingRecord) -> {
+    };
+
+    /**
+     * Called for every bar of the tested range after the strategy operated on it
+     */
+    void onBar(int index, Num closePrice, TradingRecord tradingRecord);
+
+    /**
+     * Checked after every bar, once true the run finishes at that bar and an opened trade is closed at its close price
+     */
+    default boolean shouldStop() {
+        return false;
+    }
+
+    /**
+     * Called once the run is finished, the record may hold trades closed after the tested range
+     */
+    default void onFinish(TradingRecord tradingRecord) {
+    }
+}
@@ -0,0 +1,162 @@
+package quantasma.core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processes quotes of different symbols in parallel, so a slow strategy stalls only symbols of its own shard.<p>
+ * Market data and strategies are partitioned by symbol into shards, each shard is written by its own single thread.
+ * A quote is appended to its shard's {@link MarketData#partition(java.util.Collection) partition} and only strategies
+ * whose {@link TradeStrategy#getSymbols() symbols} contain the quote's symbol are performed. Quotes of the same symbol
+ * are processed in the order of {@link #process(Quote)} calls.<p>
+ * By default every symbol gets its own shard. Symbols a strategy depends on must be {@link Builder#group(String...) grouped}
+ * into a single shard - strategies spanning many shards are not performed.
+ */
+@Slf4j
+public class ShardedTradeEngine implements TradeEngine, AutoCloseable {
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+    private final List<Shard> shards = new ArrayList<>();
+    private final Map<String, Shard> shardsBySymbol = new HashMap<>();
+
+    private ShardedTradeEngine(Context context, List<Set<String>> symbolGroups) {
+        final MarketData<?> marketData = context.getDataService().getMarketData();
+        for (Set<String> symbols : symbolGroups) {
+            final Shard shard = new Shard(symbols, marketData.partition(symbols), context.getStrategyControl());
+            shards.add(shard);
+            for (String symbol : symbols) {
+                shardsBySymbol.put(symbol, shard);
+            }
+        }
+        log.info("Started trade engine with [{}] shards", shards.size());
+    }
+
+    /**
+     * Trade engine with a separate shard for every symbol of the market data
+     */
+    public static ShardedTradeEngine create(Context context) {
+        return new Builder(context).build();
+    }
+
+    @Override
+    public void process(Quote quote) {
+        final Shard shard = shardsBySymbol.get(quote.getSymbol());
+        if (shard != null) { // unknown symbols are ignored as by market data
+            shard.submit(quote);
+        }
+    }
+
+    /**
+     * Stops accepting quotes and waits until already accepted ones are processed
+     */
+    @Override
+    public void close() throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.executor.shutdown();
+        }
+        for (Shard shard : shards) {
+            if (!shard.executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Shard of {} did not finish processing quotes in [{}] seconds", shard.symbols, CLOSE_TIMEOUT_SECONDS);
+            }
+        }
+    }
+
+    private static final class Shard {
+        private final Set<String> symbols;
+        private final MarketData<?> marketData;
+        private final StrategyControl strategyControl;
+        private final ExecutorService executor;
+        /**
+         * Accessed only by the shard's thread
+         */
+        private final Set<TradeStrategy> reportedStrategies = new HashSet<>();
+
+        private Shard(Set<String> symbols, MarketData<?> marketData, StrategyControl strategyControl) {
+            this.symbols = symbols;
+            this.marketData = marketData;
+            this.strategyControl = strategyControl;
+            this.executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "trade-engine-" + String.join("-", symbols)));
+        }
+
+        private void submit(Quote quote) {
+            executor.execute(() -> process(quote));
+        }
+
+        private void process(Quote quote) {
+            try {
+                marketData.add(quote);
+            } catch (RuntimeException e) {
+                log.error("Could not add quote [{}] to market data", quote, e);
+                return;
+            }
+            for (TradeStrategy strategy : strategyControl.activeStrategies(quote.getSymbol())) {
+                if (!symbols.containsAll(strategy.getSymbols())) {
+                    reportOutOfShard(strategy);
+                    continue;
+                }
+                try {
+                    strategy.perform();
+                } catch (RuntimeException e) {
+                    log.error("Strategy [{}] failed on quote [{}]", strategy.getName(), quote, e);
+                }
+            }
+        }
+
+        private void reportOutOfShard(TradeStrategy strategy) {
+            if (reportedStrategies.add(strategy)) {
+                log.error("Strategy [{}] depends on symbols {} outside of shard {} and will not be performed", strategy.getName(), strategy.getSymbols(), symbols);
+            }
+        }
+    }
+
+    public static class Builder {
+        private final Context context;
+        private final List<Set<String>> symbolGroups = new ArrayList<>();
+
+        public Builder(Context context) {
+            this.context = context;
+        }
+
+        /**
+         * Processes the given symbols by a single shard, eg. when a strategy of one symbol depends on the others
+         */
+        public Builder group(String... symbols) {
+            symbolGroups.add(new LinkedHashSet<>(Arrays.asList(symbols)));
+            return this;
+        }
+
+        public ShardedTradeEngine build() {
+            final Set<String> marketDataSymbols = context.getDataService().getMarketData().symbols();
+            final Set<String> groupedSymbols = new HashSet<>();
+            for (Set<String> symbols : symbolGroups) {
+                for (String symbol : symbols) {
+                    if (!marketDataSymbols.contains(symbol)) {
+                        throw new IllegalArgumentException(String.format("[%s] is an unknown symbol", symbol));
+                    }
+                    if (!groupedSymbols.add(symbol)) {
+                        throw new IllegalArgumentException(String.format("Symbol [%s] is assigned to more than one group", symbol));
+                    }
+                }
+            }
+            final List<Set<String>> allGroups = new ArrayList<>(symbolGroups);
+            for (String symbol : new TreeSet<>(marketDataSymbols)) {
+                if (!groupedSymbols.contains(symbol)) {
+                    allGroups.add(Set.of(symbol));
+                }
+            }
+            return new ShardedTradeEngine(context, allGroups);
+        }
+    }
+}
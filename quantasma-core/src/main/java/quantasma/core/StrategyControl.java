@@ -1,6 +1,7 @@
 package quantasma.core;
 
 import java.util.Set;
+import java.util.stream.Collectors;
 
 public interface StrategyControl {
     void register(TradeStrategy tradeStrategy);
@@ -9,6 +10,15 @@ public interface StrategyControl {
 
     Set<TradeStrategy> activeStrategies();
 
+    /**
+     * Active strategies which should be performed on a quote of the given symbol - see {@link TradeStrategy#getSymbols()}
+     */
+    default Set<TradeStrategy> activeStrategies(String symbol) {
+        return activeStrategies().stream()
+                                 .filter(strategy -> strategy.getSymbols().contains(symbol))
+                                 .collect(Collectors.toSet());
+    }
+
     void disable(Long id);
 
     void enable(Long id);
@@ -3,11 +3,15 @@ package quantasma.core;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import org.ta4j.core.num.Num;
+import org.ta4j.core.num.PrecisionNum;
+import quantasma.core.timeseries.BarStorageFactory;
 import quantasma.core.timeseries.TimeSeriesDefinition;
 import quantasma.core.timeseries.bar.BarFactory;
 import quantasma.core.timeseries.bar.OneSidedBar;
 
 import java.util.Objects;
+import java.util.function.Function;
 
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 @Getter
@@ -16,16 +20,34 @@ public class StructureDefinition<B extends OneSidedBar> {
     private final Resolution resolution;
 
     public static <B extends OneSidedBar> Model<B> model(BarFactory<B> barFactory) {
-        return new Model<>(Objects.requireNonNull(barFactory));
+        return new Model<>(Objects.requireNonNull(barFactory), BarStorageFactory.objects(), PrecisionNum::valueOf);
     }
 
     @AllArgsConstructor(access = AccessLevel.PRIVATE)
     @Getter
     public static class Model<B extends OneSidedBar> {
         private final BarFactory<B> barFactory;
+        private final BarStorageFactory barStorageFactory;
+        private final Function<Number, Num> numFunction;
+
+        /**
+         * Eg. {@link BarStorageFactory#columnar()} keeps bars in primitive arrays instead of separate objects, it requires
+         * {@code DoubleNum::valueOf} num type
+         */
+        public Model<B> storage(BarStorageFactory barStorageFactory) {
+            return new Model<>(barFactory, Objects.requireNonNull(barStorageFactory), numFunction);
+        }
+
+        /**
+         * Num type of all bars, indicators and criteria calculated on top of them. {@code PrecisionNum} is used by default,
+         * {@code DoubleNum::valueOf} trades precision for much faster calculations.
+         */
+        public Model<B> numTypeOf(Function<Number, Num> numFunction) {
+            return new Model<>(barFactory, barStorageFactory, Objects.requireNonNull(numFunction));
+        }
 
         public StructureDefinition<B> resolution(TimeSeriesDefinition timeSeriesDefinition) {
-            return new StructureDefinition<>(new Model<>(barFactory),
+            return new StructureDefinition<>(new Model<>(barFactory, barStorageFactory, numFunction),
                                              new Resolution(Objects.requireNonNull(timeSeriesDefinition)));
         }
     }
@@ -30,18 +30,25 @@ public class TestManager<B extends OneSidedBar> {
     }
 
     public TradingRecord run(TradeStrategy tradeStrategy, Order.OrderType orderType) {
-        return run(tradeStrategy, orderType, getMainTimeSeries(tradeStrategy).getBeginIndex(), getMainTimeSeries(tradeStrategy).getEndIndex());
+        return run(tradeStrategy, orderType, RunObserver.NONE);
+    }
+
+    /**
+     * @param runObserver notified of every bar as the run advances, may finish the run early
+     */
+    public TradingRecord run(TradeStrategy tradeStrategy, Order.OrderType orderType, RunObserver runObserver) {
+        return run(tradeStrategy, orderType, getMainTimeSeries(tradeStrategy).getBeginIndex(), getMainTimeSeries(tradeStrategy).getEndIndex(), runObserver);
     }
 
     public MainTimeSeries getMainTimeSeries(TradeStrategy tradeStrategy) {
         return marketData.of(tradeStrategy.getTradeSymbol()).getMainTimeSeries();
     }
 
-    private TradingRecord run(TradeStrategy tradeStrategy, Order.OrderType orderType, int startIndex, int finishIndex) {
-        return runTest(new IterateOverTimeSeries(tradeStrategy), orderType, startIndex, finishIndex);
+    private TradingRecord run(TradeStrategy tradeStrategy, Order.OrderType orderType, int startIndex, int finishIndex, RunObserver runObserver) {
+        return runTest(new IterateOverTimeSeries(tradeStrategy), orderType, startIndex, finishIndex, runObserver);
     }
 
-    private TradingRecord runTest(TradeStrategy tradeStrategy, Order.OrderType orderType, int startIndex, int finishIndex) {
+    private TradingRecord runTest(TradeStrategy tradeStrategy, Order.OrderType orderType, int startIndex, int finishIndex, RunObserver runObserver) {
         final MainTimeSeries mainTimeSeries = getMainTimeSeries(tradeStrategy);
         if (mainTimeSeries.isEmpty()) {
             throw new RuntimeException("Empty time series");
@@ -56,6 +63,18 @@ public class TestManager<B extends OneSidedBar> {
             if (tradeStrategy.shouldOperate(i, tradingRecord)) {
                 tradingRecord.operate(i, mainTimeSeries.getBar(i).getClosePrice(), tradeStrategy.getAmount());
             }
+            if (runObserver != RunObserver.NONE) {
+                final Num closePrice = mainTimeSeries.getBar(i).getClosePrice();
+                runObserver.onBar(i, closePrice, tradingRecord);
+                if (runObserver.shouldStop()) {
+                    log.trace("Run stopped by observer at index {}", i);
+                    if (!tradingRecord.isClosed()) {
+                        tradingRecord.exit(i, closePrice, tradingRecord.getCurrentTrade().getEntry().getAmount());
+                    }
+                    runObserver.onFinish(tradingRecord);
+                    return tradingRecord;
+                }
+            }
         }
 
         if (!tradingRecord.isClosed()) {
@@ -67,6 +86,7 @@ public class TestManager<B extends OneSidedBar> {
                 }
             }
         }
+        runObserver.onFinish(tradingRecord);
         return tradingRecord;
     }
 
@@ -119,6 +139,11 @@ public class TestManager<B extends OneSidedBar> {
             return strategy.getTradeSymbol();
         }
 
+        @Override
+        public Set<String> getSymbols() {
+            return strategy.getSymbols();
+        }
+
         @Override
         public Values getParameterValues() {
             return strategy.getParameterValues();
@@ -5,11 +5,20 @@ import org.ta4j.core.num.Num;
 import quantasma.core.analysis.parametrize.Parameterizable;
 import quantasma.core.analysis.parametrize.Values;
 
+import java.util.Set;
+
 public interface TradeStrategy extends Strategy {
     Num getAmount();
 
     String getTradeSymbol();
 
+    /**
+     * Symbols whose quotes should trigger {@link #perform()} - the trade symbol and any other symbol the rules depend on
+     */
+    default Set<String> getSymbols() {
+        return Set.of(getTradeSymbol());
+    }
+
     Values<?> getParameterValues();
 
     Parameterizable[] parameterizables();
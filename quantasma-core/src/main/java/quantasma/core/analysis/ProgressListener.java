@@ -0,0 +1,27 @@
+package quantasma.core.analysis;
+
+/**
+ * Observes a long running analysis, eg. a parameter sweep. Items are reported by the threads which finished them,
+ * so implementations have to be thread-safe.
+ */
+public interface ProgressListener<T> {
+
+    static <T> ProgressListener<T> none() {
+        return new ProgressListener<T>() {
+        };
+    }
+
+    default void started(int total) {
+    }
+
+    default void finished(T item) {
+    }
+
+    /**
+     * Checked before every item, once cancelled the remaining items are skipped and the analysis throws
+     * {@link java.util.concurrent.CancellationException}
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+}
@@ -0,0 +1,12 @@
+package quantasma.core.analysis;
+
+import lombok.Data;
+
+/**
+ * Limits results of a backtest to the given number of the best ones by the named criterion
+ */
+@Data
+public class Ranking {
+    private final String criterion;
+    private final int top;
+}
@@ -0,0 +1,242 @@
+package quantasma.core.analysis;
+
+import org.ta4j.core.BaseTradingRecord;
+import org.ta4j.core.Order;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.Trade;
+import org.ta4j.core.TradingRecord;
+import org.ta4j.core.num.Num;
+import quantasma.core.RunObserver;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Equity curve, drawdown, exposure and trade statistics of a run updated bar by bar.<p>
+ * Profit/loss is measured in the quote currency, ie. traded amount multiplied by the price difference, so the statistics do not depend
+ * on pip resolution nor on a deposit. Equity starts at 0 and is marked to the close price of every bar, returns are its changes
+ * between bars. Values are kept as doubles, so updating them does not allocate.<p>
+ * The same statistics are calculated by {@link #replay(TimeSeries, TradingRecord)} of a finished trading record.
+ */
+public class RunStatistics implements RunObserver {
+    private final Predicate<? super RunStatistics> stopCondition;
+
+    private int bars;
+    private int barsInMarket;
+    private double realizedProfitLoss;
+    private double equity;
+    private double peakEquity;
+    private double maxDrawdown;
+    private double returnsMean;
+    private double returnsSquaredDeviations;
+    private double downsideSquares;
+    private int countedTrades;
+    private int winningTrades;
+    private int losingTrades;
+    private double grossProfit;
+    private double grossLoss;
+    private boolean stopped;
+
+    public RunStatistics() {
+        this(statistics -> false);
+    }
+
+    /**
+     * @param stopCondition checked after every bar, eg. a drawdown limit, once true the run is finished early
+     */
+    public RunStatistics(Predicate<? super RunStatistics> stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+    /**
+     * Calculates statistics of a finished run over the bars of the series, as they would be calculated while running it
+     */
+    public static RunStatistics replay(TimeSeries series, TradingRecord tradingRecord) {
+        final List<Order> orders = orders(tradingRecord);
+        final TradingRecord replayed = new BaseTradingRecord(orders.isEmpty() ? Order.OrderType.BUY : orders.get(0).getType());
+        final RunStatistics statistics = new RunStatistics();
+        int next = 0;
+        for (int i = series.getBeginIndex(); i <= series.getEndIndex(); i++) {
+            for (; next < orders.size() && orders.get(next).getIndex() == i; next++) {
+                replayed.operate(i, price(series, orders.get(next)), orders.get(next).getAmount());
+            }
+            statistics.onBar(i, series.getBar(i).getClosePrice(), replayed);
+        }
+        for (; next < orders.size(); next++) {
+            replayed.operate(orders.get(next).getIndex(), price(series, orders.get(next)), orders.get(next).getAmount());
+        }
+        statistics.onFinish(replayed);
+        return statistics;
+    }
+
+    /**
+     * Orders created without a price are executed at the close price of their bar
+     */
+    private static Num price(TimeSeries series, Order order) {
+        return order.getPrice().isNaN() ? series.getBar(order.getIndex()).getClosePrice() : order.getPrice();
+    }
+
+    private static List<Order> orders(TradingRecord tradingRecord) {
+        final List<Order> orders = new ArrayList<>();
+        for (Trade trade : tradingRecord.getTrades()) {
+            orders.add(trade.getEntry());
+            orders.add(trade.getExit());
+        }
+        if (tradingRecord.getCurrentTrade().isOpened()) {
+            orders.add(tradingRecord.getCurrentTrade().getEntry());
+        }
+        orders.sort(Comparator.comparingInt(Order::getIndex));
+        return orders;
+    }
+
+    @Override
+    public void onBar(int index, Num closePrice, TradingRecord tradingRecord) {
+        countClosedTrades(tradingRecord);
+        final Trade currentTrade = tradingRecord.getCurrentTrade();
+        final double previousEquity = equity;
+        if (currentTrade.isOpened()) {
+            barsInMarket++;
+            updateEquity(realizedProfitLoss + profitLoss(currentTrade.getEntry(), closePrice.doubleValue(), currentTrade.getEntry().getAmount()));
+        } else {
+            updateEquity(realizedProfitLoss);
+        }
+
+        // Welford's algorithm, so the variance is updated without keeping returns
+        final double barReturn = equity - previousEquity;
+        bars++;
+        final double delta = barReturn - returnsMean;
+        returnsMean += delta / bars;
+        returnsSquaredDeviations += delta * (barReturn - returnsMean);
+        if (barReturn < 0) {
+            downsideSquares += barReturn * barReturn;
+        }
+
+        stopped = stopCondition.test(this);
+    }
+
+    @Override
+    public boolean shouldStop() {
+        return stopped;
+    }
+
+    /**
+     * Trades closed after the last bar are realized, an opened trade stays marked to the last close price
+     */
+    @Override
+    public void onFinish(TradingRecord tradingRecord) {
+        final double realizedBefore = realizedProfitLoss;
+        countClosedTrades(tradingRecord);
+        if (realizedProfitLoss != realizedBefore) {
+            updateEquity(realizedProfitLoss);
+        }
+    }
+
+    private void countClosedTrades(TradingRecord tradingRecord) {
+        final List<Trade> trades = tradingRecord.getTrades();
+        for (; countedTrades < trades.size(); countedTrades++) {
+            final Trade trade = trades.get(countedTrades);
+            final double profitLoss = profitLoss(trade.getEntry(), trade.getExit().getPrice().doubleValue(), trade.getExit().getAmount());
+            realizedProfitLoss += profitLoss;
+            if (profitLoss > 0) {
+                winningTrades++;
+                grossProfit += profitLoss;
+            } else if (profitLoss < 0) {
+                losingTrades++;
+                grossLoss -= profitLoss;
+            }
+        }
+    }
+
+    private void updateEquity(double equity) {
+        this.equity = equity;
+        peakEquity = Math.max(peakEquity, equity);
+        maxDrawdown = Math.max(maxDrawdown, peakEquity - equity);
+    }
+
+    private static double profitLoss(Order entry, double exitPrice, Num amount) {
+        final double difference = exitPrice - entry.getPrice().doubleValue();
+        return (entry.isBuy() ? difference : -difference) * amount.doubleValue();
+    }
+
+    public int getBars() {
+        return bars;
+    }
+
+    public double getEquity() {
+        return equity;
+    }
+
+    public double getPeakEquity() {
+        return peakEquity;
+    }
+
+    /**
+     * @return the largest fall of equity from its previous peak
+     */
+    public double getMaxDrawdown() {
+        return maxDrawdown;
+    }
+
+    /**
+     * @return part of bars with an opened trade, from 0 to 1
+     */
+    public double getExposure() {
+        return bars == 0 ? 0 : (double) barsInMarket / bars;
+    }
+
+    /**
+     * @return mean of returns divided by their standard deviation, per bar and not annualized, {@code NaN} when returns do not vary
+     */
+    public double getSharpeRatio() {
+        if (bars < 2 || returnsSquaredDeviations == 0) {
+            return Double.NaN;
+        }
+        return returnsMean / Math.sqrt(returnsSquaredDeviations / (bars - 1));
+    }
+
+    /**
+     * @return mean of returns divided by their downside deviation, per bar and not annualized, {@code NaN} when there is no loss
+     */
+    public double getSortinoRatio() {
+        if (downsideSquares == 0) {
+            return Double.NaN;
+        }
+        return returnsMean / Math.sqrt(downsideSquares / bars);
+    }
+
+    public int getTradeCount() {
+        return countedTrades;
+    }
+
+    public int getWinningTrades() {
+        return winningTrades;
+    }
+
+    public int getLosingTrades() {
+        return losingTrades;
+    }
+
+    /**
+     * @return part of closed trades with a profit, {@code NaN} without closed trades
+     */
+    public double getWinRate() {
+        return countedTrades == 0 ? Double.NaN : (double) winningTrades / countedTrades;
+    }
+
+    /**
+     * @return gross profit divided by gross loss, {@code NaN} without losing trades
+     */
+    public double getProfitFactor() {
+        return grossLoss == 0 ? Double.NaN : grossProfit / grossLoss;
+    }
+
+    public double getGrossProfit() {
+        return grossProfit;
+    }
+
+    public double getGrossLoss() {
+        return grossLoss;
+    }
+}
@@ -14,6 +14,30 @@ public interface StrategyBacktest {
 
     Parameterizable[] parameterizables();
 
-    List<BacktestResult> run(Map<String, Object[]> backtestParameters, List<String> analysisCriterions, LocalDateTime fromDate, TemporalAmount timeWindow);
+    default List<BacktestResult> run(Map<String, Object[]> backtestParameters, List<String> analysisCriterions, LocalDateTime fromDate, TemporalAmount timeWindow) {
+        return run(backtestParameters, analysisCriterions, fromDate, timeWindow, ProgressListener.none());
+    }
+
+    default List<BacktestResult> run(Map<String, Object[]> backtestParameters,
+                                     List<String> analysisCriterions,
+                                     LocalDateTime fromDate,
+                                     TemporalAmount timeWindow,
+                                     ProgressListener<? super BacktestResult> progressListener) {
+        return run(backtestParameters, analysisCriterions, fromDate, timeWindow, null, progressListener);
+    }
+
+    /**
+     * @param ranking          when given, only the best results are returned with all criterions, starting with the best one.
+     *                         Other parameter combinations are analyzed by the ranking criterion only. When {@code null},
+     *                         results of all combinations are returned in the order of combinations
+     * @param progressListener notified of the number of parameter combinations and of every result as soon as it is calculated
+     * @throws java.util.concurrent.CancellationException when the listener cancelled the backtest
+     */
+    List<BacktestResult> run(Map<String, Object[]> backtestParameters,
+                             List<String> analysisCriterions,
+                             LocalDateTime fromDate,
+                             TemporalAmount timeWindow,
+                             Ranking ranking,
+                             ProgressListener<? super BacktestResult> progressListener);
 
 }
@@ -0,0 +1,81 @@
+package quantasma.core.analysis;
+
+import org.ta4j.core.AnalysisCriterion;
+import org.ta4j.core.num.Num;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the best results of a sweep ranked by scores of an {@link AnalysisCriterion}, so only a bounded number of them is held
+ * no matter how many parameter combinations are tested.<p>
+ * Results are offered by the threads which calculated them, so the collection is thread-safe. A result does not replace another
+ * one of the same score, and a {@code NaN} score is never kept.
+ */
+public class TopResults<T> {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final AnalysisCriterion criterion;
+    private final int capacity;
+    private final PriorityQueue<Ranked<T>> worstFirst;
+
+    public TopResults(AnalysisCriterion criterion, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(String.format("Number of kept results must be positive [%s]", capacity));
+        }
+        this.criterion = criterion;
+        this.capacity = capacity;
+        this.worstFirst = new PriorityQueue<>(Math.min(capacity, INITIAL_CAPACITY), ranking());
+    }
+
+    /**
+     * @return true when a result of the given score would be kept at this moment, so it is worth calculating
+     */
+    public synchronized boolean accepts(Num score) {
+        if (score.isNaN() || Double.isNaN(score.doubleValue())) {
+            return false;
+        }
+        return worstFirst.size() < capacity || criterion.betterThan(score, worstFirst.peek().score);
+    }
+
+    /**
+     * @return true when the result is kept, the worst one may be discarded in favour of it
+     */
+    public synchronized boolean offer(Num score, T result) {
+        if (!accepts(score)) {
+            return false;
+        }
+        if (worstFirst.size() == capacity) {
+            worstFirst.poll();
+        }
+        worstFirst.add(new Ranked<>(score, result));
+        return true;
+    }
+
+    /**
+     * @return kept results starting with the best one
+     */
+    public synchronized List<T> best() {
+        final List<Ranked<T>> ranked = new ArrayList<>(worstFirst);
+        ranked.sort(ranking().reversed());
+        final List<T> results = new ArrayList<>(ranked.size());
+        ranked.forEach(r -> results.add(r.result));
+        return results;
+    }
+
+    private Comparator<Ranked<T>> ranking() {
+        return (r1, r2) -> criterion.betterThan(r1.score, r2.score) ? 1 : criterion.betterThan(r2.score, r1.score) ? -1 : 0;
+    }
+
+    private static final class Ranked<T> {
+        private final Num score;
+        private final T result;
+
+        private Ranked(Num score, T result) {
+            this.score = score;
+            this.result = result;
+        }
+    }
+}
@@ -11,5 +11,9 @@ public class TradeScenario {
     private final TimeSeries timeSeries;
     private final Values values;
     private final TradingRecord tradingRecord;
+    /**
+     * Collected while running the scenario
+     */
+    private final RunStatistics statistics;
 
 }
@@ -0,0 +1,26 @@
+package quantasma.core.analysis.criterion;
+
+import org.ta4j.core.BaseTradingRecord;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.Trade;
+import org.ta4j.core.TradingRecord;
+import org.ta4j.core.analysis.criteria.AbstractAnalysisCriterion;
+import org.ta4j.core.num.Num;
+import quantasma.core.analysis.RunStatistics;
+
+/**
+ * Calculates statistics of a trading record by replaying it, when they were not collected during the run
+ */
+abstract class AbstractRunStatisticsCriterion extends AbstractAnalysisCriterion implements RunStatisticsBasedCriterion {
+
+    @Override
+    public Num calculate(TimeSeries series, Trade trade) {
+        final TradingRecord tradingRecord = trade.isClosed() ? new BaseTradingRecord(trade.getEntry(), trade.getExit()) : new BaseTradingRecord(trade.getEntry());
+        return calculate(series, tradingRecord);
+    }
+
+    @Override
+    public Num calculate(TimeSeries series, TradingRecord tradingRecord) {
+        return calculate(series, RunStatistics.replay(series, tradingRecord));
+    }
+}
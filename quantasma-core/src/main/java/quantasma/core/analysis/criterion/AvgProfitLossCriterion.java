@@ -6,13 +6,18 @@ import org.ta4j.core.TradingRecord;
 import org.ta4j.core.analysis.criteria.AbstractAnalysisCriterion;
 import org.ta4j.core.num.Num;
 
-public class AvgProfitLossCriterion extends AbstractAnalysisCriterion {
+public class AvgProfitLossCriterion extends AbstractAnalysisCriterion implements ProfitLossBasedCriterion {
     private final ProfitLossCriterion profitLossCriterion;
 
     public AvgProfitLossCriterion(double pipResolution) {
         this.profitLossCriterion = new ProfitLossCriterion(pipResolution);
     }
 
+    @Override
+    public double pipResolution() {
+        return profitLossCriterion.pipResolution();
+    }
+
     @Override
     public Num calculate(TimeSeries series, Trade trade) {
         return profitLossCriterion.calculate(series, trade);
@@ -20,12 +25,17 @@ public class AvgProfitLossCriterion extends AbstractAnalysisCriterion {
 
     @Override
     public Num calculate(TimeSeries series, TradingRecord tradingRecord) {
-        return profitLossCriterion.calculate(series, tradingRecord)
-                                  .dividedBy(series.numOf(tradingRecord.getTradeCount()));
+        return calculate(TradesProfitLoss.of(series, tradingRecord, pipResolution()));
+    }
+
+    @Override
+    public Num calculate(TradesProfitLoss profitLoss) {
+        return profitLoss.getTotalMoney()
+                         .dividedBy(profitLoss.getSeries().numOf(profitLoss.getTradeCount()));
     }
 
     @Override
     public boolean betterThan(Num criterionValue1, Num criterionValue2) {
         return criterionValue1.isGreaterThan(criterionValue2);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+package quantasma.core.analysis.criterion;
+
+import org.ta4j.core.AnalysisCriterion;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.TradingRecord;
+import org.ta4j.core.num.Num;
+import quantasma.core.analysis.RunStatistics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates many criterions of the same trading record. Trades are walked once per pip resolution and their profit/loss is shared
+ * by every {@link ProfitLossBasedCriterion}. Every {@link RunStatisticsBasedCriterion} shares statistics of the run, other criterions
+ * are calculated on their own.<p>
+ * Holds no state of an evaluation, so a single instance can evaluate scenarios of many threads.
+ */
+public class CriterionsEvaluation {
+    private final List<AnalysisCriterion> criterions;
+
+    public CriterionsEvaluation(List<? extends AnalysisCriterion> criterions) {
+        this.criterions = Collections.unmodifiableList(new ArrayList<>(criterions));
+    }
+
+    public List<AnalysisCriterion> getCriterions() {
+        return criterions;
+    }
+
+    /**
+     * @return values in the order of criterions
+     */
+    public List<Num> calculate(TimeSeries series, TradingRecord tradingRecord) {
+        return calculate(series, tradingRecord, null);
+    }
+
+    /**
+     * @param statistics collected while running, {@code null} when they have to be calculated by replaying the trading record
+     * @return values in the order of criterions
+     */
+    public List<Num> calculate(TimeSeries series, TradingRecord tradingRecord, RunStatistics statistics) {
+        final Map<Double, TradesProfitLoss> profitLossByPipResolution = new HashMap<>(2);
+        RunStatistics runStatistics = statistics;
+        final List<Num> values = new ArrayList<>(criterions.size());
+        for (AnalysisCriterion criterion : criterions) {
+            if (criterion instanceof ProfitLossBasedCriterion) {
+                final ProfitLossBasedCriterion profitLossBased = (ProfitLossBasedCriterion) criterion;
+                final TradesProfitLoss profitLoss = profitLossByPipResolution.computeIfAbsent(profitLossBased.pipResolution(),
+                                                                                              pipResolution -> TradesProfitLoss.of(series, tradingRecord, pipResolution));
+                values.add(profitLossBased.calculate(profitLoss));
+            } else if (criterion instanceof RunStatisticsBasedCriterion) {
+                if (runStatistics == null) {
+                    runStatistics = RunStatistics.replay(series, tradingRecord);
+                }
+                values.add(((RunStatisticsBasedCriterion) criterion).calculate(series, runStatistics));
+            } else {
+                values.add(criterion.calculate(series, tradingRecord));
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,21 @@
+package quantasma.core.analysis.criterion;
+
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.num.Num;
+import quantasma.core.analysis.RunStatistics;
+
+/**
+ * Part of bars with an opened trade, less time in the market is better
+ */
+public class ExposureCriterion extends AbstractRunStatisticsCriterion {
+
+    @Override
+    public Num calculate(TimeSeries series, RunStatistics statistics) {
+        return Nums.toSeriesNum(series, statistics.getExposure());
+    }
+
+    @Override
+    public boolean betterThan(Num criterionValue1, Num criterionValue2) {
+        return criterionValue1.isLessThan(criterionValue2);
+    }
+}
@@ -6,7 +6,7 @@ import org.ta4j.core.TradingRecord;
 import org.ta4j.core.analysis.criteria.AbstractAnalysisCriterion;
 import org.ta4j.core.num.Num;
 
-public class FinishDepositCriterion extends AbstractAnalysisCriterion {
+public class FinishDepositCriterion extends AbstractAnalysisCriterion implements ProfitLossBasedCriterion {
 
     private final double initialDeposit;
     private final ProfitLossCriterion profitLossPipsCalculator;
@@ -16,6 +16,11 @@ public class FinishDepositCriterion extends AbstractAnalysisCriterion {
         profitLossPipsCalculator = new ProfitLossCriterion(pipResolution);
     }
 
+    @Override
+    public double pipResolution() {
+        return profitLossPipsCalculator.pipResolution();
+    }
+
     @Override
     public Num calculate(TimeSeries series, Trade trade) {
         return profitLossPipsCalculator.calculate(series, trade);
@@ -23,9 +28,16 @@ public class FinishDepositCriterion extends AbstractAnalysisCriterion {
 
     @Override
     public Num calculate(TimeSeries series, TradingRecord tradingRecord) {
-        return tradingRecord.getTrades().stream()
-                            .map(trade -> profitLossPipsCalculator.calculate(series, trade))
-                            .reduce(series.numOf(initialDeposit), Num::plus);
+        return calculate(TradesProfitLoss.of(series, tradingRecord, pipResolution()));
+    }
+
+    @Override
+    public Num calculate(TradesProfitLoss profitLoss) {
+        Num deposit = profitLoss.getSeries().numOf(initialDeposit);
+        for (int i = 0; i < profitLoss.getTradeCount(); i++) {
+            deposit = deposit.plus(profitLoss.getMoney(i));
+        }
+        return deposit;
     }
 
     @Override
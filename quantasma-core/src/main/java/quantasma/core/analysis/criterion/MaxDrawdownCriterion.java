@@ -0,0 +1,21 @@
+package quantasma.core.analysis.criterion;
+
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.num.Num;
+import quantasma.core.analysis.RunStatistics;
+
+/**
+ * The largest fall of equity from its previous peak, in the quote currency
+ */
+public class MaxDrawdownCriterion extends AbstractRunStatisticsCriterion {
+
+    @Override
+    public Num calculate(TimeSeries series, RunStatistics statistics) {
+        return Nums.toSeriesNum(series, statistics.getMaxDrawdown());
+    }
+
+    @Override
+    public boolean betterThan(Num criterionValue1, Num criterionValue2) {
+        return criterionValue1.isLessThan(criterionValue2);
+    }
+}
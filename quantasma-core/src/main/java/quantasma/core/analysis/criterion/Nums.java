@@ -0,0 +1,33 @@
+package quantasma.core.analysis.criterion;
+
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.num.NaN;
+import org.ta4j.core.num.Num;
+
+final class Nums {
+
+    private Nums() {
+    }
+
+    /**
+     * Converts values recorded by orders (eg. amount of a strategy using different num type) to num type of the series,
+     * so arithmetic operations are not mixing {@code PrecisionNum} with {@code DoubleNum}.
+     */
+    static Num toSeriesNum(TimeSeries series, Num num) {
+        if (num.isNaN()) {
+            return num;
+        }
+        final Num seriesNum = series.numOf(0);
+        if (seriesNum.getClass() == num.getClass()) {
+            return num;
+        }
+        return series.numOf(num.getDelegate());
+    }
+
+    /**
+     * Converts a double of statistics to num type of the series, {@code NaN} is converted to {@link NaN#NaN}, so {@link Num#isNaN()} recognizes it
+     */
+    static Num toSeriesNum(TimeSeries series, double value) {
+        return Double.isNaN(value) ? NaN.NaN : series.numOf(value);
+    }
+}
@@ -0,0 +1,21 @@
+package quantasma.core.analysis.criterion;
+
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.num.Num;
+import quantasma.core.analysis.RunStatistics;
+
+/**
+ * Gross profit divided by gross loss of closed trades
+ */
+public class ProfitFactorCriterion extends AbstractRunStatisticsCriterion {
+
+    @Override
+    public Num calculate(TimeSeries series, RunStatistics statistics) {
+        return Nums.toSeriesNum(series, statistics.getProfitFactor());
+    }
+
+    @Override
+    public boolean betterThan(Num criterionValue1, Num criterionValue2) {
+        return criterionValue1.isGreaterThan(criterionValue2);
+    }
+}
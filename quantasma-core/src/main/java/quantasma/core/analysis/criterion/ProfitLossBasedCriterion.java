@@ -0,0 +1,15 @@
+package quantasma.core.analysis.criterion;
+
+import org.ta4j.core.AnalysisCriterion;
+import org.ta4j.core.num.Num;
+
+/**
+ * Criterion calculated from profit/loss of trades, so it shares {@link TradesProfitLoss} with other criterions of the same pip resolution
+ * when evaluated by {@link CriterionsEvaluation}
+ */
+public interface ProfitLossBasedCriterion extends AnalysisCriterion {
+
+    double pipResolution();
+
+    Num calculate(TradesProfitLoss profitLoss);
+}
@@ -6,9 +6,7 @@ import org.ta4j.core.TradingRecord;
 import org.ta4j.core.analysis.criteria.AbstractAnalysisCriterion;
 import org.ta4j.core.num.Num;
 
-public class ProfitLossCriterion extends AbstractAnalysisCriterion {
-    private static final int STANDARD_LOT_SIZE = 100_000;
-    private static final int STANDARD_LOT_PROFIT = 10;
+public class ProfitLossCriterion extends AbstractAnalysisCriterion implements ProfitLossBasedCriterion {
 
     private final ProfitLossPipsCriterion pipsCriterion;
 
@@ -17,27 +15,27 @@ public class ProfitLossCriterion extends AbstractAnalysisCriterion {
     }
 
     @Override
-    public Num calculate(TimeSeries series, Trade trade) {
-        return toRealUnit(series, trade, pipsCriterion.calculate(series, trade));
+    public double pipResolution() {
+        return pipsCriterion.pipResolution();
     }
 
-    private static Num toRealUnit(TimeSeries timeSeries, Trade trade, Num pips) {
-        return trade.getExit().getAmount()
-                    .dividedBy(timeSeries.numOf(STANDARD_LOT_SIZE))
-                    .multipliedBy(timeSeries.numOf(STANDARD_LOT_PROFIT))
-                    .multipliedBy(pips);
+    @Override
+    public Num calculate(TimeSeries series, Trade trade) {
+        return TradesProfitLoss.money(series, trade, pipsCriterion.calculate(series, trade));
     }
 
     @Override
     public Num calculate(TimeSeries series, TradingRecord tradingRecord) {
-        return tradingRecord.getTrades()
-                            .stream()
-                            .map(trade -> calculate(series, trade))
-                            .reduce(series.numOf(0), Num::plus);
+        return calculate(TradesProfitLoss.of(series, tradingRecord, pipResolution()));
+    }
+
+    @Override
+    public Num calculate(TradesProfitLoss profitLoss) {
+        return profitLoss.getTotalMoney();
     }
 
     @Override
     public boolean betterThan(Num criterionValue1, Num criterionValue2) {
         return criterionValue1.isGreaterThan(criterionValue2);
     }
-}
\ No newline at end of file
+}
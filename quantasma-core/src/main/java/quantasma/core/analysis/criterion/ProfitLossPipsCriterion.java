@@ -1,13 +1,12 @@
 package quantasma.core.analysis.criterion;
 
-import org.ta4j.core.Order;
 import org.ta4j.core.TimeSeries;
 import org.ta4j.core.Trade;
 import org.ta4j.core.TradingRecord;
 import org.ta4j.core.analysis.criteria.AbstractAnalysisCriterion;
 import org.ta4j.core.num.Num;
 
-public class ProfitLossPipsCriterion extends AbstractAnalysisCriterion {
+public class ProfitLossPipsCriterion extends AbstractAnalysisCriterion implements ProfitLossBasedCriterion {
 
     private final double pipResolution;
 
@@ -16,36 +15,23 @@ public class ProfitLossPipsCriterion extends AbstractAnalysisCriterion {
     }
 
     @Override
-    public Num calculate(TimeSeries series, Trade trade) {
-        if (trade.isClosed()) {
-            final Num exitClosePrice = getPrice(series, trade.getExit());
-            final Num entryClosePrice = getPrice(series, trade.getEntry());
-            return difference(trade, exitClosePrice, entryClosePrice)
-                    .dividedBy(series.numOf(pipResolution));
-        }
-        return series.numOf(0);
-    }
-
-    private static Num getPrice(TimeSeries series, Order exit) {
-        return hasPrice(exit) ?
-                exit.getPrice() : series.getBar(exit.getIndex()).getClosePrice();
+    public double pipResolution() {
+        return pipResolution;
     }
 
-    private static boolean hasPrice(Order exit) {
-        return !exit.getPrice().isNaN();
+    @Override
+    public Num calculate(TimeSeries series, Trade trade) {
+        return TradesProfitLoss.pips(series, trade, series.numOf(pipResolution));
     }
 
-    private static Num difference(Trade trade, Num exitClosePrice, Num entryClosePrice) {
-        return trade.getEntry().isBuy() ?
-                exitClosePrice.minus(entryClosePrice) : entryClosePrice.minus(exitClosePrice);
+    @Override
+    public Num calculate(TimeSeries series, TradingRecord tradingRecord) {
+        return calculate(TradesProfitLoss.of(series, tradingRecord, pipResolution));
     }
 
     @Override
-    public Num calculate(TimeSeries series, TradingRecord tradingRecord) {
-        return tradingRecord.getTrades()
-                            .stream()
-                            .map(trade -> calculate(series, trade))
-                            .reduce(series.numOf(0), Num::plus);
+    public Num calculate(TradesProfitLoss profitLoss) {
+        return profitLoss.getTotalPips();
     }
 
     @Override
@@ -0,0 +1,15 @@
+package quantasma.core.analysis.criterion;
+
+import org.ta4j.core.AnalysisCriterion;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.num.Num;
+import quantasma.core.analysis.RunStatistics;
+
+/**
+ * Criterion calculated from {@link RunStatistics}, so it is available as soon as a run finishes and shares the statistics with other criterions
+ * when evaluated by {@link CriterionsEvaluation}
+ */
+public interface RunStatisticsBasedCriterion extends AnalysisCriterion {
+
+    Num calculate(TimeSeries series, RunStatistics statistics);
+}
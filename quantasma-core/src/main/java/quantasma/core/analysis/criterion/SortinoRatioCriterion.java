@@ -0,0 +1,21 @@
+package quantasma.core.analysis.criterion;
+
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.num.Num;
+import quantasma.core.analysis.RunStatistics;
+
+/**
+ * Mean of per bar returns of equity divided by their downside deviation
+ */
+public class SortinoRatioCriterion extends AbstractRunStatisticsCriterion {
+
+    @Override
+    public Num calculate(TimeSeries series, RunStatistics statistics) {
+        return Nums.toSeriesNum(series, statistics.getSortinoRatio());
+    }
+
+    @Override
+    public boolean betterThan(Num criterionValue1, Num criterionValue2) {
+        return criterionValue1.isGreaterThan(criterionValue2);
+    }
+}
@@ -0,0 +1,110 @@
+package quantasma.core.analysis.criterion;
+
+import org.ta4j.core.Order;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.Trade;
+import org.ta4j.core.TradingRecord;
+import org.ta4j.core.num.Num;
+
+import java.util.List;
+
+/**
+ * Profit/loss of every trade of a trading record in pips and in money, calculated in a single pass over trades.
+ * A {@link ProfitLossBasedCriterion} is calculated from it without walking the trades again.
+ */
+public final class TradesProfitLoss {
+    private static final int STANDARD_LOT_SIZE = 100_000;
+    private static final int STANDARD_LOT_PROFIT = 10;
+
+    private final TimeSeries series;
+    private final Num[] pips;
+    private final Num[] money;
+    private final Num totalPips;
+    private final Num totalMoney;
+
+    private TradesProfitLoss(TimeSeries series, Num[] pips, Num[] money, Num totalPips, Num totalMoney) {
+        this.series = series;
+        this.pips = pips;
+        this.money = money;
+        this.totalPips = totalPips;
+        this.totalMoney = totalMoney;
+    }
+
+    public static TradesProfitLoss of(TimeSeries series, TradingRecord tradingRecord, double pipResolution) {
+        final List<Trade> trades = tradingRecord.getTrades();
+        final Num pipSize = series.numOf(pipResolution);
+        final Num lotSize = series.numOf(STANDARD_LOT_SIZE);
+        final Num lotProfit = series.numOf(STANDARD_LOT_PROFIT);
+        final Num[] pips = new Num[trades.size()];
+        final Num[] money = new Num[trades.size()];
+        Num totalPips = series.numOf(0);
+        Num totalMoney = totalPips;
+        for (int i = 0; i < pips.length; i++) {
+            final Trade trade = trades.get(i);
+            pips[i] = pips(series, trade, pipSize);
+            money[i] = money(series, trade, pips[i], lotSize, lotProfit);
+            totalPips = totalPips.plus(pips[i]);
+            totalMoney = totalMoney.plus(money[i]);
+        }
+        return new TradesProfitLoss(series, pips, money, totalPips, totalMoney);
+    }
+
+    static Num pips(TimeSeries series, Trade trade, Num pipSize) {
+        if (trade.isClosed()) {
+            final Num exitClosePrice = getPrice(series, trade.getExit());
+            final Num entryClosePrice = getPrice(series, trade.getEntry());
+            return difference(trade, exitClosePrice, entryClosePrice).dividedBy(pipSize);
+        }
+        return series.numOf(0);
+    }
+
+    /**
+     * Pips converted to money by the traded amount, a standard lot earns {@value STANDARD_LOT_PROFIT} per pip
+     */
+    static Num money(TimeSeries series, Trade trade, Num pips, Num lotSize, Num lotProfit) {
+        if (!trade.isClosed()) {
+            return series.numOf(0);
+        }
+        return Nums.toSeriesNum(series, trade.getExit().getAmount())
+                   .dividedBy(lotSize)
+                   .multipliedBy(lotProfit)
+                   .multipliedBy(pips);
+    }
+
+    static Num money(TimeSeries series, Trade trade, Num pips) {
+        return money(series, trade, pips, series.numOf(STANDARD_LOT_SIZE), series.numOf(STANDARD_LOT_PROFIT));
+    }
+
+    private static Num getPrice(TimeSeries series, Order order) {
+        return order.getPrice().isNaN() ? series.getBar(order.getIndex()).getClosePrice() : Nums.toSeriesNum(series, order.getPrice());
+    }
+
+    private static Num difference(Trade trade, Num exitClosePrice, Num entryClosePrice) {
+        return trade.getEntry().isBuy() ?
+                exitClosePrice.minus(entryClosePrice) : entryClosePrice.minus(exitClosePrice);
+    }
+
+    public TimeSeries getSeries() {
+        return series;
+    }
+
+    public int getTradeCount() {
+        return pips.length;
+    }
+
+    public Num getPips(int trade) {
+        return pips[trade];
+    }
+
+    public Num getMoney(int trade) {
+        return money[trade];
+    }
+
+    public Num getTotalPips() {
+        return totalPips;
+    }
+
+    public Num getTotalMoney() {
+        return totalMoney;
+    }
+}
@@ -0,0 +1,202 @@
+package quantasma.core.analysis.parametrize;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * {@link Producer} which treats all combinations of variables as an indexed grid.<p>
+ * An index is decoded as a mixed-radix number - the first defined variable varies fastest, so combinations come
+ * in the same order as from {@link Producer#from(Function)}. Objects are built by the recipe lazily, only for requested indexes,
+ * and every call gets its own variables, so the grid can be split into parallel streams, skipped or partitioned into shards.<p>
+ * The recipe is applied once upfront to define the variables, and must define the same variables on every call.
+ */
+public final class GridProducer<T, P extends Enum & Parameterizable> implements Producer<T> {
+    private final Function<Variables<P>, T> recipe;
+    private final Variables<P> variables;
+    private final List<List<Object>> allValues;
+    private final long from;
+    private final long to;
+
+    private GridProducer(Function<Variables<P>, T> recipe, Variables<P> variables, List<List<Object>> allValues, long from, long to) {
+        this.recipe = recipe;
+        this.variables = variables;
+        this.allValues = allValues;
+        this.from = from;
+        this.to = to;
+    }
+
+    static <T, P extends Enum & Parameterizable> GridProducer<T, P> from(Function<Variables<P>, T> recipe) {
+        final Variables<P> variables = new Variables<>();
+        recipe.apply(variables); // define variables
+        final List<List<Object>> allValues = variables.allValues();
+        return new GridProducer<>(recipe, variables, allValues, 0, gridSize(allValues));
+    }
+
+    private static long gridSize(List<List<Object>> allValues) {
+        if (allValues.isEmpty()) {
+            return 0;
+        }
+        long size = 1;
+        for (List<Object> values : allValues) {
+            size = Math.multiplyExact(size, values.size());
+        }
+        return size;
+    }
+
+    /**
+     * Number of combinations covered by this producer
+     */
+    public long size() {
+        return to - from;
+    }
+
+    /**
+     * Builds an object for the combination at the given index, relative to the first combination of this producer
+     */
+    public T get(long index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(String.format("Index [%s] out of bounds for size [%s]", index, size()));
+        }
+        return recipe.apply(variables.fixed(combination(from + index)));
+    }
+
+    private Object[] combination(long gridIndex) {
+        final Object[] combination = new Object[allValues.size()];
+        long remainder = gridIndex;
+        for (int i = 0; i < combination.length; i++) {
+            final List<Object> values = allValues.get(i);
+            combination[i] = values.get((int) (remainder % values.size()));
+            remainder /= values.size();
+        }
+        return combination;
+    }
+
+    public GridProducer<T, P> skip(long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException(String.format("Cannot skip negative number of combinations [%s]", count));
+        }
+        return new GridProducer<>(recipe, variables, allValues, from + Math.min(count, size()), to);
+    }
+
+    public GridProducer<T, P> limit(long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException(String.format("Cannot limit to negative number of combinations [%s]", count));
+        }
+        return new GridProducer<>(recipe, variables, allValues, from, from + Math.min(count, size()));
+    }
+
+    /**
+     * Returns a contiguous part of combinations, e.g. to share a single sweep between many processes.
+     * All partitions together cover every combination exactly once and their sizes differ by at most one.
+     *
+     * @param partition  zero-based number of the partition
+     * @param partitions total number of partitions
+     */
+    public GridProducer<T, P> partition(int partition, int partitions) {
+        if (partitions < 1 || partition < 0 || partition >= partitions) {
+            throw new IllegalArgumentException(String.format("Invalid partition [%s] of [%s]", partition, partitions));
+        }
+        final long size = size();
+        final long partitionSize = size / partitions;
+        final long remainder = size % partitions;
+        final long partitionFrom = from + partition * partitionSize + Math.min(partition, remainder);
+        final long partitionTo = partitionFrom + partitionSize + (partition < remainder ? 1 : 0);
+        return new GridProducer<>(recipe, variables, allValues, partitionFrom, partitionTo);
+    }
+
+    /**
+     * Read-only list view building elements on every {@link List#get(int)} call
+     */
+    public List<T> asList() {
+        if (size() > Integer.MAX_VALUE) {
+            throw new IllegalStateException(String.format("Grid of [%s] combinations is too large for a list", size()));
+        }
+        return new GridList();
+    }
+
+    @Override
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    public Spliterator<T> spliterator() {
+        return new GridSpliterator(0, size());
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    private final class GridSpliterator implements Spliterator<T> {
+        private long index;
+        private final long fence;
+
+        private GridSpliterator(long index, long fence) {
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(get(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            while (index < fence) {
+                action.accept(get(index++));
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            final long middle = (index + fence) >>> 1;
+            if (middle <= index) {
+                return null;
+            }
+            final Spliterator<T> prefix = new GridSpliterator(index, middle);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+        }
+    }
+
+    private final class GridList extends AbstractList<T> implements RandomAccess {
+
+        @Override
+        public T get(int index) {
+            return GridProducer.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return (int) GridProducer.this.size();
+        }
+    }
+}
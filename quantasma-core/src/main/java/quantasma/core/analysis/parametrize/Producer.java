@@ -17,6 +17,13 @@ public interface Producer<T> {
         return new SimpleProducer<>(recipe);
     }
 
+    /**
+     * Producer which can be sized, split and partitioned - see {@link GridProducer}
+     */
+    static <T, P extends Enum & Parameterizable> GridProducer<T, P> grid(Function<Variables<P>, T> recipe) {
+        return GridProducer.from(recipe);
+    }
+
     class SimpleProducer<T, P extends Enum & Parameterizable> implements Producer<T> {
         private final Function<Variables<P>, T> recipe;
 
@@ -16,6 +16,17 @@ public class Variable<T> {
     private T currentValue;
     private Variable<?> nextVariable;
 
+    static <T> Variable<T> fixed(T value) {
+        final Variable<T> variable = new Variable<>();
+        variable.allValues.add(value);
+        variable.currentValue = value;
+        return variable;
+    }
+
+    Set<T> allValues() {
+        return allValues;
+    }
+
     Variable<?> getNextVariable() {
         return nextVariable;
     }
@@ -1,7 +1,9 @@
 package quantasma.core.analysis.parametrize;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
@@ -90,6 +92,30 @@ public class Variables<P extends Enum & Parameterizable> {
         return definition.apply(this);
     }
 
+    /**
+     * Values of every defined variable in definition order
+     */
+    List<List<Object>> allValues() {
+        final List<List<Object>> allValues = new ArrayList<>(variablesByLabel.size());
+        for (Variable<?> variable : variablesByLabel.values()) {
+            allValues.add(new ArrayList<>(variable.allValues()));
+        }
+        return allValues;
+    }
+
+    /**
+     * Creates variables with the same labels, each one fixed to a single value given in definition order
+     */
+    Variables<P> fixed(Object[] values) {
+        final Variables<P> fixed = new Variables<>();
+        fixed.parameterClass = parameterClass;
+        int i = 0;
+        for (String label : variablesByLabel.keySet()) {
+            fixed.variablesByLabel.put(label, Variable.fixed(values[i++]));
+        }
+        return fixed;
+    }
+
     public Values<P> getParameterValues() {
         return variablesByLabel.entrySet()
                                .stream()
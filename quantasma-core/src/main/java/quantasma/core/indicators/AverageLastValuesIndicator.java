@@ -5,8 +5,6 @@ import org.ta4j.core.indicators.CachedIndicator;
 import org.ta4j.core.num.NaN;
 import org.ta4j.core.num.Num;
 
-import java.util.stream.IntStream;
-
 public class AverageLastValuesIndicator extends CachedIndicator<Num> {
 
     private final Indicator<Num> indicator;
@@ -27,10 +25,10 @@ public class AverageLastValuesIndicator extends CachedIndicator<Num> {
             return NaN.NaN;
         }
 
-        return IntStream.iterate(index, operand -> --operand)
-                        .mapToObj(indicator::getValue)
-                        .limit(lastValues)
-                        .reduce(getTimeSeries().numOf(0), Num::plus)
-                        .dividedBy(getTimeSeries().numOf(lastValues));
+        Num sum = getTimeSeries().numOf(0);
+        for (int i = index; i > index - lastValues; i--) {
+            sum = sum.plus(indicator.getValue(i));
+        }
+        return sum.dividedBy(getTimeSeries().numOf(lastValues));
     }
 }
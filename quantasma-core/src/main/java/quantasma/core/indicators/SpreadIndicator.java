@@ -2,21 +2,22 @@ package quantasma.core.indicators;
 
 import org.ta4j.core.Indicator;
 import org.ta4j.core.indicators.CachedIndicator;
-import org.ta4j.core.indicators.helpers.DifferenceIndicator;
 import org.ta4j.core.num.Num;
 import quantasma.core.timeseries.GenericTimeSeries;
 
 public class SpreadIndicator extends CachedIndicator<Num> {
 
-    private final DifferenceIndicator differenceIndicator;
+    private final Indicator<Num> askIndicator;
+    private final Indicator<Num> bidIndicator;
 
     public SpreadIndicator(GenericTimeSeries timeSeries, Indicator<Num> askIndicator, Indicator<Num> bidIndicator) {
         super(timeSeries.plainTimeSeries());
-        this.differenceIndicator = new DifferenceIndicator(askIndicator, bidIndicator);
+        this.askIndicator = askIndicator;
+        this.bidIndicator = bidIndicator;
     }
 
     @Override
     protected Num calculate(int index) {
-        return differenceIndicator.getValue(index);
+        return askIndicator.getValue(index).minus(bidIndicator.getValue(index));
     }
 }
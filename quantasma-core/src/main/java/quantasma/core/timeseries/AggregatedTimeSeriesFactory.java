@@ -7,13 +7,19 @@ import java.util.function.Function;
 public class AggregatedTimeSeriesFactory<B extends OneSidedBar> implements TimeSeriesFactory<AggregatedTimeSeries<B>> {
 
     private final MainTimeSeries mainTimeSeries;
+    private final BarStorageFactory barStorageFactory;
 
-    private AggregatedTimeSeriesFactory(MainTimeSeries mainTimeSeries) {
+    private AggregatedTimeSeriesFactory(MainTimeSeries mainTimeSeries, BarStorageFactory barStorageFactory) {
         this.mainTimeSeries = mainTimeSeries;
+        this.barStorageFactory = barStorageFactory;
     }
 
     public static <B extends OneSidedBar> AggregatedTimeSeriesFactory<B> from(MainTimeSeries<B> timeSeries) {
-        return new AggregatedTimeSeriesFactory<>(timeSeries);
+        return from(timeSeries, BarStorageFactory.objects());
+    }
+
+    public static <B extends OneSidedBar> AggregatedTimeSeriesFactory<B> from(MainTimeSeries<B> timeSeries, BarStorageFactory barStorageFactory) {
+        return new AggregatedTimeSeriesFactory<>(timeSeries, barStorageFactory);
     }
 
     @Override
@@ -24,6 +30,8 @@ public class AggregatedTimeSeriesFactory<B extends OneSidedBar> implements TimeS
                 .withMaxBarCount(timeSeriesDefinition.getMaxBarCount())
                 .withName(timeSeriesDefinition.getBarPeriod().getPeriodCode())
                 .withBarFactory(mainTimeSeries.getBarFactory())
+                .withBarStorageFactory(barStorageFactory)
+                .withNumTypeOf(mainTimeSeries.function())
                 .build();
     }
 }
@@ -0,0 +1,32 @@
+package quantasma.core.timeseries;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.num.Num;
+import quantasma.core.timeseries.bar.ColumnarBarList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Creates list holding bars of a single time series.
+ */
+@FunctionalInterface
+public interface BarStorageFactory {
+
+    List<Bar> create(Function<Number, Num> numFunction);
+
+    /**
+     * @return factory of lists keeping every bar as a separate object
+     */
+    static BarStorageFactory objects() {
+        return numFunction -> new ArrayList<>();
+    }
+
+    /**
+     * @return factory of {@link ColumnarBarList} keeping bars in primitive arrays, requires {@code DoubleNum} num type
+     */
+    static BarStorageFactory columnar() {
+        return ColumnarBarList::new;
+    }
+}
@@ -14,6 +14,19 @@ public class BaseAggregatedTimeSeries<B extends OneSidedBar> extends BaseGeneric
         this.mainTimeSeries = builder.mainTimeSeries;
     }
 
+    /**
+     * Creates read-only series over the same bars which follows indexes of the given main series view
+     */
+    static <B extends OneSidedBar> AggregatedTimeSeries<B> view(AggregatedTimeSeries<B> timeSeries, MainTimeSeries<B> mainTimeSeries) {
+        return new BaseAggregatedTimeSeries.Builder<>(timeSeries.getSymbol(), timeSeries.getBarPeriod(), mainTimeSeries)
+                .withName(timeSeries.getName())
+                .withBarFactory(timeSeries.getBarFactory())
+                .withNumTypeOf(timeSeries.function())
+                .withBars(sharedBars(timeSeries))
+                .asReadOnly()
+                .build();
+    }
+
     @Override
     public B getFirstBar() {
         // avoid index manipulation
@@ -3,7 +3,6 @@ package quantasma.core.timeseries;
 import lombok.AccessLevel;
 import lombok.Getter;
 import org.ta4j.core.Bar;
-import org.ta4j.core.BaseTimeSeries;
 import org.ta4j.core.TimeSeries;
 import org.ta4j.core.num.Num;
 import org.ta4j.core.num.PrecisionNum;
@@ -12,29 +11,39 @@ import quantasma.core.timeseries.bar.BarFactory;
 import quantasma.core.timeseries.bar.OneSidedBar;
 import quantasma.core.timeseries.bar.OneSidedBarFactory;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
 
 public class BaseGenericTimeSeries<B extends OneSidedBar> implements GenericTimeSeries<B> {
-    private final TimeSeries timeSeries;
+    private final ManualIndexBaseTimeSeries timeSeries;
     @Getter
     private final BarFactory<B> barFactory;
     @Getter
     private final String symbol;
     @Getter
     private final BarPeriod barPeriod;
+    @Getter(value = AccessLevel.PROTECTED)
+    private final BarStorageFactory barStorageFactory;
+    private final boolean readOnly;
+    private int replacedBarsCount;
 
     protected BaseGenericTimeSeries(Builder<?, ?> builder) {
-        this.timeSeries = new BaseTimeSeries.SeriesBuilder()
-                      .withName(builder.getName())
-                      .withBars(builder.getBars())
-                      .withNumTypeOf(builder.getNumFunction())
-                      .withMaxBarCount(builder.getMaxBarCount())
-                      .build();
+        this.timeSeries = new ManualIndexBaseTimeSeries(builder.getName(),
+                                                        resolveBars(builder),
+                                                        builder.getNumFunction(),
+                                                        builder.getMaxBarCount());
         this.barFactory = (BarFactory<B>) builder.getBarFactory();
         this.symbol = builder.getSymbol();
         this.barPeriod = builder.getBarPeriod();
+        this.barStorageFactory = builder.getBarStorageFactory();
+        this.readOnly = builder.isReadOnly();
+    }
+
+    private static List<Bar> resolveBars(Builder<?, ?> builder) {
+        if (builder.getBars() != null) {
+            return builder.getBars();
+        }
+        return builder.getBarStorageFactory().create(builder.getNumFunction());
     }
 
     @Override
@@ -42,6 +51,30 @@ public class BaseGenericTimeSeries<B extends OneSidedBar> implements GenericTime
         return new UnmodifiableTimeSeries(timeSeries);
     }
 
+    ManualIndexSupport manualIndexSupport() {
+        return timeSeries;
+    }
+
+    /**
+     * Returns bars of the given series, so a view with its own indexes can be created on top of them.
+     */
+    static List<Bar> sharedBars(GenericTimeSeries<?> timeSeries) {
+        if (!(timeSeries instanceof BaseGenericTimeSeries)) {
+            throw new IllegalArgumentException(String.format("Cannot create a view of time series [%s]", timeSeries));
+        }
+        if (timeSeries.getRemovedBarsCount() > 0) {
+            throw new IllegalStateException(String.format("Cannot create a view of time series [%s] as [%s] bars were already removed",
+                                                          timeSeries.getName(), timeSeries.getRemovedBarsCount()));
+        }
+        return ((BaseGenericTimeSeries<?>) timeSeries).timeSeries.getBarData();
+    }
+
+    private void checkNotReadOnly() {
+        if (readOnly) {
+            throw new UnsupportedOperationException(String.format("Time series [%s] of [%s] is a read-only view", getName(), symbol));
+        }
+    }
+
     @Override
     public B getBar(int i) {
         final int nthOldElement = getEndIndex() - i;
@@ -55,16 +88,29 @@ public class BaseGenericTimeSeries<B extends OneSidedBar> implements GenericTime
 
     @Override
     public void addBar(B bar, boolean replace) {
+        checkNotReadOnly();
         timeSeries.addBar(bar, replace);
+        if (replace) {
+            replacedBarsCount++;
+        }
+    }
+
+    /**
+     * Tells a replaced last bar apart from the previous one, as replacing keeps the end index
+     */
+    int getReplacedBarsCount() {
+        return replacedBarsCount;
     }
 
     @Override
     public void addTrade(Num tradeVolume, Num tradePrice) {
+        checkNotReadOnly();
         timeSeries.addTrade(tradeVolume, tradePrice);
     }
 
     @Override
     public void addPrice(Num price) {
+        checkNotReadOnly();
         timeSeries.addPrice(price);
     }
 
@@ -90,6 +136,7 @@ public class BaseGenericTimeSeries<B extends OneSidedBar> implements GenericTime
 
     @Override
     public void setMaximumBarCount(int maximumBarCount) {
+        checkNotReadOnly();
         timeSeries.setMaximumBarCount(maximumBarCount);
     }
 
@@ -125,10 +172,12 @@ public class BaseGenericTimeSeries<B extends OneSidedBar> implements GenericTime
         private final BarPeriod barPeriod;
 
         private String name = "unamed_series";
-        private List<Bar> bars = new ArrayList<>();
+        private List<Bar> bars;
+        private BarStorageFactory barStorageFactory = BarStorageFactory.objects();
         private int maxBarCount = Integer.MAX_VALUE;
         private BarFactory<?> barFactory = new OneSidedBarFactory();
         private Function<Number, Num> numFunction = PrecisionNum::valueOf;
+        private boolean readOnly;
 
         public Builder(String symbol, BarPeriod barPeriod) {
             this.symbol = symbol;
@@ -155,6 +204,14 @@ public class BaseGenericTimeSeries<B extends OneSidedBar> implements GenericTime
             return self();
         }
 
+        /**
+         * Ignored when bars are passed explicitly by {@link #withBars(List)}
+         */
+        public T withBarStorageFactory(BarStorageFactory barStorageFactory) {
+            this.barStorageFactory = barStorageFactory;
+            return self();
+        }
+
         public T withMaxBarCount(int maxBarCount) {
             this.maxBarCount = maxBarCount;
             return self();
@@ -165,6 +222,14 @@ public class BaseGenericTimeSeries<B extends OneSidedBar> implements GenericTime
             return self();
         }
 
+        /**
+         * Series built over bars shared with another series must not modify them
+         */
+        T asReadOnly() {
+            this.readOnly = true;
+            return self();
+        }
+
         /**
          * Every builder subclass should implement this method
          */
@@ -1,9 +1,13 @@
 package quantasma.core.timeseries;
 
+import org.ta4j.core.num.Num;
+import org.ta4j.core.num.PrecisionNum;
 import quantasma.core.BarPeriod;
 import quantasma.core.timeseries.bar.BarFactory;
 import quantasma.core.timeseries.bar.OneSidedBar;
 
+import java.util.function.Function;
+
 public class BaseMainTimeSeries<B extends OneSidedBar> extends BaseGenericTimeSeries<B> implements MainTimeSeries<B> {
 
     protected BaseMainTimeSeries(Builder builder) {
@@ -25,9 +29,40 @@ public class BaseMainTimeSeries<B extends OneSidedBar> extends BaseGenericTimeSe
                 .build();
     }
 
+    public static <B extends OneSidedBar> MainTimeSeries<B> create(TimeSeriesDefinition timeSeriesDefinition, String symbol, BarFactory<B> barFactory, BarStorageFactory barStorageFactory) {
+        return create(timeSeriesDefinition, symbol, barFactory, barStorageFactory, PrecisionNum::valueOf);
+    }
+
+    public static <B extends OneSidedBar> MainTimeSeries<B> create(TimeSeriesDefinition timeSeriesDefinition,
+                                                                   String symbol,
+                                                                   BarFactory<B> barFactory,
+                                                                   BarStorageFactory barStorageFactory,
+                                                                   Function<Number, Num> numFunction) {
+        return new BaseMainTimeSeries.Builder<>(symbol, timeSeriesDefinition.getBarPeriod())
+                .withName(timeSeriesDefinition.getBarPeriod().getPeriodCode())
+                .withMaxBarCount(timeSeriesDefinition.getMaxBarCount())
+                .withBarFactory(barFactory)
+                .withBarStorageFactory(barStorageFactory)
+                .withNumTypeOf(numFunction)
+                .build();
+    }
+
+    /**
+     * Creates read-only series over the same bars with its own begin and end indexes
+     */
+    static <B extends OneSidedBar> MainTimeSeries<B> view(MainTimeSeries<B> timeSeries) {
+        return new BaseMainTimeSeries.Builder<>(timeSeries.getSymbol(), timeSeries.getBarPeriod())
+                .withName(timeSeries.getName())
+                .withBarFactory(timeSeries.getBarFactory())
+                .withNumTypeOf(timeSeries.function())
+                .withBars(sharedBars(timeSeries))
+                .asReadOnly()
+                .build();
+    }
+
     @Override
     public AggregatedTimeSeries<B> aggregate(TimeSeriesDefinition timeSeriesDefinition) {
-        return AggregatedTimeSeriesFactory.from(this).createInstance(timeSeriesDefinition);
+        return AggregatedTimeSeriesFactory.from(this, getBarStorageFactory()).createInstance(timeSeriesDefinition);
     }
 
     /**
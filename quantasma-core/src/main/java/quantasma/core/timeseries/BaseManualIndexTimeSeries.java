@@ -0,0 +1,154 @@
+package quantasma.core.timeseries;
+
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.num.Num;
+import quantasma.core.BarPeriod;
+import quantasma.core.timeseries.bar.BarFactory;
+import quantasma.core.timeseries.bar.OneSidedBar;
+
+import java.util.function.Function;
+
+/**
+ * {@link ManualIndexTimeSeries} which moves indexes of wrapped time series directly, without reflection.<p>
+ * Index manipulation is visible to every indicator built on top of {@link #plainTimeSeries()}.
+ */
+public final class BaseManualIndexTimeSeries<B extends OneSidedBar> implements ManualIndexTimeSeries<B> {
+    private final GenericTimeSeries<B> timeSeries;
+    private final ManualIndexSupport manualIndexSupport;
+
+    private BaseManualIndexTimeSeries(GenericTimeSeries<B> timeSeries, ManualIndexSupport manualIndexSupport) {
+        this.timeSeries = timeSeries;
+        this.manualIndexSupport = manualIndexSupport;
+    }
+
+    public static <B extends OneSidedBar> BaseManualIndexTimeSeries<B> wrap(GenericTimeSeries<B> timeSeries) {
+        return new BaseManualIndexTimeSeries<>(timeSeries, resolveManualIndexSupport(timeSeries));
+    }
+
+    private static ManualIndexSupport resolveManualIndexSupport(GenericTimeSeries<?> timeSeries) {
+        if (timeSeries instanceof BaseGenericTimeSeries) {
+            return ((BaseGenericTimeSeries<?>) timeSeries).manualIndexSupport();
+        }
+        throw new IllegalArgumentException(String.format("Wrapped time series [%s] don't support manual indexes", timeSeries));
+    }
+
+    @Override
+    public void addBar(B bar, boolean replace) {
+        if (manualIndexSupport.isIndexModified()) {
+            throw new RuntimeException("Cannot add bars as indexes are already manipulated");
+        }
+        timeSeries.addBar(bar, replace);
+    }
+
+    @Override
+    public void nextIndex() {
+        final int endIndex = manualIndexSupport.getEndIndex();
+        final int totalEndIndex = manualIndexSupport.getTotalEndIndex();
+        if (endIndex == totalEndIndex) {
+            throw new RuntimeException(String.format("No next bar available at index [%s] - bars count [%s]", manualIndexSupport.getBeginIndex() + 1, totalEndIndex + 1));
+        }
+        manualIndexSupport.setIndexes(manualIndexSupport.getBeginIndex(), endIndex + 1);
+    }
+
+    @Override
+    public void resetIndexes() {
+        if (manualIndexSupport.getBeginIndex() < 0) {
+            return;
+        }
+
+        manualIndexSupport.setIndexes(0, -1);
+    }
+
+    // methods below do not modify delegate's logic
+
+    @Override
+    public String getName() {
+        return timeSeries.getName();
+    }
+
+    @Override
+    public TimeSeries plainTimeSeries() {
+        return timeSeries.plainTimeSeries();
+    }
+
+    @Override
+    public BarPeriod getBarPeriod() {
+        return timeSeries.getBarPeriod();
+    }
+
+    @Override
+    public String getSymbol() {
+        return timeSeries.getSymbol();
+    }
+
+    @Override
+    public BarFactory<B> getBarFactory() {
+        return timeSeries.getBarFactory();
+    }
+
+    @Override
+    public B getBar(int i) {
+        return timeSeries.getBar(i);
+    }
+
+    @Override
+    public int getBarCount() {
+        return timeSeries.getBarCount();
+    }
+
+    @Override
+    public int getBeginIndex() {
+        return timeSeries.getBeginIndex();
+    }
+
+    @Override
+    public int getEndIndex() {
+        return timeSeries.getEndIndex();
+    }
+
+    @Override
+    public void setMaximumBarCount(int maximumBarCount) {
+        timeSeries.setMaximumBarCount(maximumBarCount);
+    }
+
+    @Override
+    public int getMaximumBarCount() {
+        return timeSeries.getMaximumBarCount();
+    }
+
+    @Override
+    public int getRemovedBarsCount() {
+        return timeSeries.getRemovedBarsCount();
+    }
+
+    @Override
+    public void addTrade(Num tradeVolume, Num tradePrice) {
+        timeSeries.addTrade(tradeVolume, tradePrice);
+    }
+
+    @Override
+    public void addPrice(Num price) {
+        timeSeries.addPrice(price);
+    }
+
+    @Override
+    public Num numOf(Number number) {
+        return timeSeries.numOf(number);
+    }
+
+    @Override
+    public Function<Number, Num> function() {
+        return timeSeries.function();
+    }
+
+    @Override
+    public B getFirstBar() {
+        return timeSeries.getFirstBar();
+    }
+
+    @Override
+    public B getLastBar() {
+        return timeSeries.getLastBar();
+    }
+
+}
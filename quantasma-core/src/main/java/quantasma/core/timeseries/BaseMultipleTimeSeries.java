@@ -2,9 +2,12 @@ package quantasma.core.timeseries;
 
 import lombok.Getter;
 import org.ta4j.core.num.Num;
+import org.ta4j.core.num.PrecisionNum;
 import quantasma.core.BarPeriod;
+import quantasma.core.BarQuote;
 import quantasma.core.Quote;
 import quantasma.core.timeseries.bar.BarFactory;
+import quantasma.core.timeseries.bar.BidAskBar;
 import quantasma.core.timeseries.bar.OneSidedBar;
 
 import java.time.ZonedDateTime;
@@ -13,10 +16,25 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.function.UnaryOperator;
 
 public class BaseMultipleTimeSeries<B extends OneSidedBar> implements MultipleTimeSeries<B> {
     private static final long serialVersionUID = -8768456438053526527L;
+    /**
+     * Whether bars of a class override {@link OneSidedBar#updateBar(Quote, Function)}
+     */
+    private static final ClassValue<Boolean> CUSTOM_UPDATE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                final Class<?> declaringClass = type.getMethod("updateBar", Quote.class, Function.class).getDeclaringClass();
+                return declaringClass != OneSidedBar.class && declaringClass != BidAskBar.class;
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
 
     @Getter
     private final String symbol;
@@ -24,19 +42,62 @@ public class BaseMultipleTimeSeries<B extends OneSidedBar> implements MultipleTi
     private final MainTimeSeries<B> mainTimeSeries;
 
     private final Map<BarPeriod, GenericTimeSeries<B>> periodTimeSeriesMap;
+    private final List<AggregatedTimeSeries<B>> aggregatedTimeSeries = new ArrayList<>();
     private final BarFactory<B> barFactory;
     private final UnaryOperator<GenericTimeSeries<B>> wrapper;
+    private final boolean view;
+    /**
+     * Views are read-only from the start, other instances once frozen
+     */
+    private volatile boolean readOnly;
+
+    private transient CachedNum prices;
+    private transient OpenBar<B>[] openBars;
+    /**
+     * No bar of any period ends before this time - bars only get later, so it can be stale, but never too late
+     */
+    private ZonedDateTime earliestEndTime;
 
-    private BaseMultipleTimeSeries(String symbol, TimeSeriesDefinition timeSeriesDefinition, BarFactory<B> barFactory, UnaryOperator<GenericTimeSeries<B>> wrapper) {
+    private BaseMultipleTimeSeries(String symbol,
+                                   TimeSeriesDefinition timeSeriesDefinition,
+                                   BarFactory<B> barFactory,
+                                   BarStorageFactory barStorageFactory,
+                                   Function<Number, Num> numFunction,
+                                   UnaryOperator<GenericTimeSeries<B>> wrapper) {
         this.symbol = symbol;
         this.barFactory = barFactory;
         this.wrapper = wrapper;
-        this.mainTimeSeries = BaseMainTimeSeries.create(timeSeriesDefinition, symbol, barFactory);
+        this.view = false;
+        this.mainTimeSeries = BaseMainTimeSeries.create(timeSeriesDefinition, symbol, barFactory, barStorageFactory, numFunction);
         this.periodTimeSeriesMap = createPeriodTimeSeriesMap(timeSeriesDefinition.getBarPeriod());
+        refreshOpenBars();
+    }
+
+    private BaseMultipleTimeSeries(BaseMultipleTimeSeries<B> source) {
+        this.symbol = source.symbol;
+        this.barFactory = source.barFactory;
+        this.wrapper = source.wrapper;
+        this.view = true;
+        this.readOnly = true;
+        this.mainTimeSeries = BaseMainTimeSeries.view(source.mainTimeSeries);
+        this.periodTimeSeriesMap = createPeriodTimeSeriesMap(mainTimeSeries.getBarPeriod());
+        for (AggregatedTimeSeries<B> timeSeries : source.aggregatedTimeSeries) {
+            put(BaseAggregatedTimeSeries.view(timeSeries, mainTimeSeries));
+        }
+        refreshOpenBars();
+    }
+
+    public static <B extends OneSidedBar> BaseMultipleTimeSeries<B> create(String symbol,
+                                                                           TimeSeriesDefinition timeSeriesDefinition,
+                                                                           BarFactory<B> barFactory,
+                                                                           BarStorageFactory barStorageFactory,
+                                                                           Function<Number, Num> numFunction,
+                                                                           UnaryOperator<GenericTimeSeries<B>> wrapper) {
+        return new BaseMultipleTimeSeries<>(symbol, timeSeriesDefinition, barFactory, barStorageFactory, numFunction, wrapper);
     }
 
     public static <B extends OneSidedBar> BaseMultipleTimeSeries<B> create(String symbol, TimeSeriesDefinition timeSeriesDefinition, BarFactory<B> barFactory, UnaryOperator<GenericTimeSeries<B>> wrapper) {
-        return new BaseMultipleTimeSeries<>(symbol, timeSeriesDefinition, barFactory, wrapper);
+        return create(symbol, timeSeriesDefinition, barFactory, BarStorageFactory.objects(), PrecisionNum::valueOf, wrapper);
     }
 
     public static <B extends OneSidedBar> BaseMultipleTimeSeries<B> create(String symbol, TimeSeriesDefinition timeSeriesDefinition, BarFactory<B> barFactory) {
@@ -51,39 +112,176 @@ public class BaseMultipleTimeSeries<B extends OneSidedBar> implements MultipleTi
 
     @Override
     public MultipleTimeSeries<B> aggregate(TimeSeriesDefinition timeSeriesDefinition) {
-        final AggregatedTimeSeries<B> timeSeries = mainTimeSeries.aggregate(timeSeriesDefinition);
-        periodTimeSeriesMap.put(timeSeriesDefinition.getBarPeriod(), wrap(timeSeries));
+        checkNotReadOnly();
+        put(mainTimeSeries.aggregate(timeSeriesDefinition));
         return this;
     }
 
+    private void put(AggregatedTimeSeries<B> timeSeries) {
+        aggregatedTimeSeries.add(timeSeries);
+        periodTimeSeriesMap.put(timeSeries.getBarPeriod(), wrap(timeSeries));
+        refreshOpenBars();
+    }
+
+    private void refreshOpenBars() {
+        earliestEndTime = null;
+        final OpenBar<B>[] openBars = new OpenBar[periodTimeSeriesMap.size()];
+        int i = 0;
+        for (Map.Entry<BarPeriod, GenericTimeSeries<B>> entry : periodTimeSeriesMap.entrySet()) {
+            openBars[i++] = new OpenBar<>(entry.getKey(), entry.getValue(), unwrapped(entry.getKey()));
+        }
+        this.openBars = openBars;
+    }
+
+    private OpenBar<B>[] openBars() {
+        if (openBars == null) {
+            refreshOpenBars();
+        }
+        return openBars;
+    }
+
+    private BaseGenericTimeSeries<B> unwrapped(BarPeriod barPeriod) {
+        if (mainTimeSeries.getBarPeriod() == barPeriod) {
+            return (BaseGenericTimeSeries<B>) mainTimeSeries;
+        }
+        for (AggregatedTimeSeries<B> timeSeries : aggregatedTimeSeries) {
+            if (timeSeries.getBarPeriod() == barPeriod) {
+                return (BaseGenericTimeSeries<B>) timeSeries;
+            }
+        }
+        throw new IllegalArgumentException(String.format("No time series of [%s] with period [%s]", symbol, barPeriod));
+    }
+
+    @Override
+    public MultipleTimeSeries<B> view() {
+        return new BaseMultipleTimeSeries<>(this);
+    }
+
+    @Override
+    public void freeze() {
+        readOnly = true;
+    }
+
+    private void checkNotReadOnly() {
+        if (!readOnly) {
+            return;
+        }
+        if (view) {
+            throw new UnsupportedOperationException(String.format("Time series of [%s] are a read-only view", symbol));
+        }
+        throw new IllegalStateException(String.format("Time series of [%s] are frozen", symbol));
+    }
+
     private GenericTimeSeries<B> wrap(GenericTimeSeries<B> timeSeries) {
         return wrapper.apply(timeSeries);
     }
 
+    /**
+     * Bars overriding {@link OneSidedBar#updateBar(Quote, Function)} are updated through it, others get the same prices
+     * without boxing them for the hook
+     */
     @Override
     public void updateBar(Quote quote) {
-        periodTimeSeriesMap.forEach((barPeriod, timeSeries) -> {
-            if (empty(timeSeries) || isEqualOrAfter(quote.getTime(), timeSeries.getLastBar().getEndTime())) {
-                insertNewBar(quote.getTime(), barPeriod, timeSeries);
+        checkNotReadOnly();
+        // bars of all periods convert prices through the cache, so a price is converted once - Num is immutable
+        final CachedNum prices = prices();
+        final ZonedDateTime time = quote.getTime();
+        for (OpenBar<B> openBar : openBars()) {
+            final B bar = currentBar(time, openBar);
+            if (openBar.customUpdate) {
+                bar.updateBar(quote, prices);
+            } else {
+                addPrice(bar, quote.getBid(), quote.getAsk(), prices);
+            }
+        }
+    }
+
+    @Override
+    public void updateBar(BarQuote barQuote) {
+        checkNotReadOnly();
+        final CachedNum prices = prices();
+        // all four prices have the same time, so bar boundaries are checked once instead of once per price
+        final ZonedDateTime time = barQuote.getTime();
+        Quote[] quotes = null;
+        for (OpenBar<B> openBar : openBars()) {
+            final B bar = currentBar(time, openBar);
+            if (openBar.customUpdate) {
+                if (quotes == null) {
+                    quotes = quotes(barQuote);
+                }
+                for (Quote quote : quotes) {
+                    bar.updateBar(quote, prices);
+                }
+            } else {
+                addPrice(bar, barQuote.getBidOpen(), barQuote.getAskOpen(), prices);
+                addPrice(bar, barQuote.getBidHigh(), barQuote.getAskHigh(), prices);
+                addPrice(bar, barQuote.getBidLow(), barQuote.getAskLow(), prices);
+                addPrice(bar, barQuote.getBidClose(), barQuote.getAskClose(), prices);
             }
-            timeSeries.getLastBar()
-                      .updateBar(quote, timeSeries.function());
-        });
+        }
+    }
+
+    /**
+     * Same as the default {@link OneSidedBar#updateBar(Quote, Function)} and {@link BidAskBar#updateBar(Quote, Function)}
+     */
+    private void addPrice(B bar, double bid, double ask, CachedNum prices) {
+        if (bar instanceof BidAskBar) {
+            ((BidAskBar) bar).addPrice(prices.of(bid), prices.of(ask));
+        } else {
+            bar.addPrice(prices.of(bid));
+        }
+    }
+
+    private Quote[] quotes(BarQuote barQuote) {
+        return new Quote[]{
+                Quote.bidAsk(symbol, barQuote.getTime(), barQuote.getBidOpen(), barQuote.getAskOpen()),
+                Quote.bidAsk(symbol, barQuote.getTime(), barQuote.getBidHigh(), barQuote.getAskHigh()),
+                Quote.bidAsk(symbol, barQuote.getTime(), barQuote.getBidLow(), barQuote.getAskLow()),
+                Quote.bidAsk(symbol, barQuote.getTime(), barQuote.getBidClose(), barQuote.getAskClose())
+        };
+    }
+
+    private CachedNum prices() {
+        if (prices == null) {
+            prices = new CachedNum(mainTimeSeries.function());
+        }
+        return prices;
+    }
+
+    private B currentBar(ZonedDateTime time, OpenBar<B> openBar) {
+        if (openBar.isEmpty() || isEqualOrAfter(time, openBar.getEndTime())) {
+            insertNewBar(time, openBar.barPeriod, openBar.timeSeries);
+        }
+        return openBar.getBar();
     }
 
     @Override
     public void createBar(ZonedDateTime priceDate) {
-        periodTimeSeriesMap.forEach((barPeriod, timeSeries) -> {
-            if (empty(timeSeries)) {
-                insertNewBar(priceDate, barPeriod, timeSeries);
-            } else if (isEqualOrAfter(priceDate, timeSeries.getLastBar().getEndTime())) {
-                insertNewBarWithLastPrice(priceDate, barPeriod, timeSeries);
+        checkNotReadOnly();
+        if (earliestEndTime != null && priceDate.isBefore(earliestEndTime)) {
+            return; // called for every quote of other symbols - usually there is nothing to do
+        }
+        for (OpenBar<B> openBar : openBars()) {
+            if (openBar.isEmpty()) {
+                insertNewBar(priceDate, openBar.barPeriod, openBar.timeSeries);
+            } else if (isEqualOrAfter(priceDate, openBar.getEndTime())) {
+                insertNewBarWithLastPrice(priceDate, openBar.barPeriod, openBar.timeSeries);
             }
-        });
+        }
+        earliestEndTime = resolveEarliestEndTime();
     }
 
-    private boolean empty(GenericTimeSeries timeSeries) {
-        return timeSeries.getBarCount() == 0;
+    private ZonedDateTime resolveEarliestEndTime() {
+        ZonedDateTime earliest = null;
+        for (OpenBar<B> openBar : openBars()) {
+            if (openBar.isEmpty()) {
+                return null;
+            }
+            if (earliest == null || openBar.getEndTime().isBefore(earliest)) {
+                earliest = openBar.getEndTime();
+            }
+        }
+        return earliest;
     }
 
     private void insertNewBar(ZonedDateTime priceDate, BarPeriod barPeriod, GenericTimeSeries<? super B> timeSeries) {
@@ -106,12 +304,7 @@ public class BaseMultipleTimeSeries<B extends OneSidedBar> implements MultipleTi
 
     @Override
     public int lastBarIndex() {
-        return periodTimeSeriesMap.entrySet()
-                                  .stream()
-                                  .findFirst()
-                                  .map(entry -> entry.getValue()
-                                                     .getEndIndex())
-                                  .orElse(-1);
+        return openBars()[0].timeSeries.getEndIndex();
     }
 
     @Override
@@ -124,4 +317,89 @@ public class BaseMultipleTimeSeries<B extends OneSidedBar> implements MultipleTi
         return new ArrayList<>(periodTimeSeriesMap.values());
     }
 
+    /**
+     * Keeps the last bar of a time series with its end time, so the bar is not looked up on every quote.
+     * Refreshed whenever end index of the series changes or its last bar is replaced.
+     */
+    private static final class OpenBar<B extends OneSidedBar> {
+        private final BarPeriod barPeriod;
+        private final GenericTimeSeries<B> timeSeries;
+        /**
+         * Series below the wrapper, counts replaced bars whichever wrapper they were replaced through
+         */
+        private final BaseGenericTimeSeries<B> storage;
+
+        private int endIndex = -1;
+        private int replacedBarsCount;
+        private B bar;
+        private ZonedDateTime endTime;
+        private boolean customUpdate;
+
+        private OpenBar(BarPeriod barPeriod, GenericTimeSeries<B> timeSeries, BaseGenericTimeSeries<B> storage) {
+            this.barPeriod = barPeriod;
+            this.timeSeries = timeSeries;
+            this.storage = storage;
+        }
+
+        private boolean isEmpty() {
+            return timeSeries.getBarCount() == 0;
+        }
+
+        private B getBar() {
+            refresh();
+            return bar;
+        }
+
+        private ZonedDateTime getEndTime() {
+            refresh();
+            return endTime;
+        }
+
+        private void refresh() {
+            final int currentEndIndex = timeSeries.getEndIndex();
+            final int currentReplacedBarsCount = storage.getReplacedBarsCount();
+            if (bar == null || currentEndIndex != endIndex || currentReplacedBarsCount != replacedBarsCount) {
+                bar = timeSeries.getLastBar();
+                endTime = bar.getEndTime();
+                endIndex = currentEndIndex;
+                replacedBarsCount = currentReplacedBarsCount;
+                customUpdate = CUSTOM_UPDATE.get(bar.getClass());
+            }
+        }
+    }
+
+    /**
+     * Recently converted prices by their values - quotes and loaded bars repeat the same prices over and over, and converting
+     * a price to {@link Num} is the most expensive part of updating bars. Slots are overwritten on collisions.
+     */
+    private static final class CachedNum implements Function<Number, Num> {
+        private static final int SIZE = 4096;
+        private static final int MASK = SIZE - 1;
+
+        private final Function<Number, Num> numFunction;
+        private final double[] values = new double[SIZE];
+        private final Num[] nums = new Num[SIZE];
+
+        private CachedNum(Function<Number, Num> numFunction) {
+            this.numFunction = numFunction;
+        }
+
+        @Override
+        public Num apply(Number value) {
+            return of(value.doubleValue());
+        }
+
+        private Num of(double value) {
+            final long bits = Double.doubleToLongBits(value);
+            final int slot = (int) (bits ^ (bits >>> 32)) * 0x9E3779B9 >>> 20 & MASK;
+            final Num num = nums[slot];
+            if (num != null && Double.doubleToLongBits(values[slot]) == bits) {
+                return num;
+            }
+            final Num converted = numFunction.apply(value);
+            values[slot] = value;
+            nums[slot] = converted;
+            return converted;
+        }
+    }
 }
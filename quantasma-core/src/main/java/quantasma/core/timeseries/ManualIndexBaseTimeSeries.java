@@ -0,0 +1,64 @@
+package quantasma.core.timeseries;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.num.Num;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * {@link BaseTimeSeries} which begin and end indexes can be overridden without reflection.
+ * <p>
+ * Until {@link #setIndexes(int, int)} is called it behaves exactly like its parent.
+ */
+final class ManualIndexBaseTimeSeries extends BaseTimeSeries implements ManualIndexSupport {
+    private static final long serialVersionUID = 2740372318296473905L;
+
+    private boolean isIndexModified;
+    private int beginIndex;
+    private int endIndex;
+
+    ManualIndexBaseTimeSeries(String name, List<Bar> bars, Function<Number, Num> numFunction, int maxBarCount) {
+        super(name, bars, numFunction);
+        setMaximumBarCount(maxBarCount);
+    }
+
+    @Override
+    public int getBeginIndex() {
+        return isIndexModified ? beginIndex : super.getBeginIndex();
+    }
+
+    @Override
+    public int getEndIndex() {
+        return isIndexModified ? endIndex : super.getEndIndex();
+    }
+
+    @Override
+    public int getBarCount() {
+        if (!isIndexModified) {
+            return super.getBarCount();
+        }
+        if (endIndex < 0) {
+            return 0;
+        }
+        return endIndex - Math.max(getRemovedBarsCount(), beginIndex) + 1;
+    }
+
+    @Override
+    public int getTotalEndIndex() {
+        return super.getEndIndex();
+    }
+
+    @Override
+    public void setIndexes(int beginIndex, int endIndex) {
+        this.beginIndex = beginIndex;
+        this.endIndex = endIndex;
+        this.isIndexModified = true;
+    }
+
+    @Override
+    public boolean isIndexModified() {
+        return isIndexModified;
+    }
+}
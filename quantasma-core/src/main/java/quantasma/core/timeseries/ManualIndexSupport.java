@@ -0,0 +1,23 @@
+package quantasma.core.timeseries;
+
+/**
+ * Internal hook of time series which are able to expose only a part of their bars by moving begin/end indexes.
+ * <p>
+ * Used by {@link BaseManualIndexTimeSeries} instead of reflection.
+ */
+interface ManualIndexSupport {
+
+    int getBeginIndex();
+
+    int getEndIndex();
+
+    /**
+     * @return end index of all stored bars regardless of current index manipulation
+     */
+    int getTotalEndIndex();
+
+    void setIndexes(int beginIndex, int endIndex);
+
+    boolean isIndexModified();
+
+}
@@ -1,6 +1,7 @@
 package quantasma.core.timeseries;
 
 import quantasma.core.BarPeriod;
+import quantasma.core.BarQuote;
 import quantasma.core.Quote;
 import quantasma.core.timeseries.bar.OneSidedBar;
 
@@ -13,6 +14,11 @@ public interface MultipleTimeSeries<B extends OneSidedBar> extends Serializable
 
     void updateBar(Quote quote);
 
+    /**
+     * Same as updating the bar with open, high, low and close quotes of the given bar, one after another
+     */
+    void updateBar(BarQuote barQuote);
+
     void createBar(ZonedDateTime priceDate);
 
     int lastBarIndex();
@@ -24,4 +30,16 @@ public interface MultipleTimeSeries<B extends OneSidedBar> extends Serializable
     List<GenericTimeSeries<B>> getTimeSeries();
 
     MainTimeSeries<B> getMainTimeSeries();
+
+    /**
+     * Read-only time series sharing bars with this instance, but having their own begin and end indexes.<p>
+     * Bars must not be added to the source while the view is in use.
+     */
+    MultipleTimeSeries<B> view();
+
+    /**
+     * Makes this instance read-only like its views, so its bars can be shared without copying them.
+     * Any later update throws an {@link IllegalStateException}.
+     */
+    void freeze();
 }
@@ -10,6 +10,10 @@ import quantasma.core.timeseries.bar.BarFactory;
 import java.lang.reflect.Field;
 import java.util.function.Function;
 
+/**
+ * @deprecated reflection based index manipulation is slow and fragile, use {@link BaseManualIndexTimeSeries} instead
+ */
+@Deprecated
 public final class ReflectionManualIndexTimeSeries<B extends OneSidedBar> implements ManualIndexTimeSeries<B> {
     protected final GenericTimeSeries<B> timeSeries;
 
@@ -0,0 +1,407 @@
+package quantasma.core.timeseries.bar;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.num.DoubleNum;
+import org.ta4j.core.num.NaN;
+import org.ta4j.core.num.Num;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+/**
+ * Column-oriented storage of bars. Every bar is kept as one row of parallel primitive arrays (bid/ask OHLC, volume, amount,
+ * trades and epoch-millis end time), and {@link #get(int)} returns a flyweight {@link BidAskBar} view over that row.
+ * <p>
+ * Views are mutable - price updates are written back to the columns, so the list can be used as the bars of the live series.
+ * All bars of a single list must share the same time period, end times are restored in the zone of the first added bar.
+ * Only the oldest bar can be removed, as {@link org.ta4j.core.BaseTimeSeries} does when maximum bar count is exceeded.
+ * <p>
+ * Prices are kept as doubles and every getter of a view creates a new {@link Num} of them, so only {@link DoubleNum} is supported -
+ * {@code PrecisionNum} bars would silently lose their precision.
+ */
+public class ColumnarBarList extends AbstractList<Bar> implements RandomAccess, Serializable {
+    private static final long serialVersionUID = -1826415021582436790L;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final Function<Number, Num> numFunction;
+
+    private Duration timePeriod;
+    private ZoneId zoneId = ZoneOffset.UTC;
+
+    private long[] endTime;
+    private double[] bidOpen;
+    private double[] bidHigh;
+    private double[] bidLow;
+    private double[] bidClose;
+    private double[] askOpen;
+    private double[] askHigh;
+    private double[] askLow;
+    private double[] askClose;
+    private double[] volume;
+    private double[] amount;
+    private int[] trades;
+
+    private int head;
+    private int size;
+    private int removedCount;
+
+    public ColumnarBarList(Function<Number, Num> numFunction) {
+        this(numFunction, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @throws IllegalArgumentException when the num function creates other than {@link DoubleNum}s
+     */
+    public ColumnarBarList(Function<Number, Num> numFunction, int initialCapacity) {
+        final Num num = numFunction.apply(0);
+        if (!(num instanceof DoubleNum)) {
+            throw new IllegalArgumentException(String.format("Columnar bars keep prices as doubles and support only DoubleNum, not [%s]", num.getClass().getSimpleName()));
+        }
+        this.numFunction = numFunction;
+        allocate(Math.max(initialCapacity, 1));
+    }
+
+    @Override
+    public BidAskBar get(int index) {
+        checkIndex(index);
+        return new ColumnarBar(removedCount + index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(Bar bar) {
+        if (timePeriod == null) {
+            timePeriod = bar.getTimePeriod();
+            zoneId = bar.getEndTime().getZone();
+        } else if (!timePeriod.equals(bar.getTimePeriod())) {
+            throw new IllegalArgumentException(String.format("Bar time period [%s] differs from storage time period [%s]", bar.getTimePeriod(), timePeriod));
+        }
+        ensureCapacity(size + 1);
+        write(head + size, bar);
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public Bar set(int index, Bar bar) {
+        checkIndex(index);
+        final BidAskBar previous = detach(head + index);
+        write(head + index, bar);
+        return previous;
+    }
+
+    @Override
+    public Bar remove(int index) {
+        if (index != 0) {
+            throw new UnsupportedOperationException("Only the oldest bar can be removed");
+        }
+        checkIndex(index);
+        final BidAskBar removed = detach(head);
+        head++;
+        size--;
+        removedCount++;
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        removedCount += size;
+        head = 0;
+        size = 0;
+        modCount++;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format("Index [%s] out of bounds for size [%s]", index, size));
+        }
+    }
+
+    private void write(int row, Bar bar) {
+        endTime[row] = bar.getEndTime().toInstant().toEpochMilli();
+        bidOpen[row] = toDouble(bar.getOpenPrice());
+        bidHigh[row] = toDouble(bar.getMaxPrice());
+        bidLow[row] = toDouble(bar.getMinPrice());
+        bidClose[row] = toDouble(bar.getClosePrice());
+        if (bar instanceof BidAskBar) {
+            final BidAskBar bidAskBar = (BidAskBar) bar;
+            askOpen[row] = toDouble(bidAskBar.getAskOpenPrice());
+            askHigh[row] = toDouble(bidAskBar.getAskMaxPrice());
+            askLow[row] = toDouble(bidAskBar.getAskMinPrice());
+            askClose[row] = toDouble(bidAskBar.getAskClosePrice());
+        } else {
+            askOpen[row] = Double.NaN;
+            askHigh[row] = Double.NaN;
+            askLow[row] = Double.NaN;
+            askClose[row] = Double.NaN;
+        }
+        volume[row] = toDouble(bar.getVolume());
+        amount[row] = toDouble(bar.getAmount());
+        trades[row] = bar.getTrades();
+    }
+
+    /**
+     * Rows of removed bars are reclaimed by moving the remaining rows to the beginning of the columns, so a list with the oldest bars
+     * removed keeps its capacity proportional to its size. Columns grow only when at least a quarter of them would stay unused
+     * after reclaiming, so moving rows is amortized over the following additions.
+     */
+    private void ensureCapacity(int minCapacity) {
+        final int length = endTime.length;
+        if (head + minCapacity <= length) {
+            return;
+        }
+        if (minCapacity <= length - (length >> 2)) {
+            compact();
+            return;
+        }
+        final int capacity = Math.max(minCapacity, length + (length >> 1));
+        endTime = Arrays.copyOfRange(endTime, head, head + capacity);
+        bidOpen = Arrays.copyOfRange(bidOpen, head, head + capacity);
+        bidHigh = Arrays.copyOfRange(bidHigh, head, head + capacity);
+        bidLow = Arrays.copyOfRange(bidLow, head, head + capacity);
+        bidClose = Arrays.copyOfRange(bidClose, head, head + capacity);
+        askOpen = Arrays.copyOfRange(askOpen, head, head + capacity);
+        askHigh = Arrays.copyOfRange(askHigh, head, head + capacity);
+        askLow = Arrays.copyOfRange(askLow, head, head + capacity);
+        askClose = Arrays.copyOfRange(askClose, head, head + capacity);
+        volume = Arrays.copyOfRange(volume, head, head + capacity);
+        amount = Arrays.copyOfRange(amount, head, head + capacity);
+        trades = Arrays.copyOfRange(trades, head, head + capacity);
+        head = 0;
+    }
+
+    private void compact() {
+        System.arraycopy(endTime, head, endTime, 0, size);
+        System.arraycopy(bidOpen, head, bidOpen, 0, size);
+        System.arraycopy(bidHigh, head, bidHigh, 0, size);
+        System.arraycopy(bidLow, head, bidLow, 0, size);
+        System.arraycopy(bidClose, head, bidClose, 0, size);
+        System.arraycopy(askOpen, head, askOpen, 0, size);
+        System.arraycopy(askHigh, head, askHigh, 0, size);
+        System.arraycopy(askLow, head, askLow, 0, size);
+        System.arraycopy(askClose, head, askClose, 0, size);
+        System.arraycopy(volume, head, volume, 0, size);
+        System.arraycopy(amount, head, amount, 0, size);
+        System.arraycopy(trades, head, trades, 0, size);
+        head = 0;
+    }
+
+    /**
+     * Copies a row into a single bar list, so the returned bar does not change when the row is overwritten or removed
+     */
+    private BidAskBar detach(int row) {
+        final ColumnarBarList copy = new ColumnarBarList(numFunction, 1);
+        copy.timePeriod = timePeriod;
+        copy.zoneId = zoneId;
+        copy.endTime[0] = endTime[row];
+        copy.bidOpen[0] = bidOpen[row];
+        copy.bidHigh[0] = bidHigh[row];
+        copy.bidLow[0] = bidLow[row];
+        copy.bidClose[0] = bidClose[row];
+        copy.askOpen[0] = askOpen[row];
+        copy.askHigh[0] = askHigh[row];
+        copy.askLow[0] = askLow[row];
+        copy.askClose[0] = askClose[row];
+        copy.volume[0] = volume[row];
+        copy.amount[0] = amount[row];
+        copy.trades[0] = trades[row];
+        copy.size = 1;
+        return copy.get(0);
+    }
+
+    private void allocate(int capacity) {
+        endTime = new long[capacity];
+        bidOpen = new double[capacity];
+        bidHigh = new double[capacity];
+        bidLow = new double[capacity];
+        bidClose = new double[capacity];
+        askOpen = new double[capacity];
+        askHigh = new double[capacity];
+        askLow = new double[capacity];
+        askClose = new double[capacity];
+        volume = new double[capacity];
+        amount = new double[capacity];
+        trades = new int[capacity];
+    }
+
+    private Num toNum(double value) {
+        return Double.isNaN(value) ? NaN.NaN : numFunction.apply(value);
+    }
+
+    private static double toDouble(Num num) {
+        return num == null ? Double.NaN : num.doubleValue();
+    }
+
+    private static double nanAsZero(double value) {
+        return Double.isNaN(value) ? 0 : value;
+    }
+
+    /**
+     * Flyweight view over a single row. Keeps an absolute position, so it points to the same bar after the oldest bars are removed.
+     */
+    private final class ColumnarBar implements BidAskBar {
+        private static final long serialVersionUID = 2955052127431911237L;
+
+        private final int position;
+
+        private ColumnarBar(int position) {
+            this.position = position;
+        }
+
+        private int row() {
+            final int index = position - removedCount;
+            if (index < 0 || index >= size) {
+                throw new IllegalStateException(String.format("Bar at position [%s] is no longer available", position));
+            }
+            return head + index;
+        }
+
+        @Override
+        public Function<Number, Num> function() {
+            return numFunction;
+        }
+
+        @Override
+        public Num getOpenPrice() {
+            return toNum(bidOpen[row()]);
+        }
+
+        @Override
+        public Num getMinPrice() {
+            return toNum(bidLow[row()]);
+        }
+
+        @Override
+        public Num getMaxPrice() {
+            return toNum(bidHigh[row()]);
+        }
+
+        @Override
+        public Num getClosePrice() {
+            return toNum(bidClose[row()]);
+        }
+
+        @Override
+        public Num getAskOpenPrice() {
+            return toNum(askOpen[row()]);
+        }
+
+        @Override
+        public Num getAskMinPrice() {
+            return toNum(askLow[row()]);
+        }
+
+        @Override
+        public Num getAskMaxPrice() {
+            return toNum(askHigh[row()]);
+        }
+
+        @Override
+        public Num getAskClosePrice() {
+            return toNum(askClose[row()]);
+        }
+
+        @Override
+        public Num getVolume() {
+            return toNum(volume[row()]);
+        }
+
+        @Override
+        public int getTrades() {
+            return trades[row()];
+        }
+
+        @Override
+        public Num getAmount() {
+            return toNum(amount[row()]);
+        }
+
+        @Override
+        public Duration getTimePeriod() {
+            return timePeriod;
+        }
+
+        @Override
+        public ZonedDateTime getBeginTime() {
+            return getEndTime().minus(timePeriod);
+        }
+
+        @Override
+        public ZonedDateTime getEndTime() {
+            return Instant.ofEpochMilli(endTime[row()]).atZone(zoneId);
+        }
+
+        @Override
+        public void addTrade(Num tradeVolume, Num tradePrice) {
+            addPrice(tradePrice);
+            final int row = row();
+            volume[row] = nanAsZero(volume[row]) + tradeVolume.doubleValue();
+            amount[row] = nanAsZero(amount[row]) + tradeVolume.doubleValue() * tradePrice.doubleValue();
+            trades[row]++;
+        }
+
+        @Override
+        public void addPrice(Num price) {
+            final int row = row();
+            final double value = price.doubleValue();
+            if (Double.isNaN(bidOpen[row])) {
+                bidOpen[row] = value;
+            }
+            bidClose[row] = value;
+            if (Double.isNaN(bidHigh[row]) || bidHigh[row] < value) {
+                bidHigh[row] = value;
+            }
+            if (Double.isNaN(bidLow[row]) || bidLow[row] > value) {
+                bidLow[row] = value;
+            }
+        }
+
+        @Override
+        public void addPrice(Num bid, Num ask) {
+            addPrice(bid);
+
+            final int row = row();
+            final double value = ask.doubleValue();
+            if (Double.isNaN(askOpen[row])) {
+                askOpen[row] = value;
+            }
+            askClose[row] = value;
+            if (Double.isNaN(askHigh[row]) || askHigh[row] < value) {
+                askHigh[row] = value;
+            }
+            if (Double.isNaN(askLow[row]) || askLow[row] > value) {
+                askLow[row] = value;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("{end time: %1s, bid close price: %2$f, bid open price: %3$f, bid min price: %4$f, bid max price: %5$f, "
+                                 + "ask close price: %6$f, ask open price: %7$f, ask min price: %8$f, ask max price: %9$f, volume: %10$f}",
+                                 getEndTime().withZoneSameInstant(ZoneId.systemDefault()),
+                                 getClosePrice().doubleValue(),
+                                 getOpenPrice().doubleValue(),
+                                 getMinPrice().doubleValue(),
+                                 getMaxPrice().doubleValue(),
+                                 getAskClosePrice().doubleValue(),
+                                 getAskOpenPrice().doubleValue(),
+                                 getAskMinPrice().doubleValue(),
+                                 getAskMaxPrice().doubleValue(),
+                                 getVolume().doubleValue());
+        }
+    }
+}
@@ -8,6 +8,9 @@ import java.util.function.Function;
 
 public interface OneSidedBar extends Bar {
 
+    /**
+     * Called by {@link quantasma.core.timeseries.MultipleTimeSeries} for every quote, also for each price of a bar quote
+     */
     default void updateBar(Quote quote, Function<Number, Num> numFunction) {
         addPrice(numFunction.apply(quote.getBid()));
     }
@@ -0,0 +1,144 @@
+package quantasma.core
+
+import org.ta4j.core.num.DoubleNum
+import org.ta4j.core.num.Num
+import org.ta4j.core.num.PrecisionNum
+import quantasma.core.timeseries.BarStorageFactory
+import quantasma.core.timeseries.GenericTimeSeries
+import quantasma.core.timeseries.TimeSeriesDefinition
+import quantasma.core.timeseries.bar.BarFactory
+import quantasma.core.timeseries.bar.BidAskBar
+import quantasma.core.timeseries.bar.BidAskBarFactory
+import quantasma.core.timeseries.bar.OneSidedBar
+import quantasma.core.timeseries.bar.OneSidedBarFactory
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.time.LocalDateTime
+import java.time.ZonedDateTime
+import java.util.function.Function
+
+class BarQuoteSpec extends Specification {
+
+    private static final ZonedDateTime MIDNIGHT = Utils.utc(LocalDateTime.of(2018, 11, 20, 0, 0))
+    private static final List<BarPeriod> AGGREGATED_PERIODS = [BarPeriod.M5, BarPeriod.M30, BarPeriod.H1]
+
+    @Unroll
+    def 'given #barType bars (#numType, #storage, max #maxBarCount bars) when loaded as bar quotes should give the same bars as replayed quotes'() {
+        given:
+        def barQuotes = barQuotes(barFactory instanceof BidAskBarFactory)
+        def replayed = createMarketData(barFactory, numFunction, barStorageFactory, maxBarCount)
+        def loaded = createMarketData(barFactory, numFunction, barStorageFactory, maxBarCount)
+
+        when:
+        barQuotes.each { barQuote -> quotes(barQuote).each { replayed.add(it) } }
+        loaded.addAll(barQuotes.stream())
+
+        then:
+        ["EURUSD", "GBPUSD"].each { symbol ->
+            ([BarPeriod.M1] + AGGREGATED_PERIODS).each { period ->
+                def expected = replayed.of(symbol).getTimeSeries(period)
+                def actual = loaded.of(symbol).getTimeSeries(period)
+                assert actual.getBarCount() == expected.getBarCount()
+                assert actual.getBeginIndex() == expected.getBeginIndex()
+                assert actual.getEndIndex() == expected.getEndIndex()
+                assert (actual.getBeginIndex()..actual.getEndIndex()).collect { describe(actual, it) } ==
+                       (expected.getBeginIndex()..expected.getEndIndex()).collect { describe(expected, it) }
+            }
+        }
+        loaded.of("EURUSD").getMainTimeSeries().getEndIndex() > 500
+
+        where:
+        barType     | barFactory               | numType     | numFunction           | storage    | barStorageFactory             | maxBarCount
+        'bid-ask'   | new BidAskBarFactory()   | 'precision' | PrecisionNum.&valueOf | 'objects'  | BarStorageFactory.objects()   | Integer.MAX_VALUE
+        'bid-ask'   | new BidAskBarFactory()   | 'double'    | DoubleNum.&valueOf    | 'objects'  | BarStorageFactory.objects()   | Integer.MAX_VALUE
+        'bid-ask'   | new BidAskBarFactory()   | 'double'    | DoubleNum.&valueOf    | 'columnar' | BarStorageFactory.columnar()  | Integer.MAX_VALUE
+        'bid-ask'   | new BidAskBarFactory()   | 'double'    | DoubleNum.&valueOf    | 'columnar' | BarStorageFactory.columnar()  | 50
+        'one-sided' | new OneSidedBarFactory() | 'precision' | PrecisionNum.&valueOf | 'objects'  | BarStorageFactory.objects()   | 50
+    }
+
+    def 'given bar quote of unknown symbol should do nothing'() {
+        given:
+        def marketData = createMarketData(new BidAskBarFactory(), PrecisionNum.&valueOf, BarStorageFactory.objects(), Integer.MAX_VALUE)
+
+        when:
+        marketData.add(BarQuote.bidAsk("USDJPY", MIDNIGHT, 1, 1, 1, 1, 1, 1, 1, 1))
+
+        then:
+        marketData.of("EURUSD").getMainTimeSeries().getBarCount() == 0
+    }
+
+    def 'given market data view when bar quote added should throw an exception'() {
+        given:
+        def view = createMarketData(new BidAskBarFactory(), PrecisionNum.&valueOf, BarStorageFactory.objects(), Integer.MAX_VALUE).view()
+
+        when:
+        view.add(BarQuote.bidAsk("EURUSD", MIDNIGHT, 1, 1, 1, 1, 1, 1, 1, 1))
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
+
+    /**
+     * Random walk of two symbols with minutes missing for either of them
+     */
+    private static List<BarQuote> barQuotes(boolean bidAsk) {
+        def random = new Random(11)
+        def prices = [EURUSD: 1.1, GBPUSD: 1.3]
+        def barQuotes = []
+        (0..<600).each { minute ->
+            prices.keySet().each { symbol ->
+                if (random.nextInt(10) == 0 || (symbol == "GBPUSD" && minute % 97 < 20)) {
+                    return
+                }
+                def open = prices[symbol]
+                def close = open + (random.nextInt(21) - 10) * 0.0001
+                def high = Math.max(open, close) + random.nextInt(5) * 0.0001
+                def low = Math.min(open, close) - random.nextInt(5) * 0.0001
+                def spread = random.nextInt(3) * 0.0001
+                prices[symbol] = close
+                def time = MIDNIGHT.plusMinutes(minute)
+                barQuotes << (bidAsk
+                        ? BarQuote.bidAsk(symbol, time, open, high, low, close, open + spread, high + spread, low + spread, close + spread)
+                        : BarQuote.price(symbol, time, open, high, low, close))
+            }
+        }
+        barQuotes
+    }
+
+    private static List<Quote> quotes(BarQuote barQuote) {
+        [[barQuote.bidOpen, barQuote.askOpen],
+         [barQuote.bidHigh, barQuote.askHigh],
+         [barQuote.bidLow, barQuote.askLow],
+         [barQuote.bidClose, barQuote.askClose]].collect { bid, ask ->
+            Quote.bidAsk(barQuote.symbol, barQuote.time, bid, ask)
+        }
+    }
+
+    private static List<Object> describe(GenericTimeSeries<? extends OneSidedBar> timeSeries, int index) {
+        def bar = timeSeries.getBar(index)
+        if (bar.is(Utils.nanBar(timeSeries))) {
+            return ["NaN bar"]
+        }
+        def prices = [bar.getOpenPrice(), bar.getMaxPrice(), bar.getMinPrice(), bar.getClosePrice(), bar.getVolume()]
+        if (bar instanceof BidAskBar) {
+            prices += [bar.getAskOpenPrice(), bar.getAskMaxPrice(), bar.getAskMinPrice(), bar.getAskClosePrice()]
+        }
+        [bar.getBeginTime(), bar.getEndTime()] + prices.collect { it.toString() }
+    }
+
+    private static <B extends OneSidedBar> MarketData<B> createMarketData(BarFactory<B> barFactory,
+                                                                          Function<Number, Num> numFunction,
+                                                                          BarStorageFactory barStorageFactory,
+                                                                          int maxBarCount) {
+        def group = TimeSeriesDefinition.Group.of("EURUSD", "GBPUSD")
+        AGGREGATED_PERIODS.each { group.add(TimeSeriesDefinition.limited(it, maxBarCount)) }
+        MarketDataBuilder.basedOn(StructureDefinition.model(barFactory)
+                                                     .storage(barStorageFactory)
+                                                     .numTypeOf(numFunction)
+                                                     .resolution(TimeSeriesDefinition.limited(BarPeriod.M1, maxBarCount)))
+                         .symbols("EURUSD", "GBPUSD")
+                         .aggregate(group)
+                         .build()
+    }
+}
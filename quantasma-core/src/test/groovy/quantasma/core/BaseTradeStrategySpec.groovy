@@ -0,0 +1,45 @@
+package quantasma.core
+
+import org.ta4j.core.num.DoubleNum
+import org.ta4j.core.num.PrecisionNum
+import org.ta4j.core.trading.rules.BooleanRule
+import quantasma.core.analysis.parametrize.Values
+import quantasma.core.timeseries.TimeSeriesDefinition
+import quantasma.core.timeseries.bar.BidAskBarFactory
+import spock.lang.Specification
+
+class BaseTradeStrategySpec extends Specification {
+
+    private Context context = new BaseContext.Builder().withMarketData(MarketDataBuilder.basedOn(StructureDefinition.model(new BidAskBarFactory())
+                                                                                                                    .numTypeOf(DoubleNum.&valueOf)
+                                                                                                                    .resolution(TimeSeriesDefinition.unlimited(BarPeriod.M1)))
+                                                                                        .symbols("EURUSD")
+                                                                                        .build())
+                                                       .build()
+
+    def 'given num type not set should use num type of trade symbol time series'() {
+        when:
+        def strategy = new BaseTradeStrategy.Builder(context, "EURUSD", BooleanRule.FALSE, BooleanRule.FALSE, Values.of(ShardedTradeEngineSpec.Parameter)).build()
+
+        then:
+        strategy.getAmount() instanceof DoubleNum
+    }
+
+    def 'given num type not set and trade symbol not in market data should use PrecisionNum'() {
+        when:
+        def strategy = new BaseTradeStrategy.Builder(context, "EURGBP", BooleanRule.FALSE, BooleanRule.FALSE, Values.of(ShardedTradeEngineSpec.Parameter)).build()
+
+        then:
+        strategy.getAmount() instanceof PrecisionNum
+    }
+
+    def 'given num type set should use it'() {
+        when:
+        def strategy = new BaseTradeStrategy.Builder(context, "EURUSD", BooleanRule.FALSE, BooleanRule.FALSE, Values.of(ShardedTradeEngineSpec.Parameter))
+                .withNumTypeOf(PrecisionNum.&valueOf)
+                .build()
+
+        then:
+        strategy.getAmount() instanceof PrecisionNum
+    }
+}
@@ -2,17 +2,23 @@ package quantasma.core
 
 import org.ta4j.core.indicators.RSIIndicator
 import org.ta4j.core.indicators.helpers.ClosePriceIndicator
+import org.ta4j.core.num.Num
 import org.ta4j.core.trading.rules.IsEqualRule
 import org.ta4j.core.trading.rules.OverIndicatorRule
 import quantasma.core.timeseries.TimeSeriesDefinition
 import quantasma.core.timeseries.GenericTimeSeries
+import quantasma.core.timeseries.bar.BarFactory
+import quantasma.core.timeseries.bar.BaseOneSidedBar
 import quantasma.core.timeseries.bar.BidAskBarFactory
+import quantasma.core.timeseries.bar.OneSidedBar
+import quantasma.core.timeseries.bar.OneSidedBarFactory
 import spock.lang.Specification
 import spock.lang.Unroll
 
 import java.time.LocalDateTime
 import java.time.ZonedDateTime
 import java.time.temporal.ChronoUnit
+import java.util.function.Function
 
 class MarketDataSpec extends Specification {
 
@@ -240,6 +246,76 @@ class MarketDataSpec extends Specification {
         MIDNIGHT.plusMinutes(5) | 11              | 17        || 11               | [6, 6, 6, 6, 6, 6, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16]
     }
 
+    def 'given custom one-sided bars using both prices when quotes and bar quotes added should update bars through their quote hook'() {
+        given:
+        def marketData = MarketDataBuilder.basedOn(StructureDefinition.model(new MidPriceBarFactory())
+                                                                      .resolution(TimeSeriesDefinition.unlimited(ONE_MINUTE_PERIOD)))
+                                          .symbols("symbol")
+                                          .build()
+
+        when:
+        marketData.add(Quote.bidAsk("symbol", MIDNIGHT, 1, 3))
+        marketData.add(BarQuote.bidAsk("symbol", MIDNIGHT.plusMinutes(1), 1, 2, 1, 2, 3, 4, 3, 4))
+        marketData.add(Quote.price("symbol", MIDNIGHT.plusMinutes(2), 5))
+        def timeSeries = marketData.of("symbol").getTimeSeries(ONE_MINUTE_PERIOD)
+
+        then:
+        timeSeries.getBar(0).getClosePrice().doubleValue() == 2
+        timeSeries.getBar(1).getOpenPrice().doubleValue() == 2
+        timeSeries.getBar(1).getMaxPrice().doubleValue() == 3
+        timeSeries.getBar(1).getClosePrice().doubleValue() == 3
+        timeSeries.getBar(2).getClosePrice().doubleValue() == 5
+    }
+
+    def 'given last bar replaced when quote added should update the replacing bar'() {
+        given:
+        def marketData = createTwoSymbolMarketData(10)
+        marketData.add(Quote.bidAsk("symbol1", MIDNIGHT, 1, 2))
+        def timeSeries = marketData.of("symbol1").getTimeSeries(ONE_MINUTE_PERIOD)
+        def replaced = timeSeries.getLastBar()
+        def replacing = new BidAskBarFactory().create(ONE_MINUTE_PERIOD, timeSeries.function(), replaced.getEndTime())
+
+        when:
+        timeSeries.addBar(replacing, true)
+        marketData.add(Quote.bidAsk("symbol1", MIDNIGHT.plusSeconds(30), 5, 6))
+
+        then:
+        timeSeries.getBarCount() == 1
+        timeSeries.getLastBar().is(replacing)
+        replacing.getOpenPrice().doubleValue() == 5
+        replacing.getAskClosePrice().doubleValue() == 6
+        replaced.getClosePrice().doubleValue() == 1
+    }
+
+    /**
+     * Keeps mid prices, or the bid when the quote has no ask
+     */
+    static class MidPriceBarFactory implements BarFactory<OneSidedBar> {
+        private final OneSidedBarFactory delegate = new OneSidedBarFactory()
+
+        @Override
+        OneSidedBar create(BarPeriod barPeriod, Function<Number, Num> numFunction) {
+            create(barPeriod, numFunction, ZonedDateTime.now())
+        }
+
+        @Override
+        OneSidedBar create(BarPeriod barPeriod, Function<Number, Num> numFunction, ZonedDateTime time) {
+            def bar = delegate.create(barPeriod, numFunction, time)
+            new BaseOneSidedBar(bar.getTimePeriod(), bar.getEndTime(), numFunction) {
+                @Override
+                void updateBar(Quote quote, Function<Number, Num> function) {
+                    def bid = function.apply(quote.getBid())
+                    addPrice(Double.isNaN(quote.getAsk()) ? bid : bid.plus(function.apply(quote.getAsk())).dividedBy(function.apply(2)))
+                }
+            }
+        }
+
+        @Override
+        OneSidedBar getNaNBar() {
+            delegate.getNaNBar()
+        }
+    }
+
     private static void assertNaNClosedPrices(GenericTimeSeries m1TimeSeries, int m1BarsCount) {
         m1TimeSeries.getBarCount() == m1BarsCount
         final int latestIndex = m1TimeSeries.getEndIndex()
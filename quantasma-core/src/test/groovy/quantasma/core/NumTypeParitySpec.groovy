@@ -0,0 +1,140 @@
+package quantasma.core
+
+import org.ta4j.core.BaseTradingRecord
+import org.ta4j.core.Order
+import org.ta4j.core.TradingRecord
+import org.ta4j.core.indicators.RSIIndicator
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator
+import org.ta4j.core.num.DoubleNum
+import org.ta4j.core.num.Num
+import org.ta4j.core.num.PrecisionNum
+import quantasma.core.analysis.criterion.AvgProfitLossCriterion
+import quantasma.core.analysis.criterion.FinishDepositCriterion
+import quantasma.core.analysis.criterion.ProfitLossCriterion
+import quantasma.core.analysis.criterion.ProfitLossPipsCriterion
+import quantasma.core.analysis.criterion.TradesCountCriterion
+import quantasma.core.indicators.AskClosePriceIndicator
+import quantasma.core.indicators.AverageLastValuesIndicator
+import quantasma.core.indicators.BidClosePriceIndicator
+import quantasma.core.indicators.SpreadIndicator
+import quantasma.core.timeseries.BarStorageFactory
+import quantasma.core.timeseries.TimeSeriesDefinition
+import quantasma.core.timeseries.bar.BidAskBar
+import quantasma.core.timeseries.bar.BidAskBarFactory
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.time.LocalDateTime
+import java.time.ZonedDateTime
+import java.util.function.Function
+
+class NumTypeParitySpec extends Specification {
+
+    private static final ZonedDateTime MIDNIGHT = Utils.utc(LocalDateTime.of(2018, 11, 20, 0, 0))
+    private static final double EPSILON = 1e-9
+
+    @Shared
+    private MarketData<BidAskBar> precisionMarketData = createMarketData(PrecisionNum.&valueOf, BarStorageFactory.objects())
+    @Shared
+    private MarketData<BidAskBar> doubleMarketData = createMarketData(DoubleNum.&valueOf, BarStorageFactory.objects())
+    @Shared
+    private MarketData<BidAskBar> columnarDoubleMarketData = createMarketData(DoubleNum.&valueOf, BarStorageFactory.columnar())
+
+    @Unroll
+    def 'given DoubleNum market data (#storage) when bars created for (#barPeriod) should use DoubleNum'() {
+        when:
+        def timeSeries = marketData.of("EURUSD").getTimeSeries(barPeriod)
+
+        then:
+        timeSeries.function().apply(1) instanceof DoubleNum
+        timeSeries.getLastBar().getClosePrice() instanceof DoubleNum
+        timeSeries.plainTimeSeries().getLastBar().getClosePrice() instanceof DoubleNum
+
+        where:
+        storage    | barPeriod    | marketData
+        'objects'  | BarPeriod.M1 | doubleMarketData
+        'objects'  | BarPeriod.M5 | doubleMarketData
+        'columnar' | BarPeriod.M1 | columnarDoubleMarketData
+        'columnar' | BarPeriod.M5 | columnarDoubleMarketData
+    }
+
+    @Unroll
+    def 'given PrecisionNum and DoubleNum (#storage) market data when calculating (#indicatorName) for (#barPeriod) should return the same values'() {
+        given:
+        def expectedIndicator = indicator(precisionMarketData.of("EURUSD").getTimeSeries(barPeriod))
+        def actualIndicator = indicator(marketData.of("EURUSD").getTimeSeries(barPeriod))
+        def endIndex = precisionMarketData.of("EURUSD").getTimeSeries(barPeriod).getEndIndex()
+
+        expect:
+        (0..endIndex).each {
+            assertClose(actualIndicator.getValue(it), expectedIndicator.getValue(it))
+        }
+
+        where:
+        [storage, marketData, barPeriod, indicatorName, indicator] << [
+                [['objects', doubleMarketData], ['columnar', columnarDoubleMarketData]],
+                [BarPeriod.M1, BarPeriod.M5],
+                [['rsi', { timeSeries -> new RSIIndicator(new ClosePriceIndicator(timeSeries.plainTimeSeries()), 14) }],
+                 ['spread', { timeSeries -> new SpreadIndicator(timeSeries, new AskClosePriceIndicator(timeSeries), new BidClosePriceIndicator(timeSeries)) }],
+                 ['average', { timeSeries -> new AverageLastValuesIndicator(new ClosePriceIndicator(timeSeries.plainTimeSeries()), 5) }]]
+        ].combinations().collect { it.flatten() }
+    }
+
+    @Unroll
+    def 'given PrecisionNum and DoubleNum market data when calculating (#criterion.class.simpleName) should return the same values'() {
+        given:
+        def precisionSeries = precisionMarketData.of("EURUSD").getMainTimeSeries().plainTimeSeries()
+        def doubleSeries = doubleMarketData.of("EURUSD").getMainTimeSeries().plainTimeSeries()
+
+        when:
+        def expected = criterion.calculate(precisionSeries, tradingRecord(precisionSeries))
+        def actual = criterion.calculate(doubleSeries, tradingRecord(doubleSeries))
+
+        then:
+        assertClose(actual, expected)
+
+        where:
+        criterion << [new ProfitLossPipsCriterion(0.0001),
+                      new ProfitLossCriterion(0.0001),
+                      new AvgProfitLossCriterion(0.0001),
+                      new FinishDepositCriterion(1000, 0.0001),
+                      new TradesCountCriterion()]
+    }
+
+    private static TradingRecord tradingRecord(series) {
+        // amount intentionally kept as PrecisionNum - strategies may use a different num type than series
+        def amount = PrecisionNum.valueOf(1000)
+        def tradingRecord = new BaseTradingRecord(Order.OrderType.BUY)
+        [3, 10, 15, 40, 41, 90].each {
+            tradingRecord.operate(it, series.getBar(it).getClosePrice(), amount)
+        }
+        tradingRecord
+    }
+
+    private static void assertClose(Num actual, Num expected) {
+        if (expected.isNaN()) {
+            assert actual.isNaN()
+        } else {
+            assert Math.abs(actual.doubleValue() - expected.doubleValue()) <= EPSILON * Math.max(1, Math.abs(expected.doubleValue()))
+        }
+    }
+
+    private static MarketData<BidAskBar> createMarketData(Function<Number, Num> numFunction, BarStorageFactory barStorageFactory) {
+        def marketData = MarketDataBuilder.basedOn(StructureDefinition.model(new BidAskBarFactory())
+                                                                      .storage(barStorageFactory)
+                                                                      .numTypeOf(numFunction)
+                                                                      .resolution(TimeSeriesDefinition.unlimited(BarPeriod.M1)))
+                                          .symbols("EURUSD")
+                                          .aggregate(TimeSeriesDefinition.Group.of("EURUSD")
+                                                                               .add(TimeSeriesDefinition.unlimited(BarPeriod.M5)))
+                                          .build()
+        def random = new Random(42)
+        def bid = 1.1
+        (0..<600).each {
+            bid += (random.nextInt(21) - 10) * 0.00001
+            marketData.add(Quote.bidAsk("EURUSD", MIDNIGHT.plusSeconds(it * 15), bid, bid + 0.00002 + random.nextInt(5) * 0.00001))
+        }
+        marketData
+    }
+}
@@ -0,0 +1,282 @@
+package quantasma.core
+
+import org.ta4j.core.Order
+import org.ta4j.core.TradingRecord
+import org.ta4j.core.indicators.RSIIndicator
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator
+import org.ta4j.core.trading.rules.CrossedDownIndicatorRule
+import org.ta4j.core.trading.rules.CrossedUpIndicatorRule
+import quantasma.core.analysis.ProgressListener
+import quantasma.core.analysis.TradeScenario
+import quantasma.core.analysis.parametrize.Parameterizable
+import quantasma.core.analysis.parametrize.Values
+import quantasma.core.timeseries.BaseManualIndexTimeSeries
+import quantasma.core.timeseries.TimeSeriesDefinition
+import quantasma.core.timeseries.bar.BidAskBar
+import quantasma.core.timeseries.bar.BidAskBarFactory
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.time.LocalDateTime
+import java.time.ZonedDateTime
+import java.util.concurrent.CancellationException
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.atomic.AtomicInteger
+
+class ParallelTestManagerSpec extends Specification {
+
+    private static final ZonedDateTime MIDNIGHT = Utils.utc(LocalDateTime.of(2018, 11, 20, 0, 0))
+
+    @Unroll
+    def 'given (#parallelism) threads when running parameter combinations should return the same scenarios in the same order as sequential run'() {
+        given:
+        def marketData = createMarketData()
+        def parameterValues = parameterValues()
+        def forkJoinPool = new ForkJoinPool(parallelism)
+
+        when:
+        def expected = runSequentially(marketData, parameterValues)
+        def actual = new ParallelTestManager<>(marketData, forkJoinPool).run(parameterValues, { context, values -> strategy(context, values) }, Order.OrderType.BUY)
+
+        then:
+        actual.size() == expected.size()
+        actual.eachWithIndex { tradeScenario, i ->
+            assert tradeScenario.getValues().is(parameterValues[i])
+            assert tradeScenario.getTradingRecord().getTrades().collect { it.toString() } == expected[i].getTrades().collect { it.toString() }
+            assert tradeScenario.getTimeSeries().getEndIndex() == marketData.of("EURUSD").getMainTimeSeries().getEndIndex()
+        }
+        expected.any { it.getTradeCount() > 0 }
+
+        cleanup:
+        forkJoinPool.shutdown()
+
+        where:
+        parallelism << [1, 4]
+    }
+
+    def 'given market data view when indexes moved should not move indexes of the source'() {
+        given:
+        def marketData = createMarketData(TimeSeriesDefinition.unlimited(BarPeriod.M5))
+        def view = marketData.view()
+        def source = marketData.of("EURUSD").getTimeSeries(BarPeriod.M5)
+        def endIndex = source.getEndIndex()
+
+        when:
+        view.allTimeSeries().each { it.resetIndexes() }
+        3.times { view.allTimeSeries().each { it.nextIndex() } }
+
+        then:
+        view.of("EURUSD").getTimeSeries(BarPeriod.M1).getEndIndex() == 2
+        view.of("EURUSD").getTimeSeries(BarPeriod.M5).plainTimeSeries().getLastBar().getEndTime() == source.plainTimeSeries().getBar(2).getEndTime()
+        source.getEndIndex() == endIndex
+        marketData.of("EURUSD").getMainTimeSeries().getEndIndex() == marketData.of("EURUSD").getMainTimeSeries().getBarCount() - 1
+    }
+
+    def 'given market data view when quote added should throw an exception'() {
+        given:
+        def view = createMarketData().view()
+
+        when:
+        view.add(Quote.bidAsk("EURUSD", MIDNIGHT.plusDays(1), 1.1, 1.1))
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
+
+    def 'given frozen market data snapshot should run the same scenarios as market data'() {
+        given:
+        def marketData = createMarketData()
+        def parameterValues = parameterValues()
+        def expected = runSequentially(createMarketData(), parameterValues)
+
+        when:
+        def snapshot = marketData.freeze()
+        def first = new ParallelTestManager<>(snapshot).run(parameterValues, { context, values -> strategy(context, values) }, Order.OrderType.BUY)
+        def second = new ParallelTestManager<>(snapshot).run(parameterValues, { context, values -> strategy(context, values) }, Order.OrderType.BUY)
+
+        then:
+        [first, second].each { scenarios ->
+            scenarios.eachWithIndex { tradeScenario, i ->
+                assert tradeScenario.getTradingRecord().getTrades().collect { it.toString() } == expected[i].getTrades().collect { it.toString() }
+            }
+        }
+        snapshot.symbols() == ["EURUSD"] as Set
+        snapshot.lastBarIndex() == marketData.lastBarIndex()
+    }
+
+    def 'given frozen market data when quote added should throw an exception'() {
+        given:
+        def marketData = createMarketData()
+        def lastBarIndex = marketData.lastBarIndex()
+        marketData.freeze()
+
+        when:
+        marketData.add(Quote.bidAsk("EURUSD", MIDNIGHT.plusDays(1), 1.1, 1.1))
+
+        then:
+        thrown(IllegalStateException)
+        marketData.lastBarIndex() == lastBarIndex
+    }
+
+    def 'given frozen market data when time series of a symbol updated should throw an exception'() {
+        given:
+        def marketData = createMarketData()
+        def lastBarIndex = marketData.lastBarIndex()
+        marketData.freeze()
+
+        when:
+        marketData.of("EURUSD").updateBar(Quote.bidAsk("EURUSD", MIDNIGHT.plusDays(1), 1.1, 1.1))
+
+        then:
+        thrown(IllegalStateException)
+        marketData.lastBarIndex() == lastBarIndex
+    }
+
+    def 'given progress listener should report every finished scenario'() {
+        given:
+        def parameterValues = parameterValues()
+        def total = 0
+        def finished = new CopyOnWriteArrayList<TradeScenario>()
+        def listener = new ProgressListener<TradeScenario>() {
+            @Override
+            void started(int combinations) {
+                total = combinations
+            }
+
+            @Override
+            void finished(TradeScenario tradeScenario) {
+                finished << tradeScenario
+            }
+        }
+
+        when:
+        def scenarios = new ParallelTestManager<>(createMarketData(), new ForkJoinPool(4)).run(parameterValues, { context, values -> strategy(context, values) }, Order.OrderType.BUY, listener)
+
+        then:
+        total == parameterValues.size()
+        finished.size() == scenarios.size()
+        scenarios.every { scenario -> finished.any { it.is(scenario) } }
+    }
+
+    def 'given analysis of scenarios should return and report only its results in the order of parameter combinations'() {
+        given:
+        def marketData = createMarketData()
+        def parameterValues = parameterValues()
+        def reported = new CopyOnWriteArrayList<Map>()
+        def listener = new ProgressListener<Map>() {
+            @Override
+            void finished(Map result) {
+                reported << result
+            }
+        }
+        def analysis = { TradeScenario scenario ->
+            [values  : scenario.getValues(),
+             trades  : scenario.getTradingRecord().getTradeCount(),
+             endIndex: scenario.getTimeSeries().getEndIndex()]
+        }
+
+        when:
+        def expected = runSequentially(marketData, parameterValues)
+        def results = new ParallelTestManager<>(marketData, new ForkJoinPool(4)).run(parameterValues, { context, values -> strategy(context, values) }, Order.OrderType.BUY, analysis, listener)
+
+        then:
+        results*.values == parameterValues
+        results*.trades == expected*.getTradeCount()
+        results.every { it.endIndex == marketData.of("EURUSD").getMainTimeSeries().getEndIndex() }
+        reported as Set == results as Set
+    }
+
+    def 'given stop condition should finish every scenario early and keep its statistics'() {
+        given:
+        def marketData = createMarketData()
+        def parameterValues = parameterValues()
+
+        when:
+        def full = new ParallelTestManager<>(marketData).run(parameterValues, { context, values -> strategy(context, values) }, Order.OrderType.BUY)
+        def stopped = new ParallelTestManager<>(marketData).stopWhen({ it.getBars() >= 100 })
+                                                           .run(parameterValues, { context, values -> strategy(context, values) }, Order.OrderType.BUY)
+
+        then:
+        full.every { it.getStatistics().getBars() == marketData.of("EURUSD").getMainTimeSeries().getBarCount() }
+        full.every { it.getStatistics().getTradeCount() == it.getTradingRecord().getTradeCount() }
+        stopped.every { it.getStatistics().getBars() == 100 && it.getTradingRecord().isClosed() }
+    }
+
+    def 'given cancelled progress listener should skip remaining scenarios and throw an exception'() {
+        given:
+        def parameterValues = parameterValues()
+        def finished = new AtomicInteger()
+        def listener = new ProgressListener<TradeScenario>() {
+            @Override
+            void finished(TradeScenario tradeScenario) {
+                finished.incrementAndGet()
+            }
+
+            @Override
+            boolean isCancelled() {
+                finished.get() >= 3
+            }
+        }
+
+        when:
+        new ParallelTestManager<>(createMarketData(), new ForkJoinPool(1)).run(parameterValues, { context, values -> strategy(context, values) }, Order.OrderType.BUY, listener)
+
+        then:
+        thrown(CancellationException)
+        finished.get() == 3
+    }
+
+    private static List<TradingRecord> runSequentially(MarketData<BidAskBar> marketData, List<Values<Parameter>> parameterValues) {
+        def context = new BaseContext.Builder().withMarketData(marketData).build()
+        def testManager = new TestManager<>(marketData)
+        parameterValues.collect { testManager.run(strategy(context, it), Order.OrderType.BUY) }
+    }
+
+    private static TradeStrategy strategy(Context context, Values<Parameter> values) {
+        def timeSeries = context.getDataService().getMarketData().of("EURUSD").getMainTimeSeries().plainTimeSeries()
+        def rsi = new RSIIndicator(new ClosePriceIndicator(timeSeries), (Integer) values.get(Parameter.RSI_PERIOD))
+        def lowerBound = (Integer) values.get(Parameter.RSI_LOWER_BOUND)
+        new BaseTradeStrategy.Builder(context, "EURUSD", new CrossedUpIndicatorRule(rsi, lowerBound), new CrossedDownIndicatorRule(rsi, 100 - lowerBound), values).build()
+    }
+
+    private static List<Values<Parameter>> parameterValues() {
+        [[2, 3, 5, 7, 14], [20, 30]].combinations().collect { rsiPeriod, lowerBound ->
+            Values.of(Parameter).set(Parameter.RSI_PERIOD, rsiPeriod).set(Parameter.RSI_LOWER_BOUND, lowerBound)
+        }
+    }
+
+    private static MarketData<BidAskBar> createMarketData(TimeSeriesDefinition... aggregated) {
+        def group = TimeSeriesDefinition.Group.of("EURUSD")
+        aggregated.each { group.add(it) }
+        def marketData = MarketDataBuilder.basedOn(StructureDefinition.model(new BidAskBarFactory())
+                                                                      .resolution(TimeSeriesDefinition.unlimited(BarPeriod.M1)))
+                                          .symbols("EURUSD")
+                                          .aggregate(group)
+                                          .wrap(BaseManualIndexTimeSeries.&wrap)
+                                          .build()
+        def random = new Random(7)
+        def bid = 1.1
+        (0..<1200).each {
+            bid += (random.nextInt(21) - 10) * 0.0001
+            marketData.add(Quote.bidAsk("EURUSD", MIDNIGHT.plusSeconds(it * 20), bid, bid + 0.0002))
+        }
+        marketData
+    }
+
+    enum Parameter implements Parameterizable {
+        RSI_PERIOD(Integer),
+        RSI_LOWER_BOUND(Integer)
+
+        private final Class<?> clazz
+
+        Parameter(Class<?> clazz) {
+            this.clazz = clazz
+        }
+
+        @Override
+        Class<?> clazz() {
+            clazz
+        }
+    }
+}
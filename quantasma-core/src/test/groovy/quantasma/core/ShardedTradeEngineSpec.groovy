@@ -0,0 +1,166 @@
+package quantasma.core
+
+import org.ta4j.core.trading.rules.BooleanRule
+import quantasma.core.analysis.parametrize.Parameterizable
+import quantasma.core.analysis.parametrize.Values
+import quantasma.core.timeseries.TimeSeriesDefinition
+import quantasma.core.timeseries.bar.BidAskBarFactory
+import spock.lang.Specification
+
+import java.time.LocalDateTime
+import java.time.ZonedDateTime
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+
+class ShardedTradeEngineSpec extends Specification {
+
+    private static final ZonedDateTime MIDNIGHT = Utils.utc(LocalDateTime.of(2018, 11, 20, 0, 0))
+
+    def 'given quotes of 2 symbols should perform only strategies of the quote symbol on a separate thread per symbol'() {
+        given:
+        def threads = new ConcurrentHashMap<String, Set<String>>()
+        def performs = new CopyOnWriteArrayList<String>()
+        def eurusdStrategy = strategy("EURUSD", ["EURUSD"], threads, performs)
+        def eurgbpStrategy = strategy("EURGBP", ["EURGBP"], threads, performs)
+        def tradeEngine = ShardedTradeEngine.create(context(strategyControl([eurusdStrategy, eurgbpStrategy])))
+
+        when:
+        10.times {
+            tradeEngine.process(Quote.bidAsk("EURUSD", MIDNIGHT.plusMinutes(it), 1.1, 1.1))
+            tradeEngine.process(Quote.bidAsk("EURGBP", MIDNIGHT.plusMinutes(it), 0.9, 0.9))
+        }
+        tradeEngine.process(Quote.bidAsk("EURJPY", MIDNIGHT.plusMinutes(10), 129.6, 129.6))
+        tradeEngine.close()
+
+        then:
+        performs.count("EURUSD") == 10
+        performs.count("EURGBP") == 10
+        threads["EURUSD"].size() == 1
+        threads["EURGBP"].size() == 1
+        threads["EURUSD"] != threads["EURGBP"]
+    }
+
+    def 'given quotes of single symbol should keep their order'() {
+        given:
+        def marketData = createMarketData()
+        def closePrices = new CopyOnWriteArrayList<Double>()
+        def eurusdStrategy = Stub(TradeStrategy) {
+            getSymbols() >> ["EURUSD"].toSet()
+            perform() >> { closePrices << marketData.of("EURUSD").getMainTimeSeries().getLastBar().getClosePrice().doubleValue() }
+        }
+        def tradeEngine = ShardedTradeEngine.create(new BaseContext.Builder().withMarketData(marketData)
+                                                                              .withStrategyControl(strategyControl([eurusdStrategy]))
+                                                                              .build())
+
+        when:
+        100.times { tradeEngine.process(Quote.bidAsk("EURUSD", MIDNIGHT.plusSeconds(it * 30), it, it)) }
+        tradeEngine.close()
+
+        then:
+        closePrices == (0..<100).collect { it as double }
+        marketData.of("EURUSD").getMainTimeSeries().getBarCount() == 50
+    }
+
+    def 'given grouped symbols should perform strategy depending on both symbols on a single thread'() {
+        given:
+        def threads = new ConcurrentHashMap<String, Set<String>>()
+        def performs = new CopyOnWriteArrayList<String>()
+        def crossStrategy = strategy("EURUSD", ["EURUSD", "EURGBP"], threads, performs)
+        def tradeEngine = new ShardedTradeEngine.Builder(context(strategyControl([crossStrategy]))).group("EURUSD", "EURGBP").build()
+
+        when:
+        tradeEngine.process(Quote.bidAsk("EURUSD", MIDNIGHT, 1.1, 1.1))
+        tradeEngine.process(Quote.bidAsk("EURGBP", MIDNIGHT, 0.9, 0.9))
+        tradeEngine.close()
+
+        then:
+        performs.size() == 2
+        threads["EURUSD"].size() == 1
+    }
+
+    def 'given strategy depending on symbols of different shards should not perform it'() {
+        given:
+        def performs = new CopyOnWriteArrayList<String>()
+        def crossStrategy = strategy("EURUSD", ["EURUSD", "EURGBP"], new ConcurrentHashMap<String, Set<String>>(), performs)
+        def tradeEngine = ShardedTradeEngine.create(context(strategyControl([crossStrategy])))
+
+        when:
+        tradeEngine.process(Quote.bidAsk("EURUSD", MIDNIGHT, 1.1, 1.1))
+        tradeEngine.close()
+
+        then:
+        performs.isEmpty()
+    }
+
+    def 'given symbol assigned to 2 groups should throw an exception'() {
+        when:
+        new ShardedTradeEngine.Builder(context(strategyControl([]))).group("EURUSD", "EURGBP").group("EURUSD").build()
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def 'given strategy with dependencies when activated should be returned for every its symbol'() {
+        given:
+        def strategyControl = new InMemoryStrategyControl()
+        def context = context(strategyControl)
+        def strategy = new BaseTradeStrategy.Builder(context, "EURUSD", BooleanRule.FALSE, BooleanRule.FALSE, Values.of(Parameter))
+                .withDependencies("EURGBP")
+                .build()
+        strategyControl.register(strategy)
+
+        when:
+        strategyControl.enable(strategyControl.registeredStrategies().first().getId())
+
+        then:
+        strategyControl.activeStrategies("EURUSD") == [strategy].toSet()
+        strategyControl.activeStrategies("EURGBP") == [strategy].toSet()
+        strategyControl.activeStrategies("EURJPY").isEmpty()
+        strategy.opposite().getSymbols() == ["EURUSD", "EURGBP"].toSet()
+    }
+
+    private TradeStrategy strategy(String tradeSymbol, List<String> symbols, Map<String, Set<String>> threads, List<String> performs) {
+        Stub(TradeStrategy) {
+            getName() >> tradeSymbol
+            getSymbols() >> symbols.toSet()
+            perform() >> {
+                performs << tradeSymbol
+                threads.computeIfAbsent(tradeSymbol, { ConcurrentHashMap.newKeySet() }).add(Thread.currentThread().getName())
+            }
+        }
+    }
+
+    private StrategyControl strategyControl(List<TradeStrategy> strategies) {
+        Stub(StrategyControl) {
+            activeStrategies(_ as String) >> { String symbol -> strategies.findAll { it.getSymbols().contains(symbol) }.toSet() }
+        }
+    }
+
+    private static Context context(StrategyControl strategyControl) {
+        new BaseContext.Builder().withMarketData(createMarketData())
+                                 .withStrategyControl(strategyControl)
+                                 .build()
+    }
+
+    private static MarketData createMarketData() {
+        MarketDataBuilder.basedOn(StructureDefinition.model(new BidAskBarFactory())
+                                                     .resolution(TimeSeriesDefinition.unlimited(BarPeriod.M1)))
+                         .symbols("EURUSD", "EURGBP")
+                         .build()
+    }
+
+    enum Parameter implements Parameterizable {
+        PERIOD(Integer)
+
+        private final Class<?> clazz
+
+        Parameter(Class<?> clazz) {
+            this.clazz = clazz
+        }
+
+        @Override
+        Class<?> clazz() {
+            clazz
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package quantasma.core.analysis
+
+import org.ta4j.core.BaseTradingRecord
+import org.ta4j.core.Order
+import org.ta4j.core.TimeSeries
+import org.ta4j.core.TradingRecord
+import org.ta4j.core.indicators.RSIIndicator
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator
+import org.ta4j.core.num.DoubleNum
+import org.ta4j.core.trading.rules.CrossedDownIndicatorRule
+import org.ta4j.core.trading.rules.CrossedUpIndicatorRule
+import quantasma.core.BarPeriod
+import quantasma.core.BaseContext
+import quantasma.core.BaseTradeStrategy
+import quantasma.core.MarketData
+import quantasma.core.MarketDataBuilder
+import quantasma.core.Quote
+import quantasma.core.StructureDefinition
+import quantasma.core.TestManager
+import quantasma.core.Utils
+import quantasma.core.analysis.criterion.CriterionsEvaluation
+import quantasma.core.analysis.criterion.ExposureCriterion
+import quantasma.core.analysis.criterion.MaxDrawdownCriterion
+import quantasma.core.analysis.criterion.ProfitFactorCriterion
+import quantasma.core.analysis.criterion.SharpeRatioCriterion
+import quantasma.core.analysis.criterion.SortinoRatioCriterion
+import quantasma.core.analysis.criterion.WinRateCriterion
+import quantasma.core.analysis.parametrize.Parameterizable
+import quantasma.core.analysis.parametrize.Values
+import quantasma.core.timeseries.BaseGenericTimeSeries
+import quantasma.core.timeseries.BaseManualIndexTimeSeries
+import quantasma.core.timeseries.TimeSeriesDefinition
+import quantasma.core.timeseries.bar.BaseOneSidedBar
+import quantasma.core.timeseries.bar.BidAskBar
+import quantasma.core.timeseries.bar.BidAskBarFactory
+import spock.lang.Specification
+
+import java.time.LocalDateTime
+import java.time.ZonedDateTime
+import java.util.function.Function
+
+class RunStatisticsSpec extends Specification {
+
+    private static final ZonedDateTime MIDNIGHT = Utils.utc(LocalDateTime.of(2018, 11, 20, 0, 0))
+    private static final Function<Number, DoubleNum> NUM_FUNC = { n -> DoubleNum.valueOf(n) }
+
+    def 'given two trades should calculate equity curve and trade statistics'() {
+        given:
+        def series = createTimeSeries([1.0000, 1.0010, 1.0005, 1.0020, 1.0015, 1.0000])
+        def tradingRecord = tradingRecord(series, 10_000, [0, 3], [4, 5])
+        def returns = [0, 10, -5, 15, 0, -15]
+        def mean = returns.sum() / returns.size()
+        def deviation = Math.sqrt(returns.collect { (it - mean) * (it - mean) }.sum() / (returns.size() - 1))
+
+        when:
+        def statistics = RunStatistics.replay(series, tradingRecord)
+
+        then:
+        statistics.getBars() == 6
+        near(statistics.getEquity(), 5)
+        near(statistics.getPeakEquity(), 20)
+        near(statistics.getMaxDrawdown(), 15)
+        near(statistics.getExposure(), 4 / 6)
+        statistics.getTradeCount() == 2
+        statistics.getWinningTrades() == 1
+        statistics.getLosingTrades() == 1
+        statistics.getWinRate() == 0.5d
+        near(statistics.getProfitFactor(), 20 / 15)
+        near(statistics.getSharpeRatio(), mean / deviation)
+        near(statistics.getSortinoRatio(), mean / Math.sqrt(250 / 6))
+    }
+
+    def 'given opened trade should mark it to the last close price'() {
+        given:
+        def series = createTimeSeries([1.0000, 1.0010, 1.0030])
+        def tradingRecord = new BaseTradingRecord(Order.OrderType.SELL)
+        tradingRecord.enter(1, series.getBar(1).getClosePrice(), series.numOf(1000))
+
+        when:
+        def statistics = RunStatistics.replay(series, tradingRecord)
+
+        then:
+        near(statistics.getEquity(), -2)
+        near(statistics.getMaxDrawdown(), 2)
+        near(statistics.getExposure(), 2 / 3)
+        statistics.getTradeCount() == 0
+        Double.isNaN(statistics.getWinRate())
+        Double.isNaN(statistics.getProfitFactor())
+    }
+
+    def 'given run of test manager should collect the same statistics as replayed trading record'() {
+        given:
+        def marketData = createMarketData()
+        def testManager = new TestManager<>(marketData)
+        def statistics = new RunStatistics()
+
+        when:
+        def tradingRecord = testManager.run(strategy(marketData), Order.OrderType.BUY, statistics)
+        def series = testManager.getMainTimeSeries(strategy(marketData)).plainTimeSeries()
+        def replayed = RunStatistics.replay(series, tradingRecord)
+
+        then:
+        statistics.getTradeCount() > 2
+        statistics.getTradeCount() == tradingRecord.getTradeCount()
+        [statistics, replayed]*.getBars().unique().size() == 1
+        [statistics, replayed]*.getEquity().unique().size() == 1
+        [statistics, replayed]*.getMaxDrawdown().unique().size() == 1
+        [statistics, replayed]*.getExposure().unique().size() == 1
+        [statistics, replayed]*.getSharpeRatio().unique().size() == 1
+        [statistics, replayed]*.getSortinoRatio().unique().size() == 1
+        [statistics, replayed]*.getProfitFactor().unique().size() == 1
+    }
+
+    def 'given stop condition should finish the run early with closed trades'() {
+        given:
+        def marketData = createMarketData()
+        def testManager = new TestManager<>(marketData)
+        def fullRun = new RunStatistics()
+        testManager.run(strategy(marketData), Order.OrderType.BUY, fullRun)
+        def limit = fullRun.getMaxDrawdown() / 2
+        def statistics = new RunStatistics({ it.getMaxDrawdown() > limit })
+
+        when:
+        def tradingRecord = testManager.run(strategy(marketData), Order.OrderType.BUY, statistics)
+
+        then:
+        statistics.shouldStop()
+        statistics.getBars() < fullRun.getBars()
+        statistics.getMaxDrawdown() > limit
+        tradingRecord.isClosed()
+        statistics.getTradeCount() == tradingRecord.getTradeCount()
+    }
+
+    def 'given criterions should calculate them from statistics of the run'() {
+        given:
+        def series = createTimeSeries([1.0000, 1.0010, 1.0005, 1.0020, 1.0015, 1.0000])
+        def tradingRecord = tradingRecord(series, 10_000, [0, 3], [4, 5])
+        def statistics = RunStatistics.replay(series, tradingRecord)
+        def criterions = [new MaxDrawdownCriterion(), new ExposureCriterion(), new SharpeRatioCriterion(),
+                          new SortinoRatioCriterion(), new WinRateCriterion(), new ProfitFactorCriterion()]
+
+        expect:
+        criterions.collect { it.calculate(series, tradingRecord).doubleValue() } ==
+                [statistics.getMaxDrawdown(), statistics.getExposure(), statistics.getSharpeRatio(),
+                 statistics.getSortinoRatio(), statistics.getWinRate(), statistics.getProfitFactor()]
+        new CriterionsEvaluation(criterions).calculate(series, tradingRecord, statistics) ==
+                criterions.collect { it.calculate(series, tradingRecord) }
+    }
+
+    def 'given undefined statistic should return NaN criterion'() {
+        given:
+        def series = createTimeSeries([1.0000, 1.0010])
+
+        expect:
+        new ProfitFactorCriterion().calculate(series, new BaseTradingRecord()).isNaN()
+    }
+
+    def 'given criterions should prefer lower drawdown and exposure but higher ratios'() {
+        expect:
+        new MaxDrawdownCriterion().betterThan(DoubleNum.valueOf(1), DoubleNum.valueOf(2))
+        new ExposureCriterion().betterThan(DoubleNum.valueOf(0.1), DoubleNum.valueOf(0.2))
+        new SharpeRatioCriterion().betterThan(DoubleNum.valueOf(2), DoubleNum.valueOf(1))
+        new SortinoRatioCriterion().betterThan(DoubleNum.valueOf(2), DoubleNum.valueOf(1))
+        new WinRateCriterion().betterThan(DoubleNum.valueOf(0.6), DoubleNum.valueOf(0.5))
+        new ProfitFactorCriterion().betterThan(DoubleNum.valueOf(2), DoubleNum.valueOf(1))
+    }
+
+    private static boolean near(double actual, double expected) {
+        Math.abs(actual - expected) < 1e-9
+    }
+
+    private static TradingRecord tradingRecord(TimeSeries series, Number amount, List<Integer>... trades) {
+        def tradingRecord = new BaseTradingRecord()
+        trades.each { entryExit ->
+            tradingRecord.enter(entryExit[0], series.getBar(entryExit[0]).getClosePrice(), series.numOf(amount))
+            tradingRecord.exit(entryExit[1], series.getBar(entryExit[1]).getClosePrice(), series.numOf(amount))
+        }
+        tradingRecord
+    }
+
+    private static TimeSeries createTimeSeries(List<BigDecimal> closePrices) {
+        def timeSeries = new BaseGenericTimeSeries.Builder("symbol", BarPeriod.M1)
+                .withNumTypeOf(NUM_FUNC)
+                .build()
+        closePrices.eachWithIndex { closePrice, minute ->
+            def bar = new BaseOneSidedBar(BarPeriod.M1.getPeriod(), MIDNIGHT.plusMinutes(minute), NUM_FUNC)
+            bar.addPrice(NUM_FUNC.apply(closePrice))
+            timeSeries.addBar(bar)
+        }
+        timeSeries.plainTimeSeries()
+    }
+
+    private static BaseTradeStrategy strategy(MarketData<BidAskBar> marketData) {
+        def context = new BaseContext.Builder().withMarketData(marketData).build()
+        def timeSeries = marketData.of("EURUSD").getMainTimeSeries().plainTimeSeries()
+        def rsi = new RSIIndicator(new ClosePriceIndicator(timeSeries), 3)
+        new BaseTradeStrategy.Builder(context, "EURUSD", new CrossedUpIndicatorRule(rsi, 30), new CrossedDownIndicatorRule(rsi, 70), Values.of(Parameter)).build()
+    }
+
+    private static MarketData<BidAskBar> createMarketData() {
+        def marketData = MarketDataBuilder.basedOn(StructureDefinition.model(new BidAskBarFactory())
+                                                                      .resolution(TimeSeriesDefinition.unlimited(BarPeriod.M1)))
+                                          .symbols("EURUSD")
+                                          .wrap(BaseManualIndexTimeSeries.&wrap)
+                                          .build()
+        def random = new Random(7)
+        def bid = 1.1
+        (0..<1200).each {
+            bid += (random.nextInt(21) - 10) * 0.0001
+            marketData.add(Quote.bidAsk("EURUSD", MIDNIGHT.plusSeconds(it * 20), bid, bid + 0.0002))
+        }
+        marketData
+    }
+
+    enum Parameter implements Parameterizable {
+        NONE
+
+        @Override
+        Class<?> clazz() {
+            Integer
+        }
+    }
+}
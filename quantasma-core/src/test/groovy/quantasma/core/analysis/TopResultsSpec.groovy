@@ -0,0 +1,97 @@
+package quantasma.core.analysis
+
+import org.ta4j.core.num.DoubleNum
+import org.ta4j.core.num.NaN
+import org.ta4j.core.num.Num
+import quantasma.core.analysis.criterion.ProfitLossCriterion
+import quantasma.core.analysis.criterion.TradesCountCriterion
+import spock.lang.Specification
+
+import java.util.concurrent.ForkJoinPool
+
+class TopResultsSpec extends Specification {
+
+    def 'given more results than capacity should keep the best ones starting with the best'() {
+        given:
+        def topResults = new TopResults<String>(new ProfitLossCriterion(0.0001), 3)
+
+        when:
+        [5, -2, 9, 1, 7, 3].each { topResults.offer(num(it), "result-$it".toString()) }
+
+        then:
+        topResults.best() == ["result-9", "result-7", "result-5"]
+    }
+
+    def 'given criterion preferring lower values should keep the lowest ones'() {
+        given:
+        def topResults = new TopResults<Integer>(new TradesCountCriterion(), 2)
+
+        when:
+        [5, 2, 9, 1, 7].each { topResults.offer(num(it), it) }
+
+        then:
+        topResults.best() == [1, 2]
+    }
+
+    def 'given full results should accept only better scores'() {
+        given:
+        def topResults = new TopResults<Integer>(new ProfitLossCriterion(0.0001), 2)
+        topResults.offer(num(3), 3)
+
+        expect:
+        topResults.accepts(num(-100))
+
+        when:
+        topResults.offer(num(4), 4)
+
+        then:
+        !topResults.accepts(num(3))
+        !topResults.offer(num(2), 2)
+        topResults.accepts(num(5))
+        topResults.best() == [4, 3]
+    }
+
+    def 'given NaN score should not keep the result'() {
+        given:
+        def topResults = new TopResults<Integer>(new ProfitLossCriterion(0.0001), 2)
+
+        when:
+        def kept = topResults.offer(score, 1)
+
+        then:
+        !kept
+        topResults.best().isEmpty()
+
+        where:
+        score << [NaN.NaN, DoubleNum.valueOf(Double.NaN)]
+    }
+
+    def 'given results offered in parallel should keep the best ones'() {
+        given:
+        def topResults = new TopResults<Integer>(new ProfitLossCriterion(0.0001), 10)
+        def values = (0..<10_000).toList()
+        Collections.shuffle(values, new Random(3))
+        def pool = new ForkJoinPool(4)
+
+        when:
+        pool.submit({ values.parallelStream().forEach { topResults.offer(num(it), it) } } as Runnable).get()
+
+        then:
+        topResults.best() == (9_999..9_990).toList()
+
+        cleanup:
+        pool.shutdown()
+    }
+
+    def 'given non positive capacity should throw an exception'() {
+        when:
+        new TopResults<Integer>(new ProfitLossCriterion(0.0001), 0)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    private static Num num(Number value) {
+        DoubleNum.valueOf(value)
+    }
+}
@@ -0,0 +1,88 @@
+package quantasma.core.analysis.criterion
+
+import org.ta4j.core.BaseTradingRecord
+import org.ta4j.core.Order
+import org.ta4j.core.TimeSeries
+import org.ta4j.core.TradingRecord
+import org.ta4j.core.num.PrecisionNum
+import quantasma.core.BarPeriod
+import quantasma.core.timeseries.BaseGenericTimeSeries
+import quantasma.core.timeseries.bar.BaseOneSidedBar
+import spock.lang.Specification
+
+import java.time.ZonedDateTime
+import java.util.function.Function
+
+class CriterionsEvaluationSpec extends Specification {
+
+    private static final ZonedDateTime TIME = ZonedDateTime.now()
+    private static final Function<Number, PrecisionNum> NUM_FUNC = { n -> PrecisionNum.valueOf(n) }
+
+    def 'given many criterions should calculate them in the order of criterions'() {
+        given:
+        def series = createTimeSeries(["1.0000", "1.0000", "1.0001", "1.0001", "1.0001", "1.0003", "1.0002"])
+        def tradingRecord = tradingRecord(series, 100_000, [1, 2], [4, 6])
+        def evaluation = new CriterionsEvaluation([new ProfitLossPipsCriterion(0.0001),
+                                                   new ProfitLossCriterion(0.0001),
+                                                   new AvgProfitLossCriterion(0.0001),
+                                                   new FinishDepositCriterion(1000, 0.0001),
+                                                   new TradesCountCriterion(),
+                                                   new ProfitLossPipsCriterion(0.00001)])
+
+        when:
+        def values = evaluation.calculate(series, tradingRecord)
+
+        then:
+        values*.delegate == [2.0, 20.0, 10.0, 1020.0, 2.0, 20.0]
+    }
+
+    def 'given criterions of the same pip resolution should walk trades once'() {
+        given:
+        def series = createTimeSeries(["1.0000", "1.0001", "1.0003", "1.0002", "1.0000", "1.0004"])
+        def tradingRecord = tradingRecord(series, 10_000, [0, 2], [3, 5])
+        def tradesWalks = 0
+        def countingRecord = [getTrades    : { tradesWalks++; tradingRecord.getTrades() },
+                              getTradeCount: { tradingRecord.getTradeCount() }] as TradingRecord
+        def criterions = [new ProfitLossPipsCriterion(0.0001),
+                          new ProfitLossCriterion(0.0001),
+                          new AvgProfitLossCriterion(0.0001),
+                          new FinishDepositCriterion(1000, 0.0001)]
+
+        when:
+        def values = new CriterionsEvaluation(criterions).calculate(series, countingRecord)
+
+        then:
+        tradesWalks == 1
+        values == criterions.collect { it.calculate(series, tradingRecord) }
+    }
+
+    def 'given no trades should calculate criterions of no profit'() {
+        given:
+        def series = createTimeSeries(["1.0000", "1.0001"])
+        def evaluation = new CriterionsEvaluation([new ProfitLossCriterion(0.0001), new FinishDepositCriterion(1000, 0.0001)])
+
+        expect:
+        evaluation.calculate(series, new BaseTradingRecord())*.delegate == [0, 1000]
+    }
+
+    private static TradingRecord tradingRecord(TimeSeries series, Number amount, List<Integer>... trades) {
+        def tradingRecord = new BaseTradingRecord()
+        trades.each { entryExit ->
+            tradingRecord.enter(entryExit[0], series.getBar(entryExit[0]).getClosePrice(), series.numOf(amount))
+            tradingRecord.exit(entryExit[1], series.getBar(entryExit[1]).getClosePrice(), series.numOf(amount))
+        }
+        tradingRecord
+    }
+
+    private static TimeSeries createTimeSeries(List<String> closePrices) {
+        def timeSeries = new BaseGenericTimeSeries.Builder("symbol", BarPeriod.M1)
+                .withNumTypeOf(NUM_FUNC)
+                .build()
+        closePrices.eachWithIndex { closePrice, minute ->
+            def bar = new BaseOneSidedBar(BarPeriod.M1.getPeriod(), TIME.plusMinutes(minute), NUM_FUNC)
+            bar.addPrice(NUM_FUNC.apply(new BigDecimal(closePrice)))
+            timeSeries.addBar(bar)
+        }
+        timeSeries.plainTimeSeries()
+    }
+}
@@ -0,0 +1,137 @@
+package quantasma.core.analysis.parametrize
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.function.Function
+import java.util.stream.Collectors
+
+class GridProducerSpec extends Specification {
+
+    private static final Function<Variables, List> RECIPE = { var -> [var._int("var1").values(1, 3).$(),
+                                                                       var._String("var2").values("a", "b", "c").$(),
+                                                                       var._int("var3").values(7, 9).$()] }
+
+    def 'given 3 variables should produce objects in the same order as simple producer'() {
+        given:
+        def expected = Producer.from(RECIPE).stream().collect(Collectors.toList())
+
+        when:
+        def actual = Producer.grid(RECIPE).stream().collect(Collectors.toList())
+
+        then:
+        actual.size() == 12
+        actual == expected
+    }
+
+    def 'given 3 variables should expose sized and splittable spliterator'() {
+        when:
+        def spliterator = Producer.grid(RECIPE).spliterator()
+        def prefix = spliterator.trySplit()
+
+        then:
+        spliterator.hasCharacteristics(Spliterator.SIZED)
+        spliterator.hasCharacteristics(Spliterator.SUBSIZED)
+        spliterator.hasCharacteristics(Spliterator.ORDERED)
+        prefix.estimateSize() == 6
+        spliterator.estimateSize() == 6
+    }
+
+    def 'given parallel stream should keep the order of combinations'() {
+        given:
+        def producer = Producer.grid(RECIPE)
+
+        expect:
+        producer.parallelStream().collect(Collectors.toList()) == producer.stream().collect(Collectors.toList())
+    }
+
+    def 'given grid when requesting single index should apply recipe only for that index'() {
+        given:
+        def calls = 0
+        def producer = Producer.grid({ var ->
+            calls++
+            [var._int("var1").values(1, 2, 3).$(), var._int("var2").values(4, 5, 6).$()]
+        } as Function)
+
+        when:
+        def combination = producer.get(5)
+
+        then:
+        combination == [3, 5]
+        calls == 2 // definition and requested index
+    }
+
+    def 'given skip and limit should return combinations of the given range'() {
+        given:
+        def all = Producer.grid(RECIPE).stream().collect(Collectors.toList())
+
+        when:
+        def producer = Producer.grid(RECIPE).skip(3).limit(4)
+
+        then:
+        producer.size() == 4
+        producer.stream().collect(Collectors.toList()) == all.subList(3, 7)
+        Producer.grid(RECIPE).skip(20).size() == 0
+    }
+
+    @Unroll
+    def 'given (#partitions) partitions should cover every combination exactly once'() {
+        given:
+        def producer = Producer.grid(RECIPE)
+
+        when:
+        def parts = (0..<partitions).collect { producer.partition(it, partitions) }
+
+        then:
+        parts.collectMany { it.stream().collect(Collectors.toList()) } == producer.stream().collect(Collectors.toList())
+        parts.collect { it.size() }.max() - parts.collect { it.size() }.min() <= 1
+
+        where:
+        partitions << [1, 2, 5, 12, 13]
+    }
+
+    def 'given parameters should produce values for every index'() {
+        given:
+        def producer = Producer.grid({ Variables<Parameter> var ->
+            var._int(Parameter.PERIOD).values(5, 10)
+            var._String(Parameter.SYMBOL).values("EURUSD", "GBPUSD")
+            var.getParameterValues()
+        } as Function)
+
+        when:
+        def values = producer.asList()
+
+        then:
+        values.size() == 4
+        values.collect { [it.get(Parameter.PERIOD), it.get(Parameter.SYMBOL)] } == [[5, "EURUSD"], [10, "EURUSD"], [5, "GBPUSD"], [10, "GBPUSD"]]
+    }
+
+    def 'given no variables should produce nothing'() {
+        expect:
+        Producer.grid({ var -> "value" } as Function).size() == 0
+    }
+
+    def 'given invalid partition should throw an exception'() {
+        when:
+        Producer.grid(RECIPE).partition(2, 2)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    enum Parameter implements Parameterizable {
+        PERIOD(Integer),
+        SYMBOL(String)
+
+        private final Class<?> clazz
+
+        Parameter(Class<?> clazz) {
+            this.clazz = clazz
+        }
+
+        @Override
+        Class<?> clazz() {
+            clazz
+        }
+    }
+}
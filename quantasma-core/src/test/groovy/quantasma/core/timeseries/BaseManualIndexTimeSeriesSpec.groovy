@@ -0,0 +1,283 @@
+package quantasma.core.timeseries
+
+import quantasma.core.BarPeriod
+import quantasma.core.timeseries.bar.BaseOneSidedBar
+import quantasma.core.timeseries.bar.OneSidedBar
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.time.Duration
+import java.time.ZonedDateTime
+import java.util.function.BiFunction
+
+import static quantasma.core.timeseries.BaseManualIndexTimeSeriesSpec.ManualIndexTimeSeriesFactory.*
+import static quantasma.core.timeseries.BaseManualIndexTimeSeriesSpec.createBar
+
+class BaseManualIndexTimeSeriesSpec extends Specification {
+
+    @Unroll
+    def 'given time series with no bars for bar period (#barPeriod) and implementation (#className) should return beginIndex at -1 and endIndex at -1'() {
+        when:
+        def manualTimeSeries = createManualTimeSeries(factory, 0, barPeriod)
+
+        then:
+        manualTimeSeries.getBeginIndex() == -1
+        manualTimeSeries.getEndIndex() == -1
+
+        where:
+        className                                | barPeriod    | factory
+        BaseGenericTimeSeries.getName()          | BarPeriod.M1 | BASE_UNIVERSAL_TIME_SERIES
+        BaseGenericTimeSeries.class.getName()    | BarPeriod.M5 | BASE_UNIVERSAL_TIME_SERIES
+        BaseMainTimeSeries.class.getName()       | BarPeriod.M1 | BASE_MAIN_TIME_SERIES
+        BaseMainTimeSeries.class.getName()       | BarPeriod.M5 | BASE_MAIN_TIME_SERIES
+        BaseAggregatedTimeSeries.class.getName() | BarPeriod.M1 | BASE_AGGREGATED_TIME_SERIES
+        BaseAggregatedTimeSeries.class.getName() | BarPeriod.M5 | BASE_AGGREGATED_TIME_SERIES
+    }
+
+    @Unroll
+    def 'given time series with no bars for bar period (#barPeriod) and implementation (#className) when resetIndex() should return beginIndex at -1 and endIndex at -1'() {
+        given:
+        def manualTimeSeries = createManualTimeSeries(factory, 0, barPeriod)
+
+        when:
+        manualTimeSeries.resetIndexes()
+
+        then:
+        manualTimeSeries.getBeginIndex() == -1
+        manualTimeSeries.getEndIndex() == -1
+
+        where:
+        className                                | barPeriod    | factory
+        BaseGenericTimeSeries.getName()          | BarPeriod.M1 | BASE_UNIVERSAL_TIME_SERIES
+        BaseGenericTimeSeries.class.getName()    | BarPeriod.M5 | BASE_UNIVERSAL_TIME_SERIES
+        BaseMainTimeSeries.class.getName()       | BarPeriod.M1 | BASE_MAIN_TIME_SERIES
+        BaseMainTimeSeries.class.getName()       | BarPeriod.M5 | BASE_MAIN_TIME_SERIES
+        BaseAggregatedTimeSeries.class.getName() | BarPeriod.M1 | BASE_AGGREGATED_TIME_SERIES
+        BaseAggregatedTimeSeries.class.getName() | BarPeriod.M5 | BASE_AGGREGATED_TIME_SERIES
+    }
+
+    @Unroll
+    def 'given time series with no bars for bar period (#barPeriod) and implementation (#className) when nextIndex() should throw an exception'() {
+        given:
+        def manualTimeSeries = createManualTimeSeries(factory, 0, barPeriod)
+
+        when:
+        manualTimeSeries.nextIndex()
+
+        then:
+        thrown(RuntimeException)
+
+        where:
+        className                                | barPeriod    | factory
+        BaseGenericTimeSeries.getName()          | BarPeriod.M1 | BASE_UNIVERSAL_TIME_SERIES
+        BaseGenericTimeSeries.class.getName()    | BarPeriod.M5 | BASE_UNIVERSAL_TIME_SERIES
+        BaseMainTimeSeries.class.getName()       | BarPeriod.M1 | BASE_MAIN_TIME_SERIES
+        BaseMainTimeSeries.class.getName()       | BarPeriod.M5 | BASE_MAIN_TIME_SERIES
+        BaseAggregatedTimeSeries.class.getName() | BarPeriod.M1 | BASE_AGGREGATED_TIME_SERIES
+        BaseAggregatedTimeSeries.class.getName() | BarPeriod.M5 | BASE_AGGREGATED_TIME_SERIES
+    }
+
+    @Unroll
+    def 'given time series with 3 bars for bar period (#barPeriod) and implementation (#className) should return beginIndex at 0 and engIndex at (#expectedEndIndex)'() {
+        given:
+        def manualTimeSeries = createManualTimeSeries(factory, 3, barPeriod)
+
+        when:
+        def beginIndex = manualTimeSeries.getBeginIndex()
+        def endIndex = manualTimeSeries.getEndIndex()
+
+        then:
+        beginIndex == 0
+        endIndex == expectedEndIndex
+
+        where:
+        className                                | barPeriod    | factory                     || expectedEndIndex
+        BaseGenericTimeSeries.getName()          | BarPeriod.M1 | BASE_UNIVERSAL_TIME_SERIES  || 2
+        BaseGenericTimeSeries.class.getName()    | BarPeriod.M5 | BASE_UNIVERSAL_TIME_SERIES  || 0
+        BaseMainTimeSeries.class.getName()       | BarPeriod.M1 | BASE_MAIN_TIME_SERIES       || 2
+        BaseMainTimeSeries.class.getName()       | BarPeriod.M5 | BASE_MAIN_TIME_SERIES       || 0
+        BaseAggregatedTimeSeries.class.getName() | BarPeriod.M1 | BASE_AGGREGATED_TIME_SERIES || 2
+        BaseAggregatedTimeSeries.class.getName() | BarPeriod.M5 | BASE_AGGREGATED_TIME_SERIES || 0
+    }
+
+    @Unroll
+    def 'given time series with 3 bars for bar period (#barPeriod) and implementation (#className) when resetIndexes() should return beginIndex at 0 endIndex at -1'() {
+        given:
+        def manualTimeSeries = createManualTimeSeries(factory, 3, barPeriod)
+
+        when:
+        manualTimeSeries.resetIndexes()
+
+        then:
+        manualTimeSeries.getBeginIndex() == 0
+        manualTimeSeries.getEndIndex() == -1
+
+        where:
+        className                                | barPeriod    | factory
+        BaseGenericTimeSeries.getName()          | BarPeriod.M1 | BASE_UNIVERSAL_TIME_SERIES
+        BaseGenericTimeSeries.class.getName()    | BarPeriod.M5 | BASE_UNIVERSAL_TIME_SERIES
+        BaseMainTimeSeries.class.getName()       | BarPeriod.M1 | BASE_MAIN_TIME_SERIES
+        BaseMainTimeSeries.class.getName()       | BarPeriod.M5 | BASE_MAIN_TIME_SERIES
+        BaseAggregatedTimeSeries.class.getName() | BarPeriod.M1 | BASE_AGGREGATED_TIME_SERIES
+        BaseAggregatedTimeSeries.class.getName() | BarPeriod.M5 | BASE_AGGREGATED_TIME_SERIES
+    }
+
+    @Unroll
+    def 'given time series with 3 bars for bar period (#barPeriod) and implementation (#className) and resetIndexes() when nextIndex() should return beginIndex at 0 and endIndex at 0'() {
+        given:
+        def manualTimeSeries = createManualTimeSeries(factory, 3, barPeriod)
+        manualTimeSeries.resetIndexes()
+
+        when:
+        manualTimeSeries.nextIndex()
+
+        then:
+        manualTimeSeries.getBeginIndex() == 0
+        manualTimeSeries.getEndIndex() == 0
+
+        where:
+        className                                | barPeriod    | factory
+        BaseGenericTimeSeries.getName()          | BarPeriod.M1 | BASE_UNIVERSAL_TIME_SERIES
+        BaseGenericTimeSeries.class.getName()    | BarPeriod.M5 | BASE_UNIVERSAL_TIME_SERIES
+        BaseMainTimeSeries.class.getName()       | BarPeriod.M1 | BASE_MAIN_TIME_SERIES
+        BaseMainTimeSeries.class.getName()       | BarPeriod.M5 | BASE_MAIN_TIME_SERIES
+        BaseAggregatedTimeSeries.class.getName() | BarPeriod.M1 | BASE_AGGREGATED_TIME_SERIES
+        BaseAggregatedTimeSeries.class.getName() | BarPeriod.M5 | BASE_AGGREGATED_TIME_SERIES
+    }
+
+    @Unroll
+    def 'given time series with 3 bars and last index for bar period (#barPeriod) and implementation (#className) when nextIndex() should return thrown an exception'() {
+        given:
+        def manualTimeSeries = createManualTimeSeries(factory, 3, barPeriod)
+
+        when:
+        manualTimeSeries.nextIndex()
+
+        then:
+        thrown(RuntimeException)
+
+        where:
+        className                                | barPeriod    | factory
+        BaseGenericTimeSeries.getName()          | BarPeriod.M1 | BASE_UNIVERSAL_TIME_SERIES
+        BaseGenericTimeSeries.class.getName()    | BarPeriod.M5 | BASE_UNIVERSAL_TIME_SERIES
+        BaseMainTimeSeries.class.getName()       | BarPeriod.M1 | BASE_MAIN_TIME_SERIES
+        BaseMainTimeSeries.class.getName()       | BarPeriod.M5 | BASE_MAIN_TIME_SERIES
+        BaseAggregatedTimeSeries.class.getName() | BarPeriod.M1 | BASE_AGGREGATED_TIME_SERIES
+        BaseAggregatedTimeSeries.class.getName() | BarPeriod.M5 | BASE_AGGREGATED_TIME_SERIES
+    }
+
+    @Unroll
+    def 'given time series with 3 bars for bar period (#barPeriod) and implementation (#className) and resetIndex() when adding new bar should throw an exception'() {
+        given:
+        def manualTimeSeries = createManualTimeSeries(factory, 3, barPeriod)
+        manualTimeSeries.resetIndexes()
+        def bar = createBar(manualTimeSeries, 4, Duration.ofMinutes(0)) // any time period
+
+        when:
+        manualTimeSeries.addBar(bar)
+
+        then:
+        thrown(RuntimeException)
+
+        where:
+        className                                | barPeriod    | factory
+        BaseGenericTimeSeries.getName()          | BarPeriod.M1 | BASE_UNIVERSAL_TIME_SERIES
+        BaseGenericTimeSeries.class.getName()    | BarPeriod.M5 | BASE_UNIVERSAL_TIME_SERIES
+        BaseMainTimeSeries.class.getName()       | BarPeriod.M1 | BASE_MAIN_TIME_SERIES
+        BaseMainTimeSeries.class.getName()       | BarPeriod.M5 | BASE_MAIN_TIME_SERIES
+        BaseAggregatedTimeSeries.class.getName() | BarPeriod.M1 | BASE_AGGREGATED_TIME_SERIES
+        BaseAggregatedTimeSeries.class.getName() | BarPeriod.M5 | BASE_AGGREGATED_TIME_SERIES
+    }
+
+    def 'given time series with 3 bars and resetIndexes() when nextIndex() should expose moved indexes through plain time series'() {
+        given:
+        def manualTimeSeries = createManualTimeSeries(BASE_UNIVERSAL_TIME_SERIES, 3, BarPeriod.M1)
+        manualTimeSeries.resetIndexes()
+
+        when:
+        manualTimeSeries.nextIndex()
+        manualTimeSeries.nextIndex()
+        def plainTimeSeries = manualTimeSeries.plainTimeSeries()
+
+        then:
+        plainTimeSeries.getBeginIndex() == 0
+        plainTimeSeries.getEndIndex() == 1
+        plainTimeSeries.getBarCount() == 2
+        plainTimeSeries.getLastBar().getClosePrice() == manualTimeSeries.getBar(1).getClosePrice()
+    }
+
+    def 'given time series not based on BaseGenericTimeSeries when wrap() should throw an exception'() {
+        when:
+        BaseManualIndexTimeSeries.wrap(Stub(GenericTimeSeries))
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    private static BaseManualIndexTimeSeries createManualTimeSeries(factory, barsCount, barPeriod) {
+        return factory.function().apply(barsCount, barPeriod)
+    }
+
+    static OneSidedBar createBar(GenericTimeSeries timeSeries, Integer i, Duration timePeriod) {
+        new BaseOneSidedBar(timePeriod, TIME_REF.plusMinutes(i), timeSeries.function())
+    }
+
+    private static final ZonedDateTime TIME_REF = ZonedDateTime.now()
+
+    @FunctionalInterface
+    interface ManualIndexTimeSeriesFactory<T extends ManualIndexTimeSeries> {
+
+        BiFunction<Integer, BarPeriod, T> function()
+
+        ManualIndexTimeSeriesFactory<BaseManualIndexTimeSeries> BASE_UNIVERSAL_TIME_SERIES = new ManualIndexTimeSeriesFactory<BaseManualIndexTimeSeries>() {
+            @Override
+            BiFunction<Integer, BarPeriod, BaseManualIndexTimeSeries> function() {
+                { Integer barsCount, BarPeriod barPeriod ->
+                    final GenericTimeSeries timeSeries = new BaseGenericTimeSeries.Builder("symbol", BarPeriod.M5).build()
+                    for (int i = 0; i < barsCount; i++) {
+                        if (i % barPeriod.getPeriod().toMinutes() == 0) {
+                            timeSeries.addBar(createBar(timeSeries, i, Duration.ofMinutes(i)))
+                        }
+                        timeSeries.addPrice(i)
+                    }
+                    BaseManualIndexTimeSeries.wrap(timeSeries)
+                }
+            }
+        }
+
+        ManualIndexTimeSeriesFactory<BaseManualIndexTimeSeries> BASE_MAIN_TIME_SERIES = new ManualIndexTimeSeriesFactory<BaseManualIndexTimeSeries>() {
+            @Override
+            BiFunction<Integer, BarPeriod, BaseManualIndexTimeSeries> function() {
+                { barsCount, barPeriod ->
+                    final MainTimeSeries timeSeries = new BaseMainTimeSeries.Builder("test", BarPeriod.M5).build()
+                    for (int i = 0; i < barsCount; i++) {
+                        if (i % barPeriod.getPeriod().toMinutes() == 0) {
+                            timeSeries.addBar(createBar(timeSeries, i, Duration.ofMinutes(i)))
+                        }
+                        timeSeries.addPrice(i)
+                    }
+                    BaseManualIndexTimeSeries.wrap(timeSeries)
+                }
+            }
+        }
+
+        ManualIndexTimeSeriesFactory<BaseManualIndexTimeSeries> BASE_AGGREGATED_TIME_SERIES = new ManualIndexTimeSeriesFactory<BaseManualIndexTimeSeries>() {
+            @Override
+            BiFunction<Integer, BarPeriod, BaseManualIndexTimeSeries> function() {
+                { barsCount, barPeriod ->
+                    final MainTimeSeries mainTimeSeries = new BaseMainTimeSeries.Builder("test", BarPeriod.M1).build()
+                    final AggregatedTimeSeries aggregatedTimeSeries = new BaseAggregatedTimeSeries.Builder("symbol", BarPeriod.M1, mainTimeSeries).build()
+                    for (int i = 0; i < barsCount; i++) {
+                        if (i % barPeriod.getPeriod().toMinutes() == 0) {
+                            aggregatedTimeSeries.addBar(createBar(aggregatedTimeSeries, i, barPeriod.getPeriod()))
+                        }
+                        mainTimeSeries.addBar(createBar(mainTimeSeries, i, BarPeriod.M1.getPeriod()))
+                        mainTimeSeries.addPrice(i)
+                    }
+                    BaseManualIndexTimeSeries.wrap(aggregatedTimeSeries)
+                }
+            }
+        }
+
+    }
+}
@@ -0,0 +1,202 @@
+package quantasma.core.timeseries.bar
+
+import org.ta4j.core.num.DoubleNum
+import org.ta4j.core.num.NaN
+import org.ta4j.core.num.PrecisionNum
+import quantasma.core.BarPeriod
+import quantasma.core.MarketDataBuilder
+import quantasma.core.Quote
+import quantasma.core.StructureDefinition
+import quantasma.core.Utils
+import quantasma.core.timeseries.BarStorageFactory
+import quantasma.core.timeseries.TimeSeriesDefinition
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.time.Duration
+import java.time.LocalDateTime
+import java.time.ZonedDateTime
+
+class ColumnarBarListSpec extends Specification {
+
+    private static final ZonedDateTime MIDNIGHT = Utils.utc(LocalDateTime.of(2018, 11, 20, 0, 0))
+
+    def 'given empty bar when added should return view with NaN prices'() {
+        given:
+        def bars = new ColumnarBarList(DoubleNum.&valueOf)
+
+        when:
+        bars.add(new BaseBidAskBar(Duration.ofMinutes(1), MIDNIGHT, DoubleNum.&valueOf))
+
+        then:
+        bars.size() == 1
+        bars.get(0).getClosePrice() == NaN.NaN
+        bars.get(0).getAskClosePrice() == NaN.NaN
+        bars.get(0).getEndTime() == MIDNIGHT
+        bars.get(0).getBeginTime() == MIDNIGHT.minusMinutes(1)
+    }
+
+    def 'given added bar when prices added through view should update columns'() {
+        given:
+        def bars = new ColumnarBarList(DoubleNum.&valueOf)
+        bars.add(new BaseBidAskBar(Duration.ofMinutes(1), MIDNIGHT, DoubleNum.&valueOf))
+
+        when:
+        bars.get(0).addPrice(DoubleNum.valueOf(3), DoubleNum.valueOf(4))
+        bars.get(0).addPrice(DoubleNum.valueOf(1), DoubleNum.valueOf(2))
+        bars.get(0).addPrice(DoubleNum.valueOf(2), DoubleNum.valueOf(5))
+        def bar = bars.get(0)
+
+        then:
+        bar.getOpenPrice().doubleValue() == 3
+        bar.getMinPrice().doubleValue() == 1
+        bar.getMaxPrice().doubleValue() == 3
+        bar.getClosePrice().doubleValue() == 2
+        bar.getAskOpenPrice().doubleValue() == 4
+        bar.getAskMinPrice().doubleValue() == 2
+        bar.getAskMaxPrice().doubleValue() == 5
+        bar.getAskClosePrice().doubleValue() == 5
+    }
+
+    def 'given 3 bars when oldest removed should keep views pointing to the same bars'() {
+        given:
+        def bars = new ColumnarBarList(DoubleNum.&valueOf, 1)
+        3.times {
+            bars.add(new BaseBidAskBar(Duration.ofMinutes(1), MIDNIGHT.plusMinutes(it), DoubleNum.&valueOf))
+            bars.get(it).addPrice(DoubleNum.valueOf(it), DoubleNum.valueOf(it))
+        }
+        def lastBar = bars.get(2)
+        def firstBar = bars.get(0)
+
+        when:
+        bars.remove(0)
+
+        then:
+        bars.size() == 2
+        bars.get(0).getClosePrice().doubleValue() == 1
+        lastBar.getClosePrice().doubleValue() == 2
+
+        when:
+        firstBar.getClosePrice()
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def 'given list keeping 100 bars when 100k bars added and oldest removed should keep capacity bounded'() {
+        given:
+        def bars = new ColumnarBarList(DoubleNum.&valueOf)
+
+        when:
+        100_000.times {
+            bars.add(new BaseBidAskBar(Duration.ofMinutes(1), MIDNIGHT.plusMinutes(it), DoubleNum.&valueOf))
+            if (bars.size() > 100) {
+                bars.remove(0)
+            }
+        }
+
+        then:
+        bars.size() == 100
+        bars.@endTime.length <= 200
+        bars.get(0).getEndTime() == MIDNIGHT.plusMinutes(99_900)
+        bars.get(99).getEndTime() == MIDNIGHT.plusMinutes(99_999)
+    }
+
+    def 'given bar when replaced should return previous bar unchanged'() {
+        given:
+        def bars = new ColumnarBarList(DoubleNum.&valueOf)
+        bars.add(new BaseBidAskBar(Duration.ofMinutes(1), MIDNIGHT, DoubleNum.&valueOf))
+        bars.get(0).addPrice(DoubleNum.valueOf(1), DoubleNum.valueOf(2))
+        def replacement = new BaseBidAskBar(Duration.ofMinutes(1), MIDNIGHT, DoubleNum.&valueOf)
+        replacement.addPrice(DoubleNum.valueOf(3), DoubleNum.valueOf(4))
+
+        when:
+        def previous = bars.set(0, replacement)
+
+        then:
+        previous.getOpenPrice().doubleValue() == 1
+        previous.getAskOpenPrice().doubleValue() == 2
+        previous.getEndTime() == MIDNIGHT
+        bars.get(0).getOpenPrice().doubleValue() == 3
+    }
+
+    def 'given 2 bars when oldest removed should return removed bar'() {
+        given:
+        def bars = new ColumnarBarList(DoubleNum.&valueOf)
+        2.times {
+            bars.add(new BaseBidAskBar(Duration.ofMinutes(1), MIDNIGHT.plusMinutes(it), DoubleNum.&valueOf))
+            bars.get(it).addTrade(DoubleNum.valueOf(10), DoubleNum.valueOf(it + 1))
+        }
+
+        when:
+        def removed = bars.remove(0)
+        bars.add(new BaseBidAskBar(Duration.ofMinutes(1), MIDNIGHT.plusMinutes(2), DoubleNum.&valueOf))
+
+        then:
+        removed.getClosePrice().doubleValue() == 1
+        removed.getVolume().doubleValue() == 10
+        removed.getTrades() == 1
+        removed.getEndTime() == MIDNIGHT
+    }
+
+    def 'given num function other than DoubleNum should throw an exception'() {
+        when:
+        new ColumnarBarList(PrecisionNum.&valueOf)
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message == "Columnar bars keep prices as doubles and support only DoubleNum, not [PrecisionNum]"
+    }
+
+    def 'given bar with different time period when added should throw an exception'() {
+        given:
+        def bars = new ColumnarBarList(DoubleNum.&valueOf)
+        bars.add(new BaseBidAskBar(Duration.ofMinutes(1), MIDNIGHT, DoubleNum.&valueOf))
+
+        when:
+        bars.add(new BaseBidAskBar(Duration.ofMinutes(5), MIDNIGHT.plusMinutes(5), DoubleNum.&valueOf))
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    @Unroll
+    def 'given market data with max bar count (#maxBarCount) when the same quotes added should have bars equal to object storage'() {
+        given:
+        def objectMarketData = createMarketData(BarStorageFactory.objects(), maxBarCount)
+        def columnarMarketData = createMarketData(BarStorageFactory.columnar(), maxBarCount)
+
+        when:
+        37.times {
+            def quote = Quote.bidAsk("symbol", MIDNIGHT.plusSeconds(it * 20), 1 + (it % 7) * 0.1, 1.1 + (it % 5) * 0.1)
+            objectMarketData.add(quote)
+            columnarMarketData.add(quote)
+        }
+
+        then:
+        [BarPeriod.M1, BarPeriod.M5].each { barPeriod ->
+            def expected = objectMarketData.of("symbol").getTimeSeries(barPeriod)
+            def actual = columnarMarketData.of("symbol").getTimeSeries(barPeriod)
+            assert actual.getBarCount() == expected.getBarCount()
+            assert actual.getBeginIndex() == expected.getBeginIndex()
+            assert actual.getEndIndex() == expected.getEndIndex()
+            for (int i = expected.getBeginIndex(); i <= expected.getEndIndex(); i++) {
+                assert actual.getBar(i).toString() == expected.getBar(i).toString()
+            }
+        }
+
+        where:
+        maxBarCount << [2, Integer.MAX_VALUE]
+    }
+
+    private static createMarketData(BarStorageFactory barStorageFactory, int maxBarCount) {
+        MarketDataBuilder.basedOn(StructureDefinition.model(new BidAskBarFactory())
+                                                     .storage(barStorageFactory)
+                                                     .numTypeOf(DoubleNum.&valueOf)
+                                                     .resolution(TimeSeriesDefinition.limited(BarPeriod.M1, maxBarCount)))
+                         .symbols("symbol")
+                         .aggregate(TimeSeriesDefinition.Group.of("symbol")
+                                                              .add(TimeSeriesDefinition.limited(BarPeriod.M5, maxBarCount)))
+                         .build()
+    }
+}
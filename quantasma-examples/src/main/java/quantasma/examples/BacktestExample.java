@@ -10,7 +10,7 @@ import quantasma.core.MarketDataBuilder;
 import quantasma.core.StructureDefinition;
 import quantasma.core.TestManager;
 import quantasma.core.TradeStrategy;
-import quantasma.core.timeseries.ReflectionManualIndexTimeSeries;
+import quantasma.core.timeseries.BaseManualIndexTimeSeries;
 import quantasma.core.timeseries.TimeSeriesDefinition;
 import quantasma.core.timeseries.bar.BidAskBar;
 import quantasma.core.timeseries.bar.BidAskBarFactory;
@@ -25,7 +25,7 @@ public class BacktestExample {
                                  .symbols("EURUSD")
                                  .aggregate(TimeSeriesDefinition.Group.of("EURUSD")
                                                                       .add(TimeSeriesDefinition.unlimited(BarPeriod.M5)))
-                                 .wrap(ReflectionManualIndexTimeSeries::wrap)
+                                 .wrap(BaseManualIndexTimeSeries::wrap)
                                  .build();
 
         final Context context = new BaseContext.Builder()
@@ -12,7 +12,7 @@ import quantasma.core.TestManager;
 import quantasma.core.TradeStrategy;
 import quantasma.core.analysis.parametrize.Producer;
 import quantasma.core.analysis.parametrize.Variables;
-import quantasma.core.timeseries.ReflectionManualIndexTimeSeries;
+import quantasma.core.timeseries.BaseManualIndexTimeSeries;
 import quantasma.core.timeseries.TimeSeriesDefinition;
 import quantasma.core.timeseries.bar.BidAskBar;
 import quantasma.core.timeseries.bar.BidAskBarFactory;
@@ -31,7 +31,7 @@ public class ParametrizedBacktestExample {
                                  .symbols("EURUSD")
                                  .aggregate(TimeSeriesDefinition.Group.of("EURUSD")
                                                                       .add(TimeSeriesDefinition.unlimited(BarPeriod.M5)))
-                                 .wrap(ReflectionManualIndexTimeSeries::wrap)
+                                 .wrap(BaseManualIndexTimeSeries::wrap)
                                  .build();
 
         final Context context = new BaseContext.Builder()
@@ -0,0 +1,42 @@
+package quantasma.integrations.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded history of the most recently published events, used to resume streams of subscribers which reconnect.
+ */
+final class EventJournal {
+    private final SequencedEvent<?>[] events;
+    private long lastSequence = SequencedEvent.UNASSIGNED;
+
+    EventJournal(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException(String.format("Journal capacity [%s] must not be negative", capacity));
+        }
+        this.events = new SequencedEvent<?>[capacity];
+    }
+
+    /**
+     * Events must be appended in order of their sequences, without gaps
+     */
+    synchronized void append(SequencedEvent<?> event) {
+        lastSequence = event.sequence();
+        if (events.length > 0) {
+            events[(int) (lastSequence % events.length)] = event;
+        }
+    }
+
+    synchronized List<SequencedEvent<?>> after(long sequence) {
+        final long from = Math.max(sequence + 1, lastSequence - events.length + 1);
+        final List<SequencedEvent<?>> result = new ArrayList<>((int) Math.max(0, lastSequence - from + 1));
+        for (long next = from; next <= lastSequence; next++) {
+            result.add(events[(int) (next % events.length)]);
+        }
+        return result;
+    }
+
+    synchronized long lastSequence() {
+        return lastSequence;
+    }
+}
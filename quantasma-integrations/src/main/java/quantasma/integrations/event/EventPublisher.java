@@ -1,24 +1,91 @@
 package quantasma.integrations.event;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.concurrent.Flow;
 import java.util.concurrent.SubmissionPublisher;
 
 public interface EventPublisher extends Flow.Publisher<Event> {
+    int DEFAULT_JOURNAL_CAPACITY = 1024;
 
+    /**
+     * Assigns the next sequence of this publisher to a {@link SequencedEvent}
+     */
     void publish(Event event);
 
     void close();
 
+    /**
+     * @return events with a sequence greater than the given one which are still retained by this publisher, ordered by sequence
+     */
+    default List<SequencedEvent<?>> publishedAfter(long sequence) {
+        return List.of();
+    }
+
+    /**
+     * @return sequence of the last published event, {@link SequencedEvent#UNASSIGNED} if there is none
+     */
+    default long lastSequence() {
+        return SequencedEvent.UNASSIGNED;
+    }
+
+    /**
+     * Sequences start over with every publisher, so they are valid only together with the epoch of the publisher which assigned them
+     *
+     * @return epoch of this publisher, a part of ids of {@link SequencedEvent}s it publishes
+     */
+    default String epoch() {
+        return SequencedEvent.NO_EPOCH;
+    }
+
     static EventPublisher instance() {
-        return new EventPublisherImpl();
+        return instance(DEFAULT_JOURNAL_CAPACITY);
+    }
+
+    /**
+     * @param journalCapacity number of the most recent events retained for {@link #publishedAfter(long)}
+     */
+    static EventPublisher instance(int journalCapacity) {
+        return new EventPublisherImpl(journalCapacity);
     }
 
     final class EventPublisherImpl extends SubmissionPublisher<Event> implements EventPublisher {
+        private final Object publishLock = new Object();
+        private final EventJournal journal;
+        private final String epoch = SequencedEvent.epoch(Instant.now());
+        private long sequence = SequencedEvent.UNASSIGNED;
+
+        private EventPublisherImpl(int journalCapacity) {
+            this.journal = new EventJournal(journalCapacity);
+        }
 
         @Override
         public void publish(Event event) {
-            submit(event);
+            // events may be published by many threads, sequences have to follow the order of submission
+            synchronized (publishLock) {
+                if (event instanceof SequencedEvent) {
+                    final SequencedEvent<?> sequencedEvent = (SequencedEvent<?>) event;
+                    sequencedEvent.assignSequence(epoch, sequence + 1);
+                    sequence++;
+                    journal.append(sequencedEvent);
+                }
+                submit(event);
+            }
         }
 
+        @Override
+        public List<SequencedEvent<?>> publishedAfter(long sequence) {
+            return journal.after(sequence);
+        }
+
+        @Override
+        public long lastSequence() {
+            return journal.lastSequence();
+        }
+
+        @Override
+        public String epoch() {
+            return epoch;
+        }
     }
 }
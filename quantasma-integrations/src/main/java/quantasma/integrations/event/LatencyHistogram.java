@@ -0,0 +1,76 @@
+package quantasma.integrations.event;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies in power-of-two nanosecond buckets, so recording is a constant time operation without allocations.
+ * Percentiles are reported as upper bounds of buckets, ie. with up to 2x overestimation.<p>
+ * Values must be recorded by a single thread, while they can be read by any thread.
+ */
+public final class LatencyHistogram {
+    private static final int BUCKETS_COUNT = 64;
+
+    /**
+     * Bucket {@code i} counts values from {@code [2^(i-1), 2^i)}, bucket 0 counts zeros
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS_COUNT);
+    private volatile long count;
+    private volatile long max;
+
+    public void record(long nanos) {
+        final long value = Math.max(0, nanos);
+        final int bucket = BUCKETS_COUNT - Long.numberOfLeadingZeros(value);
+        buckets.lazySet(bucket, buckets.get(bucket) + 1);
+        if (value > max) {
+            max = value;
+        }
+        count = count + 1;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    /**
+     * @param percentile from 0 to 100
+     * @return upper bound in nanoseconds of latencies of the given percentile, 0 when nothing was recorded
+     */
+    public long percentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException(String.format("Percentile [%s] is out of range", percentile));
+        }
+        final long total = count;
+        if (total == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS_COUNT; bucket++) {
+            seen += buckets.get(bucket);
+            if (seen >= rank) {
+                return Math.min(upperBound(bucket), max);
+            }
+        }
+        return max;
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket == BUCKETS_COUNT - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                             "count=%d, p50=%.1fus, p99=%.1fus, p99.9=%.1fus, max=%.1fus",
+                             count(), micros(percentile(50)), micros(percentile(99)), micros(percentile(99.9)), micros(max()));
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1_000.0;
+    }
+}
@@ -0,0 +1,15 @@
+package quantasma.integrations.event;
+
+/**
+ * What happens when a subscriber of {@link RingBufferEventPublisher} falls behind by the whole ring buffer capacity.
+ */
+public enum OverflowPolicy {
+    /**
+     * Publisher waits until the subscriber consumes its oldest event - no event is lost, but a slow subscriber slows down all of them
+     */
+    BLOCK,
+    /**
+     * Publisher overwrites events the subscriber did not consume yet, the subscriber skips them and continues with the oldest available one
+     */
+    DROP_OLDEST
+}
@@ -21,7 +21,8 @@ public class QuoteEventSubscriber implements Flow.Subscriber<Event> {
     public void onSubscribe(Flow.Subscription subscription) {
         log.info("Subscribed to events");
         this.subscription = subscription;
-        requestNext();
+        // quotes are processed synchronously by onNext, so the publisher's buffer bounds waiting events - no need to request them one by one
+        this.subscription.request(Long.MAX_VALUE);
     }
 
     @Override
@@ -29,11 +30,6 @@ public class QuoteEventSubscriber implements Flow.Subscriber<Event> {
         if (item instanceof QuoteEvent) {
             tradeEngine.process((Quote) item.data());
         }
-        requestNext();
-    }
-
-    private void requestNext() {
-        this.subscription.request(1);
     }
 
     @Override
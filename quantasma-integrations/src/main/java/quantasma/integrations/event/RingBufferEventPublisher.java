@@ -0,0 +1,340 @@
+package quantasma.integrations.event;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Event publisher backed by a preallocated ring buffer, shared by all subscribers.<p>
+ * {@link #publish(Event)} must be called by a single thread. It writes the event into the next slot and returns,
+ * unless a {@link OverflowPolicy#BLOCK} subscriber has not consumed the event previously held by that slot.
+ * Every subscriber has its own thread delivering events in batches of up to {@code batchSize} events, limited by the requested demand.
+ * A latency from {@code publish} to {@code onNext} is recorded for every delivered event - see {@link #subscriberStats()}.<p>
+ * Sequences of {@link SequencedEvent}s are sequences of their slots, so events still held by the ring buffer can be replayed
+ * by {@link #publishedAfter(long)} without any extra bookkeeping.
+ */
+@Slf4j
+public final class RingBufferEventPublisher implements EventPublisher {
+    private static final long INITIAL_SEQUENCE = -1;
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<Event> events;
+    private final AtomicLongArray publishTimes;
+    private final WaitStrategy waitStrategy;
+    private final int batchSize;
+    private final OverflowPolicy defaultOverflowPolicy;
+    private final String epoch = SequencedEvent.epoch(Instant.now());
+    /**
+     * Sequence being written - announced before its slot is overwritten, so lagging subscribers can detect events lost in the meantime
+     */
+    private final AtomicLong claimed = new AtomicLong(INITIAL_SEQUENCE);
+    /**
+     * Last sequence visible to subscribers
+     */
+    private final AtomicLong cursor = new AtomicLong(INITIAL_SEQUENCE);
+    private final AtomicInteger subscriptionsCounter = new AtomicInteger();
+    /**
+     * Copied on change - read by the publishing thread on every event
+     */
+    private volatile RingSubscription[] subscriptions = new RingSubscription[0];
+    private volatile boolean closed;
+
+    private RingBufferEventPublisher(Builder builder) {
+        this.capacity = builder.capacity;
+        this.mask = builder.capacity - 1;
+        this.events = new AtomicReferenceArray<>(builder.capacity);
+        this.publishTimes = new AtomicLongArray(builder.capacity);
+        this.waitStrategy = builder.waitStrategy;
+        this.batchSize = builder.batchSize;
+        this.defaultOverflowPolicy = builder.overflowPolicy;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public void publish(Event event) {
+        Objects.requireNonNull(event);
+        if (closed) {
+            throw new IllegalStateException("Event publisher is closed");
+        }
+        final long sequence = cursor.get() + 1;
+        if (event instanceof SequencedEvent) {
+            ((SequencedEvent<?>) event).assignSequence(epoch, sequence);
+        }
+        awaitBlockingSubscribers(sequence - capacity);
+
+        final int slot = (int) (sequence & mask);
+        claimed.set(sequence);
+        events.set(slot, event);
+        publishTimes.set(slot, System.nanoTime());
+        cursor.set(sequence);
+    }
+
+    @Override
+    public List<SequencedEvent<?>> publishedAfter(long sequence) {
+        final long last = cursor.get();
+        final List<SequencedEvent<?>> result = new ArrayList<>();
+        for (long next = Math.max(sequence + 1, last - capacity + 1); next <= last; next++) {
+            final Event event = events.get((int) (next & mask));
+            // skips slots overwritten in the meantime
+            if (event instanceof SequencedEvent && ((SequencedEvent<?>) event).sequence() == next) {
+                result.add((SequencedEvent<?>) event);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public long lastSequence() {
+        return cursor.get();
+    }
+
+    @Override
+    public String epoch() {
+        return epoch;
+    }
+
+    private void awaitBlockingSubscribers(long requiredSequence) {
+        for (RingSubscription subscription : subscriptions) {
+            if (subscription.overflowPolicy == OverflowPolicy.BLOCK) {
+                while (subscription.consumed.get() < requiredSequence && !subscription.cancelled) {
+                    waitStrategy.idle();
+                }
+            }
+        }
+    }
+
+    /**
+     * Subscribes with the default overflow policy of this publisher
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super Event> subscriber) {
+        subscribe(subscriber, defaultOverflowPolicy);
+    }
+
+    /**
+     * Subscribes to events published from now on
+     */
+    public synchronized void subscribe(Flow.Subscriber<? super Event> subscriber, OverflowPolicy overflowPolicy) {
+        Objects.requireNonNull(subscriber);
+        Objects.requireNonNull(overflowPolicy);
+        final int number = subscriptionsCounter.incrementAndGet();
+        final RingSubscription subscription = new RingSubscription(subscriber, overflowPolicy, number);
+        subscriptions = append(subscriptions, subscription);
+
+        final Thread thread = new Thread(subscription, "event-subscriber-" + number);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private synchronized void unsubscribe(RingSubscription subscription) {
+        final List<RingSubscription> remaining = new ArrayList<>(Arrays.asList(subscriptions));
+        remaining.remove(subscription);
+        subscriptions = remaining.toArray(new RingSubscription[0]);
+    }
+
+    private static RingSubscription[] append(RingSubscription[] subscriptions, RingSubscription subscription) {
+        final RingSubscription[] appended = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+        appended[subscriptions.length] = subscription;
+        return appended;
+    }
+
+    /**
+     * Already published events are still delivered to subscribers, afterwards they are completed
+     */
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    public List<SubscriberStats> subscriberStats() {
+        final List<SubscriberStats> stats = new ArrayList<>();
+        for (RingSubscription subscription : subscriptions) {
+            stats.add(new SubscriberStats(subscription.name,
+                                          subscription.overflowPolicy,
+                                          subscription.delivered,
+                                          subscription.dropped,
+                                          subscription.latency));
+        }
+        return stats;
+    }
+
+    @Data
+    public static class SubscriberStats {
+        private final String name;
+        private final OverflowPolicy overflowPolicy;
+        private final long delivered;
+        private final long dropped;
+        /**
+         * From {@code publish} to {@code onNext}
+         */
+        private final LatencyHistogram latency;
+    }
+
+    private final class RingSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super Event> subscriber;
+        private final OverflowPolicy overflowPolicy;
+        private final String name;
+        /**
+         * Last delivered or dropped sequence, updated once per batch
+         */
+        private final AtomicLong consumed;
+        private final AtomicLong requested = new AtomicLong();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private volatile long delivered;
+        private volatile long dropped;
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+
+        private RingSubscription(Flow.Subscriber<? super Event> subscriber, OverflowPolicy overflowPolicy, int number) {
+            this.subscriber = subscriber;
+            this.overflowPolicy = overflowPolicy;
+            this.name = "subscriber-" + number + " (" + subscriber.getClass().getSimpleName() + ")";
+            this.consumed = new AtomicLong(cursor.get());
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException(String.format("Requested [%s] events, must be positive", n));
+                return;
+            }
+            requested.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public void run() {
+            try {
+                subscriber.onSubscribe(this);
+                deliverEvents();
+            } catch (RuntimeException e) {
+                log.error("Subscriber [{}] failed, cancelling its subscription", name, e);
+                cancelled = true;
+            } finally {
+                unsubscribe(this);
+                log.info("Subscription of [{}] finished, delivered [{}] events, dropped [{}], latency: {}", name, delivered, dropped, latency);
+            }
+        }
+
+        private void deliverEvents() {
+            long next = consumed.get() + 1;
+            while (!cancelled) {
+                if (invalidRequest != null) {
+                    cancelled = true;
+                    subscriber.onError(invalidRequest);
+                    return;
+                }
+                final long available = cursor.get();
+                if (next > available) {
+                    if (closed && next > cursor.get()) {
+                        cancelled = true;
+                        subscriber.onComplete();
+                        return;
+                    }
+                    waitStrategy.idle();
+                    continue;
+                }
+                final long demand = requested.get();
+                if (demand == 0) {
+                    waitStrategy.idle();
+                    continue;
+                }
+                next = deliverBatch(next, Math.min(available, next + Math.min(demand, batchSize) - 1), demand);
+            }
+        }
+
+        /**
+         * @return next sequence to deliver
+         */
+        private long deliverBatch(long from, long to, long demand) {
+            long next = from;
+            long batchDelivered = 0;
+            while (next <= to && !cancelled) {
+                final int slot = (int) (next & mask);
+                final Event event = events.get(slot);
+                final long publishTime = publishTimes.get(slot);
+                final long oldestAvailable = claimed.get() - capacity + 1;
+                if (next < oldestAvailable) { // slot overwritten while lagging behind
+                    dropped += oldestAvailable - next;
+                    next = oldestAvailable;
+                    break;
+                }
+                latency.record(System.nanoTime() - publishTime);
+                subscriber.onNext(event);
+                batchDelivered++;
+                next++;
+            }
+            consumed.set(next - 1);
+            delivered += batchDelivered;
+            if (demand != Long.MAX_VALUE) {
+                requested.addAndGet(-batchDelivered);
+            }
+            return next;
+        }
+    }
+
+    public static class Builder {
+        private int capacity = 1 << 14;
+        private WaitStrategy waitStrategy = WaitStrategy.PARK;
+        private int batchSize = 64;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+        /**
+         * Number of slots, must be a power of two
+         */
+        public Builder withCapacity(int capacity) {
+            if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+                throw new IllegalArgumentException(String.format("Capacity [%s] is not a power of two", capacity));
+            }
+            this.capacity = capacity;
+            return this;
+        }
+
+        public Builder withWaitStrategy(WaitStrategy waitStrategy) {
+            this.waitStrategy = Objects.requireNonNull(waitStrategy);
+            return this;
+        }
+
+        /**
+         * Maximum number of events delivered to a subscriber before its progress is published
+         */
+        public Builder withBatchSize(int batchSize) {
+            if (batchSize < 1) {
+                throw new IllegalArgumentException(String.format("Batch size [%s] must be positive", batchSize));
+            }
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Used by {@link RingBufferEventPublisher#subscribe(Flow.Subscriber)}
+         */
+        public Builder withOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+            return this;
+        }
+
+        public RingBufferEventPublisher build() {
+            return new RingBufferEventPublisher(this);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package quantasma.integrations.event;
+
+import java.time.Instant;
+
+/**
+ * Event identified by a sequence number assigned by the {@link EventPublisher} publishing it.<p>
+ * Sequences grow monotonically within a publisher, so a subscriber can tell which events it missed. Sequences start over
+ * with every publisher, so the string {@link #id()} is prefixed with the publisher's {@link EventPublisher#epoch()} -
+ * an id of another epoch, eg. sent by a client connected before a restart, does not point to any event of the publisher.
+ * The id is derived only when requested, ie. when the event is serialized, not for every published event.
+ */
+public abstract class SequencedEvent<D> implements Event<D> {
+    public static final long UNASSIGNED = -1;
+    /**
+     * Epoch of publishers which do not retain events
+     */
+    public static final String NO_EPOCH = "0";
+
+    private static final char EPOCH_SEPARATOR = '-';
+
+    private long sequence = UNASSIGNED;
+    private String epoch;
+    private String id;
+
+    /**
+     * @return sequence assigned by a publisher, {@link #UNASSIGNED} when the event was not published yet
+     */
+    public long sequence() {
+        return sequence;
+    }
+
+    /**
+     * @return epoch of the publisher, {@code null} when the event was not published yet
+     */
+    public String epoch() {
+        return epoch;
+    }
+
+    /**
+     * @return epoch and sequence formatted as a string, {@code null} when the event was not published yet
+     */
+    @Override
+    public String id() {
+        if (id == null && sequence != UNASSIGNED) {
+            id = id(epoch, sequence);
+        }
+        return id;
+    }
+
+    /**
+     * Called by a publisher before the event becomes visible to subscribers
+     */
+    void assignSequence(String epoch, long sequence) {
+        if (this.sequence != UNASSIGNED) {
+            throw new IllegalStateException(String.format("Event [%s] is already published with sequence [%s]", name(), this.sequence));
+        }
+        this.epoch = epoch;
+        this.sequence = sequence;
+    }
+
+    /**
+     * @return epoch of a publisher started at the given instant
+     */
+    public static String epoch(Instant start) {
+        return Long.toString(start.toEpochMilli(), Character.MAX_RADIX);
+    }
+
+    public static String id(String epoch, long sequence) {
+        return epoch + EPOCH_SEPARATOR + sequence;
+    }
+
+    /**
+     * Reverse of {@link #id(String, long)}
+     *
+     * @return sequence of the given id, {@link #UNASSIGNED} when the id was not created from a sequence of the given epoch
+     */
+    public static long sequence(String id, String epoch) {
+        if (id == null || epoch == null || !id.startsWith(epoch)
+            || id.length() <= epoch.length() + 1 || id.charAt(epoch.length()) != EPOCH_SEPARATOR) {
+            return UNASSIGNED;
+        }
+        try {
+            final long sequence = Long.parseLong(id.substring(epoch.length() + 1));
+            return sequence < 0 ? UNASSIGNED : sequence;
+        } catch (NumberFormatException e) {
+            return UNASSIGNED;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package quantasma.integrations.event;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How a thread of {@link RingBufferEventPublisher} waits for events, demand or free space - a trade-off between latency and CPU usage.
+ */
+public enum WaitStrategy {
+    /**
+     * Lowest latency, occupies a whole core per waiting thread
+     */
+    BUSY_SPIN {
+        @Override
+        void idle() {
+            Thread.onSpinWait();
+        }
+    },
+    /**
+     * Low latency, gives the core up to other runnable threads
+     */
+    YIELD {
+        @Override
+        void idle() {
+            Thread.yield();
+        }
+    },
+    /**
+     * Sleeps 50 microseconds between checks, barely uses CPU
+     */
+    PARK {
+        @Override
+        void idle() {
+            LockSupport.parkNanos(50_000);
+        }
+    };
+
+    abstract void idle();
+}
@@ -0,0 +1,105 @@
+package quantasma.integrations.event
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Flow
+import java.util.concurrent.TimeUnit
+
+class RingBufferEventPublisherOverflowSpec extends Specification {
+
+    @Unroll
+    def 'given blocking subscriber slower than publisher when using (#waitStrategy) should deliver all events in order'() {
+        given:
+        def publisher = RingBufferEventPublisher.builder()
+                                                .withCapacity(16)
+                                                .withBatchSize(4)
+                                                .withWaitStrategy(waitStrategy)
+                                                .build()
+        def subscriber = new CollectingSubscriber(requestOneByOne: true)
+        publisher.subscribe(subscriber, OverflowPolicy.BLOCK)
+
+        when:
+        1000.times { publisher.publish(new EventPublisherSpec.TestEvent(data: it)) }
+        publisher.close()
+
+        then:
+        subscriber.completed.await(10, TimeUnit.SECONDS)
+        subscriber.events == (0..<1000).toList()
+
+        where:
+        waitStrategy << WaitStrategy.values()
+    }
+
+    def 'given dropping subscriber without demand should receive only the newest events'() {
+        given:
+        def publisher = RingBufferEventPublisher.builder()
+                                                .withCapacity(16)
+                                                .withOverflowPolicy(OverflowPolicy.DROP_OLDEST)
+                                                .build()
+        def subscriber = new CollectingSubscriber()
+        publisher.subscribe(subscriber)
+
+        when:
+        100.times { publisher.publish(new EventPublisherSpec.TestEvent(data: it)) }
+        def stats = publisher.subscriberStats().first()
+        subscriber.subscribed.await(10, TimeUnit.SECONDS)
+        subscriber.subscription.request(Long.MAX_VALUE)
+        publisher.close()
+
+        then:
+        subscriber.completed.await(10, TimeUnit.SECONDS)
+        subscriber.events == (84..<100).toList()
+        stats.overflowPolicy == OverflowPolicy.DROP_OLDEST
+    }
+
+    def 'given recorded latencies should return upper bounds of percentiles'() {
+        given:
+        def histogram = new LatencyHistogram()
+
+        when:
+        (1..100).each { histogram.record(it * 1000) }
+
+        then:
+        histogram.count() == 100
+        histogram.max() == 100_000
+        histogram.percentile(50) == 65_535
+        histogram.percentile(100) == 100_000
+    }
+
+    static class CollectingSubscriber implements Flow.Subscriber<Event> {
+        List<Integer> events = new CopyOnWriteArrayList<>()
+        CountDownLatch subscribed = new CountDownLatch(1)
+        CountDownLatch completed = new CountDownLatch(1)
+        boolean requestOneByOne
+        volatile Flow.Subscription subscription
+
+        @Override
+        void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription
+            subscribed.countDown()
+            if (requestOneByOne) {
+                subscription.request(1)
+            }
+        }
+
+        @Override
+        void onNext(Event item) {
+            events << (Integer) item.data()
+            if (requestOneByOne) {
+                subscription.request(1)
+            }
+        }
+
+        @Override
+        void onError(Throwable throwable) {
+        }
+
+        @Override
+        void onComplete() {
+            completed.countDown()
+        }
+    }
+}
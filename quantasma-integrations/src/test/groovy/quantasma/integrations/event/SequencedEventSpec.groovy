@@ -0,0 +1,109 @@
+package quantasma.integrations.event
+
+import quantasma.core.Quote
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.time.Instant
+import java.time.ZonedDateTime
+
+class SequencedEventSpec extends Specification {
+
+    private static final ZonedDateTime TIME = ZonedDateTime.now()
+
+    @Unroll
+    def 'given events published by #publisherName should assign consecutive sequences and ids'() {
+        given:
+        def events = (0..<5).collect { Event.quote(Quote.bidAsk("EURUSD", TIME, it, it)) }
+
+        when:
+        events.each { publisher.publish(it) }
+        publisher.close()
+
+        then:
+        events*.sequence() == (0..<5).collect { it as long }
+        events*.id() == (0..<5).collect { "${publisher.epoch()}-${it}" as String }
+        events*.epoch().every { it == publisher.epoch() }
+        publisher.lastSequence() == 4
+
+        where:
+        publisherName | publisher
+        "submission"  | EventPublisher.instance()
+        "ring buffer" | RingBufferEventPublisher.builder().build()
+    }
+
+    def 'given not published event should have no id'() {
+        when:
+        def event = Event.accountState(new AccountState(1, 1, 0, 0, 0, "USD", 100))
+
+        then:
+        event.sequence() == SequencedEvent.UNASSIGNED
+        event.id() == null
+    }
+
+    def 'given event published twice should throw an exception'() {
+        given:
+        def publisher = EventPublisher.instance()
+        def event = Event.quote(Quote.bidAsk("EURUSD", TIME, 1, 1))
+        publisher.publish(event)
+
+        when:
+        publisher.publish(event)
+
+        then:
+        thrown(IllegalStateException)
+        publisher.lastSequence() == 0
+    }
+
+    @Unroll
+    def 'given #publishedCount events published by #publisherName should replay retained events after sequence (#afterSequence)'() {
+        given:
+        publishedCount.times { publisher.publish(Event.quote(Quote.bidAsk("EURUSD", TIME, it, it))) }
+
+        when:
+        def replayed = publisher.publishedAfter(afterSequence)
+
+        then:
+        replayed*.sequence() == expectedSequences.collect { it as long }
+
+        where:
+        publisherName | publisher                                                  | publishedCount | afterSequence | expectedSequences
+        "submission"  | EventPublisher.instance(4)                                 | 10             | 6             | [7, 8, 9]
+        "submission"  | EventPublisher.instance(4)                                 | 10             | 1             | [6, 7, 8, 9]
+        "submission"  | EventPublisher.instance(4)                                 | 10             | 9             | []
+        "submission"  | EventPublisher.instance(0)                                 | 10             | 1             | []
+        "ring buffer" | RingBufferEventPublisher.builder().withCapacity(4).build() | 10             | 6             | [7, 8, 9]
+        "ring buffer" | RingBufferEventPublisher.builder().withCapacity(4).build() | 10             | -1            | [6, 7, 8, 9]
+    }
+
+    @Unroll
+    def 'given id (#id) and epoch (#epoch) should parse sequence (#sequence)'() {
+        expect:
+        SequencedEvent.sequence(id, epoch) == sequence
+
+        where:
+        id                                               | epoch    || sequence
+        "k3x9a1-42"                                      | "k3x9a1" || 42
+        "k3x9a1-0"                                       | "k3x9a1" || 0
+        SequencedEvent.id("k3x9a1", 7)                   | "k3x9a1" || 7
+        "k3x9a0-42"                                      | "k3x9a1" || SequencedEvent.UNASSIGNED
+        "k3x9a1x-42"                                     | "k3x9a1" || SequencedEvent.UNASSIGNED
+        "42"                                             | "k3x9a1" || SequencedEvent.UNASSIGNED
+        "k3x9a1-"                                        | "k3x9a1" || SequencedEvent.UNASSIGNED
+        "k3x9a1--5"                                      | "k3x9a1" || SequencedEvent.UNASSIGNED
+        null                                             | "k3x9a1" || SequencedEvent.UNASSIGNED
+        ""                                               | "k3x9a1" || SequencedEvent.UNASSIGNED
+        "2018-11-20T00:00Z_6f1c2a3e-0000-0000-0000-000"  | "k3x9a1" || SequencedEvent.UNASSIGNED
+    }
+
+    def 'given id of a publisher started earlier should not be a sequence of a later one'() {
+        given:
+        def before = SequencedEvent.epoch(Instant.parse("2018-11-20T00:00:00Z"))
+        def after = SequencedEvent.epoch(Instant.parse("2018-11-20T00:05:00Z"))
+
+        expect:
+        before != after
+        SequencedEvent.sequence(SequencedEvent.id(before, 3), after) == SequencedEvent.UNASSIGNED
+        SequencedEvent.sequence(SequencedEvent.id(after, 3), after) == 3
+    }
+}